@@ -13,6 +13,7 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import com.joyzl.network.buffer.DataBufferUnit;
 import com.joyzl.network.chain.UDPClientReceiver;
 import com.joyzl.network.chain.UDPServerReceiver;
 
@@ -61,12 +62,20 @@ public final class Executor {
 			// 初始化NIO.1线程
 			UDPServerReceiver.initialize();
 			UDPClientReceiver.initialize();
+			size += UDPServerReceiver.size() - 1;
 
 			// 初始化NIO.2线程
 			CHANNEL_GROUP = AsynchronousChannelGroup.withFixedThreadPool(theadSize, new ThreadFactory("nio.2-"));
 
 			// 初始化业务线程池
 			WORK_THREAD_POOL = new ScheduledThreadPoolExecutor(theadSize, new ThreadFactory("work-"));
+			// 缓存单元定期缩减
+			WORK_THREAD_POOL.scheduleWithFixedDelay(DataBufferUnit.POOL_DAEMON, 10, 10, TimeUnit.SECONDS);
+			// 时间轮推进，立即推进一次以更新粗略时钟
+			// 到期任务派发到业务线程池执行
+			TimerWheel.WHEEL.dispatch(WORK_THREAD_POOL);
+			TimerWheel.WHEEL.advance(System.currentTimeMillis());
+			WORK_THREAD_POOL.scheduleAtFixedRate(TimerWheel.WHEEL_DAEMON, TimerWheel.TICK, TimerWheel.TICK, TimeUnit.MILLISECONDS);
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
@@ -97,6 +106,7 @@ public final class Executor {
 			} catch (InterruptedException e) {
 				e.printStackTrace();
 			} finally {
+				TimerWheel.WHEEL.dispatch(null);
 				WORK_THREAD_POOL = null;
 			}
 		}
@@ -4,6 +4,7 @@
  */
 package com.joyzl.network;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -63,6 +64,21 @@ public class StringSeeker implements Iterable<String> {
 		return chars.toString();
 	}
 
+	/**
+	 * 获取与字节片段(ASCII)匹配的字符串常量实例，如果没有匹配项将创建字符串实例；
+	 * 解码时可直接从接收的字节查找常量，不必构建中间字符串。
+	 */
+	public String get(byte[] bytes, int offset, int length) {
+		final String[] constants = dichotomy(length);
+		if (constants != null) {
+			final String constant = simple(constants, bytes, offset, length);
+			if (constant != null) {
+				return constant;
+			}
+		}
+		return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+	}
+
 	/**
 	 * 获取匹配的字符串常量实例，如果没有匹配项将返回null
 	 */
@@ -126,7 +142,7 @@ public class StringSeeker implements Iterable<String> {
 			while (ben < end) {
 				p = ben + (end - ben) / 2;
 				t = constants[p].charAt(i);
-				if (c == t || (t ^ c) == 32) {
+				if (same(c, t)) {
 					// 缩小范围
 					if (end - ben > 1) {
 						_end = p;
@@ -135,7 +151,7 @@ public class StringSeeker implements Iterable<String> {
 						while (ben < _end) {
 							p = ben + (_end - ben) / 2;
 							t = constants[p].charAt(i);
-							if (c == t || (t ^ c) == 32) {
+							if (same(c, t)) {
 								_end = p;
 							} else {
 								ben = p + 1;
@@ -145,7 +161,7 @@ public class StringSeeker implements Iterable<String> {
 						while (_ben < end) {
 							p = _ben + (end - _ben) / 2;
 							t = constants[p].charAt(i);
-							if (c == t || (t ^ c) == 32) {
+							if (same(c, t)) {
 								_ben = p + 1;
 							} else {
 								end = p;
@@ -182,23 +198,57 @@ public class StringSeeker implements Iterable<String> {
 	}
 
 	/**
-	 * 顺序查找匹配字符串
+	 * 顺序查找匹配字符串，每个常量均从首字符开始完整比较
 	 */
 	private String simple(String[] constants, CharSequence chars) {
-		int index = 0, c = 0, c1, c2;
-		while (true) {
-			c1 = chars.charAt(index);
-			c2 = constants[c].charAt(index);
-			if (c1 == c2 || (c1 ^ c2) == 32) {
-				if (++index >= chars.length()) {
-					return constants[c];
+		int index;
+		String constant;
+		for (int c = 0; c < constants.length; c++) {
+			constant = constants[c];
+			for (index = 0; index < chars.length(); index++) {
+				if (!same(chars.charAt(index), constant.charAt(index))) {
+					break;
 				}
-			} else {
-				if (++c >= constants.length) {
-					return null;
+			}
+			if (index >= chars.length()) {
+				return constant;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 顺序查找匹配字节片段，每个常量均从首字节开始完整比较
+	 */
+	private String simple(String[] constants, byte[] bytes, int offset, int length) {
+		int index;
+		String constant;
+		for (int c = 0; c < constants.length; c++) {
+			constant = constants[c];
+			for (index = 0; index < length; index++) {
+				if (!same(bytes[offset + index] & 0xFF, constant.charAt(index))) {
+					break;
 				}
 			}
+			if (index >= length) {
+				return constant;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 字符相同，仅ASCII字母忽略大小写
+	 */
+	static boolean same(int c1, int c2) {
+		if (c1 == c2) {
+			return true;
+		}
+		if ((c1 ^ c2) == 32) {
+			c1 |= 32;
+			return c1 >= 'a' && c1 <= 'z';
 		}
+		return false;
 	}
 
 	/**
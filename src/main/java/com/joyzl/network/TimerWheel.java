@@ -0,0 +1,265 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 哈希时间轮
+ * <p>
+ * 时间按刻度(tick)划分，到期时间按刻度序号散列到固定数量的槽位，每个槽位为双向链表；
+ * 加入和取消均为O(1)，推进时仅检查经过的槽位，超过一圈的任务保留在槽位中直至到期刻度。
+ * 到期任务在锁之外执行，指定了派发执行器时投递到执行器，否则在推进线程中执行；
+ * 执行异常由任务的{@link Timeout#failed(Throwable)}处理，不会中断推进。
+ * </p>
+ * <p>
+ * 默认实例{@link #WHEEL}由执行器初始化后以{@link #WHEEL_DAEMON}按刻度推进，到期任务派发到业务线程池，
+ * 缓慢或阻塞的任务不会推迟其它任务的到期。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月25日
+ */
+public final class TimerWheel {
+
+	/** 默认刻度(毫秒) */
+	public final static long TICK = 100;
+	/** 默认时间轮，刻度100毫秒，512槽位(约51秒一圈) */
+	public final static TimerWheel WHEEL = new TimerWheel(TICK, 512);
+
+	/** 默认时间轮推进 */
+	public final static Runnable WHEEL_DAEMON = new Runnable() {
+		@Override
+		public void run() {
+			// 周期任务抛出异常将被取消，推进不能中断
+			try {
+				WHEEL.advance(System.currentTimeMillis());
+			} catch (Throwable e) {
+				e.printStackTrace();
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "WHEEL DAEMON";
+		}
+	};
+
+	/**
+	 * 时间轮任务，同一任务同时只能在时间轮中出现一次，重复加入将重新计时
+	 */
+	public static abstract class Timeout {
+
+		// 以下字段由时间轮锁保护，状态字段可在锁外读取
+		private Timeout prev, next;
+		private volatile long deadline;
+		private volatile int slot = -1;
+
+		/** 是否在时间轮中等待 */
+		public final boolean scheduled() {
+			return slot >= 0;
+		}
+
+		/** 到期时间戳(毫秒) */
+		public final long deadline() {
+			return deadline;
+		}
+
+		/** 到期执行 */
+		protected abstract void expired(long timestamp);
+
+		/** 到期执行异常，默认输出异常信息，可重写以通知链路的处理对象 */
+		protected void failed(Throwable e) {
+			e.printStackTrace();
+		}
+	}
+
+	/** 执行到期任务并处理异常 */
+	static void expire(Timeout timeout, long timestamp) {
+		try {
+			timeout.expired(timestamp);
+		} catch (Throwable e) {
+			try {
+				timeout.failed(e);
+			} catch (Throwable x) {
+				x.printStackTrace();
+			}
+		}
+	}
+
+	////////////////////////////////////////////////////////////////////////////////
+
+	private final long tick;
+	private final int mask;
+	private final Timeout[] slots;
+	private long current;
+	private int size;
+	/** 到期任务派发执行器，null 在推进线程中执行 */
+	private volatile java.util.concurrent.Executor executor;
+	/** 最近推进的时间戳，作为粗略时钟 */
+	private volatile long timestamp;
+
+	/**
+	 * @param tick 刻度(毫秒)
+	 * @param count 槽位数量，将调整为2的幂
+	 */
+	public TimerWheel(long tick, int count) {
+		if (tick <= 0) {
+			throw new IllegalArgumentException("刻度无效:" + tick);
+		}
+		int n = 1;
+		while (n < count) {
+			n <<= 1;
+		}
+		this.tick = tick;
+		mask = n - 1;
+		slots = new Timeout[n];
+		timestamp = System.currentTimeMillis();
+		current = timestamp / tick;
+	}
+
+	/**
+	 * 加入任务，如果任务已在时间轮中则重新计时
+	 *
+	 * @param delay 延迟(毫秒)
+	 */
+	public void schedule(Timeout timeout, long delay) {
+		final long deadline = System.currentTimeMillis() + delay;
+		synchronized (this) {
+			if (timeout.slot >= 0) {
+				unlink(timeout);
+			}
+			timeout.deadline = deadline;
+			// 向上取整，不早于到期时间执行
+			long index = (deadline + tick - 1) / tick;
+			if (index <= current) {
+				index = current + 1;
+			}
+			link(timeout, (int) (index & mask));
+		}
+	}
+
+	/**
+	 * 取消任务
+	 *
+	 * @return true 已取消 / false 任务未在时间轮中
+	 */
+	public synchronized boolean cancel(Timeout timeout) {
+		if (timeout.slot >= 0) {
+			unlink(timeout);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * 推进到指定时间，执行所有到期任务
+	 *
+	 * @return 到期任务数量
+	 */
+	public int advance(long timestamp) {
+		final long target = timestamp / tick;
+		List<Timeout> expired = null;
+		synchronized (this) {
+			if (timestamp > this.timestamp) {
+				this.timestamp = timestamp;
+			}
+			if (target <= current) {
+				return 0;
+			}
+			// 间隔超过一圈时每个槽位仅检查一次
+			final long end = Math.min(target, current + slots.length);
+			Timeout timeout, next;
+			while (current < end) {
+				current++;
+				timeout = slots[(int) (current & mask)];
+				while (timeout != null) {
+					next = timeout.next;
+					if (timeout.deadline <= timestamp) {
+						unlink(timeout);
+						if (expired == null) {
+							expired = new ArrayList<>();
+						}
+						expired.add(timeout);
+					}
+					timeout = next;
+				}
+			}
+			current = target;
+		}
+		if (expired != null) {
+			final java.util.concurrent.Executor executor = this.executor;
+			Timeout timeout;
+			for (int index = 0; index < expired.size(); index++) {
+				timeout = expired.get(index);
+				if (executor == null) {
+					expire(timeout, timestamp);
+				} else {
+					final Timeout t = timeout;
+					try {
+						executor.execute(() -> expire(t, timestamp));
+					} catch (RejectedExecutionException e) {
+						// 执行器已关闭
+						expire(timeout, timestamp);
+					}
+				}
+			}
+			return expired.size();
+		}
+		return 0;
+	}
+
+	/**
+	 * 设置到期任务派发执行器
+	 *
+	 * @param value 执行器，null 在推进线程中执行
+	 */
+	public void dispatch(java.util.concurrent.Executor value) {
+		executor = value;
+	}
+
+	private void link(Timeout timeout, int slot) {
+		timeout.slot = slot;
+		timeout.prev = null;
+		timeout.next = slots[slot];
+		if (timeout.next != null) {
+			timeout.next.prev = timeout;
+		}
+		slots[slot] = timeout;
+		size++;
+	}
+
+	private void unlink(Timeout timeout) {
+		if (timeout.prev == null) {
+			slots[timeout.slot] = timeout.next;
+		} else {
+			timeout.prev.next = timeout.next;
+		}
+		if (timeout.next != null) {
+			timeout.next.prev = timeout.prev;
+		}
+		timeout.prev = timeout.next = null;
+		timeout.slot = -1;
+		size--;
+	}
+
+	/**
+	 * 最近推进的时间戳，由推进线程更新的粗略时钟，误差为一个刻度
+	 */
+	public long timestamp() {
+		return timestamp;
+	}
+
+	/** 刻度(毫秒) */
+	public long tick() {
+		return tick;
+	}
+
+	/** 等待中的任务数量 */
+	public synchronized int size() {
+		return size;
+	}
+}
@@ -16,6 +16,7 @@ import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.joyzl.codec.BigEndianDataInput;
 import com.joyzl.codec.BigEndianDataOutput;
@@ -51,6 +52,8 @@ public class DataBuffer implements Verifiable, DataInput, DataOutput, //
 
 	// 对象实例缓存
 	private final static ConcurrentLinkedQueue<DataBuffer> BYTE_BUFFERS = new ConcurrentLinkedQueue<>();
+	// 已创建实例数量
+	private final static AtomicInteger INSTANCES = new AtomicInteger();
 
 	public final static DataBuffer instance() {
 		DataBuffer buffer = BYTE_BUFFERS.poll();
@@ -61,6 +64,24 @@ public class DataBuffer implements Verifiable, DataInput, DataOutput, //
 			buffer.length = 0;
 			buffer.bigEndian();
 		}
+		// 泄漏检测采样
+		buffer.trace = DataBufferLeak.track(buffer);
+		return buffer;
+	}
+
+	/**
+	 * 根据预计数据量获取实例，首个缓存单元及其扩展单元采用合适的容量级别
+	 * 
+	 * @param size 预计数据量，例如近期接收数据量
+	 * @see DataBufferUnit#pool(int)
+	 */
+	public final static DataBuffer instance(int size) {
+		final DataBuffer buffer = instance();
+		if (size > DataBufferUnit.BYTES) {
+			// 实例回收时保留小单元，替换为合适容量级别的单元
+			buffer.read.release();
+			buffer.read = buffer.write = DataBufferUnit.pool(size).get();
+		}
 		return buffer;
 	}
 
@@ -73,8 +94,19 @@ public class DataBuffer implements Verifiable, DataInput, DataOutput, //
 		return BYTE_BUFFERS.size();
 	}
 
+	/**
+	 * 获取使用中(已获取未释放)的对象数量，包括未释放已被GC回收的泄漏对象
+	 * 
+	 * @return 0~n
+	 * @see DataBufferLeak
+	 */
+	public final static int liveCount() {
+		return INSTANCES.get() - BYTE_BUFFERS.size();
+	}
+
 	////////////////////////////////////////////////////////////////////////////////
 
+	private DataBufferLeak.Trace trace;
 	private DataBufferUnit mark = null;
 	private DataBufferUnit read;
 	private DataBufferUnit write;
@@ -90,6 +122,7 @@ public class DataBuffer implements Verifiable, DataInput, DataOutput, //
 
 	private DataBuffer() {
 		read = write = DataBufferUnit.get();
+		INSTANCES.incrementAndGet();
 	}
 
 	/**
@@ -368,6 +401,26 @@ public class DataBuffer implements Verifiable, DataInput, DataOutput, //
 		}
 	}
 
+	/**
+	 * 以只读方式共享源缓存对象中的所有数据到当前缓存对象中尾部，不复制数据，不参与校验
+	 * <p>
+	 * 当前缓存连接源缓存单元的只读共享单元，共享单元具有独立的读取位置，因此可将同一数据源共享到多个缓存对象分别发送；
+	 * 源缓存对象的读写位置和标记不会发生任何变化，源缓存对象必须在所有共享的缓存对象释放后才能修改或释放。
+	 * </p>
+	 */
+	public final void share(DataBuffer source) {
+		DataBufferUnit unit = source.read, shared;
+		while (unit != null) {
+			if (unit.readable() > 0) {
+				shared = unit.share();
+				length += shared.readable();
+				write.next(shared);
+				write = shared;
+			}
+			unit = unit.next();
+		}
+	}
+
 	/**
 	 * 转移所有数据到目标缓存对象中尾部，转移数据不参与校验，此方法执行数据单元转移；
 	 * 读取标记会被擦除，如果要避免擦除应在调用此方法之前执行{@link #reset()}
@@ -622,6 +675,34 @@ public class DataBuffer implements Verifiable, DataInput, DataOutput, //
 		return size;
 	}
 
+	/**
+	 * 转入通道中指定位置的字节(FileChannel > DataBuffer)，不参与校验；
+	 * 按位置读取不改变通道位置，多个读取可共享同一文件通道
+	 *
+	 * @param channel 打开的文件通道
+	 * @param position 文件中的起始位置
+	 * @param len 最多可写入数量
+	 * @return 写入字节数量
+	 */
+	public final int append(FileChannel channel, long position, int len) throws IOException {
+		int l, size = 0;
+		while (len > 0) {
+			if (write.isFull()) {
+				write = write.extend();
+			}
+			if ((l = channel.read(write.receive(len), position)) > 0) {
+				size += write.received();
+				position += l;
+				len -= l;
+			} else {
+				write.received();
+				break;
+			}
+		}
+		length += size;
+		return size;
+	}
+
 	/**
 	 * 写入指定编码的字符，不参与校验
 	 * 
@@ -826,8 +907,17 @@ public class DataBuffer implements Verifiable, DataInput, DataOutput, //
 		// 特殊值标记是否已释放
 		if (length != Integer.MIN_VALUE) {
 			clear();
+			if (read.capacity() != DataBufferUnit.BYTES || read.shared()) {
+				// 回收实例仅保留小单元，其它容量级别单元归还缓存
+				read.release();
+				read = write = DataBufferUnit.get();
+			}
 			verifier = EmptyVerifier.INSTANCE;
 			length = Integer.MIN_VALUE;
+			if (trace != null) {
+				trace.release();
+				trace = null;
+			}
 			BYTE_BUFFERS.offer(this);
 		} else {
 			// 重复释放抛出异常
@@ -870,11 +960,12 @@ public class DataBuffer implements Verifiable, DataInput, DataOutput, //
 		if (size <= write.writeable()) {
 			size = 1;
 		} else {
+			// 扩展单元与当前单元容量级别相同
 			size -= write.writeable();
-			if (size % DataBufferUnit.BYTES > 0) {
-				size = size / DataBufferUnit.BYTES + 2;
+			if (size % write.capacity() > 0) {
+				size = size / write.capacity() + 2;
 			} else {
-				size = size / DataBufferUnit.BYTES + 1;
+				size = size / write.capacity() + 1;
 			}
 		}
 		// 构建ByteBuffer数组
@@ -897,16 +988,19 @@ public class DataBuffer implements Verifiable, DataInput, DataOutput, //
 	 */
 	public void written(int size) {
 		// 无论是否写入数据必须调整用于写入的单元
+		// 分散读取按顺序写入单元，遇到未写入数据的单元则其后单元均未写入数据
+		// 未写入数据的单元须从链表断开后释放，不能直接缩减否则前一单元仍连接已释放的单元
 
-		while (write.next() != null) {
-			length += write.received();
-			if (write.isBlank()) {
-				write = write.curtail();
-			} else {
-				write = write.next();
+		length += write.received();
+		DataBufferUnit unit;
+		while ((unit = write.next()) != null) {
+			length += unit.received();
+			if (unit.isBlank()) {
+				write.braek().release();
+				break;
 			}
+			write = unit;
 		}
-		length += write.received();
 
 		// 特殊处理
 		if (size == Integer.MIN_VALUE) {
@@ -944,6 +1038,18 @@ public class DataBuffer implements Verifiable, DataInput, DataOutput, //
 	 * @return
 	 */
 	public ByteBuffer[] reads() {
+		return reads(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * 获取多个缓存单元用于将编码的数据聚集写入到其它通道(Channel)，写入数据到通道后必须通过{@link #read(long)}设置数量；
+	 * 完成写入并设置其它通道读取的数量，缓存单元的数据已全部写入将自动被释放。
+	 * 
+	 * @param max 最多获取的缓存单元数量
+	 * @see #read()
+	 * @return ByteBuffer[]
+	 */
+	public ByteBuffer[] reads(int max) {
 		while (read.isEmpty()) {
 			if (read.next() != null) {
 				read = read.curtail();
@@ -954,9 +1060,14 @@ public class DataBuffer implements Verifiable, DataInput, DataOutput, //
 
 		int size = 1;
 		DataBufferUnit unit = read;
-		while (unit.next() != null) {
+		while (size < max && unit.next() != null) {
 			if (unit.next().isEmpty()) {
-				unit.next(unit.next().curtail());
+				if (unit.next() == write) {
+					// 尾部单元保留用于后续写入
+					break;
+				}
+				// 移除中间的空单元
+				unit.next(unit.braek().curtail());
 			} else {
 				unit = unit.next();
 				size++;
@@ -1073,11 +1184,17 @@ public class DataBuffer implements Verifiable, DataInput, DataOutput, //
 		verifier = v == null ? EmptyVerifier.INSTANCE : v;
 	}
 
+	/**
+	 * 以批量方式校验所有可读字节，不改变读取位置
+	 */
 	public void verify(Verifier verifier) {
 		DataBufferUnit unit = read;
+		int position;
 		while (unit != null) {
-			for (int i = 0; i < unit.readable(); i++) {
-				verifier.check(unit.get(unit.readIndex() + i));
+			if (unit.readable() > 0) {
+				position = unit.readIndex();
+				verifier.check(unit.buffer());
+				unit.readIndex(position);
 			}
 			unit = unit.next();
 		}
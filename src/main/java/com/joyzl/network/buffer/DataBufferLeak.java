@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.buffer;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 数据缓存泄漏检测，采样跟踪获取的数据缓存对象，未释放即被GC回收的对象视为泄漏
+ * <p>
+ * 默认关闭，通过{@link #setSample(int)}设置采样间隔后开启；被采样的实例在获取时记录调用位置(分配点)，
+ * 并注册到{@link Cleaner}，如果实例在调用{@link DataBuffer#release()}之前变为不可达，将报告泄漏及其分配点。
+ * 记录调用位置需要获取线程栈，开销较大，生产环境应设置较大的采样间隔。
+ * </p>
+ * <p>
+ * 未释放的数据缓存对象其缓存单元也不会归还单元池，由GC回收直接内存，表现为单元池持续未命中和直接内存缓慢增长。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月10日
+ */
+public final class DataBufferLeak {
+
+	private final static Cleaner CLEANER = Cleaner.create();
+	private final static AtomicInteger COUNTER = new AtomicInteger();
+	private final static LongAdder TRACKED = new LongAdder();
+	private final static LongAdder LEAKED = new LongAdder();
+
+	/** 采样间隔，0关闭，1跟踪所有实例，N每N个实例跟踪一个 */
+	private static volatile int sample = 0;
+	/** 泄漏报告，默认输出分配点到标准错误 */
+	private static volatile Consumer<Throwable> reporter = Throwable::printStackTrace;
+
+	private DataBufferLeak() {
+		// 禁止实例化
+	}
+
+	/**
+	 * 设置采样间隔
+	 *
+	 * @param value 0关闭，1跟踪所有实例，N每N个实例跟踪一个
+	 */
+	public static void setSample(int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("采样间隔无效");
+		}
+		sample = value;
+	}
+
+	/** 获取采样间隔，0表示关闭 */
+	public static int getSample() {
+		return sample;
+	}
+
+	/**
+	 * 设置泄漏报告处理，参数为记录分配点的异常对象
+	 */
+	public static void setReporter(Consumer<Throwable> value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		reporter = value;
+	}
+
+	/** 获取跟踪中(已采样且未释放)的实例数量 */
+	public static long tracked() {
+		return TRACKED.sum();
+	}
+
+	/** 获取检测到的泄漏实例数量（仅采样实例） */
+	public static long leaked() {
+		return LEAKED.sum();
+	}
+
+	/**
+	 * 按采样间隔跟踪实例，未被采样时返回null
+	 */
+	static Trace track(DataBuffer buffer) {
+		final int s = sample;
+		if (s > 0) {
+			if (s == 1 || COUNTER.incrementAndGet() % s == 0) {
+				final Trace trace = new Trace();
+				// Cleaner操作不能引用缓存对象，否则对象永远可达
+				trace.cleanable = CLEANER.register(buffer, trace);
+				TRACKED.increment();
+				return trace;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 跟踪记录，构造时记录分配点
+	 */
+	static final class Trace extends Throwable implements Runnable {
+
+		private static final long serialVersionUID = 1L;
+
+		private Cleaner.Cleanable cleanable;
+		private volatile boolean released;
+
+		Trace() {
+			super("DataBuffer:LEAKED 分配线程 " + Thread.currentThread().getName());
+		}
+
+		/** 实例已释放，取消跟踪 */
+		void release() {
+			released = true;
+			cleanable.clean();
+		}
+
+		@Override
+		public void run() {
+			// 释放时主动执行或实例不可达后由Cleaner线程执行，仅执行一次
+			TRACKED.decrement();
+			if (!released) {
+				LEAKED.increment();
+				try {
+					reporter.accept(this);
+				} catch (Exception e) {
+					// 报告处理异常不能影响Cleaner线程
+				}
+			}
+		}
+	}
+}
@@ -6,49 +6,89 @@ package com.joyzl.network.buffer;
 
 import java.nio.ByteBuffer;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * ByteBuffer 单元
  * <p>
  * 注意：此类实现的所有方法均不执行索引位置越界检查，如果索引越界由内部ByteBuffer抛出异常
  * </p>
+ * <p>
+ * 单元按容量分为小(1KB)、中(16KB)、大(64KB)三个级别，每个级别独立缓存；
+ * 单元回收时优先进入线程本地缓存，其次进入全局缓存，全局缓存超过高水位时直接丢弃由GC回收直接内存；
+ * 守护任务{@link #POOL_DAEMON}定期将全局缓存逐步缩减至低水位，流量高峰之后释放多余的直接内存。
+ * </p>
  * 
  * @author ZhangXi
  * @date 2021年3月13日
  */
 public final class DataBufferUnit {
 
+	/** 小单元字节数，默认单元 */
 	public final static int BYTES = 1024;
-	private final static ConcurrentLinkedQueue<DataBufferUnit> BYTE_BUFFER_UNITS;
+	/** 中单元字节数 */
+	public final static int BYTES_MEDIUM = 16384;
+	/** 大单元字节数 */
+	public final static int BYTES_LARGE = 65536;
+
+	// -XX:MaxDirectMemorySize=512m
+	// 水位：小单元 1MB~8MB 中单元 256KB~4MB 大单元 256KB~4MB
+	private final static Pool SMALL = new Pool(BYTES, 1024, 8192, 64);
+	private final static Pool MEDIUM = new Pool(BYTES_MEDIUM, 16, 256, 8);
+	private final static Pool LARGE = new Pool(BYTES_LARGE, 4, 64, 2);
 	static {
-		BYTE_BUFFER_UNITS = new ConcurrentLinkedQueue<>();
-
-		// -XX:MaxDirectMemorySize=512m
-		// TODO DataBufferUnit 缓存太多之后释放部分
-
-		int size = BYTES;
+		// 预分配小单元至低水位
+		int size = SMALL.low;
 		while (size-- > 0) {
-			BYTE_BUFFER_UNITS.offer(new DataBufferUnit());
+			SMALL.offer(new DataBufferUnit(SMALL));
 		}
 	}
 
-	public final static DataBufferUnit get() {
-		DataBufferUnit unit = BYTE_BUFFER_UNITS.poll();
-		if (unit == null) {
-			return new DataBufferUnit();
-		} else {
-			// 取消特殊值
-			unit.mark = 0;
+	/** 缓存缩减守护任务，应定期执行（执行器初始化后每10秒执行） */
+	public final static Runnable POOL_DAEMON = new Runnable() {
+		@Override
+		public void run() {
+			SMALL.trim();
+			MEDIUM.trim();
+			LARGE.trim();
 		}
-		return unit;
+
+		@Override
+		public String toString() {
+			return "BUFFER POOL DAEMON";
+		}
+	};
+
+	/** 获取默认(小)单元 */
+	public final static DataBufferUnit get() {
+		return SMALL.get();
 	}
 
+	/** 获取全局缓存的可用单元数量（所有容量级别，不含线程本地缓存） */
 	public final static int freeCount() {
-		return BYTE_BUFFER_UNITS.size();
+		return SMALL.free() + MEDIUM.free() + LARGE.free();
+	}
+
+	/** 根据预计数据量获取合适的容量级别 */
+	public final static Pool pool(int size) {
+		if (size <= BYTES) {
+			return SMALL;
+		}
+		if (size <= BYTES_MEDIUM) {
+			return MEDIUM;
+		}
+		return LARGE;
+	}
+
+	/** 获取所有容量级别 */
+	public final static Pool[] pools() {
+		return new Pool[] { SMALL, MEDIUM, LARGE };
 	}
 
 	////////////////////////////////////////////////////////////////////////////////
 
+	private final Pool pool;
 	private final ByteBuffer buffer;
 	private DataBufferUnit next;
 	/**
@@ -57,16 +97,40 @@ public final class DataBufferUnit {
 	 * 导致采用ByteBuffer.mark()方法记录并恢复读取位置的方案在特定情况下会失效；<br>
 	 * 因此采用额外的mark字段实现数据单元的标记与恢复功能。
 	 */
-	private int mark = 0;
+	private long mark = 0;
 
-	private DataBufferUnit() {
+	private DataBufferUnit(Pool p) {
 		// 为了确保缓冲即可读亦可写必须确保 ByteBuffer的position < limit <= capacity
 		// position表示缓存读位置，limit表示缓存写位置，capacity为容量
-		buffer = ByteBuffer.allocateDirect(BYTES);
+		buffer = ByteBuffer.allocateDirect(p.bytes);
+		pool = p;
 		// 新建ByteBufferUnit默认状态为java.nio.DirectByteBuffer[pos=0,lim=2048,cap=2048]
 		buffer.limit(0);
 	}
 
+	/**
+	 * 共享单元，只读包装其它单元的数据，不属于任何容量级别
+	 */
+	private DataBufferUnit(ByteBuffer shared) {
+		buffer = shared;
+		pool = null;
+	}
+
+	/**
+	 * 以只读方式共享当前单元的可读数据，共享单元与当前单元的读写位置相互独立；
+	 * 共享单元释放时不回收，当前单元应在所有共享单元使用完成后才能释放。
+	 */
+	public final DataBufferUnit share() {
+		return new DataBufferUnit(buffer.slice(buffer.position(), buffer.remaining()).asReadOnlyBuffer());
+	}
+
+	/**
+	 * 是否为共享单元(只读)
+	 */
+	public final boolean shared() {
+		return pool == null;
+	}
+
 	/**
 	 * 获取缓存容量
 	 */
@@ -78,7 +142,8 @@ public final class DataBufferUnit {
 	 * 指示缓存已写满
 	 */
 	public final boolean isFull() {
-		return buffer.limit() == buffer.capacity();
+		// 共享单元只读，视为已写满
+		return pool == null || buffer.limit() == buffer.capacity();
 	}
 
 	/**
@@ -205,18 +270,17 @@ public final class DataBufferUnit {
 	 * 记录当前读写位置
 	 */
 	public final void mark() {
-		// 缓存单元的空间大小超过特定值时0x8000(32768)
-		// 将导致mark值有概率和单元回收标记0x80000000重叠
-		// 当前缓存单元空间固定为1024，此情况永远不会出现
-		mark = (buffer.limit() << 16) | buffer.position();
+		// 大单元容量65536超过16位，读写位置以高低32位记录
+		// 单元回收标记为Long.MIN_VALUE，读写位置不会与之重叠
+		mark = ((long) buffer.limit() << 32) | buffer.position();
 	}
 
 	/**
 	 * 恢复之前标记的读写位置
 	 */
 	public final void reset() {
-		buffer.limit(mark >>> 16);
-		buffer.position(mark & 0xFFFF);
+		buffer.limit((int) (mark >>> 32));
+		buffer.position((int) mark);
 	}
 
 	/**
@@ -259,8 +323,8 @@ public final class DataBufferUnit {
 	 * 数据发送完成，返回读取（减少）数据量
 	 */
 	public final int sent() {
-		buffer.limit(mark >>> 16);
-		return (mark >>> 16) - (mark & 0xFFFF) - buffer.remaining();
+		buffer.limit((int) (mark >>> 32));
+		return (int) (mark >>> 32) - (int) mark - buffer.remaining();
 	}
 
 	/**
@@ -315,8 +379,8 @@ public final class DataBufferUnit {
 		// Channel只要写入过数据ByteBuffer.position>0
 
 		buffer.limit(buffer.position());
-		buffer.position(mark & 0xFFFF);
-		return buffer.remaining() - (mark >>> 16) + (mark & 0xFFFF);
+		buffer.position((int) mark);
+		return buffer.remaining() - (int) (mark >>> 32) + (int) mark;
 	}
 
 	/**
@@ -330,11 +394,12 @@ public final class DataBufferUnit {
 	}
 
 	/**
-	 * 扩展缓存单元，连接新的缓存单元并返回
+	 * 扩展缓存单元，连接相同容量级别的新缓存单元并返回
 	 */
 	public final DataBufferUnit extend() {
 		if (next == null) {
-			next = get();
+			// 共享单元扩展默认(小)单元
+			next = pool == null ? SMALL.get() : pool.get();
 		} else {
 			throw new IllegalStateException("DataBufferUnit:已有连接单元");
 		}
@@ -402,8 +467,8 @@ public final class DataBufferUnit {
 	 */
 	public final void release() {
 		// 特殊值标记是否已释放
-		if (mark != Integer.MIN_VALUE) {
-			mark = Integer.MIN_VALUE;
+		if (mark != Long.MIN_VALUE) {
+			mark = Long.MIN_VALUE;
 			buffer.position(0);
 			buffer.limit(0);
 
@@ -412,7 +477,9 @@ public final class DataBufferUnit {
 				next = null;
 			}
 
-			BYTE_BUFFER_UNITS.offer(this);
+			if (pool != null) {
+				pool.offer(this);
+			}
 		} else {
 			throw new IllegalStateException("重复释放");
 		}
@@ -422,4 +489,141 @@ public final class DataBufferUnit {
 	public final String toString() {
 		return buffer.toString();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * 单元容量级别缓存，线程本地缓存和全局缓存两级，全局缓存具有高低水位限制
+	 * 
+	 * @author ZhangXi 2025年6月8日
+	 */
+	public final static class Pool {
+
+		private final int bytes;
+		private final int local;
+		private volatile int low, high;
+
+		private final ConcurrentLinkedQueue<DataBufferUnit> units = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger free = new AtomicInteger();
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+		private final LongAdder trims = new LongAdder();
+		private final ThreadLocal<Local> locals;
+
+		Pool(int bytes, int low, int high, int local) {
+			this.bytes = bytes;
+			this.local = local;
+			this.low = low;
+			this.high = high;
+			locals = ThreadLocal.withInitial(() -> new Local(this.local));
+		}
+
+		/** 获取单元 */
+		public final DataBufferUnit get() {
+			final Local l = locals.get();
+			DataBufferUnit unit;
+			if (l.size > 0) {
+				unit = l.units[--l.size];
+				l.units[l.size] = null;
+			} else {
+				unit = units.poll();
+				if (unit == null) {
+					misses.increment();
+					return new DataBufferUnit(this);
+				}
+				free.decrementAndGet();
+			}
+			hits.increment();
+			// 取消特殊值
+			unit.mark = 0;
+			return unit;
+		}
+
+		final void offer(DataBufferUnit unit) {
+			final Local l = locals.get();
+			if (l.size < l.units.length) {
+				l.units[l.size++] = unit;
+			} else if (free.get() < high) {
+				units.offer(unit);
+				free.incrementAndGet();
+			} else {
+				// 超过高水位，丢弃由GC回收直接内存
+				trims.increment();
+			}
+		}
+
+		/** 全局缓存逐步缩减至低水位，每次释放超出部分的一半 */
+		final void trim() {
+			int size = free.get() - low;
+			if (size > 0) {
+				size = (size + 1) / 2;
+				while (size-- > 0) {
+					if (units.poll() == null) {
+						break;
+					}
+					free.decrementAndGet();
+					trims.increment();
+				}
+			}
+		}
+
+		/** 单元字节数 */
+		public int bytes() {
+			return bytes;
+		}
+
+		/** 全局缓存可用单元数量（不含线程本地缓存） */
+		public int free() {
+			return free.get();
+		}
+
+		/** 从缓存获得单元的次数 */
+		public long hits() {
+			return hits.sum();
+		}
+
+		/** 缓存不足新建单元的次数 */
+		public long misses() {
+			return misses.sum();
+		}
+
+		/** 超过水位被丢弃的单元数量 */
+		public long trims() {
+			return trims.sum();
+		}
+
+		/** 低水位（单元数量） */
+		public int low() {
+			return low;
+		}
+
+		/** 高水位（单元数量） */
+		public int high() {
+			return high;
+		}
+
+		/**
+		 * 设置水位（单元数量），全局缓存超过高水位的单元直接丢弃，守护任务逐步缩减至低水位
+		 */
+		public void watermark(int low, int high) {
+			if (low < 0 || high < low) {
+				throw new IllegalArgumentException("水位无效");
+			}
+			this.low = low;
+			this.high = high;
+		}
+
+		@Override
+		public String toString() {
+			return bytes + " FREE:" + free() + " HIT:" + hits() + " MISS:" + misses() + " TRIM:" + trims();
+		}
+	}
+
+	/** 线程本地缓存 */
+	private final static class Local {
+		final DataBufferUnit[] units;
+		int size;
+
+		Local(int size) {
+			units = new DataBufferUnit[size];
+		}
+	}
+}
@@ -91,6 +91,55 @@ public interface ChainHandler {
 		return 30000L;
 	}
 
+	/**
+	 * 获取UDP对端空闲超时时间（毫秒）
+	 * <p>
+	 * UDP服务端为每个对端地址创建从链路，超过此时间未收到对端数据报时移除从链路并调用{@link #disconnected(ChainChannel)}；
+	 * 小于等于0则从链路保留直至主动关闭。
+	 *
+	 * @return 默认5分钟
+	 */
+	default long getTimeoutIdle() {
+		return 300000L;
+	}
+
+	/**
+	 * 获取聚集写入和分散读取时单次最多使用的缓存单元数量
+	 * <p>
+	 * 数据跨越多个缓存单元时将以单次系统调用写入或读取多个单元，设置为1则逐个单元写入和读取。
+	 *
+	 * @return 默认16个缓存单元
+	 */
+	default int getMaxBuffers() {
+		return 16;
+	}
+
+	/**
+	 * 获取分散读取时单次投递的最大字节数
+	 * <p>
+	 * 投递的缓存单元在接收完成前一直被占用，大容量级别的单元按{@link #getMaxBuffers()}计算时每个连接可能占用近1MB，
+	 * 此值与缓存单元数量共同限制分散读取的缓存总量。
+	 *
+	 * @return 默认128KB
+	 */
+	default int getMaxScatterBytes() {
+		return 131072;
+	}
+
+	/**
+	 * 获取UDP服务端接收通道数量
+	 * <p>
+	 * 大于1且系统支持SO_REUSEPORT时，以多个通道绑定同一端口，由多个接收线程并行接收。
+	 * 每个通道的消息批次在业务线程池中依次处理以保持接收顺序，
+	 * 默认1个通道时所有数据报的处理(received)在同一时刻仅占用一个业务线程，
+	 * 处理耗时较长或对端较多时应增加通道数量，或在received中将处理转交其它线程。
+	 *
+	 * @return 默认1个通道
+	 */
+	default int getReceivers() {
+		return 1;
+	}
+
 	/**
 	 * 获取可能的最大数据报字节数
 	 * 
@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.chain;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import com.joyzl.network.TimerWheel;
+
+/**
+ * 链路读写超时，替代AsynchronousSocketChannel每次读写的超时参数
+ * <p>
+ * 投递读写时仅记录到期时戳，链路在时间轮中最多一个任务；任务到期时检查等待中的读写，
+ * 未超时则按最近的到期时戳重新计时，因此持续收发的链路每个超时周期仅操作时间轮一次。
+ * 超时与读写返回通过到期时戳的原子替换确定先后，超时在前时读写返回的数据被丢弃。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月25日
+ */
+abstract class ChainTimeout extends TimerWheel.Timeout {
+
+	private final static AtomicLongFieldUpdater<ChainTimeout> READ = AtomicLongFieldUpdater.newUpdater(ChainTimeout.class, "read");
+	private final static AtomicLongFieldUpdater<ChainTimeout> WRITE = AtomicLongFieldUpdater.newUpdater(ChainTimeout.class, "write");
+
+	/** 到期时戳，0 无等待 / -1 已超时 */
+	private volatile long read, write;
+
+	/** 投递接收之前调用 */
+	final void reading(long timeout) {
+		if (timeout > 0) {
+			final long deadline = System.currentTimeMillis() + timeout;
+			read = deadline;
+			arm(deadline);
+		} else {
+			read = 0;
+		}
+	}
+
+	/** 投递发送之前调用 */
+	final void writing(long timeout) {
+		if (timeout > 0) {
+			final long deadline = System.currentTimeMillis() + timeout;
+			write = deadline;
+			arm(deadline);
+		} else {
+			write = 0;
+		}
+	}
+
+	/**
+	 * 接收返回时调用
+	 *
+	 * @return true 正常 / false 已超时
+	 */
+	final boolean received() {
+		return READ.getAndSet(this, 0) >= 0;
+	}
+
+	/**
+	 * 发送返回时调用
+	 *
+	 * @return true 正常 / false 已超时
+	 */
+	final boolean written() {
+		return WRITE.getAndSet(this, 0) >= 0;
+	}
+
+	/** 链路关闭时调用 */
+	final void cancel() {
+		TimerWheel.WHEEL.cancel(this);
+	}
+
+	private void arm(long deadline) {
+		if (!scheduled() || deadline() > deadline) {
+			TimerWheel.WHEEL.schedule(this, deadline - System.currentTimeMillis());
+		}
+	}
+
+	@Override
+	protected void expired(long timestamp) {
+		long deadline = read;
+		if (deadline > 0 && deadline <= timestamp && READ.compareAndSet(this, deadline, -1)) {
+			timeoutRead();
+			return;
+		}
+		deadline = write;
+		if (deadline > 0 && deadline <= timestamp && WRITE.compareAndSet(this, deadline, -1)) {
+			timeoutWrite();
+			return;
+		}
+		// 未超时，按最近的到期时戳重新计时
+		deadline = read;
+		final long w = write;
+		if (deadline <= 0 || (w > 0 && w < deadline)) {
+			deadline = w;
+		}
+		if (deadline > 0) {
+			TimerWheel.WHEEL.schedule(this, deadline - timestamp);
+		}
+	}
+
+	/** 接收超时，通常通知处理对象后关闭链路 */
+	protected abstract void timeoutRead();
+
+	/** 发送超时，通常通知处理对象后关闭链路 */
+	protected abstract void timeoutWrite();
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.chain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 链路发送队列，多个线程投递消息(offer)，单个线程取出消息(poll)，无锁实现
+ * <p>
+ * 投递方通过原子交换尾部节点完成入队，取出方仅操作头部节点，两者之间无竞争；
+ * 取出操作只能由获得发送权的单个线程执行，其余方法可由任意线程调用。
+ * </p>
+ * <p>
+ * 如果消息包含资源（文件或输入流）且实现了Closeable接口，清空队列时将自动关闭。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月3日
+ */
+final class SendQueue {
+
+	/** 单次合并发送的最大消息数量 */
+	final static int BATCH_MESSAGES = 32;
+	/** 单次合并发送的最大字节数量，超过后其余消息下次发送 */
+	final static int BATCH_BYTES = 65536;
+
+	private final AtomicReference<Node> tail;
+	private Node head;
+
+	SendQueue() {
+		head = new Node(null);
+		tail = new AtomicReference<>(head);
+	}
+
+	/** 投递消息（多线程） */
+	void offer(Object message) {
+		if (message == null) {
+			throw new NullPointerException();
+		}
+		final Node node = new Node(message);
+		// 交换尾部之后才连接前节点，连接之前取出方会认为队列为空
+		tail.getAndSet(node).next = node;
+	}
+
+	/** 取出消息（单线程），队列为空时返回null */
+	Object poll() {
+		final Node next = head.next;
+		if (next == null) {
+			return null;
+		}
+		final Object message = next.message;
+		next.message = null;
+		head = next;
+		return message;
+	}
+
+	/** 是否空 */
+	boolean isEmpty() {
+		return head.next == null;
+	}
+
+	/** 清空队列（单线程），消息携带资源并实现Closeable接口将自动关闭 */
+	void clear() throws IOException {
+		Object message;
+		while ((message = poll()) != null) {
+			if (message instanceof Closeable) {
+				((Closeable) message).close();
+			}
+		}
+	}
+
+	static class Node {
+		volatile Node next;
+		Object message;
+
+		Node(Object m) {
+			message = m;
+		}
+	}
+}
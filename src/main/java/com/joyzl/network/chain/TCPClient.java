@@ -4,10 +4,9 @@
  */
 package com.joyzl.network.chain;
 
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
 
-import com.joyzl.network.Executor;
+import com.joyzl.network.TimerWheel;
 
 /**
  * 基于TCP连接的客户端，提供心跳，中断重连和超时检查机制
@@ -26,17 +25,32 @@ import com.joyzl.network.Executor;
  * 发送和接收数据可同时进行，但不能同时请求多个发送或多个接收，应等待上一次发送或接收返回后才能再次请求发送或接收数据。
  * 链路关闭后可再次请求连接。对象不是多线程安全的，在多线程收发情形下使用者应实现消息排队。
  * <p>
+ * <p>
+ * 心跳和重连检查由共享的时间轮{@link TimerWheel#WHEEL}按截止时间触发，不为每个客户端创建定时任务：
+ * 连接活跃时在空闲达到心跳间隔时触发，连接断开时在重连时间触发。
+ * 重连间隔以{@link #getReconnect()}为基础按连续失败次数指数增长，不超过{@link #getReconnectMax()}，
+ * 并在间隔的后一半中随机选择时间，避免服务端重启后大量客户端同时重连。
+ * 用户检查{@link #check(long)}仅在子类重写时由独立的任务每秒调用，可用于检查指令超时；
+ * 未重写的客户端不占用时间轮和业务线程。
+ * </p>
  *
  * @author ZhangXi 2019年7月12日
  *
  */
 public class TCPClient extends TCPLink {
 
-	private final ScheduledFuture<?> future;
+	/** 客户端已关闭，不再检查 */
+	private volatile boolean closed;
 	/** 数据收发时间戳 */
 	private volatile long timestamp;
 	/** 重新连接间隔时间(秒) */
 	private int reconnect = 6;
+	/** 重新连接最大间隔时间(秒) */
+	private int reconnectMax = 300;
+	/** 连续重连次数，连接成功后归零 */
+	private volatile int attempts;
+	/** 下次重连时间戳 */
+	private volatile long retry;
 	/** 连接空闲心跳间隔时间(秒) */
 	private int heartbeat;
 
@@ -55,8 +69,12 @@ public class TCPClient extends TCPLink {
 		// 当用户未设置时避免心跳时间大于超时时间
 		long timeout = Math.min(handler.getTimeoutRead(), handler.getTimeoutWrite());
 		heartbeat = (int) (timeout / 1000 - 2);
-		// 每秒触发检查重连和心跳以及超时
-		future = Executor.scheduleAtFixedRate(TASK, 1, 1, TimeUnit.SECONDS);
+		// 未连接时按重连间隔自动连接
+		retry = System.currentTimeMillis() + reconnect * 1000L;
+		TimerWheel.WHEEL.schedule(TASK, reconnect * 1000L);
+		if (CHECKS.get(getClass())) {
+			TimerWheel.WHEEL.schedule(CHECK, CHECK_INTERVAL);
+		}
 	}
 
 	@Override
@@ -66,7 +84,7 @@ public class TCPClient extends TCPLink {
 
 	@Override
 	public void connect() {
-		if (future.isCancelled()) {
+		if (closed) {
 			throw new IllegalStateException("客户端链路已关闭");
 		} else {
 			super.connect();
@@ -74,60 +92,165 @@ public class TCPClient extends TCPLink {
 	}
 
 	@Override
-	protected void received(int size) {
+	protected void received(long size) {
 		timestamp = System.currentTimeMillis();
 		super.received(size);
 	}
 
 	@Override
-	protected void sent(int size) {
+	protected void sent(long size) {
 		timestamp = System.currentTimeMillis();
 		super.sent(size);
 	}
 
+	@Override
+	protected void flushed(long size) {
+		timestamp = System.currentTimeMillis();
+		super.flushed(size);
+	}
+
+	@Override
+	protected void connected() {
+		attempts = 0;
+		timestamp = System.currentTimeMillis();
+		if (!closed) {
+			TimerWheel.WHEEL.schedule(TASK, delay(timestamp));
+		}
+		super.connected();
+	}
+
+	@Override
+	protected void connected(Throwable e) {
+		super.connected(e);
+		if (!closed) {
+			// 连接失败，按退避时间重连
+			retry(System.currentTimeMillis());
+		}
+	}
+
+	@Override
+	public void reset() {
+		final boolean active = active();
+		super.reset();
+		if (active && !closed) {
+			// 连接断开，按退避时间重连
+			retry(System.currentTimeMillis());
+		}
+	}
+
 	@Override
 	public void close() {
+		closed = true;
+		TimerWheel.WHEEL.cancel(TASK);
+		TimerWheel.WHEEL.cancel(CHECK);
 		super.close();
-		future.cancel(false);
+	}
+
+	/** 安排下次重连 */
+	private void retry(long current) {
+		retry = current + backoff(attempts);
+		TimerWheel.WHEEL.schedule(TASK, retry - current);
 	}
 
 	/**
-	 * 定时任务检查心跳和重连
+	 * 计算重连退避时间(毫秒)，间隔按连续重连次数倍增，取间隔后一半中的随机值
 	 */
-	final Runnable TASK = new Runnable() {
-		private long current;
+	long backoff(int attempts) {
+		long delay = Math.max(1, reconnect) * 1000L;
+		delay <<= Math.min(attempts, 16);
+		delay = Math.min(delay, Math.max(reconnect, reconnectMax) * 1000L);
+		return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+	}
+
+	/** 连接活跃时距离下次心跳的时间(毫秒)，至少1秒 */
+	private long delay(long current) {
+		return Math.max(1000, timestamp + heartbeat * 1000L - current);
+	}
+
+	/**
+	 * 定时任务检查心跳和重连，按下次截止时间重新加入时间轮
+	 */
+	final TimerWheel.Timeout TASK = new TimerWheel.Timeout() {
 
 		@Override
-		public void run() {
-			if (future.isCancelled()) {
+		protected void expired(long current) {
+			if (closed) {
 				return;
 			}
-			current = System.currentTimeMillis();
-			if (timestamp > 0) {
-				if (active()) {
-					// 心跳检查
-					if (getHeartbeat() - (current - timestamp) / 1000 <= 0) {
-						try {
-							handler().beat(TCPClient.this);
-						} catch (Exception e) {
-							handler().error(TCPClient.this, e);
-						}
-					}
-				} else {
-					// 重连检查
-					if (getReconnect() - (current - timestamp) / 1000 <= 0) {
-						timestamp = current;
-						connect();
+			if (active()) {
+				// 心跳检查
+				if (current - timestamp >= getHeartbeat() * 1000L) {
+					timestamp = current;
+					try {
+						handler().beat(TCPClient.this);
+					} catch (Exception e) {
+						handler().error(TCPClient.this, e);
 					}
 				}
-				// 用户检查
-				check(current);
+				TimerWheel.WHEEL.schedule(this, delay(current));
+			} else if (current >= retry) {
+				// 重连检查
+				attempts++;
+				retry(current);
+				connect();
 			} else {
-				timestamp = current;
+				TimerWheel.WHEEL.schedule(this, retry - current);
+			}
+		}
+
+		@Override
+		protected void failed(Throwable e) {
+			handler().error(TCPClient.this, e);
+		}
+	};
+
+	/** 用户检查间隔(毫秒) */
+	final static long CHECK_INTERVAL = 1000;
+
+	/** 客户端类型是否重写了{@link #check(long)} */
+	final static ClassValue<Boolean> CHECKS = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			for (Class<?> c = type; c != TCPClient.class && c != null; c = c.getSuperclass()) {
+				try {
+					c.getDeclaredMethod("check", long.class);
+					return Boolean.TRUE;
+				} catch (NoSuchMethodException e) {
+					// 继续检查父类
+				}
+			}
+			return Boolean.FALSE;
+		}
+	};
+
+	/**
+	 * 用户检查任务，独立于心跳和重连按固定间隔调用{@link #check(long)}，仅重写检查方法的客户端加入时间轮
+	 */
+	final TimerWheel.Timeout CHECK = new TimerWheel.Timeout() {
+
+		@Override
+		protected void expired(long current) {
+			if (closed) {
+				return;
+			}
+			try {
+				check(current);
+			} finally {
+				if (!closed) {
+					TimerWheel.WHEEL.schedule(this, CHECK_INTERVAL);
+				}
 			}
 		}
+
+		@Override
+		protected void failed(Throwable e) {
+			handler().error(TCPClient.this, e);
+		}
 	};
 
+	/**
+	 * 用户检查，子类重写后无论链路是否连接每秒调用一次
+	 */
 	protected void check(long timestamp) {
 		// 实现者可重载此方法检查指令超时
 		// System.out.println(active() + "," + timestamp);
@@ -147,6 +270,27 @@ public class TCPClient extends TCPLink {
 		reconnect = interval;
 	}
 
+	/**
+	 * 获取自动重新连接最大间隔时间（秒）
+	 */
+	public int getReconnectMax() {
+		return reconnectMax;
+	}
+
+	/**
+	 * 设置自动重新连接最大间隔时间（秒），连续重连失败时间隔倍增直至此值
+	 */
+	public void setReconnectMax(int interval) {
+		reconnectMax = interval;
+	}
+
+	/**
+	 * 获取连续重连次数，连接成功后归零
+	 */
+	public int getAttempts() {
+		return attempts;
+	}
+
 	/**
 	 * 获取连接空闲心跳间隔时间（秒）
 	 */
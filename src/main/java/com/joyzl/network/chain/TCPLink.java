@@ -9,14 +9,17 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.InterruptedByTimeoutException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import com.joyzl.network.Executor;
 import com.joyzl.network.Point;
 import com.joyzl.network.buffer.DataBuffer;
+import com.joyzl.network.buffer.DataBufferUnit;
 
 /**
  * 基于TCP连接的链路，链接无心跳和重连机制
@@ -32,8 +35,10 @@ import com.joyzl.network.buffer.DataBuffer;
  * <li>close()关闭链路；</li>
  * </ol>
  * 使用者根据通信协议确定发送和接收数据的时机和机制；
- * 发送和接收数据可同时进行，但不能同时请求多个发送或多个接收，应等待上一次发送或接收返回后才能再次请求发送或接收数据。
- * 链路关闭后可再次请求连接。对象不是多线程安全的，在多线程收发情形下使用者应实现消息排队。
+ * 发送和接收数据可同时进行，但不能同时请求多个接收，应等待上一次接收返回后才能再次请求接收数据。
+ * 多个线程可同时请求发送，消息进入内置发送队列排队，由获得发送权的线程将多个消息编码合并后一次写入网络；
+ * 子类如已自行实现消息排队，应先通过sendMessage(Object)设置当前消息再调用send(Object)直接发送，不应混用内置发送队列。
+ * 链路关闭后可再次请求连接，重置链路时未发送的排队消息将被丢弃。
  * <p>
  *
  * @author simon(ZhangXi TEL : 13883833982) 2019年7月12日
@@ -43,6 +48,39 @@ public class TCPLink extends Client {
 	private final InetSocketAddress remote;
 	private AsynchronousSocketChannel socket_channel;
 	private volatile boolean connected = false;
+	/** 读写超时 */
+	private final ChainTimeout timeouts = new ChainTimeout() {
+		@Override
+		protected void timeoutRead() {
+			// 接收数据超时
+			// 通知处理程序
+			try {
+				handler().received(TCPLink.this, null);
+			} catch (Exception e) {
+				handler().error(TCPLink.this, e);
+			} finally {
+				reset();
+			}
+		}
+
+		@Override
+		protected void timeoutWrite() {
+			// 发送数据超时
+			// 通知处理程序
+			try {
+				handler().sent(TCPLink.this, null);
+			} catch (Exception e) {
+				handler().error(TCPLink.this, e);
+			} finally {
+				reset();
+			}
+		}
+
+		@Override
+		protected void failed(Throwable e) {
+			handler().error(TCPLink.this, e);
+		}
+	};
 
 	/**
 	 * 创建TCPShort由接点标识指定连接信息
@@ -176,21 +214,62 @@ public class TCPLink extends Client {
 		if (connected) {
 			if (receiveMessage == null) {
 				if (read == null) {
-					read = DataBuffer.instance();
+					// 根据近期接收数据量选择缓存单元容量级别
+					read = DataBuffer.instance(recent);
 					// SocketChannel不能投递多个接收操作，否则会收到ReadPendingException异常
-					socket_channel.read(//
-						read.write(), // ByteBuffer
-						handler().getTimeoutRead(), TimeUnit.MILLISECONDS, // Timeout
-						this, TCPLinkReceiver.INSTANCE // Handler
-					);
+					reading();
 				}
 			}
 		}
 	}
 
-	protected void received(int size) {
+	private boolean scatter;
+	private int reading;
+	private int recent;
+
+	/**
+	 * 投递接收，上次接收填满缓存时采用分散读取，以单次调用接收更多数据
+	 */
+	private void reading() {
+		final int max = handler().getMaxBuffers();
+		if (max > 1 && scatter) {
+			// 缓存单元数量和字节数双重限制
+			final int size = Math.min((max - 1) * DataBufferUnit.pool(recent).bytes(), handler().getMaxScatterBytes());
+			final ByteBuffer[] buffers = read.writes(size);
+			reading = 0;
+			for (int index = 0; index < buffers.length; index++) {
+				reading += buffers[index].remaining();
+			}
+			timeouts.reading(handler().getTimeoutRead());
+			socket_channel.read(//
+				buffers, 0, buffers.length, // ByteBuffer[]
+				0L, TimeUnit.MILLISECONDS, // Timeout(ChainTimeout)
+				this, TCPLinkReceivers.INSTANCE // Handler
+			);
+		} else {
+			final ByteBuffer buffer = read.write();
+			reading = buffer.remaining();
+			timeouts.reading(handler().getTimeoutRead());
+			socket_channel.read(//
+				buffer, // ByteBuffer
+				0L, TimeUnit.MILLISECONDS, // Timeout(ChainTimeout)
+				this, TCPLinkReceiver.INSTANCE // Handler
+			);
+		}
+	}
+
+	protected void received(long size) {
+		if (!timeouts.received()) {
+			// 已超时，链路正在关闭
+			read.release();
+			read = null;
+			return;
+		}
 		if (size > 0) {
-			read.written(size);
+			scatter = size >= reading;
+			// 近期接收数据量，指数平均
+			recent = (recent + (int) size) >>> 1;
+			read.written((int) size);
 			try {
 				// 多次请求解包直到没有对象返回
 				// 在数据包粘连的情况下，可能会接收到两个数据包
@@ -219,11 +298,7 @@ public class TCPLink extends Client {
 				}
 				if (connected) {
 					// 继续接收数据
-					socket_channel.read(//
-						read.write(), // ByteBuffer
-						handler().getTimeoutRead(), TimeUnit.MILLISECONDS, // Timeout
-						this, TCPLinkReceiver.INSTANCE // Handler
-					);
+					reading();
 				} else {
 					read.release();
 					read = null;
@@ -252,6 +327,7 @@ public class TCPLink extends Client {
 
 	protected void received(Throwable e) {
 		// 读取失败
+		timeouts.received();
 		if (read != null) {
 			read.release();
 			read = null;
@@ -291,54 +367,104 @@ public class TCPLink extends Client {
 
 	/**
 	 * 发送数据到网络
+	 * <p>
+	 * 没有当前消息时，消息成为当前消息{@link #sendMessage()}并立即编码发送；
+	 * 消息为当前消息时(例如分段发送的后续部分)，获得发送权后编码发送，排队消息写入进行中时在其完成后发送；
+	 * 其它消息进入发送队列排队，由获得发送权的线程依次编码并合并为单次写入。
+	 * 当前消息和排队消息共用发送权，任何时候仅有一个写入操作。
 	 */
 	@Override
 	public void send(Object message) {
 		if (connected) {
-			if (sendMessage == null || sendMessage == message) {
-				sendMessage = message;
-				try {
-					// 执行消息编码
-					write = handler().encode(this, message);
-					if (write == null) {
-						throw new IllegalStateException("TCPLink:未编码数据" + message);
-					} else if (write.readable() <= 0) {
-						throw new IllegalStateException("TCPLink:编码零数据" + message);
-					} else {
-						socket_channel.write(//
-							write.read(), // ByteBuffer
-							handler().getTimeoutWrite(), TimeUnit.MILLISECONDS, // Timeout
-							this, TCPLinkSender.INSTANCE // Handler
-						);
-					}
-				} catch (Exception e) {
-					if (write != null) {
-						write.release();
-						write = null;
+			if (message != null && sendMessage == message) {
+				current = message;
+				flush();
+			} else if (message != null && sendMessage == null && sends.isEmpty() && SENDING.compareAndSet(this, 0, 1)) {
+				// 无写入进行中，消息成为当前消息
+				if (sendMessage == null) {
+					sendMessage = message;
+					if (direct(message)) {
+						return;
 					}
-					handler().error(this, e);
-					reset();
+					sending = 0;
+				} else {
+					sending = 0;
+					sends.offer(message);
 				}
+				flush();
 			} else {
-				throw new IllegalStateException("TCPLink:发送冲突" + message);
+				sends.offer(message);
+				flush();
 			}
 		} else {
 			throw new IllegalStateException("TCPLink:还未连接" + message);
 		}
 	}
 
-	protected void sent(int size) {
-		if (size > 0) {
+	/**
+	 * 编码当前消息并投递写入，须持有发送权
+	 *
+	 * @return true 已投递写入，完成后释放发送权 / false 出现异常
+	 */
+	private boolean direct(Object message) {
+		try {
+			// 执行消息编码
+			write = handler().encode(this, message);
+			if (write == null) {
+				throw new IllegalStateException("TCPLink:未编码数据" + message);
+			} else if (write.readable() <= 0) {
+				throw new IllegalStateException("TCPLink:编码零数据" + message);
+			} else {
+				writing();
+				return true;
+			}
+		} catch (Exception e) {
+			if (write != null) {
+				write.release();
+				write = null;
+			}
+			handler().error(this, e);
+			reset();
+			return false;
+		}
+	}
+
+	/**
+	 * 投递发送，数据跨越多个缓存单元时采用聚集写入，以单次调用发送更多数据
+	 */
+	private void writing() {
+		final int max = handler().getMaxBuffers();
+		if (max > 1 && write.head().next() != null) {
+			final ByteBuffer[] buffers = write.reads(max);
+			timeouts.writing(handler().getTimeoutWrite());
+			socket_channel.write(//
+				buffers, 0, buffers.length, // ByteBuffer[]
+				0L, TimeUnit.MILLISECONDS, // Timeout(ChainTimeout)
+				this, TCPLinkSenders.INSTANCE // Handler
+			);
+		} else {
+			timeouts.writing(handler().getTimeoutWrite());
+			socket_channel.write(//
+				write.read(), // ByteBuffer
+				0L, TimeUnit.MILLISECONDS, // Timeout(ChainTimeout)
+				this, TCPLinkSender.INSTANCE // Handler
+			);
+		}
+	}
+
+	protected void sent(long size) {
+		if (!timeouts.written()) {
+			// 已超时，链路正在关闭
+			write.release();
+			write = null;
+		} else if (size > 0) {
 			write.read(size);
 			try {
 				if (write.readable() > 0) {
 					// 数据未发完,继续发送
 					if (connected) {
-						socket_channel.write(//
-							write.read(), // ByteBuffer
-							handler().getTimeoutWrite(), TimeUnit.MILLISECONDS, // Timeout
-							this, TCPLinkSender.INSTANCE// Handler
-						);
+						writing();
+						return;
 					} else {
 						write.release();
 						write = null;
@@ -374,10 +500,14 @@ public class TCPLink extends Client {
 			write = null;
 			reset();
 		}
+		// 通知处理对象之后释放发送权，期间投递的消息随后发送
+		sending = 0;
+		flush();
 	}
 
 	protected void sent(Throwable e) {
 		// 发送失败
+		timeouts.written();
 		if (write != null) {
 			write.release();
 			write = null;
@@ -399,6 +529,224 @@ public class TCPLink extends Client {
 			handler().error(this, e);
 			reset();
 		}
+		sending = 0;
+		flush();
+	}
+
+	////////////////////////////////////////////////////////////////////////////////
+	// 发送队列，多线程投递消息，获得发送权的单个线程合并编码并发送
+	// 当前消息的写入同样须获得发送权，写入完成并通知处理对象之后释放
+
+	private final static AtomicIntegerFieldUpdater<TCPLink> SENDING = AtomicIntegerFieldUpdater.newUpdater(TCPLink.class, "sending");
+	private final SendQueue sends = new SendQueue();
+	private volatile int sending = 0;
+	/** 等待发送权的当前消息 */
+	private volatile Object current;
+	private Object[] batchMessages;
+	private int batchSize;
+	private DataBuffer batch;
+
+	/**
+	 * 尝试获得发送权并发送队列中的消息，未获得发送权表示其它线程正在发送，排队消息将在其完成后发送
+	 */
+	private void flush() {
+		Object message;
+		while (SENDING.compareAndSet(this, 0, 1)) {
+			if (connected) {
+				message = current;
+				if (message != null) {
+					// 当前消息优先，已不是当前消息时忽略
+					current = null;
+					if (message == sendMessage && direct(message)) {
+						// 已投递写入，完成后释放发送权
+						return;
+					}
+				} else if (batch()) {
+					// 已投递写入，完成后释放发送权
+					return;
+				}
+			}
+			if (!connected) {
+				discard();
+			}
+			sending = 0;
+			// 释放发送权之后检查是否有新投递的消息
+			if (sends.isEmpty() && current == null) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 编码排队的消息合并为单个数据缓存，并以单次聚集写入发送
+	 * 
+	 * @return true 已投递写入 / false 无消息或出现异常
+	 */
+	private boolean batch() {
+		if (batchMessages == null) {
+			batchMessages = new Object[SendQueue.BATCH_MESSAGES];
+		}
+		DataBuffer buffer;
+		Object message;
+		try {
+			while (batchSize < batchMessages.length) {
+				if (batch != null && batch.readable() >= SendQueue.BATCH_BYTES) {
+					break;
+				}
+				message = sends.poll();
+				if (message == null) {
+					break;
+				}
+				batchMessages[batchSize++] = message;
+
+				// 执行消息编码
+				buffer = handler().encode(this, message);
+				if (buffer == null) {
+					throw new IllegalStateException("TCPLink:未编码数据" + message);
+				} else if (buffer.readable() <= 0) {
+					buffer.release();
+					throw new IllegalStateException("TCPLink:编码零数据" + message);
+				}
+				if (batch == null) {
+					batch = buffer;
+				} else {
+					batch.append(buffer);
+					buffer.release();
+				}
+			}
+			if (batch == null) {
+				return false;
+			}
+			final ByteBuffer[] buffers = batch.reads(handler().getMaxBuffers());
+			timeouts.writing(handler().getTimeoutWrite());
+			socket_channel.write(//
+				buffers, 0, buffers.length, // ByteBuffer[]
+				0L, TimeUnit.MILLISECONDS, // Timeout(ChainTimeout)
+				this, TCPLinkFlusher.INSTANCE // Handler
+			);
+			return true;
+		} catch (Exception e) {
+			if (batch != null) {
+				batch.release();
+				batch = null;
+			}
+			handler().error(this, e);
+			reset();
+			return false;
+		}
+	}
+
+	protected void flushed(long size) {
+		if (!timeouts.written()) {
+			// 已超时，链路正在关闭
+			batch.release();
+			batch = null;
+			sending = 0;
+			flush();
+			return;
+		}
+		if (size > 0) {
+			batch.read(size);
+			if (batch.readable() > 0) {
+				// 数据未发完,继续发送
+				if (connected) {
+					final ByteBuffer[] buffers = batch.reads(handler().getMaxBuffers());
+					timeouts.writing(handler().getTimeoutWrite());
+					socket_channel.write(//
+						buffers, 0, buffers.length, // ByteBuffer[]
+						0L, TimeUnit.MILLISECONDS, // Timeout(ChainTimeout)
+						this, TCPLinkFlusher.INSTANCE // Handler
+					);
+					return;
+				} else {
+					batch.release();
+					batch = null;
+				}
+			} else {
+				// 数据已发完
+				// 按投递顺序逐个通知处理对象
+				batch.release();
+				batch = null;
+				Object message;
+				for (int index = 0; index < batchSize; index++) {
+					message = batchMessages[index];
+					batchMessages[index] = null;
+					try {
+						handler().sent(this, message);
+					} catch (Exception e) {
+						handler().error(this, e);
+						reset();
+					}
+				}
+				batchSize = 0;
+			}
+		} else if (size == 0) {
+			// 客户端缓存满会导致零发送
+			batch.release();
+			batch = null;
+			handler().error(this, new IllegalStateException("TCPLink:零写"));
+			reset();
+		} else {
+			// 连接被客户端断开
+			batch.release();
+			batch = null;
+			reset();
+		}
+		sending = 0;
+		flush();
+	}
+
+	protected void flushed(Throwable e) {
+		// 发送失败
+		timeouts.written();
+		if (batch != null) {
+			batch.release();
+			batch = null;
+		}
+		if (e instanceof ClosedChannelException) {
+			// 正在执行通道关闭
+			// 忽略此异常
+		} else if (e instanceof InterruptedByTimeoutException) {
+			// 发送数据超时
+			// 通知处理程序
+			try {
+				handler().sent(this, null);
+			} catch (Exception e1) {
+				handler().error(this, e1);
+			} finally {
+				reset();
+			}
+		} else {
+			handler().error(this, e);
+			reset();
+		}
+		sending = 0;
+		flush();
+	}
+
+	/**
+	 * 丢弃未发送的消息，消息中可能有打开的资源
+	 */
+	private void discard() {
+		current = null;
+		if (batchSize > 0) {
+			for (int index = 0; index < batchSize; index++) {
+				if (batchMessages[index] instanceof Closeable) {
+					try {
+						((Closeable) batchMessages[index]).close();
+					} catch (IOException e) {
+						handler().error(this, e);
+					}
+				}
+				batchMessages[index] = null;
+			}
+			batchSize = 0;
+		}
+		try {
+			sends.clear();
+		} catch (IOException e) {
+			handler().error(this, e);
+		}
 	}
 
 	/**
@@ -414,6 +762,7 @@ public class TCPLink extends Client {
 					return;
 				}
 			}
+			timeouts.cancel();
 
 			try {
 				if (socket_channel.isOpen()) {
@@ -470,6 +819,8 @@ public class TCPLink extends Client {
 					// sendMessage = null;
 				}
 			}
+			// 丢弃排队的消息，正在发送的消息由发送返回时丢弃
+			flush();
 		}
 	}
 
@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.chain;
+
+import java.nio.channels.CompletionHandler;
+
+/**
+ * GATHERING WRITE CompletionHandler
+ * 
+ * @author ZhangXi
+ * @date 2025年6月5日
+ */
+public class TCPLinkSenders implements CompletionHandler<Long, TCPLink> {
+
+	final static TCPLinkSenders INSTANCE = new TCPLinkSenders();
+
+	@Override
+	public void completed(Long result, TCPLink chain) {
+		chain.sent(result);
+	}
+
+	@Override
+	public void failed(Throwable e, TCPLink chain) {
+		chain.sent(e);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.chain;
+
+import java.nio.channels.CompletionHandler;
+
+/**
+ * NIO.2 BATCH GATHERING WRITE CompletionHandler
+ * 
+ * @author ZhangXi
+ * @date 2025年6月3日
+ */
+public class TCPSlaveFlusher implements CompletionHandler<Long, TCPSlave> {
+
+	final static TCPSlaveFlusher INSTANCE = new TCPSlaveFlusher();
+
+	@Override
+	public void completed(Long result, TCPSlave chain) {
+		chain.flushed(result);
+	}
+
+	@Override
+	public void failed(Throwable e, TCPSlave chain) {
+		chain.flushed(e);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.chain;
+
+import java.nio.channels.CompletionHandler;
+
+/**
+ * SCATTERING READ CompletionHandler
+ * 
+ * @author ZhangXi
+ * @date 2025年6月5日
+ */
+public class TCPSlaveReceivers implements CompletionHandler<Long, TCPSlave> {
+
+	final static TCPSlaveReceivers INSTANCE = new TCPSlaveReceivers();
+
+	@Override
+	public void completed(Long result, TCPSlave chain) {
+		chain.received(result);
+	}
+
+	@Override
+	public void failed(Throwable e, TCPSlave chain) {
+		chain.received(e);
+	}
+}
\ No newline at end of file
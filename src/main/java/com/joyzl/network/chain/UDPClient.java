@@ -12,7 +12,6 @@ import java.nio.channels.DatagramChannel;
 
 import com.joyzl.network.Point;
 import com.joyzl.network.buffer.DataBuffer;
-import com.joyzl.network.buffer.DataBufferUnit;
 
 /**
  * UDP通道，无连接协议因此无心跳无重连机制
@@ -131,10 +130,10 @@ public class UDPClient extends Client {
 		// UDP数据报特性:如果ByteBuffer不足够接收所有的数据，剩余的被静默抛弃，不会抛出任何异常
 		// DataBuffer不能接续，必须清空并确保可以接受最长数据
 		// 如果发送长数据必须在协议层拆分，UDP无法确保数据报顺序
-		final DataBuffer buffer = DataBuffer.instance();
+		final DataBuffer buffer = DataBuffer.instance(handler().getMaxDatagram());
 		try {
 			int size = handler().getMaxDatagram();
-			if (size <= DataBufferUnit.BYTES) {
+			if (size <= buffer.writeable()) {
 				size = datagram_channel.read(buffer.write());
 			} else {
 				size = (int) datagram_channel.read(buffer.writes(size));
@@ -10,15 +10,30 @@ import java.net.SocketAddress;
 import java.net.StandardSocketOptions;
 import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.joyzl.network.Executor;
 import com.joyzl.network.Point;
+import com.joyzl.network.TimerWheel;
 import com.joyzl.network.buffer.DataBuffer;
 
 /**
  * UDP服务端
+ * <p>
+ * {@link ChainHandler#getReceivers()}大于1且系统支持SO_REUSEPORT(Linux)时，
+ * 以SO_REUSEPORT绑定同一端口的多个通道，由系统按对端地址分配数据报，多个接收线程并行接收；
+ * 执行器已初始化时解码的消息成批投递到业务线程池处理，否则在接收线程中直接处理；
+ * 同一通道的批次依次处理，默认1个通道时消息处理仅占用一个业务线程。
+ * </p>
+ * <p>
+ * 对端空闲超过{@link ChainHandler#getTimeoutIdle()}时由时间轮移除从链路并通知断开，
+ * 大量对端地址变化(NAT重新绑定)时从链路数量保持稳定。
+ * </p>
  *
  * @author ZhangXi 2019年7月9日
  *
@@ -28,8 +43,12 @@ public class UDPServer extends Server {
 	private final SocketAddress address;
 	// UDP从连接与Server连接共用通道
 	private final DatagramChannel datagram_channel;
+	/** 接收通道，第一个通道同时用于发送 */
+	private final UDPServerChannel[] channels;
 	/** 从链路 */
 	private final ConcurrentHashMap<SocketAddress, UDPSlave> slaves = new ConcurrentHashMap<>();
+	/** 空闲移除的从链路数量 */
+	private final AtomicLong evictions = new AtomicLong();
 
 	public UDPServer(ChainHandler handler, String host, int port) throws IOException {
 		super(handler);
@@ -42,15 +61,38 @@ public class UDPServer extends Server {
 
 		datagram_channel = DatagramChannel.open();
 		if (datagram_channel.isOpen()) {
-			// 禁用最大报文段生存时间，服务重启可立即绑定之前端口
-			datagram_channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
-			datagram_channel.configureBlocking(false);
-			datagram_channel.bind(address);
+			final boolean reuse = handler.getReceivers() > 1 && datagram_channel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+			channels = new UDPServerChannel[reuse ? handler.getReceivers() : 1];
+			channels[0] = new UDPServerChannel(this, bind(datagram_channel, reuse));
+			try {
+				for (int index = 1; index < channels.length; index++) {
+					channels[index] = new UDPServerChannel(this, bind(DatagramChannel.open(), true));
+				}
+			} catch (IOException e) {
+				for (UDPServerChannel channel : channels) {
+					if (channel != null) {
+						channel.channel().close();
+					}
+				}
+				throw e;
+			}
 		} else {
 			throw new IOException("UDPServer:打开失败 " + Point.getPoint(host, port));
 		}
 	}
 
+	private DatagramChannel bind(DatagramChannel channel, boolean reuse) throws IOException {
+		// 禁用最大报文段生存时间，服务重启可立即绑定之前端口
+		channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+		if (reuse) {
+			// 多个通道绑定同一端口
+			channel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+		}
+		channel.configureBlocking(false);
+		channel.bind(address);
+		return channel;
+	}
+
 	@Override
 	public ChainType type() {
 		return ChainType.UDP_SERVER;
@@ -81,33 +123,58 @@ public class UDPServer extends Server {
 	@Override
 	public void receive() {
 		try {
-			UDPServerReceiver.register(this, datagram_channel);
+			for (UDPServerChannel channel : channels) {
+				UDPServerReceiver.register(channel);
+			}
 		} catch (Exception e) {
 			handler().error(this, e);
 		}
 	}
 
-	protected void received() {
-		UDPSlave slave = null;
-		final DataBuffer buffer = DataBuffer.instance();
-		try {
-			// receive 未提供读取数量返回，需要通过位置计算
-			ByteBuffer bb = buffer.write();
-			int size = bb.position();
-			// 如果要支持接收最大可能的数据包，则需要额外的ByteBuffer用于接收，然后转写到DataBuffer
-			// receive接收缓冲区之外的数据静默丢弃，再次执行receive也不会收到额外的数据
-			final SocketAddress address = datagram_channel.receive(bb);
-			if (address == null) {
-				// read.release();
-			} else {
+	/**
+	 * 通道可读，连续接收直至无数据或达到{@link UDPServerChannel#DRAIN}，解码的消息成批投递
+	 */
+	protected void received(UDPServerChannel channel) {
+		final boolean async = Executor.isActive();
+		final long timestamp = System.currentTimeMillis();
+		List<Object> batch = null;
+		UDPSlave slave;
+		DataBuffer buffer;
+		boolean hold;
+		for (int count = 0; count < UDPServerChannel.DRAIN; count++) {
+			slave = null;
+			hold = false;
+			buffer = DataBuffer.instance();
+			try {
+				// receive 未提供读取数量返回，需要通过位置计算
+				ByteBuffer bb = buffer.write();
+				int size = bb.position();
+				// 如果要支持接收最大可能的数据包，则需要额外的ByteBuffer用于接收，然后转写到DataBuffer
+				// receive接收缓冲区之外的数据静默丢弃，再次执行receive也不会收到额外的数据
+				final SocketAddress address = channel.channel().receive(bb);
+				if (address == null) {
+					// 已无数据
+					break;
+				}
 				size = bb.position() - size;
 				buffer.written(size);
 
 				slave = slaves.get(address);
 				if (slave == null) {
-					slave = new UDPSlave(this, address);
-					slaves.put(address, slave);
-					handler().connected(slave);
+					// 多个接收通道可能同时收到新对端的数据报
+					final UDPSlave created = new UDPSlave(this, address);
+					slave = slaves.putIfAbsent(address, created);
+					if (slave == null) {
+						slave = created;
+						if (handler().getTimeoutIdle() > 0) {
+							TimerWheel.WHEEL.schedule(slave.idle, handler().getTimeoutIdle());
+						}
+						handler().connected(slave);
+					} else {
+						slave.active = timestamp;
+					}
+				} else {
+					slave.active = timestamp;
 				}
 
 				final Object message = handler().decode(slave, buffer);
@@ -119,19 +186,44 @@ public class UDPServer extends Server {
 					if (buffer.readable() >= size) {
 						throw new IllegalStateException("UDPServer:已解析消息但数据未减少");
 					}
-					handler().received(slave, message);
+					if (async) {
+						// 消息可能引用数据缓存，处理之后释放
+						if (batch == null) {
+							batch = new ArrayList<>();
+						}
+						batch.add(slave);
+						batch.add(message);
+						batch.add(buffer);
+						hold = true;
+					} else {
+						handler().received(slave, message);
+					}
+				}
+			} catch (Exception e) {
+				if (slave != null) {
+					handler().error(slave, e);
+				} else {
+					handler().error(this, e);
+				}
+			} finally {
+				if (!hold) {
+					buffer.release();
 				}
 			}
+		}
+		if (batch != null) {
+			channel.dispatch(batch);
+		}
+	}
+
+	/** 业务线程处理投递的消息 */
+	void received(UDPSlave slave, Object message, Object buffer) {
+		try {
+			handler().received(slave, message);
 		} catch (Exception e) {
-			if (slave != null) {
-				handler().error(slave, e);
-			} else {
-				handler().error(this, e);
-			}
+			handler().error(slave, e);
 		} finally {
-			if (buffer != null) {
-				buffer.release();
-			}
+			((DataBuffer) buffer).release();
 		}
 	}
 
@@ -162,17 +254,34 @@ public class UDPServer extends Server {
 		}
 	}
 
+	/** 空闲检查到期，对端仍活动则重新计时，否则移除从链路 */
+	void idle(UDPSlave slave, long timestamp) {
+		final long remain = slave.active + handler().getTimeoutIdle() - timestamp;
+		if (remain > 0) {
+			TimerWheel.WHEEL.schedule(slave.idle, remain);
+		} else if (slaves.get(slave.getRemoteAddress()) == slave) {
+			evictions.incrementAndGet();
+			slave.close();
+		}
+	}
+
 	protected void close(UDPSlave slave) {
+		TimerWheel.WHEEL.cancel(slave.idle);
 		slaves.remove(slave.getRemoteAddress(), slave);
 	}
 
 	@Override
 	public void close() {
-		UDPServerReceiver.unRegister(this, datagram_channel);
-		try {
-			datagram_channel.close();
-		} catch (IOException e) {
-			handler().error(this, e);
+		for (UDPSlave slave : slaves.values()) {
+			TimerWheel.WHEEL.cancel(slave.idle);
+		}
+		for (UDPServerChannel channel : channels) {
+			UDPServerReceiver.unRegister(channel);
+			try {
+				channel.channel().close();
+			} catch (IOException e) {
+				handler().error(this, e);
+			}
 		}
 		try {
 			clearContext();
@@ -183,9 +292,22 @@ public class UDPServer extends Server {
 
 	@Override
 	public void reset() {
+		for (UDPSlave slave : slaves.values()) {
+			TimerWheel.WHEEL.cancel(slave.idle);
+		}
 		slaves.clear();
 	}
 
+	/** 当前从链路(活动对端)数量 */
+	public int getSlaveCount() {
+		return slaves.size();
+	}
+
+	/** 因空闲移除的从链路累计数量 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
 	@Override
 	public Collection<Slave> slaves() {
 		return Collections.unmodifiableCollection(slaves.values());
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.chain;
+
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.joyzl.network.Executor;
+
+/**
+ * UDP服务端接收通道
+ * <p>
+ * 每个通道注册到一个接收线程；接收线程连续接收并解码数据报，解码的消息成批投递到业务线程池，
+ * 同一通道的批次按接收顺序逐个处理，不同通道的批次并行处理；
+ * 因此业务线程池中并行处理数据报的线程数不超过通道数量{@link ChainHandler#getReceivers()}。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月25日
+ */
+final class UDPServerChannel implements Runnable {
+
+	/** 单次就绪最多连续接收的数据报数量，避免单个通道长时间占用接收线程 */
+	final static int DRAIN = 64;
+
+	private final UDPServer server;
+	private final DatagramChannel channel;
+	/** 待处理的批次，每批依次排列 链路, 消息, 数据缓存 */
+	private final ConcurrentLinkedQueue<List<Object>> batches = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	UDPServerChannel(UDPServer server, DatagramChannel channel) {
+		this.server = server;
+		this.channel = channel;
+	}
+
+	DatagramChannel channel() {
+		return channel;
+	}
+
+	/** 接收线程通知通道可读 */
+	void received() {
+		server.received(this);
+	}
+
+	/** 投递批次到业务线程池 */
+	void dispatch(List<Object> batch) {
+		batches.offer(batch);
+		if (running.compareAndSet(false, true)) {
+			Executor.execute(this);
+		}
+	}
+
+	@Override
+	public void run() {
+		List<Object> batch;
+		do {
+			while ((batch = batches.poll()) != null) {
+				for (int index = 0; index < batch.size(); index += 3) {
+					server.received((UDPSlave) batch.get(index), batch.get(index + 1), batch.get(index + 2));
+				}
+			}
+			running.set(false);
+			// 复查避免投递与结束之间的竞争遗漏批次
+		} while (!batches.isEmpty() && running.compareAndSet(false, true));
+	}
+}
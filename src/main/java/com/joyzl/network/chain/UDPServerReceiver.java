@@ -5,7 +5,6 @@
 package com.joyzl.network.chain;
 
 import java.io.IOException;
-import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.util.Iterator;
@@ -13,90 +12,120 @@ import java.util.Iterator;
 /**
  * 基于NIO.1 Selector选择器
  * <p>
- * 为基于Selector的链路提供全局的选择器实现和执行
+ * 为基于Selector的UDP服务端提供多个接收线程，每个线程拥有独立的选择器；
+ * 服务端的接收通道轮流注册到各接收线程，通过SO_REUSEPORT绑定同一端口的多个通道由多个线程并行接收。
+ * </p>
  *
  * @author ZhangXi 2019年8月15日
  *
  */
 public final class UDPServerReceiver implements Runnable {
 
-	// NIO.1 选择器线程
-	private static Thread THREAD_READS_SELECTOR;
-	// 为NIO.1提供统一的选择器(读)
-	private final static Selector SELECTOR_READS;
+	// NIO.1 接收线程
+	private static UDPServerReceiver[] RECEIVERS = new UDPServerReceiver[0];
+	// 下一个注册的接收线程
+	private static int NEXT = 0;
 
-	static {
-		// NIO.1仅用于UDP链路
-		// UDP 的连接和绑定通常是立即完成，但是为了异步获得handler().connect()通知为此建立连接操作的选择器
-		// 原来是在创建链路的构造方法中激活连接事件，这会造成handler().connect()无法访问链路实例
+	/**
+	 * 初始化接收线程，默认数量为处理器核心数的1/4(至少1个)
+	 */
+	public static final void initialize() {
+		initialize(Math.max(1, Runtime.getRuntime().availableProcessors() / 4));
+	}
+
+	/**
+	 * 初始化指定数量的接收线程
+	 */
+	public static final void initialize(int size) {
+		if (size <= 0) {
+			size = 1;
+		}
+		final UDPServerReceiver[] receivers = new UDPServerReceiver[size];
 		try {
-			SELECTOR_READS = Selector.open();
+			for (int index = 0; index < size; index++) {
+				receivers[index] = new UDPServerReceiver();
+				receivers[index].thread = new Thread(receivers[index], "nio.1-reads-" + index);
+				receivers[index].thread.start();
+			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
+		RECEIVERS = receivers;
 	}
 
-	public static final void initialize() {
-		// 初始化NIO.1选择器线程
-		THREAD_READS_SELECTOR = new Thread(new UDPServerReceiver(), "nio.1-reads");
-		THREAD_READS_SELECTOR.start();
+	/** 获取接收线程数量 */
+	public static int size() {
+		return RECEIVERS.length;
 	}
 
-	public static void register(UDPServer server, SelectableChannel channel) throws IOException {
-		channel.register(SELECTOR_READS, SelectionKey.OP_READ, server);
-		SELECTOR_READS.wakeup();
+	static synchronized void register(UDPServerChannel channel) throws IOException {
+		final UDPServerReceiver[] receivers = RECEIVERS;
+		if (receivers.length == 0) {
+			throw new IllegalStateException("UDPServerReceiver:接收线程未初始化");
+		}
+		final Selector selector = receivers[NEXT++ % receivers.length].selector;
+		channel.channel().register(selector, SelectionKey.OP_READ, channel);
+		selector.wakeup();
 	}
 
-	public static void unRegister(UDPServer server, SelectableChannel channel) {
-		final SelectionKey key = channel.keyFor(SELECTOR_READS);
-		if (key != null) {
-			SELECTOR_READS.wakeup();
-			key.cancel();
+	static void unRegister(UDPServerChannel channel) {
+		SelectionKey key;
+		for (UDPServerReceiver receiver : RECEIVERS) {
+			key = channel.channel().keyFor(receiver.selector);
+			if (key != null) {
+				receiver.selector.wakeup();
+				key.cancel();
+			}
 		}
 	}
 
 	public static final void shutdown() {
+		final UDPServerReceiver[] receivers = RECEIVERS;
+		RECEIVERS = new UDPServerReceiver[0];
 		// 关闭读选择器
-		if (THREAD_READS_SELECTOR != null) {
-			if (UDPServerReceiver.SELECTOR_READS != null && UDPServerReceiver.SELECTOR_READS.isOpen()) {
+		for (UDPServerReceiver receiver : receivers) {
+			if (receiver.selector.isOpen()) {
 				try {
-					UDPServerReceiver.SELECTOR_READS.wakeup();
-					UDPServerReceiver.SELECTOR_READS.close();
+					receiver.selector.wakeup();
+					receiver.selector.close();
 				} catch (Exception e) {
 					e.printStackTrace();
 				}
 			}
+		}
+		for (UDPServerReceiver receiver : receivers) {
 			try {
-				THREAD_READS_SELECTOR.join();
+				receiver.thread.join();
 			} catch (InterruptedException e) {
 				e.printStackTrace();
-			} finally {
-				THREAD_READS_SELECTOR = null;
 			}
 		}
 	}
 
-	private UDPServerReceiver() {
+	// 为NIO.1提供选择器(读)
+	private final Selector selector;
+	private Thread thread;
+
+	private UDPServerReceiver() throws IOException {
+		selector = Selector.open();
 	}
 
 	@Override
 	public void run() {
 		Iterator<SelectionKey> selection_keys;
 		SelectionKey selection_key;
-		UDPServer server;
 
 		try {
-			while (SELECTOR_READS.isOpen()) {
-				while (SELECTOR_READS.select() > 0) {
-					selection_keys = SELECTOR_READS.selectedKeys().iterator();
+			while (selector.isOpen()) {
+				while (selector.select() > 0) {
+					selection_keys = selector.selectedKeys().iterator();
 					while (selection_keys.hasNext()) {
 						selection_key = selection_keys.next();
 						selection_keys.remove();
 
-						if (selection_key.isReadable()) {
-							server = (UDPServer) selection_key.attachment();
-							// 通知链路接收并读取数据
-							server.received();
+						if (selection_key.isValid() && selection_key.isReadable()) {
+							// 通知通道接收并读取数据
+							((UDPServerChannel) selection_key.attachment()).received();
 						} else {
 							// 忽略
 						}
@@ -104,7 +133,9 @@ public final class UDPServerReceiver implements Runnable {
 				}
 			}
 		} catch (Exception e) {
-			throw new RuntimeException(e);
+			if (selector.isOpen()) {
+				throw new RuntimeException(e);
+			}
 		}
 	}
-}
\ No newline at end of file
+}
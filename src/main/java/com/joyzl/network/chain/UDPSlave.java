@@ -8,9 +8,14 @@ import java.io.IOException;
 import java.net.SocketAddress;
 
 import com.joyzl.network.Point;
+import com.joyzl.network.TimerWheel;
 
 /**
  * UDP从链路，由UDPServer创建，记录对端地址
+ * <p>
+ * 接收数据报时仅更新活动时戳，空闲检查任务在时间轮中到期后根据时戳重新计时或移除从链路，
+ * 避免每个数据报操作时间轮。
+ * </p>
  *
  * @author ZhangXi 2019年7月9日
  *
@@ -18,10 +23,25 @@ import com.joyzl.network.Point;
 public class UDPSlave extends Slave {
 
 	private final SocketAddress remote_address;
+	/** 空闲检查 */
+	final TimerWheel.Timeout idle = new TimerWheel.Timeout() {
+		@Override
+		protected void expired(long timestamp) {
+			((UDPServer) server()).idle(UDPSlave.this, timestamp);
+		}
+
+		@Override
+		protected void failed(Throwable e) {
+			handler().error(UDPSlave.this, e);
+		}
+	};
+	/** 最近接收数据报时戳 */
+	volatile long active;
 
 	public UDPSlave(UDPServer server, SocketAddress address) {
 		super(server);
 		remote_address = address;
+		active = System.currentTimeMillis();
 	}
 
 	@Override
@@ -21,6 +21,7 @@ public final class AcceptEncoding extends QualityValueHeader {
 	public final static String DEFLATE = TransferEncoding.DEFLATE;
 	public final static String IDENTITY = TransferEncoding.IDENTITY;
 	public final static String BR = "br";
+	public final static String ZSTD = "zstd";
 
 	@Override
 	public String getHeaderName() {
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.joyzl.network.buffer.DataBuffer;
+
+/**
+ * 缓存区域，消息内容为共享缓存(直接内存或文件映射)的全部或部分
+ * <p>
+ * 区域是共享缓存的切片视图，拥有独立的位置，不改变共享缓存的状态，
+ * 同一缓存可同时提供给多个连接；编码时按块批量复制到发送缓存。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月24日
+ */
+public class BufferRegion extends ContentRegion {
+
+	private final ByteBuffer buffer;
+
+	/** 缓存全部内容(0~limit) */
+	public BufferRegion(ByteBuffer source) {
+		this(source, 0, source.limit());
+	}
+
+	/** 缓存部分内容 */
+	public BufferRegion(ByteBuffer source, long offset, long length) {
+		if (offset < 0 || length < 0 || offset + length > source.limit()) {
+			throw new IndexOutOfBoundsException("长度超出范围" + (offset + length) + ">" + source.limit());
+		}
+		buffer = source.slice((int) offset, (int) length);
+	}
+
+	@Override
+	public int read(DataBuffer data, int max) throws IOException {
+		if (max >= buffer.remaining()) {
+			max = buffer.remaining();
+			data.append(buffer);
+		} else if (max > 0) {
+			final int limit = buffer.limit();
+			buffer.limit(buffer.position() + max);
+			data.append(buffer);
+			buffer.limit(limit);
+		} else {
+			return 0;
+		}
+		return max;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (buffer.hasRemaining()) {
+			return buffer.get() & 0xFF;
+		}
+		return -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (buffer.hasRemaining()) {
+			if (len > buffer.remaining()) {
+				len = buffer.remaining();
+			}
+			buffer.get(b, off, len);
+			return len;
+		}
+		return -1;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		if (n > buffer.remaining()) {
+			n = buffer.remaining();
+		}
+		if (n > 0) {
+			buffer.position(buffer.position() + (int) n);
+			return n;
+		}
+		return 0;
+	}
+
+	@Override
+	public long remaining() {
+		return buffer.remaining();
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.joyzl.network.buffer.DataBuffer;
+
+/**
+ * 内容区域，长度确定且可批量读入数据缓存的消息内容
+ * <p>
+ * 编码器通过{@link #read(DataBuffer, int)}批量读入发送缓存，避免InputStream逐字节复制；
+ * 作为InputStream使用时兼容原有消息内容处理。
+ * </p>
+ *
+ * @see FileRegion
+ * @see BufferRegion
+ * @author ZhangXi 2025年6月24日
+ */
+public abstract class ContentRegion extends InputStream {
+
+	/**
+	 * 读入数据缓存
+	 *
+	 * @param buffer 数据缓存
+	 * @param max 最多读入字节数
+	 * @return 读入字节数
+	 */
+	public abstract int read(DataBuffer buffer, int max) throws IOException;
+
+	/** 剩余字节数 */
+	public abstract long remaining();
+
+	@Override
+	public int available() throws IOException {
+		final long remaining = remaining();
+		return remaining > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) remaining;
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.http;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import com.joyzl.network.buffer.DataBuffer;
+
+/**
+ * 文件区域，消息内容为文件的全部或部分(文件通道, 起始位置, 长度)
+ * <p>
+ * 编码时通过{@link #read(DataBuffer, int)}按位置从文件通道直接读入数据缓存单元，
+ * 避免InputStream逐字节复制，内容长度确定因此可使用Content-Length而非分块传输；
+ * 按位置读取不改变通道位置，多个区域可共享同一文件通道。
+ * 作为InputStream使用时兼容原有消息内容处理。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月21日
+ */
+public class FileRegion extends ContentRegion {
+
+	private final FileChannel channel;
+	private final boolean owner;
+	private long position;
+	private long remaining;
+
+	/** 文件全部内容 */
+	public FileRegion(File file) throws IOException {
+		this(file, 0, file.length());
+	}
+
+	/** 文件部分内容 */
+	public FileRegion(File file, long offset, long length) throws IOException {
+		this(FileChannel.open(file.toPath(), StandardOpenOption.READ), offset, length, true);
+	}
+
+	/**
+	 * 文件通道部分内容
+	 *
+	 * @param owner true 关闭区域时关闭通道 / false 通道共享由调用者关闭
+	 */
+	public FileRegion(FileChannel channel, long offset, long length, boolean owner) throws IOException {
+		if (offset < 0 || length < 0 || offset + length > channel.size()) {
+			if (owner) {
+				channel.close();
+			}
+			throw new IllegalArgumentException("长度超出范围" + (offset + length) + ">" + channel.size());
+		}
+		this.channel = channel;
+		this.owner = owner;
+		this.position = offset;
+		this.remaining = length;
+	}
+
+	@Override
+	public int read(DataBuffer buffer, int max) throws IOException {
+		if (max > remaining) {
+			max = (int) remaining;
+		}
+		if (max > 0) {
+			max = buffer.append(channel, position, max);
+			if (max <= 0) {
+				throw new IOException("文件区域意外结束");
+			}
+			position += max;
+			remaining -= max;
+			return max;
+		}
+		return 0;
+	}
+
+	@Override
+	public int read() throws IOException {
+		final byte[] b = new byte[1];
+		if (read(b, 0, 1) > 0) {
+			return b[0] & 0xFF;
+		}
+		return -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (remaining <= 0) {
+			return -1;
+		}
+		if (len > remaining) {
+			len = (int) remaining;
+		}
+		len = channel.read(ByteBuffer.wrap(b, off, len), position);
+		if (len > 0) {
+			position += len;
+			remaining -= len;
+		}
+		return len;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		if (n > remaining) {
+			n = remaining;
+		}
+		if (n > 0) {
+			position += n;
+			remaining -= n;
+			return n;
+		}
+		return 0;
+	}
+
+	/** 当前文件位置 */
+	public long position() {
+		return position;
+	}
+
+	@Override
+	public long remaining() {
+		return remaining;
+	}
+
+	public FileChannel channel() {
+		return channel;
+	}
+
+	@Override
+	public void close() throws IOException {
+		remaining = 0;
+		if (owner) {
+			channel.close();
+		}
+	}
+}
@@ -4,8 +4,14 @@
  */
 package com.joyzl.network.http;
 
+import java.util.Arrays;
+
 /**
  * HTTP 2 Header 压缩表
+ * <p>
+ * 静态表名称通过switch定位，值仅比对同名条目；动态表建立名称及名称和值的散列索引，
+ * 查找时仅遍历同一散列链中未逐出的条目，不再线性扫描整个动态表。
+ * </p>
  * 
  * @author ZhangXi 2025年4月3日
  */
@@ -46,12 +52,24 @@ class HPACK extends HTTP2 {
 		return index > 0 ? index + STATIC_TABLE_SIZE : 0;
 	}
 
-	/** 获取名称对应的值索引 */
+	/**
+	 * 获取名称对应的值索引，从指定名称索引开始查找；
+	 * 静态表未匹配值时继续查找动态表中名称和值均相同的条目。
+	 */
 	public int findValue(int index, String value) {
-		if (index < 61) {
-			return getStaticValue(index, value);
+		final String name;
+		if (index <= STATIC_TABLE_SIZE) {
+			final int v = getStaticValue(index, value);
+			if (v > 0) {
+				return v;
+			}
+			name = STATIC_TABLE[index].name;
+			index = table.find(name, value, 1);
+		} else {
+			index -= STATIC_TABLE_SIZE;
+			name = table.getName(index);
+			index = table.find(name, value, index);
 		}
-		index = table.find(index - STATIC_TABLE_SIZE, value);
 		return index > 0 ? index + STATIC_TABLE_SIZE : 0;
 	}
 
@@ -79,6 +97,7 @@ class HPACK extends HTTP2 {
 
 	final static int STATIC_TABLE_SIZE = 61;
 
+	/** 获取静态表名称索引，通过字符串switch(散列)定位 */
 	final static int getStaticName(String name) {
 		switch (name) {
 			case AUTHORITY:
@@ -208,44 +227,21 @@ class HPACK extends HTTP2 {
 		}
 	}
 
+	/** 获取静态表值索引，仅比对与名称索引相同名称的条目(最多7项) */
 	final static int getStaticValue(int name, String value) {
 		if (value == null) {
 			return name;
 		}
-		switch (value) {
-			case GET:
-				return 2;
-			case POST:
-				return 3;
-			case "/":
-				return 4;
-			case "/index.html":
-				return 5;
-			case "http":
-				return 6;
-			case "https":
-				return 7;
-			case "200":
-				return 8;
-			case "204":
-				return 9;
-			case "206":
-				return 10;
-			case "304":
-				return 11;
-			case "400":
-				return 12;
-			case "404":
-				return 13;
-			case "500":
-				return 14;
-			case "":
-				return 15;
-			case "gzip, deflate":
-				return 16;
-			default:
-				return 0;
+		final String n = STATIC_TABLE[name].name;
+		while (name > 1 && STATIC_TABLE[name - 1].name == n) {
+			name--;
 		}
+		for (; name <= STATIC_TABLE_SIZE && STATIC_TABLE[name].name == n; name++) {
+			if (value.equals(STATIC_TABLE[name].value)) {
+				return name;
+			}
+		}
+		return 0;
 	}
 
 	final static Item[] STATIC_TABLE = new Item[] { // 静态头表
@@ -316,10 +312,20 @@ class HPACK extends HTTP2 {
 	static class Item {
 		final String name;
 		final String value;
+		/** 名称散列(不区分大小写)，名称和值散列 */
+		final int hash, pair;
+		/** 散列链中前一个条目的序号，-1表示结束 */
+		int names = -1, pairs = -1;
 
 		public Item(String name, String value) {
 			this.name = name;
 			this.value = value;
+			if (name == null) {
+				hash = pair = 0;
+			} else {
+				hash = HTTPHeaders.hash(name);
+				pair = value == null ? hash : hash * 31 + value.hashCode();
+			}
 		}
 
 		int size() {
@@ -346,12 +352,19 @@ class HPACK extends HTTP2 {
 		// 索引换算：B(64)-61=3 P(4)-3=1 1%3=1
 		// 注意：foot head 始终在增加直至溢出
 
+		// 散列索引：桶中存储最新条目的序号(head)，条目按序号链接同桶的前一个条目，
+		// 链中序号递减，遇到小于foot的序号(已逐出)即结束，逐出时无须维护索引
+
 		private Item[] items;
 		private int foot, head;
 		private int size;
+		/** 名称散列桶，名称和值散列桶 */
+		private int[] names, pairs;
 
 		Table() {
 			items = new Item[100];
+			names = buckets(128);
+			pairs = buckets(128);
 			head = 0;
 			foot = 0;
 		}
@@ -378,86 +391,40 @@ class HPACK extends HTTP2 {
 			return items[index].value;
 		}
 
-		// 查找
-		// START P2-1=1 ~ END P2-L3=-1;
-		// (S1)%3=1 P2-1+61=62
-		// (S0)%3=0 P2-0+61=63
-		// START P3-1=2 ~ END P3-L3=0;
-		// (S2)%3=2 P3-2+61=62
-		// (S1)%3=1 P3-1+61=63
-		// (S0)%3=0 P3-0+61=64
-		// START P4-1=3 ~ END P4-L3=1
-		// (S3)%3=0 P4-3+61=62
-		// (S2)%3=2 P4-2+61=63
-		// (S1)%3=1 P4-1+61=64
-
+		/** 查找名称(不区分大小写)，返回最新条目的索引 index:1~n */
 		int find(String name) {
+			final int hash = HTTPHeaders.hash(name);
 			Item item;
-			int index = head - 1;
-			for (; index >= foot; index--) {
-				item = items[index % items.length];
-				if (item.name.equalsIgnoreCase(name)) {
-					return head - index;
+			int seq = names[hash & (names.length - 1)];
+			while (seq >= foot) {
+				item = items[seq % items.length];
+				if (item.hash == hash && HTTPHeaders.equal(item.name, name)) {
+					return head - seq;
 				}
+				seq = item.names;
 			}
 			return 0;
 		}
 
-		int find(String name, String value) {
+		/** 查找名称和值，从指定索引开始(含)向较早的条目查找 index:1~n */
+		int find(String name, String value, int from) {
+			final int hash = HTTPHeaders.hash(name);
+			final int pair = value == null ? hash : hash * 31 + value.hashCode();
 			Item item;
-			int index = head - 1;
-			for (; index >= foot; index--) {
-				item = items[index % items.length];
-				if (item.name.equalsIgnoreCase(name)) {
-					if (value == null) {
-						if (item.value == null) {
-							return head - index;
-						}
-					} else {
-						if (item.value != null) {
-							if (item.value.equalsIgnoreCase(value)) {
-								return head - index;
-							}
-						}
-					}
-				}
-			}
-			return 0;
-		}
-
-		int find(int index, String value) {
-			// 首先比对之前查找的名称索引
-			// 如果不匹配后续需要判断名称，因此此步骤无法省略
-			Item item = items[(head - index) % items.length];
-			if (value == null) {
-				if (item.value == null) {
-					return index;
-				}
-			} else {
-				if (item.value != null) {
-					if (item.value.equals(value)) {
-						return index;
-					}
-				}
-			}
-
-			String name = item.name;
-			index = head - index - 1;
-			for (; index >= foot; index--) {
-				item = items[index % items.length];
-				if (item.name.equalsIgnoreCase(name)) {
+			int seq = pairs[pair & (pairs.length - 1)];
+			from = head - from;
+			while (seq >= foot) {
+				item = items[seq % items.length];
+				if (seq <= from && item.pair == pair && HTTPHeaders.equal(item.name, name)) {
 					if (value == null) {
 						if (item.value == null) {
-							return head - index;
-						}
-					} else {
-						if (item.value != null) {
-							if (item.value.equalsIgnoreCase(value)) {
-								return head - index;
-							}
+							return head - seq;
 						}
+					} else if (value.equals(item.value)) {
+						return head - seq;
 					}
 				}
+				seq = item.pairs;
 			}
 			return 0;
 		}
@@ -466,33 +433,60 @@ class HPACK extends HTTP2 {
 			extend();
 
 			items[head % items.length] = item;
+			link(item, head);
 			size += item.size();
 			head++;
 		}
 
 		void remove() {
 			final Item item = items[foot % items.length];
+			items[foot % items.length] = null;
 			size -= item.size();
 			foot++;
 		}
 
+		/** 将条目链接到散列桶 */
+		private void link(Item item, int seq) {
+			int bucket = item.hash & (names.length - 1);
+			item.names = names[bucket];
+			names[bucket] = seq;
+			bucket = item.pair & (pairs.length - 1);
+			item.pairs = pairs[bucket];
+			pairs[bucket] = seq;
+		}
+
 		void extend() {
 			// 检查并扩展数组
 			if (head - foot == items.length) {
+				// 条目位置由序号决定，扩展后按新长度重新放置
 				final Item[] news = new Item[items.length + 32];
-				for (int index = 0; index < head - foot; index++) {
-					news[index] = items[(foot + index) % items.length];
+				for (int seq = foot; seq < head; seq++) {
+					news[seq % news.length] = items[seq % items.length];
 				}
 				items = news;
+
+				// 散列桶数量保持不少于条目容量
+				if (items.length > names.length) {
+					names = buckets(names.length << 1);
+					pairs = buckets(pairs.length << 1);
+					for (int seq = foot; seq < head; seq++) {
+						link(items[seq % items.length], seq);
+					}
+				}
 			}
 		}
+
+		private int[] buckets(int size) {
+			final int[] buckets = new int[size];
+			Arrays.fill(buckets, -1);
+			return buckets;
+		}
 	}
 
 	/** 头列表帧的最大数量 */
 	private int maxHeaderListSize = Integer.MAX_VALUE;
 	/** 帧最大有效负载 */
 	private int maxFrameSize = Settings.DEFAULT_FRAME_SIZE;
-	private int windowSize = Settings.DEFAULT_WINDOW_SIZE;
 
 	public int getMaxHeaderListSize() {
 		return maxHeaderListSize;
@@ -509,12 +503,4 @@ class HPACK extends HTTP2 {
 	public int getMaxFrameSize() {
 		return maxFrameSize;
 	}
-
-	public void setWindowSize(int value) {
-		windowSize = value;
-	}
-
-	public int getWindowSize() {
-		return windowSize;
-	}
 }
\ No newline at end of file
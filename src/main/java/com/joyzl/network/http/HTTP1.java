@@ -174,6 +174,7 @@ public class HTTP1 {
 	public final static String Ping_To = "Ping-To";
 	public final static String Position = "Position";
 	public final static String Pragma = "Pragma";
+	public final static String Priority = "Priority";
 	public final static String ProfileObject = "ProfileObject";
 	public final static String Protocol = "Protocol";
 	public final static String Protocol_Info = "Protocol-Info";
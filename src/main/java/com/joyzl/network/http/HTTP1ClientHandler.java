@@ -84,6 +84,7 @@ public abstract class HTTP1ClientHandler implements ChainGenericsHandler<HTTPCli
 		Response response = client.getResponse();
 		if (response == null) {
 			client.setResponse(response = new Response());
+			response.token(client.token());
 		}
 		// 消息逐段解码
 		if (response.state() <= Message.COMMAND) {
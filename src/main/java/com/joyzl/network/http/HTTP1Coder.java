@@ -105,12 +105,10 @@ public class HTTP1Coder extends HTTP1 {
 	 */
 
 	/**
-	 * 读取请求首行，采用 ifString 模式减少 new String()
+	 * 读取请求首行，方法和版本从接收的字节直接匹配字符串常量，减少 new String()
 	 * <p>
-	 * 采用 ifString 模式应事先常量化字符串，并组成顺序排序数组，递进判断匹配常量字符串；如果匹配失败则 new String() 。
-	 * </p>
-	 * <p>
-	 * 此方法使用了公用字符缓存不能与其它使用公共字符缓存的方法嵌套
+	 * 数据不足时已解析的字段和部分字节暂存于消息对象，后续调用从中断位置继续解析，每个字节仅读取一次；
+	 * CR 被忽略，LF 结束首行(兼容不合规的LF结尾)。
 	 * </p>
 	 * 
 	 * @param buffer
@@ -119,28 +117,39 @@ public class HTTP1Coder extends HTTP1 {
 	 * @throws IOException
 	 */
 	public static boolean readCommand(DataBuffer buffer, Request request) throws IOException {
-		final StringBuilder builder = getStringBuilder();
-		int a = 0, b = 0, c;
-		buffer.mark();
-
-		// METHOD
-		builder.setLength(0);
-		while (buffer.readable() > 1) {
+		final HTTP1Token token = request.token();
+		int c;
+		while (buffer.readable() > 0) {
 			c = buffer.readByte();
-			if (c == SPACE) {
-				request.setMethod(METHODS.get(builder));
-				break;
-			}
 			if (c == CR) {
-				c = buffer.readByte();
+				continue;
+			}
+			if (c == SPACE || c == LF) {
+				// METHOD SPACE URL SPACE VERSION
+				if (token.part == 0) {
+					request.setMethod(token.get(METHODS));
+				} else if (token.part == 1) {
+					readURL(token.bytes(), token.size(), request);
+				} else if (token.part == 2) {
+					request.setVersion(token.get(VERSIONS));
+				}
 				if (c == LF) {
-					request.setMethod(METHODS.get(builder));
+					token.reset();
 					return true;
 				}
+				token.part++;
+				token.clear();
+				continue;
 			}
-			builder.append((char) c);
+			token.append(c);
 		}
+		return false;
+	}
 
+	/**
+	 * 解析请求URL，识别各部分位置并对百分号编码解码
+	 */
+	static void readURL(byte[] bytes, int size, Request request) {
 		// URL/URI
 		// SCHEME://HOST:PORT/PATH?PARAMETERS#ANCHOR
 		// GET /background.png HTTP/1.0
@@ -154,23 +163,12 @@ public class HTTP1Coder extends HTTP1 {
 		// AJAX 中 '+' 编码为 %2b，空格编码为 '+'，遵循application/x-www-form-urlencoded
 		// 向新标准RFC3986靠拢，保持 '+' 不变
 
-		a = b = 0;
-		builder.setLength(0);
+		final StringBuilder builder = getStringBuilder();
+		int a = 0, b = 0, c;
 		request.setQuery(0);
 		request.setAnchor(0);
-		while (buffer.readable() > 1) {
-			c = buffer.readByte();
-			if (c == SPACE) {
-				request.setUrl(builder.toString());
-				break;
-			}
-			if (c == CR) {
-				c = buffer.readByte();
-				if (c == LF) {
-					request.setUrl(builder.toString());
-					return true;
-				}
-			}
+		for (int index = 0; index < size; index++) {
+			c = bytes[index] & 0xFF;
 			if (c == COLON) {
 				if (a == 0 && b == 0) {
 					request.setPort(builder.length() + 1);
@@ -195,41 +193,18 @@ public class HTTP1Coder extends HTTP1 {
 				request.setAnchor(builder.length());
 			} else if (c == '%') {
 				// 百分号编码字节
-				percentDecode(buffer, builder);
+				index = percentDecode(bytes, index + 1, size, builder) - 1;
 				continue;
 			}
-			// else if (c == '+') {
-			// c = SPACE;
-			// }
-			builder.append((char) c);
-		}
-
-		// VERSION
-		builder.setLength(0);
-		while (buffer.readable() > 1) {
-			c = buffer.readByte();
-			if (c == SPACE) {
-				request.setVersion(VERSIONS.get(builder));
-				break;
-			}
-			if (c == CR) {
-				c = buffer.readByte();
-				if (c == LF) {
-					request.setVersion(VERSIONS.get(builder));
-					return true;
-				}
-			}
 			builder.append((char) c);
 		}
-
-		buffer.reset();
-		return false;
+		request.setUrl(builder.toString());
 	}
 
 	/**
 	 * 读取响应首行
 	 * <p>
-	 * 此方法使用了公用字符缓存不能与其它使用公共字符缓存的方法嵌套
+	 * 数据不足时已解析的字段和部分字节暂存于消息对象，后续调用从中断位置继续解析，每个字节仅读取一次。
 	 * </p>
 	 * 
 	 * @param buffer
@@ -238,67 +213,56 @@ public class HTTP1Coder extends HTTP1 {
 	 * @throws IOException
 	 */
 	public static boolean readCommand(DataBuffer buffer, Response response) throws IOException {
-		final StringBuilder builder = getStringBuilder();
+		final HTTP1Token token = response.token();
 		int c;
-		buffer.mark();
-
-		// VERSION
-		while (buffer.readable() > 1) {
+		while (buffer.readable() > 0) {
 			c = buffer.readByte();
-			if (c == SPACE) {
-				response.setVersion(VERSIONS.get(builder));
-				break;
-			}
 			if (c == CR) {
-				c = buffer.readByte();
-				if (c == LF) {
-					response.setVersion(VERSIONS.get(builder));
-					return true;
-				}
-			}
-			builder.append((char) c);
-		}
-
-		// STATUS
-		builder.setLength(0);
-		while (buffer.readable() > 1) {
-			c = buffer.readByte();
-			if (c == SPACE) {
-				response.setStatus(Integer.parseUnsignedInt(builder, 0, builder.length(), 10));
-				break;
+				continue;
 			}
-			if (c == CR) {
-				c = buffer.readByte();
+			// VERSION SPACE STATUS SPACE TEXTS
+			if (c == LF || c == SPACE && token.part < 2) {
+				if (token.part == 0) {
+					response.setVersion(token.get(VERSIONS));
+				} else if (token.part == 1) {
+					response.setStatus(readStatus(token.bytes(), token.size()));
+				} else {
+					response.setText(token.text());
+				}
 				if (c == LF) {
-					response.setStatus(Integer.parseUnsignedInt(builder, 0, builder.length(), 10));
+					token.reset();
 					return true;
 				}
+				token.part++;
+				token.clear();
+				continue;
 			}
-			builder.append((char) c);
+			token.append(c);
 		}
+		return false;
+	}
 
-		// TEXTS
-		builder.setLength(0);
-		while (buffer.readable() > 1) {
-			c = buffer.readByte();
-			if (c == CR) {
-				c = buffer.readByte();
-				if (c == LF) {
-					response.setText(builder.toString());
-					return true;
-				}
+	/** 解析状态码 */
+	static int readStatus(byte[] bytes, int size) {
+		if (size == 0) {
+			throw new NumberFormatException("HTTP1:状态码无效");
+		}
+		int value = 0, digit;
+		for (int index = 0; index < size; index++) {
+			digit = Character.digit(bytes[index], 10);
+			if (digit < 0) {
+				throw new NumberFormatException("HTTP1:状态码无效");
 			}
-			builder.append((char) c);
+			value = value * 10 + digit;
 		}
-
-		buffer.reset();
-		return false;
+		return value;
 	}
 
 	/**
-	 * 读取请求或响应标头
+	 * 读取请求或响应标头，标头名称从接收的字节直接匹配字符串常量
 	 * <p>
-	 * 此方法使用了公用字符缓存不能与其它使用公共字符缓存的方法嵌套
+	 * 数据不足时已解析的标头名称和部分字节暂存于消息对象，后续调用从中断位置继续解析，每个字节仅读取一次；
+	 * 标头读取完成后释放暂存。
 	 * </p>
 	 * 
 	 * @param buffer
@@ -307,65 +271,47 @@ public class HTTP1Coder extends HTTP1 {
 	 * @throws IOException
 	 */
 	public static boolean readHeaders(DataBuffer buffer, HTTPMessage message) throws IOException {
-		final StringBuilder builder = getStringBuilder();
+		final HTTP1Token token = message.token();
 		int c;
-		buffer.mark();
-
-		String name = null;
-		while (buffer.readable() > 1) {
-			// NAME
-			builder.setLength(0);
-			do {
-				c = buffer.readByte();
-				if (c == CR) {
-					c = buffer.readByte();
-					if (c == LF) {
-						// 符合规范的CRLF结尾
-						return true;
-					}
-				}
+		while (buffer.readable() > 0) {
+			c = buffer.readByte();
+			if (c == CR) {
+				// 符合规范的CRLF结尾和不合规的LF结尾
+				// 在cs531a5测试中有出现LF结尾
+				continue;
+			}
+			if (token.part == 0) {
+				// NAME
 				if (c == LF) {
-					// 不合规的LF结尾
-					// 在cs531a5测试中有出现
+					// 空行
+					message.clearToken();
 					return true;
 				}
 				if (c == COLON) {
-					name = HEADERS.get(builder);
-					break;
-				}
-				builder.append((char) c);
-			} while (buffer.readable() > 1);
-
-			// VALUE
-			builder.setLength(0);
-			while (buffer.readable() > 1) {
-				c = buffer.readByte();
-				if (c == CR) {
-					c = buffer.readByte();
-					if (c == LF) {
-						// 符合规范的CRLF结尾
-						message.getHeaders().put(name, builder.toString());
-						buffer.mark();
-						break;
-					}
+					token.name = token.get(HEADERS);
+					token.part = 1;
+					token.clear();
+					continue;
 				}
+				token.append(c);
+			} else {
+				// VALUE
 				if (c == LF) {
-					// 不合规的LF结尾
-					// 在cs531a5测试中有出现
-					message.getHeaders().put(name, builder.toString());
-					buffer.mark();
-					break;
-				}
-				if (Character.isWhitespace(c)) {
-					if (builder.length() == 0) {
-						continue;
+					if (token.name == Set_Cookie) {
+						// 多项值
+						message.getHeaders().add(token.name, token.text());
+					} else {
+						message.getHeaders().put(token.name, token.text());
 					}
+					token.reset();
+					continue;
 				}
-				builder.append((char) c);
+				if (token.size() == 0 && Character.isWhitespace(c)) {
+					continue;
+				}
+				token.append(c);
 			}
 		}
-
-		buffer.reset();
 		return false;
 	}
 
@@ -593,19 +539,37 @@ public class HTTP1Coder extends HTTP1 {
 	 * @throws IOException
 	 */
 	public static boolean writeHeaders(DataBuffer buffer, Request message) throws IOException {
-		for (Entry<String, String> header : message.getHeaders().entrySet()) {
-			if (header.getKey() != null && header.getValue() != null) {
-				buffer.writeASCIIs(header.getKey());
-				buffer.writeASCII(COLON);
-				buffer.writeASCII(SPACE);
-				buffer.writeASCIIs(header.getValue());
-				buffer.writeASCII(CR);
-				buffer.writeASCII(LF);
+		writeHeaders(buffer, message.getHeaders());
+		buffer.writeASCII(CR);
+		buffer.writeASCII(LF);
+		return true;
+	}
+
+	/**
+	 * 输出标头集合，常用标头按位置遍历避免创建条目对象，忽略空值
+	 */
+	static void writeHeaders(DataBuffer buffer, HTTPHeaders headers) throws IOException {
+		for (int index = 0; index < headers.known(); index++) {
+			if (headers.value(index) != null) {
+				writeHeader(buffer, headers.name(index), headers.value(index));
+			}
+		}
+		if (headers.others() != null) {
+			for (Entry<String, String> header : headers.others()) {
+				if (header.getValue() != null) {
+					writeHeader(buffer, header.getKey(), header.getValue());
+				}
 			}
 		}
+	}
+
+	private static void writeHeader(DataBuffer buffer, String name, String value) throws IOException {
+		buffer.writeASCIIs(name);
+		buffer.writeASCII(COLON);
+		buffer.writeASCII(SPACE);
+		buffer.writeASCIIs(value);
 		buffer.writeASCII(CR);
 		buffer.writeASCII(LF);
-		return true;
 	}
 
 	/**
@@ -617,17 +581,7 @@ public class HTTP1Coder extends HTTP1 {
 	 * @throws IOException
 	 */
 	public static boolean writeHeaders(DataBuffer buffer, Response message) throws IOException {
-		for (Entry<String, String> header : message.getHeaders().entrySet()) {
-			if (header.getKey() != null && header.getValue() != null) {
-
-				buffer.writeASCIIs(header.getKey());
-				buffer.writeASCII(COLON);
-				buffer.writeASCII(SPACE);
-				buffer.writeASCIIs(header.getValue());
-				buffer.writeASCII(CR);
-				buffer.writeASCII(LF);
-			}
-		}
+		writeHeaders(buffer, message.getHeaders());
 
 		// 这是特殊处理，输出服务端配置的附加信息头
 		// 通常这些附加头信息是静态的集合
@@ -714,9 +668,16 @@ public class HTTP1Coder extends HTTP1 {
 				}
 			}
 		} else //
+		if (message.getContent() instanceof ContentRegion content) {
+			content.read(buffer, max);
+			if (content.remaining() > 0) {
+				return false;
+			}
+		} else //
 		if (message.getContent() instanceof InputStream content) {
 			int length = buffer.write(content, max);
-			if (length == max) {
+			// 流已无数据时结束，避免下次编码零数据
+			if (length == max && content.available() > 0) {
 				return false;
 			}
 		} else {
@@ -868,7 +829,11 @@ public class HTTP1Coder extends HTTP1 {
 				buffer.writeASCII(LF);
 
 				// CONTENT
-				max -= buffer.write(part.getContent());
+				if (part.getContent() instanceof ContentRegion content) {
+					max -= content.read(buffer, (int) content.remaining());
+				} else {
+					max -= buffer.write(part.getContent());
+				}
 				buffer.writeASCII(CR);
 				buffer.writeASCII(LF);
 			}
@@ -975,6 +940,45 @@ public class HTTP1Coder extends HTTP1 {
 		}
 	}
 
+	/**
+	 * 百分号解码字节片段，假定第一个'%'已被识别，连续的百分号编码字节按UTF-8解码为字符；
+	 * 如果'%'之后不是有效的两位16进制字符则保留'%'，其后字符由调用者继续处理。
+	 * 
+	 * @param offset '%'之后的位置
+	 * @return 解码结束位置
+	 */
+	static int percentDecode(byte[] bytes, int offset, int size, StringBuilder builder) {
+		byte[] decoded = null;
+		int h, l, length = 0;
+		while (offset + 1 < size) {
+			if ((h = Character.digit(bytes[offset], 16)) < 0) {
+				break;
+			}
+			if ((l = Character.digit(bytes[offset + 1], 16)) < 0) {
+				break;
+			}
+			if (decoded == null) {
+				decoded = new byte[(size - offset) / 2];
+			}
+			decoded[length++] = (byte) (h * 16 + l);
+			offset += 2;
+			if (offset < size && bytes[offset] == '%') {
+				// 可能连续
+				offset++;
+				continue;
+			}
+			// 正常结束
+			builder.append(new String(decoded, 0, length, StandardCharsets.UTF_8));
+			return offset;
+		}
+		// 无效的百分号编码
+		if (length > 0) {
+			builder.append(new String(decoded, 0, length, StandardCharsets.UTF_8));
+		}
+		builder.append('%');
+		return offset;
+	}
+
 	/**
 	 * 百分号编码字节<br>
 	 * 保留字符：ASCII 'a'~'z' 'A'~'Z' '0'~'9' '-' '_' '*' '.'；<br>
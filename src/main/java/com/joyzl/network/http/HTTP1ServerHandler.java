@@ -29,6 +29,7 @@ public abstract class HTTP1ServerHandler implements ChainGenericsHandler<HTTPSla
 		Request request = slave.getRequest();
 		if (request == null) {
 			slave.setRequest(request = new Request());
+			request.token(slave.token());
 		}
 		// 消息逐段解码
 		if (request.state() <= Message.COMMAND) {
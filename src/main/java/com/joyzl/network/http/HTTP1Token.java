@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.joyzl.network.StringSeeker;
+
+/**
+ * HTTP1 首行和标头解码暂存
+ * <p>
+ * 消息可能需要多次接收数据才能完成解码，此对象随消息保存当前解析的片段及已接收的部分字节，
+ * 后续数据到达时从中断位置继续解析，已解析的字节不会被重复扫描。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月12日
+ */
+final class HTTP1Token {
+
+	/** 当前解析的片段，首行中为第几个字段，标头中0名称1值 */
+	int part;
+	/** 已解析的标头名称 */
+	String name;
+
+	private byte[] bytes = new byte[64];
+	private int size;
+
+	/** 追加字节，容量不足时扩展 */
+	void append(int c) {
+		if (size == bytes.length) {
+			bytes = Arrays.copyOf(bytes, bytes.length * 2);
+		}
+		bytes[size++] = (byte) c;
+	}
+
+	/** 已暂存的字节数量 */
+	int size() {
+		return size;
+	}
+
+	/** 已暂存的字节 */
+	byte[] bytes() {
+		return bytes;
+	}
+
+	/** 清除暂存字节，开始下一个片段 */
+	void clear() {
+		size = 0;
+	}
+
+	/** 重置所有状态 */
+	void reset() {
+		part = 0;
+		name = null;
+		size = 0;
+	}
+
+	/** 获取匹配的字符串常量，没有匹配时创建字符串 */
+	String get(StringSeeker seeker) {
+		return seeker.get(bytes, 0, size);
+	}
+
+	/** 获取字符串(ISO-8859-1) */
+	String text() {
+		return new String(bytes, 0, size, StandardCharsets.ISO_8859_1);
+	}
+}
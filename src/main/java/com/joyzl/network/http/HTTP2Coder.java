@@ -127,6 +127,8 @@ public class HTTP2Coder extends HTTP2 {
 	final static byte GOAWAY = 0x7;
 	final static byte WINDOW_UPDATE = 0x8;
 	final static byte CONTINUATION = 0x9;
+	/** RFC 9218 */
+	final static byte PRIORITY_UPDATE = 0x10;
 
 	// Frame Flag
 
@@ -320,7 +322,7 @@ public class HTTP2Coder extends HTTP2 {
 	}
 
 	/** Server */
-	static Object read(HPACK hpack, HTTP2Index<Request> im, DataBuffer buffer) throws IOException {
+	static Object read(HPACK hpack, HTTP2Index<Request> im, HTTP2Flow flow, DataBuffer buffer) throws IOException {
 		// 帧头9字节
 		if (buffer.readable() < 9) {
 			return null;
@@ -362,6 +364,12 @@ public class HTTP2Coder extends HTTP2 {
 					return new Goaway(id, PROTOCOL_ERROR);
 				}
 				if (type == DATA) {
+					// 整个负载(含填充)计入流量控制
+					if (!flow.receive(id, length)) {
+						buffer.skipBytes(length);
+						// 超过接收窗口
+						return new Goaway(id, FLOW_CONTROL_ERROR);
+					}
 					int pad = 0;
 					if (isPadded(flag)) {
 						pad = buffer.readUnsignedByte();
@@ -379,12 +387,6 @@ public class HTTP2Coder extends HTTP2 {
 							// 错误的流标识
 							return new Goaway(id, PROTOCOL_ERROR);
 						}
-					} else {
-						if (request.contentSize() > hpack.getWindowSize()) {
-							buffer.skipBytes(length + pad);
-							// 流数据超过窗口大小
-							return new ResetStream(id, REFUSED_STREAM);
-						}
 					}
 					readData(buffer, request, length);
 					if (pad > 0) {
@@ -425,13 +427,14 @@ public class HTTP2Coder extends HTTP2 {
 							return new Goaway(id, REFUSED_STREAM);
 						}
 						im.put(id, request = new Request(id, HTTP1.V20));
+						flow.open(id);
 					}
 					if (isPriority(flag)) {
 						length -= 5;
 						// E|Stream Dependency? (31)
 						request.setDependency(buffer.readInt());
-						// Weight? (8)
-						request.setWeight(buffer.readUnsignedByte());
+						// Weight? (8) 1~256
+						request.setWeight(buffer.readUnsignedByte() + 1);
 					}
 					readHeaders(hpack, buffer, request, length);
 					if (pad > 0) {
@@ -461,7 +464,7 @@ public class HTTP2Coder extends HTTP2 {
 				} else if (type == WINDOW_UPDATE) {
 					final WindowUpdate wu = new WindowUpdate(id);
 					// R|Window Size Increment (31)
-					wu.setIncrement(buffer.readInt());
+					wu.setIncrement(buffer.readInt() & 0x7FFFFFFF);
 					return wu;
 				} else if (type == RST_STREAM) {
 					final ResetStream resetStream = new ResetStream(id);
@@ -494,11 +497,27 @@ public class HTTP2Coder extends HTTP2 {
 				} else if (type == WINDOW_UPDATE) {
 					final WindowUpdate wu = new WindowUpdate(id);
 					// R|Window Size Increment (31)
-					wu.setIncrement(buffer.readInt());
+					wu.setIncrement(buffer.readInt() & 0x7FFFFFFF);
 					return wu;
 				} else if (type == PING) {
 					// Opaque Data (64)
 					return new Ping(isAck(flag), buffer.readLong());
+				} else if (type == PRIORITY_UPDATE) {
+					if (length < 4) {
+						buffer.skipBytes(length);
+						return new Goaway(FRAME_SIZE_ERROR);
+					}
+					// R|Prioritized Stream ID (31)
+					final Priority priority = new Priority(buffer.readInt() & 0x7FFFFFFF);
+					// Priority Field Value (*)
+					final StringBuilder builder = getStringBuilder();
+					for (length -= 4; length > 0; length--) {
+						builder.append(buffer.readASCII());
+					}
+					final int value = PriorityStream.parse(builder.toString());
+					priority.setUrgency(value < 0 ? PriorityStream.DEFAULT_URGENCY : value >> 1);
+					priority.setIncremental(value > 0 && (value & 1) == 1);
+					return priority;
 				} else if (type == GOAWAY) {
 					return readGoaway(buffer, length);
 				} else {
@@ -603,7 +622,7 @@ public class HTTP2Coder extends HTTP2 {
 					throw new HTTP2Exception(PROTOCOL_ERROR);
 				}
 			} else {
-				response.getHeaders().put(name, value);
+				response.getHeaders().add(name, value);
 			}
 		}
 	}
@@ -694,7 +713,7 @@ public class HTTP2Coder extends HTTP2 {
 					throw new HTTP2Exception(PROTOCOL_ERROR);
 				}
 			} else {
-				request.getHeaders().put(name, value);
+				request.getHeaders().add(name, value);
 			}
 		}
 	}
@@ -790,11 +809,7 @@ public class HTTP2Coder extends HTTP2 {
 		}
 
 		// 标准头
-		for (Entry<String, String> header : request.getHeaders().entrySet()) {
-			if (header.getKey() != null) {
-				writeHeader(hpack, buffer, header.getKey(), header.getValue());
-			}
-		}
+		writeHeaders(hpack, buffer, request.getHeaders());
 
 		// SET LENGTH
 		int length = buffer.readable() - position - 9;
@@ -834,11 +849,7 @@ public class HTTP2Coder extends HTTP2 {
 		writeHeader(hpack, buffer, STATUS, Integer.toString(response.getStatus()));
 
 		// 标准头
-		for (Entry<String, String> header : response.getHeaders().entrySet()) {
-			if (header.getKey() != null) {
-				writeHeader(hpack, buffer, header.getKey(), header.getValue());
-			}
-		}
+		writeHeaders(hpack, buffer, response.getHeaders());
 
 		// SET LENGTH
 		int length = buffer.readable() - position - 9;
@@ -862,6 +873,22 @@ public class HTTP2Coder extends HTTP2 {
 		}
 	}
 
+	/** HPACK Encode 标头集合，忽略空值 */
+	static void writeHeaders(HPACK hpack, DataBuffer buffer, HTTPHeaders headers) throws IOException {
+		for (int index = 0; index < headers.known(); index++) {
+			if (headers.value(index) != null) {
+				writeHeader(hpack, buffer, headers.name(index), headers.value(index));
+			}
+		}
+		if (headers.others() != null) {
+			for (Entry<String, String> header : headers.others()) {
+				if (header.getValue() != null) {
+					writeHeader(hpack, buffer, header.getKey(), header.getValue());
+				}
+			}
+		}
+	}
+
 	/** HPACK Encode */
 	static void writeHeader(HPACK hpack, DataBuffer buffer, String name, String value) throws IOException {
 		int n = hpack.findName(name);
@@ -908,9 +935,34 @@ public class HTTP2Coder extends HTTP2 {
 		// writeHuffman(header.getHeaderValue(), buffer);
 	}
 
-	/** Frame HEAD | DATA */
+	/**
+	 * 空数据帧，不结束流，负载为零不占用流量控制窗口
+	 */
+	static void writeData(DataBuffer buffer, int id) throws IOException {
+		// Length (24)
+		buffer.writeMedium(0);
+		// Type (8)
+		buffer.writeByte(DATA);
+		// Flags (8)
+		buffer.writeByte(0);
+		// R|Stream Identifier (32)
+		buffer.writeInt(id);
+	}
+
+	/**
+	 * Frame HEAD | DATA
+	 *
+	 * @param length 本帧最大负载(含填充)，不超过最大帧和流量控制窗口
+	 * @return true 已写入END_STREAM
+	 */
 	static boolean writeData(HTTPMessage message, DataBuffer buffer, int length) throws IOException {
 		if (message.hasContent()) {
+			if (message.getContent() instanceof CharSequence text) {
+				// 转换为数据缓存以便分帧发送
+				final DataBuffer content = DataBuffer.instance();
+				content.writeASCIIs(text);
+				message.setContent(content);
+			}
 			if (message.getContent() instanceof DataBuffer content) {
 				if (content.readable() > length) {
 					// Length (24)
@@ -925,7 +977,8 @@ public class HTTP2Coder extends HTTP2 {
 					buffer.append(content, length);
 					return false;
 				} else {
-					int pad = length - content.readable();
+					// 1 = Pad length 1Byte
+					int pad = length - content.readable() - 1;
 					if (pad > 8) {
 						pad = 8 - pad % 8;
 					}
@@ -962,18 +1015,22 @@ public class HTTP2Coder extends HTTP2 {
 					return true;
 				}
 			}
-			if (message.getContent() instanceof CharSequence content) {
+			if (message.getContent() instanceof ContentRegion content) {
+				final boolean end = content.remaining() <= length;
+				if (end) {
+					length = (int) content.remaining();
+				}
 				// Length (24)
-				buffer.writeMedium(content.length());
+				buffer.writeMedium(length);
 				// Type (8)
 				buffer.writeByte(DATA);
 				// Flags (8)
-				buffer.writeByte(FLAG_END_STREAM);
+				buffer.writeByte(end ? FLAG_END_STREAM : 0);
 				// R|Stream Identifier (32)
 				buffer.writeInt(message.id());
 				// Data (*)
-				buffer.writeASCIIs(content);
-				return true;
+				content.read(buffer, length);
+				return end;
 			}
 			return true;
 		} else {
@@ -981,6 +1038,20 @@ public class HTTP2Coder extends HTTP2 {
 		}
 	}
 
+	/** Frame HEAD | WINDOW_UPDATE */
+	static void write(DataBuffer buffer, WindowUpdate update) throws IOException {
+		// Length (24)
+		buffer.writeMedium(4);
+		// Type (8)
+		buffer.writeByte(WINDOW_UPDATE);
+		// Flags (8)
+		buffer.writeByte(0);
+		// R|Stream Identifier (32)
+		buffer.writeInt(update.id());
+		// R|Window Size Increment (31)
+		buffer.writeInt(update.getIncrement() & 0x7FFFFFFF);
+	}
+
 	static void write(DataBuffer buffer, Priority priority) throws IOException {
 		// Length (24)
 		buffer.writeMedium(5);
@@ -1210,6 +1281,8 @@ public class HTTP2Coder extends HTTP2 {
 				return "WINDOW_UPDATE";
 			case CONTINUATION:
 				return "CONTINUATION";
+			case PRIORITY_UPDATE:
+				return "PRIORITY_UPDATE";
 			default:
 				return "UNKNOWN";
 		}
@@ -0,0 +1,247 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.http;
+
+import com.joyzl.network.IndexMap;
+import com.joyzl.network.IndexMap.Entry;
+
+/**
+ * HTTP2 流量控制窗口
+ * <p>
+ * 发送：连接和流各有发送窗口，DATA帧不能超过两者中较小的窗口；
+ * 流窗口记录为相对于对端初始窗口(SETTINGS_INITIAL_WINDOW_SIZE)的偏移，初始窗口变更时所有流窗口随之调整；
+ * 窗口耗尽的消息暂停发送(阻塞)，收到WINDOW_UPDATE窗口恢复后再继续发送。
+ * </p>
+ * <p>
+ * 接收：累计连接和流已接收的DATA帧负载(含填充)，超过本端通告的窗口视为流量控制错误；
+ * 累计未通告的接收量达到窗口一半时，通过WINDOW_UPDATE通告对端。
+ * </p>
+ * <p>
+ * 接收和发送在不同线程中执行，所有方法均同步。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月18日
+ */
+final class HTTP2Flow {
+
+	/** 流窗口 */
+	static class Window {
+		/** 发送窗口相对初始窗口的偏移 */
+		int offset;
+		/** 已接收未通告的字节数 */
+		int received;
+		/** 窗口耗尽暂停发送的消息 */
+		Message blocked;
+	}
+
+	private final IndexMap<Window> streams = new IndexMap<>(100);
+	/** 对端通告的流初始窗口 */
+	private int initial = Settings.DEFAULT_WINDOW_SIZE;
+	/** 连接发送窗口 */
+	private int connection = Settings.DEFAULT_WINDOW_SIZE;
+	/** 本端通告的流初始窗口(连接接收窗口保持默认值) */
+	private int window = Settings.DEFAULT_WINDOW_SIZE;
+	/** 连接已接收未通告的字节数 */
+	private int received;
+	/** 阻塞的消息数量 */
+	private int blocks;
+
+	////////////////////////////////////////////////////////////////////////////////
+	// 发送
+
+	/**
+	 * 设置对端通告的流初始窗口，已有流的窗口随之调整
+	 *
+	 * @return false 流窗口溢出
+	 */
+	synchronized boolean initial(int value) {
+		for (Entry<Window> entry : streams) {
+			if ((long) value + entry.value().offset > Settings.MAX_WINDOW_SIZE) {
+				return false;
+			}
+		}
+		initial = value;
+		return true;
+	}
+
+	/** 获取流可发送的字节数，不超过指定长度 */
+	synchronized int sendable(int id, int length) {
+		final Window stream = streams.get(id);
+		int size = stream == null ? initial : initial + stream.offset;
+		if (size > connection) {
+			size = connection;
+		}
+		if (size > length) {
+			size = length;
+		}
+		return size > 0 ? size : 0;
+	}
+
+	/** 扣减已发送的字节数 */
+	synchronized void sent(int id, int size) {
+		if (size > 0) {
+			connection -= size;
+			open(id).offset -= size;
+		}
+	}
+
+	/**
+	 * 窗口耗尽时阻塞消息，窗口恢复后通过{@link #resume()}取回
+	 *
+	 * @return true 已阻塞 / false 窗口仍可发送
+	 */
+	synchronized boolean block(Message message) {
+		if (sendable(message.id(), 1) > 0) {
+			return false;
+		}
+		final Window stream = open(message.id());
+		if (stream.blocked == null) {
+			blocks++;
+		}
+		stream.blocked = message;
+		return true;
+	}
+
+	/**
+	 * 取回一个窗口已恢复的阻塞消息
+	 *
+	 * @return 消息 / null 没有可恢复的消息
+	 */
+	synchronized Message resume() {
+		if (blocks > 0 && connection > 0) {
+			Window stream;
+			for (Entry<Window> entry : streams) {
+				stream = entry.value();
+				if (stream.blocked != null && initial + stream.offset > 0) {
+					final Message message = stream.blocked;
+					stream.blocked = null;
+					blocks--;
+					return message;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 对端通告窗口增量(WINDOW_UPDATE)
+	 *
+	 * @param id 0连接 / 流标识
+	 * @return false 窗口溢出
+	 */
+	synchronized boolean update(int id, int increment) {
+		if (id == 0) {
+			if ((long) connection + increment > Settings.MAX_WINDOW_SIZE) {
+				return false;
+			}
+			connection += increment;
+		} else {
+			final Window stream = streams.get(id);
+			if (stream != null) {
+				if ((long) initial + stream.offset + increment > Settings.MAX_WINDOW_SIZE) {
+					return false;
+				}
+				stream.offset += increment;
+			}
+			// 已关闭的流忽略
+		}
+		return true;
+	}
+
+	////////////////////////////////////////////////////////////////////////////////
+	// 接收
+
+	/** 设置本端通告的流初始窗口 */
+	synchronized void window(int value) {
+		window = value;
+	}
+
+	/**
+	 * 累计接收的DATA帧负载
+	 *
+	 * @return false 超过接收窗口
+	 */
+	synchronized boolean receive(int id, int size) {
+		received += size;
+		if (received > Settings.DEFAULT_WINDOW_SIZE) {
+			return false;
+		}
+		final Window stream = streams.get(id);
+		if (stream != null) {
+			stream.received += size;
+			if (stream.received > window) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 获取连接应通告的窗口增量并重新累计
+	 *
+	 * @return 增量 / 0 未达到通告条件
+	 */
+	synchronized int receiveUpdate() {
+		if (received >= Settings.DEFAULT_WINDOW_SIZE / 2) {
+			final int increment = received;
+			received = 0;
+			return increment;
+		}
+		return 0;
+	}
+
+	/**
+	 * 获取流应通告的窗口增量并重新累计
+	 *
+	 * @return 增量 / 0 未达到通告条件
+	 */
+	synchronized int receiveUpdate(int id) {
+		final Window stream = streams.get(id);
+		if (stream != null && stream.received >= window / 2) {
+			final int increment = stream.received;
+			stream.received = 0;
+			return increment;
+		}
+		return 0;
+	}
+
+	////////////////////////////////////////////////////////////////////////////////
+
+	/** 打开流(接收到请求头或发送流消息时) */
+	synchronized Window open(int id) {
+		Window stream = streams.get(id);
+		if (stream == null) {
+			streams.put(id, stream = new Window());
+		}
+		return stream;
+	}
+
+	/**
+	 * 关闭流，移除流窗口
+	 *
+	 * @return 阻塞的消息 / null
+	 */
+	synchronized Message close(int id) {
+		final Window stream = streams.remove(id);
+		if (stream != null && stream.blocked != null) {
+			blocks--;
+			return stream.blocked;
+		}
+		return null;
+	}
+
+	/** 清除所有流，释放阻塞消息的内容 */
+	synchronized void clear() throws Exception {
+		if (blocks > 0) {
+			for (Entry<Window> entry : streams) {
+				if (entry.value().blocked != null) {
+					entry.value().blocked.clearContent();
+				}
+			}
+		}
+		streams.clear();
+		blocks = 0;
+	}
+}
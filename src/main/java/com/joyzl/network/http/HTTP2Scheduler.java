@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.http;
+
+import java.io.IOException;
+
+/**
+ * HTTP2 发送调度
+ * <p>
+ * 同一连接中多个流的消息交错发送，每发送一帧之前通过{@link #stream()}选择消息，
+ * 消息发送完成后通过{@link #remove()}移除；调度决定各个流获得带宽的顺序和比例。
+ * </p>
+ * <ul>
+ * <li>{@link Stream} 轮换调度，各消息依次发送一帧</li>
+ * <li>{@link PriorityStream} 优先级调度，按紧急程度(RFC 9218)或权重(RFC 7540)选择消息</li>
+ * </ul>
+ *
+ * @author ZhangXi 2025年6月20日
+ * @param <M> 消息类型
+ */
+public interface HTTP2Scheduler<M> {
+
+	/** 消息数量 */
+	int size();
+
+	/** 是否无消息 */
+	boolean isEmpty();
+
+	/** 添加消息 */
+	void add(M m);
+
+	/** 获取下一个发送的消息，只要还有消息此方法始终返回消息 */
+	M stream();
+
+	/** 移除当前获取的消息，既stream()获取的消息 */
+	void remove();
+
+	/** 移除指定消息 */
+	void remove(M m);
+
+	/** 清除所有消息，如果消息携带资源并实现Closeable接口将自动关闭 */
+	void clear() throws IOException;
+
+	void capacity(int value);
+
+	int capacity();
+
+	/**
+	 * 更新流的优先级(PRIORITY / PRIORITY_UPDATE)，不支持优先级的调度忽略
+	 *
+	 * @param id 流标识
+	 * @param urgency 紧急程度 0~7，数值越小越优先
+	 * @param incremental 是否增量(与同级消息交错发送)
+	 */
+	default void priority(int id, int urgency, boolean incremental) {
+	}
+}
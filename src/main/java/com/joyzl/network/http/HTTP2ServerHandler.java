@@ -26,7 +26,7 @@ public abstract class HTTP2ServerHandler implements ChainGenericsHandler<HTTPSla
 
 	@Override
 	public Object decode(HTTPSlave slave, DataBuffer buffer) throws Exception {
-		return HTTP2Coder.read(slave.requestHPACK(), slave.messages(), buffer);
+		return HTTP2Coder.read(slave.requestHPACK(), slave.messages(), slave.flow(), buffer);
 	}
 
 	@Override
@@ -34,11 +34,22 @@ public abstract class HTTP2ServerHandler implements ChainGenericsHandler<HTTPSla
 		if (message == null) {
 			slave.messages().clear();
 		} else if (message instanceof Request request) {
+			// 按接收消耗通告窗口
+			int increment = slave.flow().receiveUpdate();
+			if (increment > 0) {
+				slave.send(new WindowUpdate(0, increment));
+			}
 			if (request.state() == Message.COMPLETE) {
 				final Response response = new Response();
 				response.setVersion(request.getVersion());
 				response.id(request.id());
+				PriorityStream.priority(request, response);
 				received(slave, request, response);
+			} else {
+				increment = slave.flow().receiveUpdate(request.id());
+				if (increment > 0) {
+					slave.send(new WindowUpdate(request.id(), increment));
+				}
 			}
 		} else if (message instanceof Settings settings) {
 			if (settings.isACK()) {
@@ -48,15 +59,31 @@ public abstract class HTTP2ServerHandler implements ChainGenericsHandler<HTTPSla
 				}
 			}
 		} else if (message instanceof Priority priority) {
-			if (priority.getDependency() > 0 && priority.getDependency() != priority.id()) {
-
+			if (priority.getUrgency() >= 0) {
+				// RFC 9218 PRIORITY_UPDATE
+				slave.priority(priority.id(), priority.getUrgency(), priority.isIncremental());
+			} else if ((priority.getDependency() & 0x7FFFFFFF) == priority.id()) {
+				// 流不能依赖自身
+				slave.send(new ResetStream(priority.id(), HTTP2.PROTOCOL_ERROR));
 			} else {
-				slave.send(new Goaway(HTTP2.PROTOCOL_ERROR));
+				// RFC 7540 权重 1~256
+				slave.priority(priority.id(), PriorityStream.urgency((priority.getWeight() & 0xFF) + 1), false);
 			}
 		} else if (message instanceof WindowUpdate windowUpdate) {
 			if (windowUpdate.getIncrement() > 0) {
-				// ？？为何要发送错误
-				slave.send(new Goaway(HTTP2.PROTOCOL_ERROR));
+				if (slave.flow().update(windowUpdate.id(), windowUpdate.getIncrement())) {
+					// 恢复窗口耗尽暂停的消息
+					Message blocked;
+					while ((blocked = slave.flow().resume()) != null) {
+						slave.send(blocked);
+					}
+				} else if (windowUpdate.id() > 0) {
+					slave.send(new ResetStream(windowUpdate.id(), HTTP2.FLOW_CONTROL_ERROR));
+				} else {
+					slave.send(new Goaway(HTTP2.FLOW_CONTROL_ERROR));
+				}
+			} else if (windowUpdate.id() > 0) {
+				slave.send(new ResetStream(windowUpdate.id(), HTTP2.PROTOCOL_ERROR));
 			} else {
 				slave.send(new Goaway(HTTP2.PROTOCOL_ERROR));
 			}
@@ -66,10 +93,14 @@ public abstract class HTTP2ServerHandler implements ChainGenericsHandler<HTTPSla
 				slave.send(resetStream);
 			} else {
 				// 客户端终止流
+				final Message blocked = slave.flow().close(resetStream.id());
+				if (blocked != null) {
+					blocked.clearContent();
+				}
 				final Request request = slave.messages().remove(resetStream.id());
 				if (request != null) {
 					request.clearContent();
-				} else {
+				} else if (blocked == null) {
 					slave.send(new Goaway(HTTP2.PROTOCOL_ERROR));
 				}
 			}
@@ -103,8 +134,19 @@ public abstract class HTTP2ServerHandler implements ChainGenericsHandler<HTTPSla
 				}
 			}
 			if (response.state() == Message.CONTENT) {
-				if (HTTP2Coder.writeData(response, buffer, slave.responseHPACK().getMaxFrameSize())) {
-					response.state(Message.COMPLETE);
+				// 受限于最大帧和流量控制窗口
+				final int length = slave.flow().sendable(response.id(), slave.responseHPACK().getMaxFrameSize());
+				if (length > 0 || response.contentSize() == 0) {
+					final int size = buffer.readable();
+					if (HTTP2Coder.writeData(response, buffer, length)) {
+						response.state(Message.COMPLETE);
+					}
+					// 9 = 帧头
+					slave.flow().sent(response.id(), buffer.readable() - size - 9);
+				} else if (buffer.readable() == 0) {
+					// 调度之后SETTINGS缩小了窗口，不能编码零数据；
+					// 发送不占用窗口的空数据帧，发送完成后由sendNext重新阻塞(flow.block)
+					HTTP2Coder.writeData(buffer, response.id());
 				}
 			}
 			return buffer;
@@ -123,6 +165,9 @@ public abstract class HTTP2ServerHandler implements ChainGenericsHandler<HTTPSla
 		} else if (message instanceof Ping ping) {
 			HTTP2Coder.write(buffer, ping);
 			return buffer;
+		} else if (message instanceof WindowUpdate windowUpdate) {
+			HTTP2Coder.write(buffer, windowUpdate);
+			return buffer;
 		}
 		buffer.release();
 		throw new IllegalStateException("HTTP2:意外消息类型" + message);
@@ -135,6 +180,7 @@ public abstract class HTTP2ServerHandler implements ChainGenericsHandler<HTTPSla
 		} else {
 			if (message.state() == Message.COMPLETE) {
 				if (message instanceof Response response) {
+					slave.flow().close(response.id());
 					if (response.isClose()) {
 						slave.close();
 						return;
@@ -154,6 +200,7 @@ public abstract class HTTP2ServerHandler implements ChainGenericsHandler<HTTPSla
 	public void disconnected(HTTPSlave slave) throws Exception {
 		slave.stream().clear();
 		slave.messages().clear();
+		slave.flow().clear();
 	}
 
 	@Override
@@ -174,7 +221,7 @@ public abstract class HTTP2ServerHandler implements ChainGenericsHandler<HTTPSla
 			slave.responseHPACK().setMaxFrameSize(settings.getMaxFrameSize());
 		}
 		if (settings.hasInitialWindowSize()) {
-			slave.requestHPACK().setWindowSize(settings.getInitialWindowSize());
+			slave.flow().window(settings.getInitialWindowSize());
 		}
 		if (settings.hasMaxConcurrentStreams()) {
 			slave.stream().capacity(settings.getMaxConcurrentStreams());
@@ -193,8 +240,12 @@ public abstract class HTTP2ServerHandler implements ChainGenericsHandler<HTTPSla
 			slave.stream().capacity(settings.getMaxConcurrentStreams());
 		}
 		if (settings.hasInitialWindowSize()) {
-			if (settings.validInitialWindowSize()) {
-				slave.requestHPACK().setWindowSize(settings.getInitialWindowSize());
+			if (settings.validInitialWindowSize() && slave.flow().initial(settings.getInitialWindowSize())) {
+				// 初始窗口增大时恢复暂停的消息
+				Message blocked;
+				while ((blocked = slave.flow().resume()) != null) {
+					slave.send(blocked);
+				}
 			} else {
 				slave.send(new Goaway(HTTP2.FLOW_CONTROL_ERROR));
 				return false;
@@ -66,12 +66,18 @@ public class HTTPClient extends TCPLink {
 	// 提供缓存请求消息支持
 	// 请求消息可能需要多次接收数据解码才能完成
 	private LinkQueue<Message> queue = new LinkQueue<>();
+	private final HTTP1Token token = new HTTP1Token();
 	private Response response;
 
 	protected LinkQueue<Message> queue() {
 		return queue;
 	}
 
+	/** 响应解码暂存，连接中的响应依次解码，暂存在响应之间重用 */
+	HTTP1Token token() {
+		return token;
+	}
+
 	protected Response getResponse() {
 		return response;
 	}
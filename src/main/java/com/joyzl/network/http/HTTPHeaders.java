@@ -0,0 +1,443 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.http;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.joyzl.network.StringMap;
+
+/**
+ * HTTP 标头集合，键名不区分大小写
+ * <p>
+ * 常用标头({@link HTTP1#HEADERS})预先编号，通过不区分大小写的散列在开放寻址表中定位编号，
+ * 标头值按编号直接存取；其它标头存储于{@link StringMap}。
+ * 清空时仅重置已使用的位置，消息重置({@link HTTPMessage#reset()})后重复使用时常用标头的存取不产生垃圾对象；
+ * 标头集合随消息创建和存在，消息交由业务处理后可能仍被引用，因此服务端不按连接池化标头集合。
+ * </p>
+ * <p>
+ * {@link #put(String, String)}替换标头的所有值；{@link #add(String, String)}追加标头值，
+ * Set-Cookie等不能合并的标头保留为多项，其它标头按规范以逗号合并(Cookie以分号合并)。
+ * 常用标头按添加顺序输出，其后为其它标头。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月16日
+ */
+public class HTTPHeaders extends AbstractMap<String, String> {
+
+	/** 编号对应的常用标头 */
+	private final static String[] NAMES;
+	/** 开放寻址表，不区分大小写散列，存储编号+1，0表示空位 */
+	private final static short[] SLOTS;
+	/** 开放寻址表，字符串散列(已缓存)，包含常量及其小写形式(HTTP2)，存储编号+1，0表示空位 */
+	private final static short[] EXACTS;
+	private final static String[] EXACT_NAMES;
+	private final static int MASK;
+	private final static int SET_COOKIE, SET_COOKIE2, COOKIE;
+	static {
+		NAMES = new String[HTTP1.HEADERS.size()];
+		int id = 0;
+		for (String name : HTTP1.HEADERS) {
+			NAMES[id++] = name;
+		}
+		// 装载因子不超过0.25以缩短探测
+		SLOTS = new short[Integer.highestOneBit(NAMES.length) << 3];
+		EXACTS = new short[SLOTS.length];
+		EXACT_NAMES = new String[SLOTS.length];
+		MASK = SLOTS.length - 1;
+		for (id = 0; id < NAMES.length; id++) {
+			SLOTS[probe(SLOTS, hash(NAMES[id]))] = (short) (id + 1);
+			exact(NAMES[id], id);
+			exact(NAMES[id].toLowerCase(), id);
+		}
+		SET_COOKIE = id(HTTP1.Set_Cookie);
+		SET_COOKIE2 = id(HTTP1.Set_Cookie2);
+		COOKIE = id(HTTP1.Cookie);
+	}
+
+	/** 查找空位 */
+	private static int probe(short[] slots, int hash) {
+		int slot = hash & MASK;
+		while (slots[slot] != 0) {
+			slot = (slot + 1) & MASK;
+		}
+		return slot;
+	}
+
+	/** 添加到字符串散列表 */
+	private static void exact(String name, int id) {
+		final int slot = probe(EXACTS, spread(name.hashCode()));
+		EXACTS[slot] = (short) (id + 1);
+		EXACT_NAMES[slot] = name;
+	}
+
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+
+	/** 不区分大小写的散列，仅ASCII字母转换为小写 */
+	static int hash(String name) {
+		int h = 0, c;
+		for (int index = 0; index < name.length(); index++) {
+			c = name.charAt(index);
+			if (c >= 'A' && c <= 'Z') {
+				c |= 32;
+			}
+			h = 31 * h + c;
+		}
+		return spread(h);
+	}
+
+	/** 字符串比较不区分大小写，仅ASCII字母忽略大小写 */
+	static boolean equal(String a, String b) {
+		if (a == b) {
+			return true;
+		}
+		if (a.length() != b.length()) {
+			return false;
+		}
+		int c1, c2;
+		for (int index = 0; index < a.length(); index++) {
+			c1 = a.charAt(index);
+			c2 = b.charAt(index);
+			if (c1 != c2) {
+				if ((c1 ^ c2) != 32) {
+					return false;
+				}
+				// 相差32的非字母字符，例如'-'与'\r'
+				c1 |= 32;
+				if (c1 < 'a' || c1 > 'z') {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 获取常用标头编号
+	 *
+	 * @return 0~n / -1 非常用标头
+	 */
+	static int id(String name) {
+		// 常量和小写形式通过已缓存的字符串散列定位
+		int slot = spread(name.hashCode()) & MASK, id;
+		while ((id = EXACTS[slot]) != 0) {
+			if (EXACT_NAMES[slot] == name || EXACT_NAMES[slot].equals(name)) {
+				return id - 1;
+			}
+			slot = (slot + 1) & MASK;
+		}
+		// 其它大小写形式
+		slot = hash(name) & MASK;
+		while ((id = SLOTS[slot]) != 0) {
+			if (equal(NAMES[id - 1], name)) {
+				return id - 1;
+			}
+			slot = (slot + 1) & MASK;
+		}
+		return -1;
+	}
+
+	////////////////////////////////////////////////////////////////////////////////
+
+	/** 编号对应的首个值位置+1，0表示无此标头 */
+	private final short[] index = new short[NAMES.length];
+	/** 按添加顺序存储的常用标头编号及值 */
+	private int[] ids = new int[16];
+	private String[] values = new String[16];
+	private int size;
+	/** 多项值的数量 */
+	private int multiple;
+	/** 其它标头 */
+	private StringMap<String> others;
+
+	@Override
+	public int size() {
+		return others == null ? size : size + others.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (key instanceof String name) {
+			final int id = id(name);
+			if (id >= 0) {
+				return index[id] > 0;
+			}
+			return others != null && others.containsKey(name);
+		}
+		return false;
+	}
+
+	/**
+	 * 获取标头值，多项值时返回首个值
+	 */
+	@Override
+	public String get(Object key) {
+		if (key instanceof String name) {
+			final int id = id(name);
+			if (id >= 0) {
+				final int position = index[id];
+				return position > 0 ? values[position - 1] : null;
+			}
+			return others == null ? null : others.get(name);
+		}
+		return null;
+	}
+
+	/**
+	 * 获取标头的所有值
+	 *
+	 * @return 值数组，无此标头时为空数组
+	 */
+	public String[] gets(String name) {
+		final int id = id(name);
+		if (id >= 0) {
+			final int position = index[id];
+			if (position > 0) {
+				if (multiple == 0) {
+					return new String[] { values[position - 1] };
+				}
+				int count = 0;
+				final String[] items = new String[size - position + 1];
+				for (int p = position - 1; p < size; p++) {
+					if (ids[p] == id) {
+						items[count++] = values[p];
+					}
+				}
+				return Arrays.copyOf(items, count);
+			}
+		} else if (others != null) {
+			final String value = others.get(name);
+			if (value != null || others.containsKey(name)) {
+				return new String[] { value };
+			}
+		}
+		return new String[0];
+	}
+
+	/**
+	 * 设置标头值，替换已有的所有值，忽略空名称
+	 */
+	@Override
+	public String put(String name, String value) {
+		if (name == null) {
+			return null;
+		}
+		final int id = id(name);
+		if (id >= 0) {
+			final int position = index[id];
+			if (position > 0) {
+				final String old = values[position - 1];
+				values[position - 1] = value;
+				if (multiple > 0) {
+					// 移除其余值
+					for (int p = size - 1; p >= position; p--) {
+						if (ids[p] == id) {
+							delete(p);
+							multiple--;
+						}
+					}
+				}
+				return old;
+			}
+			append(id, value);
+			return null;
+		}
+		if (others == null) {
+			others = new StringMap<>(16);
+		}
+		return others.put(name, value);
+	}
+
+	/**
+	 * 追加标头值，Set-Cookie保留为多项，其它标头按规范合并为单项，忽略空名称
+	 */
+	public void add(String name, String value) {
+		if (name == null) {
+			return;
+		}
+		final int id = id(name);
+		if (id >= 0) {
+			final int position = index[id];
+			if (position == 0) {
+				append(id, value);
+			} else if (id == SET_COOKIE || id == SET_COOKIE2) {
+				append(id, value);
+				multiple++;
+			} else {
+				values[position - 1] = combine(values[position - 1], value, id == COOKIE ? "; " : ", ");
+			}
+		} else {
+			if (others == null) {
+				others = new StringMap<>(16);
+			}
+			others.put(name, combine(others.get(name), value, ", "));
+		}
+	}
+
+	@Override
+	public String remove(Object key) {
+		if (key instanceof String name) {
+			final int id = id(name);
+			if (id >= 0) {
+				final int position = index[id];
+				if (position > 0) {
+					final String old = values[position - 1];
+					for (int p = size - 1; p >= position - 1; p--) {
+						if (ids[p] == id) {
+							if (p >= position) {
+								multiple--;
+							}
+							delete(p);
+						}
+					}
+					return old;
+				}
+				return null;
+			}
+			return others == null ? null : others.remove(name);
+		}
+		return null;
+	}
+
+	/**
+	 * 清空标头，仅重置已使用的位置，不释放存储空间
+	 */
+	@Override
+	public void clear() {
+		for (int p = 0; p < size; p++) {
+			index[ids[p]] = 0;
+			values[p] = null;
+		}
+		size = 0;
+		multiple = 0;
+		if (others != null && !others.isEmpty()) {
+			others.clear();
+		}
+	}
+
+	private static String combine(String a, String b, String separator) {
+		if (a == null || a.isEmpty()) {
+			return b;
+		}
+		if (b == null || b.isEmpty()) {
+			return a;
+		}
+		return a + separator + b;
+	}
+
+	/** 添加值到尾部 */
+	private void append(int id, String value) {
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		ids[size] = id;
+		values[size] = value;
+		if (index[id] == 0) {
+			index[id] = (short) (size + 1);
+		}
+		size++;
+	}
+
+	/** 删除指定位置的值，后续位置前移 */
+	private void delete(int position) {
+		final int id = ids[position];
+		size--;
+		System.arraycopy(ids, position + 1, ids, position, size - position);
+		System.arraycopy(values, position + 1, values, position, size - position);
+		values[size] = null;
+		// 修正前移后的首个值位置
+		if (index[id] == position + 1) {
+			index[id] = 0;
+		}
+		for (int p = position; p < size; p++) {
+			if (index[ids[p]] == p + 2) {
+				index[ids[p]] = (short) (p + 1);
+			} else if (index[ids[p]] == 0) {
+				index[ids[p]] = (short) (p + 1);
+			}
+		}
+	}
+
+	////////////////////////////////////////////////////////////////////////////////
+	// 编码时按位置遍历，避免创建条目对象
+
+	/** 常用标头值数量（含多项） */
+	int known() {
+		return size;
+	}
+
+	/** 指定位置的常用标头名称 */
+	String name(int position) {
+		return NAMES[ids[position]];
+	}
+
+	/** 指定位置的常用标头值 */
+	String value(int position) {
+		return values[position];
+	}
+
+	/** 其它标头，可能为null */
+	StringMap<String> others() {
+		return others;
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+		return new AbstractSet<Map.Entry<String, String>>() {
+			@Override
+			public Iterator<Map.Entry<String, String>> iterator() {
+				return new Iterator<Map.Entry<String, String>>() {
+					private int position = 0;
+					private Iterator<Map.Entry<String, String>> other;
+
+					@Override
+					public boolean hasNext() {
+						if (position < size) {
+							return true;
+						}
+						if (other == null) {
+							if (others == null) {
+								return false;
+							}
+							other = others.iterator();
+						}
+						return other.hasNext();
+					}
+
+					@Override
+					public Map.Entry<String, String> next() {
+						if (position < size) {
+							final Map.Entry<String, String> entry = new SimpleEntry<>(name(position), value(position));
+							position++;
+							return entry;
+						}
+						if (hasNext()) {
+							return other.next();
+						}
+						throw new NoSuchElementException();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return HTTPHeaders.this.size();
+			}
+		};
+	}
+}
@@ -4,9 +4,6 @@
  */
 package com.joyzl.network.http;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.joyzl.network.codec.Binary;
 
 /**
@@ -18,24 +15,60 @@ import com.joyzl.network.codec.Binary;
 public class HTTPMessage extends Message {
 
 	private String version = HTTP1.V11;
-	private final Map<String, String> headers = new HashMap<>();
+	private final HTTPHeaders headers;
 
 	// HTTP 2
 	private int dependency;
 	private int weight;
+	private int urgency = -1;
+	private boolean incremental;
+
+	// HTTP 1 解码暂存
+	private HTTP1Token token;
 
 	public HTTPMessage() {
+		headers = new HTTPHeaders();
 	}
 
 	public HTTPMessage(int id, String version) {
 		super(id);
 		this.version = version;
+		headers = new HTTPHeaders();
 	}
 
 	@Override
 	public void reset() throws Exception {
 		super.reset();
 		headers.clear();
+		token = null;
+	}
+
+	/**
+	 * 获取HTTP1解码暂存，首行和标头解码期间保留；未关联连接的暂存时创建
+	 */
+	HTTP1Token token() {
+		if (token == null) {
+			token = new HTTP1Token();
+		}
+		return token;
+	}
+
+	/**
+	 * 关联连接持有的HTTP1解码暂存，此前中断的解码状态将被重置
+	 */
+	void token(HTTP1Token value) {
+		value.reset();
+		token = value;
+	}
+
+	/**
+	 * 解除HTTP1解码暂存，标头解码完成后不再需要，暂存重置后由连接用于下一消息
+	 */
+	void clearToken() {
+		if (token != null) {
+			token.reset();
+			token = null;
+		}
 	}
 
 	public String getVersion() {
@@ -54,6 +87,24 @@ public class HTTPMessage extends Message {
 		headers.put(value.getHeaderName(), value.getHeaderValue());
 	}
 
+	/**
+	 * 追加标头值，Set-Cookie保留多项，其它标头合并值
+	 * 
+	 * @see HTTPHeaders#add(String, String)
+	 */
+	public void appendHeader(String name, String value) {
+		headers.add(name, value);
+	}
+
+	/**
+	 * 追加标头值，Set-Cookie保留多项，其它标头合并值
+	 * 
+	 * @see HTTPHeaders#add(String, String)
+	 */
+	public void appendHeader(Header value) {
+		headers.add(value.getHeaderName(), value.getHeaderValue());
+	}
+
 	public boolean hasHeader(String name) {
 		return headers.containsKey(name);
 	}
@@ -62,7 +113,7 @@ public class HTTPMessage extends Message {
 		return headers.get(name);
 	}
 
-	public Map<String, String> getHeaders() {
+	public HTTPHeaders getHeaders() {
 		return headers;
 	}
 
@@ -93,4 +144,22 @@ public class HTTPMessage extends Message {
 	void setWeight(int value) {
 		weight = value;
 	}
+
+	/** RFC 9218 紧急程度 0~7，-1未指定 */
+	int getUrgency() {
+		return urgency;
+	}
+
+	void setUrgency(int value) {
+		urgency = value;
+	}
+
+	/** RFC 9218 增量 */
+	boolean isIncremental() {
+		return incremental;
+	}
+
+	void setIncremental(boolean value) {
+		incremental = value;
+	}
 }
\ No newline at end of file
@@ -27,8 +27,9 @@ public class HTTPSlave extends TCPSlave {
 
 	// HTTP2
 	private HTTP2Index<Request> messages;
-	private Stream<Message> stream;
+	private HTTP2Scheduler<Message> stream;
 	private HPACK hpackRequest, hpackResponse;
+	private HTTP2Flow flow;
 	private int id = 2;
 
 	public int nextId() {
@@ -43,19 +44,27 @@ public class HTTPSlave extends TCPSlave {
 	/** 切换链路为HTTP2 */
 	protected void upgradeHTTP2() {
 		messages = new HTTP2Index<>(100);
-		stream = new Stream<>(100);
+		stream = scheduler();
 		hpackRequest = new HPACK();
 		hpackResponse = new HPACK();
+		flow = new HTTP2Flow();
 	}
 
 	protected HTTP2Index<Request> messages() {
 		return messages;
 	}
 
-	protected Stream<Message> stream() {
+	protected HTTP2Scheduler<Message> stream() {
 		return stream;
 	}
 
+	/**
+	 * 创建HTTP2发送调度，默认为优先级调度，可重写此方法提供其它调度(例如轮换调度{@link Stream})
+	 */
+	protected HTTP2Scheduler<Message> scheduler() {
+		return new PriorityStream(100);
+	}
+
 	protected HPACK requestHPACK() {
 		return hpackRequest;
 	}
@@ -64,16 +73,27 @@ public class HTTPSlave extends TCPSlave {
 		return hpackResponse;
 	}
 
+	/** 流量控制窗口 */
+	HTTP2Flow flow() {
+		return flow;
+	}
+
 	// HTTP 1.1 1.0
 	// 提供缓存请求消息支持
 	// 请求消息可能需要多次接收数据解码才能完成
 	private LinkQueue<Message> queue = new LinkQueue<>();
+	private final HTTP1Token token = new HTTP1Token();
 	private Request request;
 
 	protected LinkQueue<Message> queue() {
 		return queue;
 	}
 
+	/** 请求解码暂存，连接中的请求依次解码，暂存在请求之间重用 */
+	HTTP1Token token() {
+		return token;
+	}
+
 	protected Request getRequest() {
 		return request;
 	}
@@ -110,7 +130,11 @@ public class HTTPSlave extends TCPSlave {
 					if (stream.isEmpty()) {
 						stream.add(m);
 						if (sendMessage() == null) {
-							sendMessage(m = stream.stream());
+							m = streamNext();
+							if (m == null) {
+								return;
+							}
+							sendMessage(m);
 						} else {
 							return;
 						}
@@ -121,7 +145,7 @@ public class HTTPSlave extends TCPSlave {
 				} finally {
 					k.unlock();
 				}
-				super.send(message);
+				super.send(m);
 			} else {
 				k.lock();
 				try {
@@ -146,6 +170,33 @@ public class HTTPSlave extends TCPSlave {
 		}
 	}
 
+	/**
+	 * 更新流的优先级，与发送共用锁以免接收线程与发送线程同时调整发送调度
+	 */
+	protected void priority(int id, int urgency, boolean incremental) {
+		k.lock();
+		try {
+			stream.priority(id, urgency, incremental);
+		} finally {
+			k.unlock();
+		}
+	}
+
+	/**
+	 * 获取流中下一个可发送的消息，流量控制窗口耗尽的响应移出发送流，窗口恢复后重新发送
+	 */
+	private Message streamNext() {
+		Message m;
+		while ((m = stream.stream()) != null) {
+			if (m.state() == Message.CONTENT && m instanceof Response && flow.block(m)) {
+				stream.remove();
+			} else {
+				return m;
+			}
+		}
+		return null;
+	}
+
 	protected void sendNext(boolean complete) {
 		if (isHTTP2()) {
 			k.lock();
@@ -157,7 +208,11 @@ public class HTTPSlave extends TCPSlave {
 					return;
 				}
 				if (sendMessage() == null) {
-					sendMessage(stream.stream());
+					final Message m = streamNext();
+					if (m == null) {
+						return;
+					}
+					sendMessage(m);
 				} else {
 					return;
 				}
@@ -5,8 +5,6 @@
 package com.joyzl.network.http;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Comparator;
 
 import com.joyzl.network.buffer.DataBuffer;
 
@@ -291,60 +289,85 @@ public class HuffmanCoder {
 		}
 	}
 
-	/**
-	 * 代码排序：长度，代码
-	 */
-	private final static Comparator<Code> CODE_ORDER = new Comparator<Code>() {
-		@Override
-		public int compare(Code a, Code b) {
-			if (a.length == b.length) {
-				return a.code - b.code;
-			}
-			return a.length - b.length;
-		}
-	};
-
-	/** 反查代码表 */
-	private final static Code[][] GROUPS;
-	/** 反查代码表中的最少和最多位数 */
-	private final static int MIN_LENGTH, MAX_LENGTH;
-	private final static byte MIN_MASK;
+	/** 编码表[ASCII]：高32位为代码位数，低32位为代码 */
+	private final static long[] ENCODES;
 	static {
-		// 构建反查代码表
-		// 相同位数代码合并为组
-		// 组中代码从小到大排序
-
-		// 复制所有代码用于排序
-		final Code[] codes = Arrays.copyOf(CODES, CODES.length);
-
-		// 排序：位长度、代码
-		Arrays.sort(codes, CODE_ORDER);
+		ENCODES = new long[CODES.length];
+		for (Code code : CODES) {
+			ENCODES[code.ascii] = (long) code.length << 32 | code.code;
+		}
+	}
 
-		// 最多32组，所有代码最多4字节
-		GROUPS = new Code[32][];
+	/*-
+	 * 解码状态机（参考nghttp2）
+	 * 以代码树的内部节点为状态，根节点为状态0，257个代码对应256个内部节点；
+	 * 每次输入4位，预先计算每个状态在16种输入下的转移，代码最少5位因此每步最多输出1个字符。
+	 * 转移值：低8位为下一状态，8~15位为输出字符，以及以下标志位。
+	 */
 
-		// 分组：位长度相同为组
-		final Code[] group = new Code[codes.length];
+	/** 转移标志：输出字符 */
+	private final static int SYMBOL = 1 << 16;
+	/** 转移标志：下一状态可作为结尾(填充位全为1且少于8位) */
+	private final static int ACCEPT = 1 << 17;
+	/** 转移标志：解码出EOS，无效编码 */
+	private final static int FAILURE = 1 << 18;
 
-		int n = -1;
-		for (int i = 0; i < codes.length; i++) {
-			if (n < 0) {
-				group[++n] = codes[i];
-			} else if (group[n].length == codes[i].length) {
-				group[++n] = codes[i];
-			} else {
-				GROUPS[group[n].length] = Arrays.copyOfRange(group, 0, n + 1);
-				group[n = 0] = codes[i];
+	/** 解码转移表[状态<<4|4位输入] */
+	private final static int[] DECODES;
+	static {
+		// 构建代码树
+		// 子节点为内部节点(>0)或代码(<0 : -1-ascii)
+		final int[][] nodes = new int[256][2];
+		// 内部节点的深度和路径是否全为1
+		final int[] depths = new int[256];
+		final boolean[] ones = new boolean[256];
+		ones[0] = true;
+		int size = 1, node, bit;
+		for (Code code : CODES) {
+			node = 0;
+			for (int b = code.length - 1; b > 0; b--) {
+				bit = (code.code >>> b) & 1;
+				if (nodes[node][bit] == 0) {
+					nodes[node][bit] = size;
+					depths[size] = depths[node] + 1;
+					ones[size] = ones[node] && bit == 1;
+					size++;
+				}
+				node = nodes[node][bit];
 			}
-		}
-		if (n >= 0) {
-			GROUPS[group[n].length] = Arrays.copyOfRange(group, 0, n + 1);
+			nodes[node][code.code & 1] = -1 - code.ascii;
 		}
 
-		MIN_LENGTH = codes[0].length;
-		MAX_LENGTH = codes[codes.length - 1].length;
-		MIN_MASK = (byte) (0b11111111 >>> (8 - MIN_LENGTH));
-		// System.out.println("min:" + MIN_LENGTH + ",max:" + MAX_LENGTH);
+		// 构建转移表
+		DECODES = new int[256 * 16];
+		int transition, child;
+		for (int state = 0; state < size; state++) {
+			for (int input = 0; input < 16; input++) {
+				transition = 0;
+				node = state;
+				for (int b = 3; b >= 0; b--) {
+					child = nodes[node][(input >>> b) & 1];
+					if (child < 0) {
+						child = -1 - child;
+						if (child == 256) {
+							transition = FAILURE;
+							break;
+						}
+						transition = SYMBOL | child << 8;
+						node = 0;
+					} else {
+						node = child;
+					}
+				}
+				if (transition != FAILURE) {
+					if (ones[node] && depths[node] < 8) {
+						transition |= ACCEPT;
+					}
+					transition |= node;
+				}
+				DECODES[state << 4 | input] = transition;
+			}
+		}
 	}
 
 	private HuffmanCoder() {
@@ -354,115 +377,71 @@ public class HuffmanCoder {
 	public static int byteSize(CharSequence value) {
 		int size = 0;
 		for (int i = 0; i < value.length(); i++) {
-			size += CODES[value.charAt(i)].length;
+			size += (int) (ENCODES[value.charAt(i)] >>> 32);
 		}
 		return (size + 7) / 8;
 	}
 
 	/** 编码字符串为字节 */
 	public static void encode(DataBuffer buffer, CharSequence value) throws IOException {
-		int temp = 0, r = 8;
-		Code code;
+		// 代码最多30位，累积不足32位时合并下一代码不会超出64位
+		long bits = 0, code;
+		int size = 0, length;
 		for (int i = 0; i < value.length(); i++) {
-			code = CODES[value.charAt(i)];
-
-			// 判断之前是否有剩余位
-			if (r < 8) {
-				if (code.length < r) {
-					// 补齐之前剩余空位，且还不足1字节
-					r = r - code.length;
-					temp = temp | code.code << r;
-					continue;
-				} else {
-					// 补齐之前空余位，已满足1字节
-					temp = temp | code.code >>> (code.length - r);
-					buffer.writeByte(temp);
-					// 当前还有剩余位
-					r = code.length - r;
-				}
-			} else {
-				r = code.length;
-			}
-
-			// 输出整8位
-			while (r >= 8) {
-				r -= 8;
-				buffer.writeByte(code.code >>> r);
+			code = ENCODES[value.charAt(i)];
+			length = (int) (code >>> 32);
+			bits = bits << length | (code & 0xFFFFFFFFL);
+			size += length;
+			if (size >= 32) {
+				size -= 32;
+				buffer.writeByte((int) (bits >>> (size + 24)));
+				buffer.writeByte((int) (bits >>> (size + 16)));
+				buffer.writeByte((int) (bits >>> (size + 8)));
+				buffer.writeByte((int) (bits >>> size));
 			}
+		}
 
-			// 将剩余位左移对齐8位
-			r = 8 - r;
-			temp = code.code << r;
+		// 输出整8位
+		while (size >= 8) {
+			size -= 8;
+			buffer.writeByte((int) (bits >>> size));
 		}
 
-		// 结尾填充
-		if (r < 8) {
-			code = CODES[CODES.length - 1];
-			temp = temp | code.code >>> (code.length - r);
-			buffer.writeByte(temp);
+		// 结尾以EOS高位(全1)填充
+		if (size > 0) {
+			buffer.writeByte((int) (bits << (8 - size)) | (0xFF >>> size));
 		}
 	}
 
 	/** 解码字节为字符串 */
 	public static void decode(DataBuffer buffer, StringBuilder builder, int length) throws IOException {
-		int temp = 0, l = 0, r = 0, i;
-		byte value;
-
-		length = buffer.readable() - length;
-		while (buffer.readable() > length) {
+		int state = 0, transition = ACCEPT, value;
+		while (length-- > 0) {
 			value = buffer.readByte();
-			// r表示value可用位数
-			r = 8;
-
-			do {
-				// l表示temp已有位数
-				if (l > 0) {
-					// 从value取1位合并到temp
-					r--;
-					temp = (temp << 1) + (value >>> r & 0b00000001);
-					l++;
-				} else if (r < MIN_LENGTH) {
-					// 剩余位全部转移到temp
-					// 因不足最少代码位，需求下一个字节
-					l = r;
-					r = 8 - r;
-					temp = value & (0b11111111 >>> r);
-					break;
-				} else {
-					// 转移最少代码位到temp
-					r -= MIN_LENGTH;
-					temp = (value >>> r) & MIN_MASK;
-					l = MIN_LENGTH;
-				}
-
-				if (l > MAX_LENGTH) {
-					// 超出最大位长度
-					throw new IOException("无效的霍夫曼编码");
-				}
 
-				// 反查代码表
-				if (GROUPS[l] != null) {
-					if (temp > GROUPS[l][GROUPS[l].length - 1].code) {
-						// System.out.println("continue");
-						continue;
-					}
-					// if (temp < GROUPS[l][0].code) {
-					// // System.out.println("continue");
-					// continue;
-					// }
-
-					i = 0;
-					do {
-						if (GROUPS[l][i].code == temp) {
-							builder.append(GROUPS[l][i].ascii);
-							l = 0;
-							break;
-						}
-					} while (++i < GROUPS[l].length);
-					// System.out.println(i);
-				}
+			// 高4位
+			transition = DECODES[state << 4 | (value >>> 4) & 0x0F];
+			if ((transition & FAILURE) != 0) {
+				throw new IOException("无效的霍夫曼编码");
+			}
+			if ((transition & SYMBOL) != 0) {
+				builder.append((char) ((transition >>> 8) & 0xFF));
+			}
+			state = transition & 0xFF;
 
-			} while (r > 0);
+			// 低4位
+			transition = DECODES[state << 4 | value & 0x0F];
+			if ((transition & FAILURE) != 0) {
+				throw new IOException("无效的霍夫曼编码");
+			}
+			if ((transition & SYMBOL) != 0) {
+				builder.append((char) ((transition >>> 8) & 0xFF));
+			}
+			state = transition & 0xFF;
+		}
+		if ((transition & ACCEPT) == 0) {
+			// 填充超过7位或不是EOS高位
+			throw new IOException("无效的霍夫曼编码填充");
 		}
 	}
-}
\ No newline at end of file
+}
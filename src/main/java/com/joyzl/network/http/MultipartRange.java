@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.http;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 
@@ -12,7 +14,7 @@ import java.util.ArrayList;
  * 
  * @author ZhangXi 2024年11月28日
  */
-public class MultipartRange {
+public class MultipartRange implements Closeable {
 
 	private String contentType;
 	private String contentEncoding;
@@ -61,6 +63,15 @@ public class MultipartRange {
 		content = value;
 	}
 
+	/** 关闭部分内容(文件区域) */
+	@Override
+	public void close() throws IOException {
+		if (content != null) {
+			content.close();
+			content = null;
+		}
+	}
+
 	/**
 	 * 获取当前块字节数量，包含分块头和分块内容，不包含分隔符
 	 */
@@ -14,6 +14,9 @@ public class Priority extends Message {
 	private boolean exclusive;
 	private int dependency;
 	private byte weight;
+	// RFC 9218 PRIORITY_UPDATE
+	private int urgency = -1;
+	private boolean incremental;
 
 	public Priority(int id) {
 		super(id, COMPLETE);
@@ -43,6 +46,23 @@ public class Priority extends Message {
 		exclusive = value;
 	}
 
+	/** RFC 9218 紧急程度，-1表示RFC 7540 PRIORITY帧 */
+	public int getUrgency() {
+		return urgency;
+	}
+
+	public void setUrgency(int value) {
+		urgency = value;
+	}
+
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	public void setIncremental(boolean value) {
+		incremental = value;
+	}
+
 	@Override
 	public String toString() {
 		return "PRIORITY:exclusive=" + exclusive + ",dependency=" + dependency + ",weight=" + weight;
@@ -0,0 +1,327 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * 优先级消息发送流，HTTP2 服务端默认发送调度
+ * <p>
+ * 按RFC 9218可扩展优先级调度：紧急程度(urgency)0~7，数值越小越优先，较高级别有消息时较低级别不发送；
+ * 同一级别中非增量消息按添加顺序逐个发送完成，增量(incremental)消息之间每帧轮换交错发送。
+ * 非流消息(SETTINGS/PING/WINDOW_UPDATE等)始终最先发送。
+ * </p>
+ * <p>
+ * 消息优先级来源依次为：PRIORITY_UPDATE帧或请求的Priority标头(RFC 9218)；
+ * 请求HEADERS帧携带的权重(RFC 7540)，权重1~256对数映射为紧急程度7~0(默认权重16对应默认紧急程度3)；
+ * 未指定时按内容大小估计，小于{@link #LARGE}的响应(HTML/CSS/JSON等)为默认紧急程度3非增量，
+ * 较大或大小未知的响应(文件下载)降为4并增量发送，使小而紧急的响应能够超越同一连接中的大文件下载。
+ * </p>
+ * <p>
+ * 优先级更新可能先于响应到达(响应尚未添加)，最近{@link #PENDING}个此类更新被暂存，响应添加时应用；
+ * 容量限制服务端发起的流(偶数流编号)数量，客户端请求的响应数量由接收侧并发流限制。
+ * 此调度不是线程安全的，须由链路在发送锁内调用。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月20日
+ */
+public class PriorityStream implements HTTP2Scheduler<Message> {
+
+	/** 默认紧急程度 */
+	public final static int DEFAULT_URGENCY = 3;
+	/** 未指定优先级时视为大响应的内容字节数 */
+	public final static int LARGE = 65536;
+	/** 暂存的优先级更新数量 */
+	public final static int PENDING = 16;
+
+	// 队列编号：0非流消息，1+2u非增量，2+2u增量
+
+	@SuppressWarnings("unchecked")
+	private final ArrayDeque<Message>[] queues = (ArrayDeque<Message>[]) new ArrayDeque<?>[17];
+	/** 当前获取的消息及其所在队列 */
+	private Message current;
+	private int level = -1;
+	/** 暂存的优先级更新，流标识和紧急程度(低位为增量标记)，环形覆盖 */
+	private final int[] pendingIds = new int[PENDING];
+	private final byte[] pendingValues = new byte[PENDING];
+	private int pending;
+	private int capacity;
+	private int locals;
+	private int size;
+
+	public PriorityStream() {
+		this(128);
+	}
+
+	public PriorityStream(int capacity) {
+		this.capacity = capacity;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void add(Message m) {
+		if (local(m)) {
+			if (locals >= capacity) {
+				throw new IllegalStateException("FULL");
+			}
+			locals++;
+		}
+		if (m.id() > 0 && m instanceof HTTPMessage h) {
+			// 应用先于消息到达的优先级更新
+			for (int index = 0; index < PENDING; index++) {
+				if (pendingIds[index] == m.id()) {
+					h.setUrgency(pendingValues[index] >> 1);
+					h.setIncremental((pendingValues[index] & 1) != 0);
+					pendingIds[index] = 0;
+					break;
+				}
+			}
+		}
+		queue(level(m)).addLast(m);
+		size++;
+	}
+
+	@Override
+	public Message stream() {
+		if (size == 0) {
+			return null;
+		}
+		// 增量消息发送一帧后轮换到同级末尾
+		if (current != null && (level & 1) == 0 && level > 0) {
+			final ArrayDeque<Message> queue = queues[level];
+			if (queue.size() > 1 && queue.peekFirst() == current) {
+				queue.addLast(queue.pollFirst());
+			}
+		}
+		for (int index = 0; index < queues.length; index++) {
+			if (queues[index] != null && !queues[index].isEmpty()) {
+				level = index;
+				return current = queues[index].peekFirst();
+			}
+		}
+		return current = null;
+	}
+
+	@Override
+	public void remove() {
+		if (current != null) {
+			if (queues[level].peekFirst() == current) {
+				queues[level].pollFirst();
+				removed(current);
+			} else if (queues[level].remove(current)) {
+				removed(current);
+			}
+			current = null;
+		}
+	}
+
+	@Override
+	public void remove(Message m) {
+		for (int index = 0; index < queues.length; index++) {
+			if (queues[index] != null && queues[index].remove(m)) {
+				if (current == m) {
+					current = null;
+				}
+				removed(m);
+				return;
+			}
+		}
+	}
+
+	@Override
+	public void clear() throws IOException {
+		Message m;
+		for (int index = 0; index < queues.length; index++) {
+			if (queues[index] != null) {
+				while ((m = queues[index].pollFirst()) != null) {
+					if (m instanceof Closeable) {
+						((Closeable) m).close();
+					}
+				}
+			}
+		}
+		current = null;
+		locals = 0;
+		size = 0;
+		for (int index = 0; index < PENDING; index++) {
+			pendingIds[index] = 0;
+		}
+	}
+
+	private void removed(Message m) {
+		if (local(m)) {
+			locals--;
+		}
+		size--;
+	}
+
+	/** 是否服务端发起的流 */
+	private static boolean local(Message m) {
+		return m.id() > 0 && (m.id() & 1) == 0;
+	}
+
+	@Override
+	public void priority(int id, int urgency, boolean incremental) {
+		for (int index = 1; index < queues.length; index++) {
+			if (queues[index] != null) {
+				for (Message m : queues[index]) {
+					if (m.id() == id && m instanceof HTTPMessage h) {
+						h.setUrgency(urgency);
+						h.setIncremental(incremental);
+						final int target = level(m);
+						if (target != index) {
+							queues[index].remove(m);
+							queue(target).addLast(m);
+							if (current == m) {
+								level = target;
+							}
+						}
+						return;
+					}
+				}
+			}
+		}
+		if (id > 0) {
+			// 响应尚未添加，暂存更新，同一流的更新覆盖之前的值
+			int index = 0;
+			while (index < PENDING && pendingIds[index] != id) {
+				index++;
+			}
+			if (index == PENDING) {
+				index = pending;
+				pending = (pending + 1) % PENDING;
+			}
+			pendingIds[index] = id;
+			pendingValues[index] = (byte) (urgency << 1 | (incremental ? 1 : 0));
+		}
+	}
+
+	@Override
+	public void capacity(int value) {
+		capacity = value;
+	}
+
+	@Override
+	public int capacity() {
+		return capacity;
+	}
+
+	private ArrayDeque<Message> queue(int index) {
+		if (queues[index] == null) {
+			queues[index] = new ArrayDeque<>(4);
+		}
+		return queues[index];
+	}
+
+	/** 获取消息所在队列编号 */
+	static int level(Message m) {
+		if (m instanceof HTTPMessage h) {
+			if (h.getUrgency() >= 0) {
+				return 1 + h.getUrgency() * 2 + (h.isIncremental() ? 1 : 0);
+			}
+			if (h.getWeight() > 0) {
+				return 1 + urgency(h.getWeight()) * 2;
+			}
+			final long size = size(h);
+			if (size >= 0 && size < LARGE) {
+				return 1 + DEFAULT_URGENCY * 2;
+			}
+			return 1 + (DEFAULT_URGENCY + 1) * 2 + 1;
+		}
+		return 0;
+	}
+
+	/** 估计消息内容大小，-1表示未知 */
+	static long size(HTTPMessage m) {
+		final String length = m.getHeader(HTTP1.Content_Length);
+		if (length != null) {
+			try {
+				return Long.parseLong(length);
+			} catch (NumberFormatException e) {
+				return -1;
+			}
+		}
+		try {
+			return m.contentSize();
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * RFC 7540 权重(1~256)映射为紧急程度(7~0)，对数分级，默认权重16对应默认紧急程度3
+	 */
+	static int urgency(int weight) {
+		if (weight < 1) {
+			weight = 1;
+		} else if (weight > 256) {
+			weight = 256;
+		}
+		// log2(weight) 0~8
+		final int log = 31 - Integer.numberOfLeadingZeros(weight);
+		return 7 - (log * 7 + 4) / 8;
+	}
+
+	/**
+	 * 设置响应优先级，来自请求的Priority标头(RFC 9218)或HEADERS帧权重(RFC 7540)
+	 */
+	static void priority(Request request, Response response) {
+		final int priority = parse(request.getHeader(HTTP1.Priority));
+		if (priority >= 0) {
+			response.setUrgency(priority >> 1);
+			response.setIncremental((priority & 1) == 1);
+		} else if (request.getWeight() > 0) {
+			response.setWeight(request.getWeight());
+		}
+	}
+
+	/**
+	 * 解析RFC 9218优先级字段值(u=n, i)，忽略未知参数
+	 *
+	 * @return 紧急程度&lt;&lt;1|增量 / -1 无效
+	 */
+	static int parse(String value) {
+		if (value == null || value.isEmpty()) {
+			return -1;
+		}
+		int urgency = DEFAULT_URGENCY;
+		boolean incremental = false;
+		String key, item;
+		int begin = 0, end, equal;
+		while (begin < value.length()) {
+			end = value.indexOf(',', begin);
+			if (end < 0) {
+				end = value.length();
+			}
+			item = value.substring(begin, end).trim();
+			begin = end + 1;
+
+			equal = item.indexOf('=');
+			key = equal < 0 ? item : item.substring(0, equal);
+			if ("u".equals(key)) {
+				if (item.length() == 3 && item.charAt(2) >= '0' && item.charAt(2) <= '7') {
+					urgency = item.charAt(2) - '0';
+				} else {
+					return -1;
+				}
+			} else if ("i".equals(key)) {
+				// i 或 i=?1 为真，i=?0 为假
+				incremental = equal < 0 || "?1".equals(item.substring(equal + 1));
+			}
+		}
+		return urgency << 1 | (incremental ? 1 : 0);
+	}
+}
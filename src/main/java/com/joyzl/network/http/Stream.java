@@ -22,7 +22,7 @@ import com.joyzl.network.IndexMap;
  * 
  * @author ZhangXi 2025年4月11日
  */
-public class Stream<M> {
+public class Stream<M> implements HTTP2Scheduler<M> {
 
 	// head始终为存储值头部,foot为已存储值节点的下一个节点
 	// 移除值时空闲的节点将移除并连接到foot之后
@@ -12,6 +12,11 @@ public class WindowUpdate extends Message {
 		super(id);
 	}
 
+	public WindowUpdate(int id, int increment) {
+		super(id);
+		this.increment = increment;
+	}
+
 	public int getIncrement() {
 		return increment;
 	}
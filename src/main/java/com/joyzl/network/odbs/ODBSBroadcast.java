@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.odbs;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.joyzl.network.buffer.DataBuffer;
+
+/**
+ * 广播消息，消息实体仅编码一次，所有目标链路共享只读的编码数据
+ * <p>
+ * 每个链路发送时仅生成各自的帧头(长度和消息标识)，帧数据以共享单元连接而不复制；
+ * 编码数据按目标链路数量引用计数，每个链路发送完成或因断开丢弃后减少引用，全部完成后释放编码数据。
+ * 可继承此类并重写{@link #delivered(ODBSSlave)}、{@link #failed(ODBSSlave)}和{@link #completed()}跟踪每个链路的发送结果。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月25日
+ * @see ODBSServer#broadcast(ODBSBroadcast, Iterable)
+ */
+public class ODBSBroadcast extends ODBSMessage {
+
+	private final ODBSMessage message;
+	private final AtomicInteger references = new AtomicInteger();
+	private final AtomicInteger delivered = new AtomicInteger();
+	private final AtomicInteger failed = new AtomicInteger();
+	private volatile DataBuffer body;
+	private int targets;
+
+	public ODBSBroadcast(ODBSMessage message) {
+		if (message == null) {
+			throw new IllegalArgumentException("广播消息不能为空");
+		}
+		this.message = message;
+	}
+
+	/** 广播的消息 */
+	public ODBSMessage message() {
+		return message;
+	}
+
+	/** 已编码的消息实体(不含帧头) */
+	DataBuffer body() {
+		return body;
+	}
+
+	/** 设置已编码的消息实体和目标链路数量 */
+	void prepare(DataBuffer value, int count) {
+		if (body != null) {
+			throw new IllegalStateException("ODBS:广播消息不能重复发送");
+		}
+		targets = count;
+		references.set(count);
+		body = value;
+		if (count <= 0) {
+			complete();
+		}
+	}
+
+	/** 链路发送完成 */
+	void deliver(ODBSSlave slave) {
+		delivered.incrementAndGet();
+		delivered(slave);
+		release();
+	}
+
+	/** 链路断开或无法排队，消息被丢弃 */
+	void fail(ODBSSlave slave) {
+		failed.incrementAndGet();
+		failed(slave);
+		release();
+	}
+
+	private void release() {
+		if (references.decrementAndGet() == 0) {
+			complete();
+		}
+	}
+
+	private void complete() {
+		final DataBuffer buffer = body;
+		if (buffer != null) {
+			buffer.release();
+		}
+		completed();
+	}
+
+	/** 指定链路已发送完成 */
+	protected void delivered(ODBSSlave slave) {
+	}
+
+	/** 指定链路未能发送 */
+	protected void failed(ODBSSlave slave) {
+	}
+
+	/** 所有目标链路均已完成(发送或丢弃)，编码数据已释放 */
+	protected void completed() {
+	}
+
+	/** 目标链路数量 */
+	public int getTargets() {
+		return targets;
+	}
+
+	/** 已发送完成的链路数量 */
+	public int getDelivered() {
+		return delivered.get();
+	}
+
+	/** 未能发送的链路数量 */
+	public int getFailed() {
+		return failed.get();
+	}
+
+	/** 是否所有目标链路均已完成 */
+	public boolean isCompleted() {
+		return body != null && references.get() <= 0;
+	}
+}
@@ -5,13 +5,27 @@
 package com.joyzl.network.odbs;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReentrantLock;
 
 import com.joyzl.network.IndexMap;
+import com.joyzl.network.TimerWheel;
 import com.joyzl.network.chain.TCPClient;
 
 /**
  * 基于TCP Odbs连接的客户端
+ * <p>
+ * 通过{@link #send(Object)}发送的消息由处理对象的execute方法接收响应；
+ * 通过{@link #request(ODBSMessage)}发送的请求以CompletableFuture接收响应，具有截止时间和进行中数量限制，
+ * 可在单个多路复用连接上并发大量请求。
+ * </p>
  * 
  * @author ZhangXi 2019年7月12日
  *
@@ -21,7 +35,13 @@ public class ODBSClient extends TCPClient {
 	private final ReentrantLock k = new ReentrantLock(true);
 	private final ODBSStream<ODBSMessage> sends = new ODBSStream<>();
 	private final IndexMap<ODBSMessage> receives = new IndexMap<>();
+	private final IndexMap<ODBSRequest<?>> requests = new IndexMap<>(128);
+	private final ArrayDeque<ODBSRequest<?>> waits = new ArrayDeque<>();
+	private final Map<Class<?>, ODBSLatency> latencies = new ConcurrentHashMap<>();
+	private int inflight = 0;
 	private int id = 1;
+	/** 链路断开正在清理，不再发送请求，重新连接后恢复 */
+	private boolean closing;
 
 	public ODBSClient(ODBSClientHandler<?> h, String host, int port) {
 		super(h, host, port);
@@ -37,19 +57,24 @@ public class ODBSClient extends TCPClient {
 		return i;
 	}
 
+	@Override
+	protected void connected() {
+		k.lock();
+		try {
+			closing = false;
+		} finally {
+			k.unlock();
+		}
+		super.connected();
+	}
+
 	@Override
 	public void send(Object message) {
 		if (message instanceof ODBSMessage om) {
 			k.lock();
 			try {
-				// 发送客户端请求消息
-				// 每次生成新的消息标识
-				om.tag(oddId());
-				receives.put(om.tag(), om);
-
-				sends.add(om, om.tag());
-				if (sends.size() == 1 && sendMessage() == null) {
-					sendMessage(message = sends.stream());
+				if (enqueue(om)) {
+					message = sendMessage();
 				} else {
 					return;
 				}
@@ -62,6 +87,282 @@ public class ODBSClient extends TCPClient {
 		}
 	}
 
+	/**
+	 * 消息排队，须在锁内调用
+	 *
+	 * @return true 消息为当前发送消息，应在锁外立即发送
+	 */
+	private boolean enqueue(ODBSMessage message) {
+		// 发送客户端请求消息
+		// 每次生成新的消息标识
+		message.tag(oddId());
+		receives.put(message.tag(), message);
+
+		sends.add(message, message.tag());
+		if (sends.size() == 1 && sendMessage() == null) {
+			sendMessage(sends.stream());
+			return true;
+		}
+		return false;
+	}
+
+	////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * 发送请求并获取响应，使用处理对象的默认超时
+	 *
+	 * @see #request(ODBSMessage, long)
+	 */
+	public <M extends ODBSMessage> CompletableFuture<M> request(M message) {
+		return request(message, ((ODBSClientHandler<?>) handler()).getTimeoutRequest());
+	}
+
+	/**
+	 * 发送请求并获取响应
+	 * <p>
+	 * 响应与请求为同一消息实例，收到响应后完成而不再调用处理对象的execute方法；
+	 * 超过截止时间未收到响应则以{@link TimeoutException}完成并移除消息标识，之后收到的响应作为新消息处理；
+	 * 链路断开时以{@link IOException}完成，断开之后重新连接之前的请求立即失败。
+	 * 进行中的请求达到处理对象限定的数量时，新的请求排队等待，截止时间包括排队时间。
+	 * </p>
+	 * <p>
+	 * 返回的CompletableFuture在业务线程池中完成，后续阶段不会在通道读取线程或时间轮线程中执行；
+	 * 阻塞的后续操作仍应使用*Async方法以免占用业务线程。
+	 * </p>
+	 *
+	 * @param timeout 超时(毫秒)
+	 */
+	public <M extends ODBSMessage> CompletableFuture<M> request(M message, long timeout) {
+		if (message == null) {
+			throw new IllegalArgumentException("无效的消息对象");
+		}
+		final ODBSRequest<M> request = new ODBSRequest<>(this, message);
+		TimerWheel.WHEEL.schedule(request, timeout);
+		boolean send = false, closed = false;
+		k.lock();
+		try {
+			if (closing) {
+				closed = true;
+			} else if (inflight < ((ODBSClientHandler<?>) handler()).getMaxRequests()) {
+				inflight++;
+				send = dispatch(request);
+			} else {
+				// 达到限定数量，排队等待
+				waits.add(request);
+			}
+		} finally {
+			k.unlock();
+		}
+		if (closed) {
+			TimerWheel.WHEEL.cancel(request);
+			request.fail(new IOException("ODBS:连接断开"));
+		} else if (send) {
+			sending(request);
+		}
+		return request.future();
+	}
+
+	/**
+	 * 请求排队发送，须在锁内调用
+	 *
+	 * @return true 请求为当前发送消息，应在锁外立即发送
+	 */
+	private boolean dispatch(ODBSRequest<?> request) {
+		request.start();
+		final boolean send = enqueue(request.message());
+		requests.put(request.message().tag(), request);
+		return send;
+	}
+
+	/**
+	 * 释放进行中的请求并从排队中取出下一个请求，须在锁内调用
+	 *
+	 * @return 须在锁外立即发送的请求 / null
+	 */
+	private ODBSRequest<?> next() {
+		final ODBSRequest<?> request = closing ? null : waits.poll();
+		if (request == null) {
+			inflight--;
+			return null;
+		}
+		// 进行中的数量不变
+		return dispatch(request) ? request : null;
+	}
+
+	/** 在锁外发送当前消息，链路已断开时请求失败 */
+	private void sending(ODBSRequest<?> request) {
+		try {
+			super.send(request.message());
+		} catch (Exception e) {
+			fail(request.message(), new IOException("ODBS:连接断开", e));
+		}
+	}
+
+	/**
+	 * 收到响应，完成关联的请求
+	 *
+	 * @return true 消息为请求的响应 / false 不是通过请求发送的消息
+	 */
+	boolean complete(ODBSMessage message) {
+		if (message.tag() == 0) {
+			// 服务端推送的无标识消息
+			return false;
+		}
+		final ODBSRequest<?> request;
+		ODBSRequest<?> next = null;
+		k.lock();
+		try {
+			request = requests.get(message.tag());
+			if (request == null || request.message() != message) {
+				return false;
+			}
+			requests.remove(message.tag());
+			next = next();
+		} finally {
+			k.unlock();
+		}
+		TimerWheel.WHEEL.cancel(request);
+		latency(message).record(request.elapsed());
+		request.complete();
+		if (next != null) {
+			sending(next);
+		}
+		return true;
+	}
+
+	/**
+	 * 请求失败，消息已从接收集合中移除
+	 *
+	 * @return true 消息为请求且已完成 / false 不是通过请求发送的消息
+	 */
+	boolean fail(ODBSMessage message, Throwable e) {
+		if (message.tag() == 0) {
+			// 服务端推送的无标识消息
+			return false;
+		}
+		final ODBSRequest<?> request;
+		ODBSRequest<?> next = null;
+		k.lock();
+		try {
+			request = requests.get(message.tag());
+			if (request == null || request.message() != message) {
+				return false;
+			}
+			requests.remove(message.tag());
+			next = next();
+		} finally {
+			k.unlock();
+		}
+		TimerWheel.WHEEL.cancel(request);
+		request.fail(e);
+		if (next != null) {
+			sending(next);
+		}
+		return true;
+	}
+
+	/**
+	 * 链路断开时调用，标记为正在关闭并取出所有等待响应的消息；
+	 * 排队和进行中的请求全部以异常完成，不再发送排队的请求
+	 *
+	 * @return 不是通过请求发送的等待响应消息，由处理对象执行
+	 */
+	List<ODBSMessage> abort(Throwable e) {
+		final List<ODBSRequest<?>> list;
+		final List<ODBSMessage> messages = new ArrayList<>();
+		k.lock();
+		try {
+			closing = true;
+			list = new ArrayList<>(waits);
+			waits.clear();
+			ODBSRequest<?> request;
+			ODBSMessage message;
+			receives.iterator();
+			while (receives.hasNext()) {
+				message = receives.next().value();
+				receives.remove();
+				request = requests.get(message.tag());
+				if (request != null && request.message() == message) {
+					list.add(request);
+				} else {
+					messages.add(message);
+				}
+			}
+			requests.clear();
+			inflight = 0;
+		} finally {
+			k.unlock();
+		}
+		for (int index = 0; index < list.size(); index++) {
+			TimerWheel.WHEEL.cancel(list.get(index));
+			list.get(index).fail(e);
+		}
+		return messages;
+	}
+
+	/**
+	 * 请求超时，由时间轮调用
+	 */
+	void timeout(ODBSRequest<?> request) {
+		ODBSRequest<?> next = null;
+		k.lock();
+		try {
+			if (waits.remove(request)) {
+				// 排队中超时
+			} else if (request.message().tag() != 0 && requests.get(request.message().tag()) == request) {
+				requests.remove(request.message().tag());
+				receives.remove(request.message().tag());
+				next = next();
+			} else {
+				// 已完成
+				return;
+			}
+		} finally {
+			k.unlock();
+		}
+		latency(request.message()).timeout();
+		request.fail(new TimeoutException("ODBS:请求超时"));
+		if (next != null) {
+			sending(next);
+		}
+	}
+
+	private ODBSLatency latency(ODBSMessage message) {
+		return latencies.computeIfAbsent(message.getClass(), type -> new ODBSLatency());
+	}
+
+	/** 获取指定消息类型的请求延迟统计 */
+	public ODBSLatency getLatency(Class<? extends ODBSMessage> type) {
+		return latencies.get(type);
+	}
+
+	/** 获取所有消息类型的请求延迟统计 */
+	public Map<Class<?>, ODBSLatency> getLatencies() {
+		return Collections.unmodifiableMap(latencies);
+	}
+
+	/** 获取已发送等待响应的请求数量 */
+	public int getInflight() {
+		k.lock();
+		try {
+			return inflight;
+		} finally {
+			k.unlock();
+		}
+	}
+
+	/** 获取排队等待发送的请求数量 */
+	public int getWaiting() {
+		k.lock();
+		try {
+			return waits.size();
+		} finally {
+			k.unlock();
+		}
+	}
+
+	////////////////////////////////////////////////////////////////////////////////
+
 	protected int sendId() {
 		return sends.id();
 	}
@@ -4,6 +4,10 @@
  */
 package com.joyzl.network.odbs;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
 import com.joyzl.network.buffer.DataBuffer;
 import com.joyzl.network.chain.ChainGenericsHandler;
 import com.joyzl.network.codec.Binary;
@@ -32,6 +36,24 @@ public abstract class ODBSClientHandler<M extends ODBSMessage> extends ODBSFrame
 		odbs = new ODBSBinary(o);
 	}
 
+	/**
+	 * 请求默认超时(毫秒)
+	 *
+	 * @see ODBSClient#request(ODBSMessage)
+	 */
+	public long getTimeoutRequest() {
+		return 30000L;
+	}
+
+	/**
+	 * 进行中(已发送等待响应)的请求最大数量，超过时请求排队等待；应小于发送流容量
+	 *
+	 * @see ODBSClient#request(ODBSMessage)
+	 */
+	public int getMaxRequests() {
+		return 100;
+	}
+
 	@Override
 	public void connected(ODBSClient client) throws Exception {
 		client.receive();
@@ -110,7 +132,11 @@ public abstract class ODBSClientHandler<M extends ODBSMessage> extends ODBSFrame
 			fail(client, TIMEOUT);
 		} else {
 			message.chain(client);
-			execute(client, (M) message, SUCCESS);
+			if (client.complete(message)) {
+				// 请求的响应
+			} else {
+				execute(client, (M) message, SUCCESS);
+			}
 		}
 	}
 
@@ -173,12 +199,11 @@ public abstract class ODBSClientHandler<M extends ODBSMessage> extends ODBSFrame
 
 	@SuppressWarnings("unchecked")
 	protected void fail(ODBSClient client, int state) throws Exception {
-		ODBSMessage om;
-		client.receives().iterator();
-		while (client.receives().hasNext()) {
-			om = client.receives().next().value();
-			client.receives().remove();
-			execute(client, (M) om, state);
+		final Exception e = state == TIMEOUT ? new TimeoutException("ODBS:接收超时") : new IOException("ODBS:连接断开");
+		// 请求以异常完成，其余消息由处理对象执行
+		final List<ODBSMessage> messages = client.abort(e);
+		for (int index = 0; index < messages.size(); index++) {
+			execute(client, (M) messages.get(index), state);
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.odbs;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 请求响应延迟直方图
+ * <p>
+ * 延迟以微秒计，按2的幂划分区间，第n个区间统计[2^(n-1), 2^n)微秒的数量，最后一个区间包括所有更长的延迟；
+ * 记录为无锁的原子计数，百分位数返回所在区间的上限，误差不超过一倍。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月25日
+ */
+public class ODBSLatency {
+
+	/** 区间数量，最后区间约为1.1小时以上 */
+	final static int BUCKETS = 33;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+	private final AtomicLong timeouts = new AtomicLong();
+
+	/** 延迟所在区间 */
+	static int bucket(long micros) {
+		if (micros <= 0) {
+			return 0;
+		}
+		final int index = 64 - Long.numberOfLeadingZeros(micros);
+		return index < BUCKETS ? index : BUCKETS - 1;
+	}
+
+	/**
+	 * 记录一次延迟
+	 *
+	 * @param nanos 纳秒
+	 */
+	public void record(long nanos) {
+		final long micros = nanos / 1000;
+		buckets.incrementAndGet(bucket(micros));
+		count.incrementAndGet();
+		total.addAndGet(micros);
+		long value;
+		while ((value = max.get()) < micros) {
+			if (max.compareAndSet(value, micros)) {
+				break;
+			}
+		}
+	}
+
+	/** 记录一次超时 */
+	public void timeout() {
+		timeouts.incrementAndGet();
+	}
+
+	/** 已记录的响应数量 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/** 超时数量 */
+	public long getTimeouts() {
+		return timeouts.get();
+	}
+
+	/** 平均延迟(微秒) */
+	public long getMean() {
+		final long c = count.get();
+		return c == 0 ? 0 : total.get() / c;
+	}
+
+	/** 最大延迟(微秒) */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * 获取百分位延迟(微秒)，返回所在区间的上限
+	 *
+	 * @param percentile 0.0~1.0，例如0.99
+	 */
+	public long getPercentile(double percentile) {
+		long c = 0;
+		for (int index = 0; index < BUCKETS; index++) {
+			c += buckets.get(index);
+		}
+		if (c == 0) {
+			return 0;
+		}
+		final long target = (long) Math.ceil(c * percentile);
+		c = 0;
+		for (int index = 0; index < BUCKETS; index++) {
+			c += buckets.get(index);
+			if (c >= target && c > 0) {
+				return index == 0 ? 0 : Math.min(1L << index, max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/** 获取区间计数 */
+	public long[] getBuckets() {
+		final long[] values = new long[BUCKETS];
+		for (int index = 0; index < BUCKETS; index++) {
+			values[index] = buckets.get(index);
+		}
+		return values;
+	}
+
+	/** 清除统计 */
+	public void reset() {
+		for (int index = 0; index < BUCKETS; index++) {
+			buckets.set(index, 0);
+		}
+		count.set(0);
+		total.set(0);
+		max.set(0);
+		timeouts.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "COUNT:" + getCount() + " MEAN:" + getMean() + "us P50:" + getPercentile(0.5) + "us P99:" + getPercentile(0.99) + "us MAX:" + getMax() + "us TIMEOUT:" + getTimeouts();
+	}
+}
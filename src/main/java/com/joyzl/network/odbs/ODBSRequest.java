@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.odbs;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.joyzl.network.Executor;
+import com.joyzl.network.TimerWheel;
+
+/**
+ * 客户端请求，关联响应的CompletableFuture并在时间轮中计时截止时间
+ * <p>
+ * CompletableFuture在业务线程池中完成，其后续非Async阶段不会占用通道读取线程或时间轮线程；
+ * 线程池未初始化或已关闭时在当前线程完成。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月25日
+ */
+final class ODBSRequest<M extends ODBSMessage> extends TimerWheel.Timeout {
+
+	private final CompletableFuture<M> future = new CompletableFuture<>();
+	private final ODBSClient client;
+	private final M message;
+	private long start;
+
+	ODBSRequest(ODBSClient client, M message) {
+		this.client = client;
+		this.message = message;
+	}
+
+	@Override
+	protected void expired(long timestamp) {
+		client.timeout(this);
+	}
+
+	/** 开始发送，记录时间用于计算延迟 */
+	void start() {
+		start = System.nanoTime();
+	}
+
+	/** 发送至今的时间(纳秒) */
+	long elapsed() {
+		return System.nanoTime() - start;
+	}
+
+	M message() {
+		return message;
+	}
+
+	CompletableFuture<M> future() {
+		return future;
+	}
+
+	void complete() {
+		settle(() -> future.complete(message));
+	}
+
+	void fail(Throwable e) {
+		settle(() -> future.completeExceptionally(e));
+	}
+
+	/** 在业务线程池中完成CompletableFuture */
+	private static void settle(Runnable command) {
+		if (Executor.isActive()) {
+			try {
+				Executor.execute(command);
+				return;
+			} catch (RejectedExecutionException e) {
+				// 线程池正在关闭
+			}
+		}
+		command.run();
+	}
+}
@@ -6,7 +6,10 @@ package com.joyzl.network.odbs;
 
 import java.io.IOException;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
 
+import com.joyzl.network.buffer.DataBuffer;
 import com.joyzl.network.chain.Slave;
 import com.joyzl.network.chain.TCPServer;
 
@@ -22,6 +25,40 @@ public class ODBSServer extends TCPServer {
 		super(handler, host, port);
 	}
 
+	/**
+	 * 广播消息到所有已连接的链路
+	 *
+	 * @see #broadcast(ODBSBroadcast, Iterable)
+	 */
+	public ODBSBroadcast broadcast(ODBSMessage message) throws Exception {
+		return broadcast(new ODBSBroadcast(message), slaves());
+	}
+
+	/**
+	 * 广播消息到指定链路，消息实体仅编码一次，每个链路共享编码数据并排队发送
+	 *
+	 * @param broadcast 广播消息，可通过其方法跟踪每个链路的发送结果
+	 * @param slaves 目标链路，非本服务端创建的ODBS链路被忽略
+	 * @return 广播消息
+	 */
+	public ODBSBroadcast broadcast(ODBSBroadcast broadcast, Iterable<? extends Slave> slaves) throws Exception {
+		final List<ODBSSlave> targets = new ArrayList<>();
+		for (Slave slave : slaves) {
+			if (slave instanceof ODBSSlave && slave.server() == this) {
+				targets.add((ODBSSlave) slave);
+			}
+		}
+		final DataBuffer body = ((ODBSServerHandler<?>) handler()).encode(broadcast.message());
+		broadcast.prepare(body, targets.size());
+		for (int index = 0; index < targets.size(); index++) {
+			if (!targets.get(index).broadcast(broadcast)) {
+				// 链路已断开或发送队列已满
+				broadcast.fail(targets.get(index));
+			}
+		}
+		return broadcast;
+	}
+
 	@Override
 	protected Slave create(AsynchronousSocketChannel socket_channel) throws Exception {
 		return new ODBSSlave(this, socket_channel);
@@ -5,6 +5,7 @@
 package com.joyzl.network.odbs;
 
 import com.joyzl.network.buffer.DataBuffer;
+import com.joyzl.network.chain.ChainChannel;
 import com.joyzl.network.chain.ChainGenericsHandler;
 import com.joyzl.network.codec.Binary;
 import com.joyzl.odbs.ODBS;
@@ -108,6 +109,48 @@ public abstract class ODBSServerHandler<M extends ODBSMessage> extends ODBSFrame
 
 	protected abstract void execute(ODBSSlave slave, M message) throws Exception;
 
+	@Override
+	public DataBuffer encode(ChainChannel chain, Object message) throws Exception {
+		if (message instanceof ODBSBroadcast broadcast) {
+			return encode((ODBSSlave) chain, broadcast);
+		}
+		return ChainGenericsHandler.super.encode(chain, message);
+	}
+
+	/**
+	 * 编码广播消息，仅生成当前链路的帧头，帧数据共享广播消息已编码的实体
+	 */
+	private DataBuffer encode(ODBSSlave slave, ODBSBroadcast broadcast) throws Exception {
+		final DataBuffer writer = DataBuffer.instance();
+
+		// HEAD 1Byte
+		writer.write(HEAD);
+		// LENGTH 4Byte 不包括 HEAD 和 LENGTH 本身
+		writer.writeInt(broadcast.body().readable() + 4);
+		// TAG 4Byte
+		writer.writeInt(Binary.setBit(slave.sendId(), true, 31));
+		// DATA Entity 共享
+		writer.share(broadcast.body());
+
+		// 标记当前消息已完成
+		slave.sendDone();
+		return writer;
+	}
+
+	/**
+	 * 编码消息实体(不含帧头)，用于广播时仅编码一次
+	 */
+	DataBuffer encode(ODBSMessage message) throws Exception {
+		final DataBuffer writer = DataBuffer.instance();
+		try {
+			odbs.writeEntity(message, writer);
+		} catch (Exception e) {
+			writer.release();
+			throw e;
+		}
+		return writer;
+	}
+
 	@Override
 	public DataBuffer encode(ODBSSlave slave, M message) throws Exception {
 		final DataBuffer writer = DataBuffer.instance();
@@ -141,6 +184,17 @@ public abstract class ODBSServerHandler<M extends ODBSMessage> extends ODBSFrame
 		return writer;
 	}
 
+	@Override
+	public void sent(ChainChannel chain, Object message) throws Exception {
+		if (message instanceof ODBSBroadcast broadcast) {
+			final ODBSSlave slave = (ODBSSlave) chain;
+			slave.sendNext();
+			broadcast.deliver(slave);
+		} else {
+			ChainGenericsHandler.super.sent(chain, message);
+		}
+	}
+
 	@Override
 	public void sent(ODBSSlave slave, M message) throws Exception {
 		if (message == null) {
@@ -72,6 +72,37 @@ public class ODBSSlave extends TCPSlave {
 		}
 	}
 
+	/**
+	 * 排队发送广播消息，广播消息在每个链路分配独立的消息标识
+	 *
+	 * @return true 已排队，发送完成或链路断开时通知广播消息 / false 链路已断开或发送队列已满
+	 */
+	boolean broadcast(ODBSBroadcast broadcast) {
+		k.lock();
+		try {
+			if (!active()) {
+				return false;
+			}
+			if (sends.size() >= sends.capacity()) {
+				return false;
+			}
+			sends.add(broadcast, evenId());
+			if (sends.size() == 1 && sendMessage() == null) {
+				sendMessage(broadcast);
+			} else {
+				return true;
+			}
+		} finally {
+			k.unlock();
+		}
+		try {
+			super.send(broadcast);
+		} catch (IllegalStateException e) {
+			// 已排队，链路断开时清除
+		}
+		return true;
+	}
+
 	protected int sendId() {
 		return sends.id();
 	}
@@ -103,7 +134,12 @@ public class ODBSSlave extends TCPSlave {
 	protected void sendClear() throws IOException {
 		k.lock();
 		try {
-			sends.clear();
+			// 未发送的广播消息在此链路丢弃
+			sends.clear(message -> {
+				if (message instanceof ODBSBroadcast broadcast) {
+					broadcast.fail(this);
+				}
+			});
 		} finally {
 			k.unlock();
 		}
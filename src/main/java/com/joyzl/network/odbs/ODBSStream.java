@@ -6,6 +6,7 @@ package com.joyzl.network.odbs;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.function.Consumer;
 
 /**
  * 消息发送流，链表模式实现；<br>
@@ -101,7 +102,15 @@ public class ODBSStream<M> {
 
 	/** 清除所有消息，如果消息携带资源并实现Closeable接口将自动关闭 */
 	public void clear() throws IOException {
+		clear(null);
+	}
+
+	/** 清除所有消息，清除之前逐个通知消息，如果消息携带资源并实现Closeable接口将自动关闭 */
+	public void clear(Consumer<M> consumer) throws IOException {
 		while (head != foot) {
+			if (consumer != null && head.value != null) {
+				consumer.accept(head.value);
+			}
 			if (head.value instanceof Closeable) {
 				((Closeable) head.value).close();
 				head.value = null;
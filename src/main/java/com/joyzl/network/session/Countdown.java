@@ -24,6 +24,11 @@ class Countdown<T> implements Timely<T> {
 		return timestamp < time;
 	}
 
+	@Override
+	public long expire() {
+		return time;
+	}
+
 	@Override
 	public T value() {
 		return value;
@@ -46,11 +46,14 @@ class Refreshable<T> implements Timely<T> {
 		return timestamp - time < life;
 	}
 
+	@Override
+	public long expire() {
+		return time + life;
+	}
+
 	@Override
 	public T value() {
-		synchronized (this) {
-			time = System.currentTimeMillis();
-		}
+		time = Session.now();
 		return value;
 	}
 
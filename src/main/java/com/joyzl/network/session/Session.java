@@ -4,45 +4,53 @@
  */
 package com.joyzl.network.session;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.joyzl.network.Executor;
+import com.joyzl.network.TimerWheel;
 
 /**
  * 会话对象在多个链路间共享
- * 
+ *
  * <pre>
  * public final static Session&lt;User&gt; USER = new SessionRefreshable&lt;&gt;();
  * USER.set("session id / token", new User());
  * User user = USER.get("session id / token");
  * </pre>
- * 
+ * <p>
+ * 会话值按过期时间放入时间桶(粒度{@link #BUCKET})，时间桶按键哈希分为多个分片以减少加入时的锁竞争；
+ * 会话在时间轮中仅有一个清理任务，每次只取出已到期的时间桶，已刷新的值放入新的时间桶，过期的值被移除，
+ * 已移除或替换的值在其时间桶到期时丢弃。
+ * </p>
+ * <p>
+ * 获取值时使用时间轮推进时更新的粗略时钟(误差为时间轮刻度)，执行器未初始化时使用系统时钟。
+ * </p>
+ *
  * @author ZhangXi 2025年2月16日
  */
 public abstract class Session<T> {
 
-	/** 所有实例化的会话容器，此列表用于守护进程 */
-	private final static List<Session<?>> SESSIONS = new ArrayList<>();
+	/** 过期时间未知时的检查间隔(毫秒) */
+	final static long CHECK = 60 * 1000;
+	/** 时间桶粒度(毫秒)，也是清理间隔 */
+	final static long BUCKET = 1000;
+	/** 分片数量 */
+	final static int SHARDS = 16;
 
-	/** 会话过期清理 */
+	/**
+	 * 会话过期清理
+	 *
+	 * @deprecated 会话在时间轮{@link TimerWheel#WHEEL}中安排清理任务，无须再调度此任务
+	 */
+	@Deprecated
 	public final static Runnable SESSION_DAEMON = new Runnable() {
 		@Override
 		public void run() {
-			Session<?> session;
-			final long timestamp = System.currentTimeMillis();
-			try {
-				for (int index = 0; index < SESSIONS.size(); index++) {
-					session = SESSIONS.get(index);
-					if (session.VALUES.isEmpty()) {
-						continue;
-					}
-					session.check(timestamp);
-				}
-			} catch (Exception e) {
-
-			}
 		}
 
 		@Override
@@ -51,50 +59,193 @@ public abstract class Session<T> {
 		}
 	};
 
+	/**
+	 * 粗略时钟
+	 */
+	static long now() {
+		if (Executor.isActive()) {
+			return TimerWheel.WHEEL.timestamp();
+		}
+		return System.currentTimeMillis();
+	}
+
+	/** 会话值，同一时间桶中的值以单向链表连接 */
+	final static class Expiry<T> {
+
+		final Object key;
+		final Timely<T> timely;
+		Expiry<T> next;
+
+		Expiry(Object key, Timely<T> timely) {
+			this.key = key;
+			this.timely = timely;
+		}
+	}
+
+	/** 分片，时间桶序号到链表头，由分片锁保护 */
+	final static class Shard<T> {
+
+		final TreeMap<Long, Expiry<T>> buckets = new TreeMap<>();
+
+		synchronized void add(Expiry<T> expiry, long timestamp) {
+			long expire = expiry.timely.expire();
+			if (expire <= 0) {
+				expire = timestamp + CHECK;
+			}
+			// 向上取整，时间桶到期时值已过期
+			final Long bucket = (expire + BUCKET - 1) / BUCKET;
+			expiry.next = buckets.put(bucket, expiry);
+		}
+
+		/** 取出所有已到期的时间桶 */
+		synchronized Expiry<T> poll(long timestamp) {
+			final long bucket = timestamp / BUCKET;
+			Entry<Long, Expiry<T>> entry;
+			Expiry<T> head = null, tail;
+			while ((entry = buckets.firstEntry()) != null && entry.getKey() <= bucket) {
+				buckets.pollFirstEntry();
+				tail = entry.getValue();
+				while (tail.next != null) {
+					tail = tail.next;
+				}
+				tail.next = head;
+				head = entry.getValue();
+			}
+			return head;
+		}
+
+		synchronized int size() {
+			return buckets.size();
+		}
+	}
+
+	/** 清理任务，在业务线程池执行，加入值时可能重新安排，同时只有一个清理进行 */
+	private final TimerWheel.Timeout SWEEPER = new TimerWheel.Timeout() {
+		@Override
+		protected void expired(long timestamp) {
+			if (sweeping.compareAndSet(false, true)) {
+				try {
+					sweep(timestamp);
+				} finally {
+					sweeping.set(false);
+				}
+			}
+			// 已移除的值仍在时间桶中，时间桶清空之前保持清理
+			if (!VALUES.isEmpty() || buckets() > 0) {
+				TimerWheel.WHEEL.schedule(this, BUCKET);
+			}
+		}
+	};
+
 	////////////////////////////////////////////////////////////////////////////////
 
-	private final ConcurrentHashMap<Object, Timely<T>> VALUES = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Object, Expiry<T>> VALUES = new ConcurrentHashMap<>();
+	private final AtomicBoolean sweeping = new AtomicBoolean();
+	private final Shard<T>[] shards;
+
+	private final AtomicLong expirations = new AtomicLong();
+	private volatile long expirationRate;
+	private volatile long sweepTime;
+	private long sweepTimestamp;
 
+	@SuppressWarnings("unchecked")
 	public Session() {
-		synchronized (SESSIONS) {
-			SESSIONS.add(this);
+		shards = (Shard<T>[]) new Shard<?>[SHARDS];
+		for (int index = 0; index < SHARDS; index++) {
+			shards[index] = new Shard<>();
 		}
 	}
 
+	private Shard<T> shard(Object key) {
+		final int h = key.hashCode();
+		return shards[(h ^ (h >>> 16)) & (SHARDS - 1)];
+	}
+
+	/** 所有分片中的时间桶数量 */
+	int buckets() {
+		int size = 0;
+		for (int index = 0; index < shards.length; index++) {
+			size += shards[index].size();
+		}
+		return size;
+	}
+
 	/**
 	 * 包装当前值为具有时效性检查接口的对象
-	 * 
+	 *
 	 * @see Timely
 	 * @return 如果值已实现时效性接口可直接返回
 	 */
 	protected abstract Timely<T> wrap(T t);
 
+	/**
+	 * 清理已到期时间桶中的值，由时间轮派发到业务线程池调用，仅取出已到期的时间桶而非全量扫描
+	 */
+	void sweep(long timestamp) {
+		final long time = System.nanoTime();
+		long count = 0;
+		Expiry<T> expiry, next;
+		for (int index = 0; index < shards.length; index++) {
+			expiry = shards[index].poll(timestamp);
+			while (expiry != null) {
+				next = expiry.next;
+				expiry.next = null;
+				if (VALUES.get(expiry.key) == expiry) {
+					if (expiry.timely.valid(timestamp)) {
+						// 已刷新，放入新的时间桶
+						shards[index].add(expiry, timestamp);
+					} else if (VALUES.remove(expiry.key, expiry)) {
+						count++;
+					}
+				} else {
+					// 已移除或替换
+				}
+				expiry = next;
+			}
+		}
+		expirations.addAndGet(count);
+		if (sweepTimestamp > 0 && timestamp > sweepTimestamp) {
+			expirationRate = count * 1000 / (timestamp - sweepTimestamp);
+		}
+		sweepTimestamp = timestamp;
+		sweepTime = System.nanoTime() - time;
+	}
+
 	/**
 	 * 指定时戳检查时效性，过期对象将被移除
+	 * <p>
+	 * 此方法全量扫描会话值，通常无须调用。
 	 */
 	protected void check(long timestamp) {
-		final Iterator<Entry<Object, Timely<T>>> iterator = VALUES.entrySet().iterator();
+		final Iterator<Entry<Object, Expiry<T>>> iterator = VALUES.entrySet().iterator();
 		while (iterator.hasNext()) {
-			if (iterator.next().getValue().valid(timestamp)) {
+			if (iterator.next().getValue().timely.valid(timestamp)) {
 				continue;
 			} else {
 				iterator.remove();
+				expirations.incrementAndGet();
 			}
 		}
 	}
 
 	/**
 	 * 指定键设置值，返回之前设置的值，如果已过期则返回空(null)
-	 * 
+	 *
 	 * @param key 键可为任意对象，应确保有合理的哈希值(Object.hashCode())
 	 * @param value 要设置的值
 	 * @return 返回之前设置的值，如果已过期则返回空(null)
 	 */
 	public T set(Object key, T value) {
-		final Timely<T> previous = VALUES.put(key, wrap(value));
+		final long timestamp = now();
+		final Expiry<T> expiry = new Expiry<>(key, wrap(value));
+		final Expiry<T> previous = VALUES.put(key, expiry);
+		shard(key).add(expiry, timestamp);
+		if (!SWEEPER.scheduled()) {
+			TimerWheel.WHEEL.schedule(SWEEPER, BUCKET);
+		}
 		if (previous != null) {
-			if (previous.valid(System.currentTimeMillis())) {
-				return previous.value();
+			if (previous.timely.valid(timestamp)) {
+				return previous.timely.value();
 			}
 		}
 		return null;
@@ -102,15 +253,15 @@ public abstract class Session<T> {
 
 	/**
 	 * 指定键获取值，如果已过期则返回空(null)
-	 * 
+	 *
 	 * @param key 键可为任意对象，应确保有合理的哈希值(Object.hashCode())
 	 * @return 键关联的值，如果已过期返回空(null)
 	 */
 	public T get(Object key) {
-		final Timely<T> current = VALUES.get(key);
+		final Expiry<T> current = VALUES.get(key);
 		if (current != null) {
-			if (current.valid(System.currentTimeMillis())) {
-				return current.value();
+			if (current.timely.valid(now())) {
+				return current.timely.value();
 			}
 		}
 		return null;
@@ -118,13 +269,22 @@ public abstract class Session<T> {
 
 	/**
 	 * 移除会话键值
-	 * 
+	 *
 	 * @param key 键可为任意对象，应确保有合理的哈希值(Object.hashCode())
 	 * @return Timely<T>
 	 */
 	public T remove(Object key) {
-		final Timely<T> current = VALUES.remove(key);
-		return current == null ? null : current.value();
+		// 时间桶中的值到期时丢弃
+		final Expiry<T> current = VALUES.remove(key);
+		return current == null ? null : current.timely.value();
+	}
+
+	/**
+	 * 移除所有会话键值
+	 */
+	public void clear() {
+		// 时间桶中的值到期时丢弃
+		VALUES.clear();
 	}
 
 	/**
@@ -133,4 +293,25 @@ public abstract class Session<T> {
 	public int size() {
 		return VALUES.size();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * 获取累计过期移除的数量
+	 */
+	public long getExpirations() {
+		return expirations.get();
+	}
+
+	/**
+	 * 获取最近一次清理的每秒过期移除数量
+	 */
+	public long getExpirationRate() {
+		return expirationRate;
+	}
+
+	/**
+	 * 获取最近一次清理的耗时(纳秒)
+	 */
+	public long getSweepTime() {
+		return sweepTime;
+	}
+}
@@ -20,6 +20,15 @@ public interface Timely<T> {
 	 */
 	boolean valid(long timestamp);
 
+	/**
+	 * 获取预计的过期时间戳，会话据此在时间轮中安排检查
+	 * 
+	 * @return 过期时间戳，0 表示未知(定期检查)
+	 */
+	default long expire() {
+		return 0;
+	}
+
 	/**
 	 * 获取关联值对象
 	 */
@@ -209,6 +209,14 @@ abstract class CipherSuiter implements CipherSuite {
 		return decryptCipher.doFinal();
 	}
 
+	/**
+	 * 解密完成
+	 */
+	public byte[] decryptFinal(byte[] data) throws Exception {
+		decryptSequence++;
+		return decryptCipher.doFinal(data);
+	}
+
 	/**
 	 * 加密，加密数据并输出到缓存尾部
 	 */
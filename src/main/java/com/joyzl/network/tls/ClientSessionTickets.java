@@ -11,6 +11,9 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * 会话票据缓存
+ * <p>
+ * 每个SNI最多保留{@link #getLimit()}个票据，超出时丢弃最早的票据。
+ * </p>
  * 
  * @author ZhangXi 2025年2月18日
  */
@@ -19,29 +22,29 @@ public class ClientSessionTickets {
 	/** SNI,Queue */
 	private final static Map<String, Queue<NewSessionTicket1>> M1 = new ConcurrentHashMap<>();
 	private final static Map<String, Queue<NewSessionTicket2>> M2 = new ConcurrentHashMap<>();
+	/** 每个SNI保留的票据数量 */
+	private static volatile int LIMIT = 8;
 
 	/**
 	 * 缓存 NewSessionTicket1
 	 */
 	public static void put(String sni, NewSessionTicket1 newSessionTicket) {
-		Queue<NewSessionTicket1> q = M1.get(sni);
-		if (q == null) {
-			q = new ConcurrentLinkedQueue<>();
-			M1.put(sni, q);
-		}
+		final Queue<NewSessionTicket1> q = M1.computeIfAbsent(sni, k -> new ConcurrentLinkedQueue<>());
 		q.add(newSessionTicket);
+		while (q.size() > LIMIT) {
+			q.poll();
+		}
 	}
 
 	/**
 	 * 缓存 NewSessionTicket2
 	 */
 	public static void put(String sni, NewSessionTicket2 newSessionTicket) {
-		Queue<NewSessionTicket2> q = M2.get(sni);
-		if (q == null) {
-			q = new ConcurrentLinkedQueue<>();
-			M2.put(sni, q);
-		}
+		final Queue<NewSessionTicket2> q = M2.computeIfAbsent(sni, k -> new ConcurrentLinkedQueue<>());
 		q.add(newSessionTicket);
+		while (q.size() > LIMIT) {
+			q.poll();
+		}
 	}
 
 	/**
@@ -73,4 +76,24 @@ public class ClientSessionTickets {
 		}
 		return null;
 	}
+
+	/** 获取每个SNI保留的票据数量 */
+	public static int getLimit() {
+		return LIMIT;
+	}
+
+	/** 设置每个SNI保留的票据数量 */
+	public static void setLimit(int value) {
+		if (value <= 0) {
+			throw new IllegalArgumentException("票据数量无效:" + value);
+		}
+		LIMIT = value;
+	}
+
+	/** 获取指定SNI缓存的票据数量 */
+	public static int size(String sni) {
+		final Queue<NewSessionTicket1> q1 = M1.get(sni);
+		final Queue<NewSessionTicket2> q2 = M2.get(sni);
+		return (q1 == null ? 0 : q1.size()) + (q2 == null ? 0 : q2.size());
+	}
 }
\ No newline at end of file
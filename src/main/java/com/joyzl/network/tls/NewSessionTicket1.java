@@ -24,6 +24,13 @@ class NewSessionTicket1 extends HandshakeExtensions {
 		timestamp = System.currentTimeMillis();
 	}
 
+	/**
+	 * 指定票据构建的时间戳，用于从票据恢复
+	 */
+	NewSessionTicket1(long timestamp) {
+		this.timestamp = timestamp;
+	}
+
 	@Override
 	public byte msgType() {
 		return NEW_SESSION_TICKET;
@@ -34,6 +34,10 @@ class NewSessionTicket2 extends NewSessionTicket1 {
 		super();
 	}
 
+	NewSessionTicket2(long timestamp) {
+		super(timestamp);
+	}
+
 	public byte[] getNonce() {
 		return nonce;
 	}
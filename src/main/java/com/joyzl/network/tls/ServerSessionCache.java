@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.tls;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 服务端TLS 1.0~1.2会话标识(Session ID)恢复缓存
+ * <p>
+ * 按会话标识保存主密钥、密码套件和增强型主密钥标记；数量超过容量时淘汰最近最少使用的会话，
+ * 超过生命周期的会话在获取时移除。客户端以会话标识恢复时服务端无须发送证书和执行密钥交换。
+ * </p>
+ * <p>
+ * 服务端尚未实现TLS 1.2完整握手，{@link V2ServerHandler}仅查找缓存恢复会话，不会产生新的会话；
+ * 此缓存及恢复流程作为独立构件由单元测试验证，完整握手实现后在其完成时通过{@link #put}缓存会话。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月25日
+ */
+public class ServerSessionCache {
+
+	/** 缓存的会话 */
+	static class Entry {
+
+		final byte[] master;
+		final short suite;
+		final boolean extendedMasterSecret;
+		final long timestamp;
+
+		Entry(byte[] master, short suite, boolean extendedMasterSecret) {
+			this.master = master;
+			this.suite = suite;
+			this.extendedMasterSecret = extendedMasterSecret;
+			timestamp = System.currentTimeMillis();
+		}
+	}
+
+	/** 默认容量 */
+	private static int CAPACITY = 20000;
+	/** 会话生命周期(秒) */
+	private static volatile int LIFETIME = 86400;
+
+	private final static LinkedHashMap<ByteBuffer, Entry> SESSIONS = new LinkedHashMap<>(1024, 0.75F, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Entry> eldest) {
+			if (size() > CAPACITY) {
+				EVICTIONS.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private final static AtomicLong HITS = new AtomicLong();
+	private final static AtomicLong MISSES = new AtomicLong();
+	private final static AtomicLong EVICTIONS = new AtomicLong();
+
+	/**
+	 * 获取会话
+	 *
+	 * @return 会话 / null 不存在或已过期
+	 */
+	static Entry get(byte[] id) {
+		final ByteBuffer key = ByteBuffer.wrap(id);
+		final Entry entry;
+		synchronized (SESSIONS) {
+			entry = SESSIONS.get(key);
+			if (entry != null && System.currentTimeMillis() - entry.timestamp >= LIFETIME * 1000L) {
+				SESSIONS.remove(key);
+				EVICTIONS.incrementAndGet();
+				MISSES.incrementAndGet();
+				return null;
+			}
+		}
+		if (entry == null) {
+			MISSES.incrementAndGet();
+		} else {
+			HITS.incrementAndGet();
+		}
+		return entry;
+	}
+
+	/**
+	 * 缓存完整握手建立的会话
+	 */
+	static void put(byte[] id, byte[] master, short suite, boolean extendedMasterSecret) {
+		final Entry entry = new Entry(master, suite, extendedMasterSecret);
+		synchronized (SESSIONS) {
+			SESSIONS.put(ByteBuffer.wrap(id.clone()), entry);
+		}
+	}
+
+	/**
+	 * 移除会话，例如连接因致命警告关闭
+	 */
+	public static void remove(byte[] id) {
+		synchronized (SESSIONS) {
+			SESSIONS.remove(ByteBuffer.wrap(id));
+		}
+	}
+
+	/**
+	 * 移除所有过期会话
+	 */
+	public static void expire() {
+		final long timestamp = System.currentTimeMillis() - LIFETIME * 1000L;
+		synchronized (SESSIONS) {
+			final Iterator<Entry> iterator = SESSIONS.values().iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().timestamp <= timestamp) {
+					iterator.remove();
+					EVICTIONS.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/** 清空缓存 */
+	public static void clear() {
+		synchronized (SESSIONS) {
+			SESSIONS.clear();
+		}
+	}
+
+	////////////////////////////////////////////////////////////////////////////////
+
+	/** 获取缓存容量(会话数量) */
+	public static int getCapacity() {
+		return CAPACITY;
+	}
+
+	/** 设置缓存容量(会话数量)，超出的会话立即淘汰 */
+	public static void setCapacity(int value) {
+		if (value <= 0) {
+			throw new IllegalArgumentException("容量无效:" + value);
+		}
+		synchronized (SESSIONS) {
+			CAPACITY = value;
+			final Iterator<ByteBuffer> iterator = SESSIONS.keySet().iterator();
+			while (SESSIONS.size() > CAPACITY && iterator.hasNext()) {
+				iterator.next();
+				iterator.remove();
+				EVICTIONS.incrementAndGet();
+			}
+		}
+	}
+
+	/** 获取会话生命周期(秒) */
+	public static int getLifetime() {
+		return LIFETIME;
+	}
+
+	/** 设置会话生命周期(秒) */
+	public static void setLifetime(int value) {
+		if (value <= 0) {
+			throw new IllegalArgumentException("生命周期无效:" + value);
+		}
+		LIFETIME = value;
+	}
+
+	/** 获取当前缓存的会话数量 */
+	public static int size() {
+		synchronized (SESSIONS) {
+			return SESSIONS.size();
+		}
+	}
+
+	/** 恢复命中次数 */
+	public static long getHits() {
+		return HITS.get();
+	}
+
+	/** 恢复未命中次数 */
+	public static long getMisses() {
+		return MISSES.get();
+	}
+
+	/** 淘汰和过期移除的会话数量 */
+	public static long getEvictions() {
+		return EVICTIONS.get();
+	}
+
+	/** 恢复命中率 0.0~1.0 */
+	public static double getHitRate() {
+		final long hits = HITS.get();
+		final long total = hits + MISSES.get();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+}
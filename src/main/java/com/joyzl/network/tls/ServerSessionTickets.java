@@ -4,36 +4,230 @@
  */
 package com.joyzl.network.tls;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.ByteBuffer;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.joyzl.network.session.Session;
+import com.joyzl.network.session.SessionCountdown;
 import com.joyzl.network.tls.PreSharedKey.PskIdentity;
 
 /**
- * 服务端发出的恢复会话票据缓存
- * 
+ * 服务端发出的恢复会话票据(无状态)
+ * <p>
+ * 票据携带恢复密钥等会话参数，以票据密钥(STEK)经AES-256-GCM加密和认证，服务端不保存已发出的票据，
+ * 收到票据时通过解密验证并恢复参数。票据密钥按时间周期{@link #getRotation()}轮换，
+ * 由主密钥和周期序号派生，多个进程设置相同的主密钥{@link #setSecret(byte[])}即可相互恢复会话；
+ * 未设置时使用进程随机生成的主密钥。票据生命周期内的旧周期密钥仍可解密。
+ * </p>
+ *
+ * <pre>
+ * ticket = epoch(8) + iv(12) + AEAD(suite(2) + group(2) + timestamp(8) + lifetime(4) + age_add(4)
+ *          + nonce<0..255> + resumption<0..255>)
+ * </pre>
+ * <p>
+ * 0-RTT早期数据须通过{@link #early(PskIdentity, NewSessionTicket2)}检查：
+ * 客户端报告的票据年龄与服务端计算的年龄相差不超过重放窗口，且窗口内同一票据仅接受一次。
+ * </p>
+ *
  * @author ZhangXi 2025年3月4日
  */
 public class ServerSessionTickets {
 
-	private final static Map<PskIdentity, NewSessionTicket2> TICKETS = new ConcurrentHashMap<>();
+	/** 票据加密套件 */
+	final static CipherSuiteType TYPE = CipherSuiteType.TLS_AES_256_GCM_SHA384;
+	/** 密钥派生标签 */
+	final static byte[] LABEL = "joyzl ticket key".getBytes();
+
+	private static volatile byte[] SECRET;
+	/** 票据生命周期(秒) */
+	private static volatile int LIFETIME = 172800;
+	/** 票据密钥轮换周期(秒) */
+	private static volatile int ROTATION = 43200;
+	/** 0-RTT重放窗口(毫秒) */
+	private static volatile int WINDOW = 10000;
+	/** 重放窗口内已接受早期数据的票据 */
+	private static volatile Session<Boolean> REPLAYS = new SessionCountdown<>(WINDOW * 2);
 
+	static {
+		SECRET = new byte[32];
+		TLS.RANDOM.nextBytes(SECRET);
+	}
+
+	/**
+	 * 解密票据恢复参数
+	 *
+	 * @return 票据 / null 无法解密或密钥周期已失效
+	 */
 	public static NewSessionTicket2 get(PskIdentity identity) {
-		return TICKETS.get(identity);
+		final byte[] ticket = identity.getIdentity();
+		if (ticket.length < 8 + TYPE.iv() + TYPE.tag() + 22) {
+			return null;
+		}
+		try {
+			final ByteBuffer buffer = ByteBuffer.wrap(ticket);
+			final long epoch = buffer.getLong();
+			final long current = epoch(System.currentTimeMillis());
+			if (epoch > current || current - epoch > (LIFETIME + ROTATION - 1) / ROTATION) {
+				// 密钥周期已失效
+				return null;
+			}
+			final byte[] iv = new byte[TYPE.iv()];
+			buffer.get(iv);
+			final byte[] data = new byte[buffer.remaining()];
+			buffer.get(data);
+
+			final V3CipherSuiter cipher = new V3CipherSuiter();
+			cipher.initialize(TYPE);
+			cipher.decryptReset(key(epoch), iv);
+			cipher.decryptAEAD(data.length);
+			final ByteBuffer plain = ByteBuffer.wrap(cipher.decryptFinal(data));
+
+			final short suite = plain.getShort();
+			final short group = plain.getShort();
+			final NewSessionTicket2 value = new NewSessionTicket2(plain.getLong());
+			value.setSuite(suite);
+			value.setGroup(group);
+			value.setLifetime(plain.getInt());
+			value.setAgeAdd(plain.getInt());
+			byte[] bytes = new byte[plain.get() & 0xFF];
+			plain.get(bytes);
+			value.setNonce(bytes);
+			bytes = new byte[plain.get() & 0xFF];
+			plain.get(bytes);
+			value.setResumption(bytes);
+			value.setTicket(ticket);
+			return value;
+		} catch (Exception e) {
+			// 认证失败或格式错误
+			return null;
+		}
 	}
 
 	/**
-	 * 构造新的票据
+	 * 构造新的票据，设置恢复密钥、密码套件和密钥组之后须通过{@link #seal(NewSessionTicket2)}生成票据
 	 */
 	public static NewSessionTicket2 make(byte nonce) {
 		final NewSessionTicket2 ticket = new NewSessionTicket2();
-		ticket.setLifetime(172800);
+		ticket.setLifetime(LIFETIME);
 		ticket.setNonce(new byte[] { nonce });
-		ticket.setTicket(new byte[256]);
 		ticket.setAgeAdd(TLS.RANDOM.nextInt());
-		TLS.RANDOM.nextBytes(ticket.getTicket());
 		ticket.addExtension(EarlyDataIndication.MAX_EARLY_DATA_SIZE);
-		TICKETS.put(new PskIdentity(ticket.getAgeAdd(), ticket.getTicket()), ticket);
 		return ticket;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * 以当前周期密钥加密票据参数作为票据
+	 */
+	public static void seal(NewSessionTicket2 ticket) throws Exception {
+		final byte[] nonce = ticket.getNonce();
+		final byte[] resumption = ticket.getResumption();
+		final ByteBuffer plain = ByteBuffer.allocate(22 + nonce.length + resumption.length);
+		plain.putShort(ticket.getSuite());
+		plain.putShort(ticket.getGroup());
+		plain.putLong(ticket.timestamp());
+		plain.putInt(ticket.getLifetime());
+		plain.putInt(ticket.getAgeAdd());
+		plain.put((byte) nonce.length);
+		plain.put(nonce);
+		plain.put((byte) resumption.length);
+		plain.put(resumption);
+
+		final long epoch = epoch(ticket.timestamp());
+		final byte[] iv = new byte[TYPE.iv()];
+		TLS.RANDOM.nextBytes(iv);
+		final V3CipherSuiter cipher = new V3CipherSuiter();
+		cipher.initialize(TYPE);
+		cipher.encryptReset(key(epoch), iv);
+		cipher.encryptAEAD(plain.capacity() + TYPE.tag());
+		final byte[] data = cipher.encryptFinal(plain.array());
+
+		final ByteBuffer buffer = ByteBuffer.allocate(8 + iv.length + data.length);
+		buffer.putLong(epoch);
+		buffer.put(iv);
+		buffer.put(data);
+		ticket.setTicket(buffer.array());
+	}
+
+	/**
+	 * 检查是否可接受票据的0-RTT早期数据，应在验证绑定密钥之后调用
+	 *
+	 * @return true 票据年龄在重放窗口内且首次使用 / false 可能为重放
+	 */
+	public static boolean early(PskIdentity identity, NewSessionTicket2 ticket) {
+		// 客户端报告的票据年龄(毫秒)
+		final long age = (identity.getTicketAge() - ticket.getAgeAdd()) & 0xFFFFFFFFL;
+		final long real = System.currentTimeMillis() - ticket.timestamp();
+		if (Math.abs(real - age) > WINDOW) {
+			return false;
+		}
+		return REPLAYS.set(ByteBuffer.wrap(identity.getIdentity()), Boolean.TRUE) == null;
+	}
+
+	/** 时间戳所在的密钥周期 */
+	static long epoch(long timestamp) {
+		return timestamp / 1000 / ROTATION;
+	}
+
+	/** 派生指定周期的票据密钥 */
+	static byte[] key(long epoch) throws Exception {
+		final Mac mac = Mac.getInstance("HmacSHA256");
+		mac.init(new SecretKeySpec(SECRET, "HmacSHA256"));
+		mac.update(LABEL);
+		mac.update(ByteBuffer.allocate(8).putLong(0, epoch).array());
+		return mac.doFinal();
+	}
+
+	////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * 设置主密钥，多个进程设置相同的主密钥可相互恢复会话；更换主密钥后之前的票据失效
+	 */
+	public static void setSecret(byte[] value) {
+		if (value == null || value.length < 16) {
+			throw new IllegalArgumentException("主密钥至少16字节");
+		}
+		SECRET = value.clone();
+	}
+
+	/** 获取票据生命周期(秒) */
+	public static int getLifetime() {
+		return LIFETIME;
+	}
+
+	/** 设置票据生命周期(秒)，最长7天 */
+	public static void setLifetime(int value) {
+		if (value <= 0 || value > NewSessionTicket2.LIFETIME_MAX) {
+			throw new IllegalArgumentException("票据生命周期无效:" + value);
+		}
+		LIFETIME = value;
+	}
+
+	/** 获取票据密钥轮换周期(秒) */
+	public static int getRotation() {
+		return ROTATION;
+	}
+
+	/** 设置票据密钥轮换周期(秒)，更改后之前的票据失效 */
+	public static void setRotation(int value) {
+		if (value <= 0) {
+			throw new IllegalArgumentException("轮换周期无效:" + value);
+		}
+		ROTATION = value;
+	}
+
+	/** 获取0-RTT重放窗口(毫秒) */
+	public static int getWindow() {
+		return WINDOW;
+	}
+
+	/** 设置0-RTT重放窗口(毫秒) */
+	public static void setWindow(int value) {
+		if (value <= 0) {
+			throw new IllegalArgumentException("重放窗口无效:" + value);
+		}
+		WINDOW = value;
+		REPLAYS = new SessionCountdown<>(value * 2);
+	}
+}
@@ -203,7 +203,11 @@ public class V2ServerHandler extends ServerHandler {
 			if (record.contentType() == Record.APPLICATION_DATA) {
 				// 忽略空的应用消息
 			} else if (record.contentType() == Record.CHANGE_CIPHER_SPEC) {
-				// 忽略兼容性消息
+				// 客户端切换加密
+				if (context.secret.hasBlock()) {
+					context.cipher.decryptReset(context.secret.clientWriteKey(context.cipher.type()), context.secret.clientWriteIV(context.cipher.type()));
+					context.cipher.decryptMACKey(context.secret.clientWriteMACKey(context.cipher.type()));
+				}
 			} else if (record.contentType() == Record.HANDSHAKE) {
 				message = handshake(context, (Handshake) record);
 				if (message != null) {
@@ -283,20 +287,44 @@ public class V2ServerHandler extends ServerHandler {
 
 			context.secret.clientRandom(hello.getRandom());
 			context.secret.initialize(context.cipher.type());
+			// 协商后执行ClientHello消息哈希
+			context.secret.hash(context.data, context.length);
+			context.data.skipBytes(context.length);
+			context.length = 0;
 
 			final ServerHello server = new ServerHello();
 			server.setCipherSuite(suite);
 			server.makeRandom(V12);
+			context.secret.serverRandom(server.getRandom());
 
 			if (hello.hasSessionId()) {
+				// 会话标识恢复，密码套件和增强型主密钥须与原会话一致
+				final ServerSessionCache.Entry session = ServerSessionCache.get(hello.getSessionId());
+				if (session != null && session.suite == suite && session.extendedMasterSecret == context.extendedMasterSecret) {
+					server.setSessionId(hello.getSessionId());
+					context.sessionId = hello.getSessionId();
+					context.resumed = true;
+					// 无须证书和密钥交换，由缓存的主密钥派生密钥
+					context.secret.master(session.master);
+					context.secret.keyBlock(context.cipher.type());
+					context.cipher.encryptReset(context.secret.serverWriteKey(context.cipher.type()), context.secret.serverWriteIV(context.cipher.type()));
+					context.cipher.encryptMACKey(context.secret.serverWriteMACKey(context.cipher.type()));
 
-			} else {
-				server.setSessionId(hello.getSessionId());
+					final Handshakes handshakes = new Handshakes();
+					handshakes.add(server);
+					handshakes.add(new Finished());
+					return handshakes;
+				}
 			}
+			// 服务端未实现TLS 1.2完整握手，仅支持以会话标识恢复
 			return null;
 		} else if (record.msgType() == Handshake.FINISHED) {
 			final Finished finished = (Finished) record;
 			if (finished.validate()) {
+				if (!context.resumed && context.sessionId != null && context.secret.master() != null) {
+					// 完整握手完成(设置会话标识后)，缓存会话用于后续恢复
+					ServerSessionCache.put(context.sessionId, context.secret.master(), context.cipher.type().code(), context.extendedMasterSecret);
+				}
 				return null;
 			} else {
 				return new Alert(Alert.DECRYPT_ERROR);
@@ -313,6 +341,10 @@ public class V2ServerHandler extends ServerHandler {
 		final V2KeyExchange key;
 
 		boolean extendedMasterSecret;
+		/** 会话标识 */
+		byte[] sessionId;
+		/** 是否通过会话标识恢复 */
+		boolean resumed;
 
 		public TLSContext() {
 			signaturer = new Signaturer();
@@ -58,7 +58,7 @@ public class V3ServerHandler extends TLS implements ChainHandler {
 		final TLSContext context = chain.getContext(TLSContext.class);
 		final int type;
 		try {
-			type = RecordCoder.decode(context.cipher, buffer, context.data);
+			type = record(context, buffer);
 		} catch (Exception e) {
 			if (e instanceof TLSException) {
 				return new Alert((TLSException) e);
@@ -95,6 +95,38 @@ public class V3ServerHandler extends TLS implements ChainHandler {
 		}
 	}
 
+	/**
+	 * 解码记录层数据，拒绝早期数据时跳过无法解密的记录(RFC 8446 4.2.10)，
+	 * 直至客户端以握手密钥加密的记录解密成功，跳过的数据超出max_early_data_size时终止
+	 */
+	private int record(TLSContext context, DataBuffer buffer) throws Exception {
+		while (context.skip > 0 && buffer.readable() >= 5 && buffer.get(0) == Record.APPLICATION_DATA) {
+			// ContentType 1Byte + ProtocolVersion 2Byte + length 2Byte(uint16)
+			final int length = ((buffer.get(3) & 0xFF) << 8) | (buffer.get(4) & 0xFF);
+			if (buffer.readable() < length + 5) {
+				return -1;
+			}
+			final int readable = buffer.readable();
+			try {
+				final int type = RecordCoder.decode(context.cipher, buffer, context.data);
+				context.skip = 0;
+				return type;
+			} catch (TLSException e) {
+				if (e.getDescription() != Alert.BAD_RECORD_MAC) {
+					throw e;
+				}
+			}
+			// 丢弃未解密的剩余部分
+			buffer.skipBytes(length + 5 - (readable - buffer.readable()));
+			// 密文包含内容类型和认证标签
+			context.skip -= length - 1 - context.cipher.tagLength();
+			if (context.skip < 0) {
+				throw new TLSException(Alert.UNEXPECTED_MESSAGE);
+			}
+		}
+		return RecordCoder.decode(context.cipher, buffer, context.data);
+	}
+
 	private Handshake decode(TLSContext context, DataBuffer buffer) throws Exception {
 		if (buffer.readable() < 4) {
 			return null;
@@ -282,9 +314,12 @@ public class V3ServerHandler extends TLS implements ChainHandler {
 				if (handshakes.last().msgType() == Handshake.FINISHED) {
 					if (context.secret.isHandshaked()) {
 						// 重置握手数据解密套件
-						context.cipher.decryptReset(//
-							context.secret.clientHandshakeWriteKey(context.cipher.type()), //
-							context.secret.clientHandshakeWriteIV(context.cipher.type()));
+						// 已接受早期数据时在EndOfEarlyData之后重置
+						if (!context.early) {
+							context.cipher.decryptReset(//
+								context.secret.clientHandshakeWriteKey(context.cipher.type()), //
+								context.secret.clientHandshakeWriteIV(context.cipher.type()));
+						}
 						// 导出应用数据加密密钥并重置加密套件
 						// 应用数据解密密钥导出，等待客户端完成消息后重置解密套件
 						context.secret.serverApplicationTrafficSecret();
@@ -407,6 +442,7 @@ public class V3ServerHandler extends TLS implements ChainHandler {
 					// 1 筛选有效票据
 					for (; i < psks.size(); i++) {
 						identity = psks.get(i);
+						// 无状态票据通过解密验证
 						ticket = ServerSessionTickets.get(identity);
 						if (ticket != null) {
 							if (ticket.valid()) {
@@ -416,10 +452,9 @@ public class V3ServerHandler extends TLS implements ChainHandler {
 										// 本实现执行严格的匹配
 										break;
 									}
-								} else {
-									ticket = null;
 								}
 							}
+							ticket = null;
 						}
 					}
 					if (ticket != null) {
@@ -441,12 +476,19 @@ public class V3ServerHandler extends TLS implements ChainHandler {
 							context.data.skipBytes(length);
 							context.length = 0;
 							if (earlyData != null) {
-								// 导出早期流量密钥
-								context.secret.clientEarlyTrafficSecret();
-								context.cipher.decryptReset(//
-									context.secret.clientEarlyWriteKey(context.cipher.type()), //
-									context.secret.clientEarlyWriteIV(context.cipher.type()));
-								// context.secret.earlyExporterMaster();
+								if (ServerSessionTickets.early(identity, ticket)) {
+									// 导出早期流量密钥
+									context.secret.clientEarlyTrafficSecret();
+									context.cipher.decryptReset(//
+										context.secret.clientEarlyWriteKey(context.cipher.type()), //
+										context.secret.clientEarlyWriteIV(context.cipher.type()));
+									// context.secret.earlyExporterMaster();
+									context.early = true;
+								} else {
+									// 票据年龄超出重放窗口或重复使用
+									// 拒绝早期数据并跳过，继续完成1-RTT握手
+									context.skip = EarlyDataIndication.MAX_EARLY_DATA_SIZE.getMaxSize();
+								}
 							} else {
 								// 未有早期数据
 							}
@@ -551,6 +593,10 @@ public class V3ServerHandler extends TLS implements ChainHandler {
 			}
 			// 心跳指示
 			extensions.addExtension(new Heartbeat(Heartbeat.PEER_ALLOWED_TO_SEND));
+			// 接受早期数据，拒绝时省略
+			if (context.early) {
+				extensions.addExtension(EarlyDataIndication.EMPTY);
+			}
 
 			// 0-RTT 时无须证书交换
 			if (psk == null) {
@@ -648,6 +694,10 @@ public class V3ServerHandler extends TLS implements ChainHandler {
 		if (record.msgType() == Handshake.END_OF_EARLY_DATA) {
 			// ClientHello + PSK -> decryptReset(client_early_traffic_secret)
 			// Early Application Data - EndOfEarlyData
+			if (!context.early) {
+				return new Alert(Alert.UNEXPECTED_MESSAGE);
+			}
+			context.early = false;
 			context.cipher.decryptReset(//
 				context.secret.clientHandshakeWriteKey(context.cipher.type()), //
 				context.secret.clientHandshakeWriteIV(context.cipher.type()));
@@ -696,6 +746,8 @@ public class V3ServerHandler extends TLS implements ChainHandler {
 					ticket2.setSuite(context.cipher.type().code());
 					ticket1.setGroup(context.key.group());
 					ticket2.setGroup(context.key.group());
+					ServerSessionTickets.seal(ticket1);
+					ServerSessionTickets.seal(ticket2);
 					records.add(ticket1);
 					records.add(ticket2);
 					return records;
@@ -726,6 +778,10 @@ public class V3ServerHandler extends TLS implements ChainHandler {
 		final V3SecretCache secret;
 		final V3KeyExchange key;
 		byte mode;
+		/** 已接受早期数据，等待EndOfEarlyData */
+		boolean early;
+		/** 拒绝早期数据时剩余可跳过的字节数 */
+		int skip;
 
 		public TLSContext() {
 			signaturer = new Signaturer();
@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-16/CCITT
  * <ul>
@@ -23,22 +25,22 @@ package com.joyzl.network.verifies;
  */
 public final class CRC16_CCITT extends Verifier {
 
+	// 0x8408 = reverse 0x1021
+	private final static int[] TABLE = CRCTable.reflected(0x8408);
+
 	int crc = 0;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= (value & 0xFF);
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 1) != 0) {
-				// 0x8408 = reverse 0x1021
-				crc = ((crc >>> 1) ^ 0x8408);
-			} else {
-				crc = (crc >>> 1);
-			}
-		}
+		crc = (crc >>> 8) ^ TABLE[(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = CRCTable.reflected(TABLE, crc, buffer);
+	}
+
 	@Override
 	public int value() {
 		return crc;
@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-16/DNP
  * <ul>
@@ -23,22 +25,22 @@ package com.joyzl.network.verifies;
  */
 public final class CRC16_DNP extends Verifier {
 
+	// 0xA6BC = reverse 0x3D65
+	private final static int[] TABLE = CRCTable.reflected(0xA6BC);
+
 	int crc = 0;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= (value & 0xFF);
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 1) != 0) {
-				// 0xA6BC = reverse 0x3D65
-				crc = ((crc >>> 1) ^ 0xA6BC);
-			} else {
-				crc = (crc >>> 1);
-			}
-		}
+		crc = (crc >>> 8) ^ TABLE[(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = CRCTable.reflected(TABLE, crc, buffer);
+	}
+
 	@Override
 	public int value() {
 		return (short) (~crc);
@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * LSB-first、多项式 0xA001 (0x8005 的反射)、初始值 0xFFFF、无最终异或
  * <p>
@@ -16,22 +18,22 @@ package com.joyzl.network.verifies;
  */
 public class CRC16_LSB extends Verifier {
 
+	// 0xA001 = reverse 0x8005
+	private final static int[] TABLE = CRCTable.reflected(0xA001);
+
 	private int crc = 0xFFFF;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= value & 0xFF;
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 1) == 1) {
-				crc >>>= 1;
-				crc ^= 0xA001;
-			} else {
-				crc >>>= 1;
-			}
-		}
+		crc = (crc >>> 8) ^ TABLE[(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = CRCTable.reflected(TABLE, crc, buffer);
+	}
+
 	@Override
 	public int value() {
 		return crc & 0xFFFF;
@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-16/USB
  * <ul>
@@ -23,22 +25,22 @@ package com.joyzl.network.verifies;
  */
 public final class CRC16_USB extends Verifier {
 
+	// 0xA001 = reverse 0x8005
+	private final static int[] TABLE = CRCTable.reflected(0xA001);
+
 	int crc = 0xFFFF;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= (value & 0xFF);
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 1) == 0) {
-				crc = (crc >>> 1);
-			} else {
-				// 0xA001 = reverse 0x8005
-				crc = ((crc >>> 1) ^ 0xA001);
-			}
-		}
+		crc = (crc >>> 8) ^ TABLE[(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = CRCTable.reflected(TABLE, crc, buffer);
+	}
+
 	@Override
 	public int value() {
 		return (~crc) & 0xFFFF;
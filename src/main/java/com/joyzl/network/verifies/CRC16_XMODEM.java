@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-16/XMODEM
  * <ul>
@@ -23,21 +25,21 @@ package com.joyzl.network.verifies;
  */
 public final class CRC16_XMODEM extends Verifier {
 
+	private final static int[] TABLE = CRCTable.normal(0x1021, 16);
+
 	short crc = 0;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= (short) value << 8;
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 0x8000) != 0) {
-				crc = (short) ((crc << 1) ^ 0x1021);
-			} else {
-				crc <<= 1;
-			}
-		}
+		crc = (short) ((crc << 8) ^ TABLE[((crc >>> 8) ^ value) & 0xFF]);
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = (short) CRCTable.normal16(TABLE, crc & 0xFFFF, buffer);
+	}
+
 	@Override
 	public int value() {
 		return crc;
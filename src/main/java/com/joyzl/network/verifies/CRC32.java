@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC32
  * <ul>
@@ -23,22 +25,22 @@ package com.joyzl.network.verifies;
  */
 public class CRC32 extends Verifier {
 
+	// 0xEDB88320=reverse 0x04C11DB7
+	private final static int[][] TABLES = CRCTable.reflected8(0xEDB88320);
+
 	private int crc = 0xFFFFFFFF;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= (value & 0xFF);
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 1) != 0) {
-				// 0xEDB88320=reverse 0x04C11DB7
-				crc = (crc >>> 1) ^ 0xEDB88320;
-			} else {
-				crc = (crc >>> 1);
-			}
-		}
+		crc = (crc >>> 8) ^ TABLES[0][(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = CRCTable.reflected(TABLES, crc, buffer);
+	}
+
 	@Override
 	public int value() {
 		return ~crc;
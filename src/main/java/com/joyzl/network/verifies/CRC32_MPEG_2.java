@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-32/MPEG-2
  * <ul>
@@ -23,21 +25,21 @@ package com.joyzl.network.verifies;
  */
 public class CRC32_MPEG_2 extends Verifier {
 
+	private final static int[][] TABLES = CRCTable.normal8(0x04C11DB7);
+
 	private int crc = 0xFFFFFFFF;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= value << 24;
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 0x80000000) != 0) {
-				crc = (crc << 1) ^ 0x04C11DB7;
-			} else {
-				crc <<= 1;
-			}
-		}
+		crc = (crc << 8) ^ TABLES[0][((crc >>> 24) ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = CRCTable.normal(TABLES, crc, buffer);
+	}
+
 	@Override
 	public int value() {
 		return crc;
@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-4/ITU
  * <ul>
@@ -23,22 +25,22 @@ package com.joyzl.network.verifies;
  */
 public final class CRC4_ITU extends Verifier {
 
+	// 0x0C=(reverse 0x03)>>(8-4)
+	private final static int[] TABLE = CRCTable.reflected(0x0C);
+
 	byte crc = 0;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= value;
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 1) != 0) {
-				// 0x0C=(reverse 0x03)>>(8-4)
-				crc = (byte) (((crc & 0xFF) >> 1) ^ 0x0C);
-			} else {
-				crc = (byte) ((crc & 0xFF) >> 1);
-			}
-		}
+		crc = (byte) TABLE[(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = (byte) CRCTable.reflected(TABLE, crc & 0xFF, buffer);
+	}
+
 	@Override
 	public int value() {
 		return (byte) (crc & 0xF);
@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-5/EPC
  * <ul>
@@ -23,22 +25,22 @@ package com.joyzl.network.verifies;
  */
 public final class CRC5_EPC extends Verifier {
 
+	// 0x48=0x09<<(8-5)
+	private final static int[] TABLE = CRCTable.normal(0x48, 8);
+
 	byte crc = 0x48;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= value;
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 0x80) != 0) {
-				// 0x48=0x09<<(8-5)
-				crc = (byte) ((crc << 1) ^ 0x48);
-			} else {
-				crc <<= 1;
-			}
-		}
+		crc = (byte) TABLE[(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = (byte) CRCTable.normal8(TABLE, crc & 0xFF, buffer);
+	}
+
 	@Override
 	public int value() {
 		return (byte) (crc >> 3 & 0x1F);
@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-5/USB
  * <ul>
@@ -23,22 +25,22 @@ package com.joyzl.network.verifies;
  */
 public final class CRC5_USB extends Verifier {
 
+	// 0x14=(reverse 0x05)>>(8-5)
+	private final static int[] TABLE = CRCTable.reflected(0x14);
+
 	byte crc = 0x1F;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= value;
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 1) == 0) {
-				crc = (byte) ((crc & 0xFF) >> 1);
-			} else {
-				// 0x14=(reverse 0x05)>>(8-5)
-				crc = (byte) (((crc & 0xFF) >> 1) ^ 0x14);
-			}
-		}
+		crc = (byte) TABLE[(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = (byte) CRCTable.reflected(TABLE, crc & 0xFF, buffer);
+	}
+
 	@Override
 	public int value() {
 		return (byte) (crc ^ 0x1F & 0x1F);
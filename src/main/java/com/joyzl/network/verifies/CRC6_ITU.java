@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-6/ITU
  * <ul>
@@ -23,22 +25,22 @@ package com.joyzl.network.verifies;
  */
 public final class CRC6_ITU extends Verifier {
 
+	// 0x30=(reverse 0x03)>>(8-6)
+	private final static int[] TABLE = CRCTable.reflected(0x30);
+
 	byte crc = 0;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= value;
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 1) == 0) {
-				crc = (byte) ((crc & 0xFF) >> 1);
-			} else {
-				// 0x30=(reverse 0x03)>>(8-6)
-				crc = (byte) (((crc & 0xFF) >> 1) ^ 0x30);
-			}
-		}
+		crc = (byte) TABLE[(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = (byte) CRCTable.reflected(TABLE, crc & 0xFF, buffer);
+	}
+
 	@Override
 	public int value() {
 		return (byte) (crc & 0x3F);
@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-7/MMC
  * <ul>
@@ -23,22 +25,22 @@ package com.joyzl.network.verifies;
  */
 public final class CRC7_MMC extends Verifier {
 
+	// 0x12=0x09<<(8-7)
+	private final static int[] TABLE = CRCTable.normal(0x12, 8);
+
 	byte crc = 0;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= value;
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 0x80) == 0) {
-				crc <<= 1;
-			} else {
-				// 0x12=0x09<<(8-7)
-				crc = (byte) ((crc << 1) ^ 0x12);
-			}
-		}
+		crc = (byte) TABLE[(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = (byte) CRCTable.normal8(TABLE, crc & 0xFF, buffer);
+	}
+
 	@Override
 	public int value() {
 		return (byte) (crc >> 1 & 0x7F);
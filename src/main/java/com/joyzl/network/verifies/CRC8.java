@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-8
  * <ul>
@@ -23,21 +25,21 @@ package com.joyzl.network.verifies;
  */
 public final class CRC8 extends Verifier {
 
+	private final static int[] TABLE = CRCTable.normal(0x07, 8);
+
 	byte crc = 0;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= value;
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 0x80) == 0) {
-				crc <<= 1;
-			} else {
-				crc = (byte) ((crc << 1) ^ 0x07);
-			}
-		}
+		crc = (byte) TABLE[(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = (byte) CRCTable.normal8(TABLE, crc & 0xFF, buffer);
+	}
+
 	@Override
 	public int value() {
 		return crc;
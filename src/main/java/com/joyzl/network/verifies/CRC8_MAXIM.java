@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-8/MAXIM
  * <ul>
@@ -23,21 +25,22 @@ package com.joyzl.network.verifies;
  */
 public final class CRC8_MAXIM extends Verifier {
 
+	// 0x8C=reverse 0x31
+	private final static int[] TABLE = CRCTable.reflected(0x8C);
+
 	byte crc = 0;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= value;
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 1) == 0) {
-				crc = (byte) ((crc & 0xFF) >> 1);
-			} else {
-				crc = (byte) (((crc & 0xFF) >> 1) ^ 0x8C);
-			}
-		}
+		crc = (byte) TABLE[(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = (byte) CRCTable.reflected(TABLE, crc & 0xFF, buffer);
+	}
+
 	@Override
 	public int value() {
 		return crc;
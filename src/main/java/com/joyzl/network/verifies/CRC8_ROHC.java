@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * CRC-8/ROHC
  * <ul>
@@ -23,36 +25,29 @@ package com.joyzl.network.verifies;
  */
 public final class CRC8_ROHC extends Verifier {
 
+	// 0xE0=reverse 0x07，以反转的余数按右移计算，等同于输入和输出反转
+	private final static int[] TABLE = CRCTable.reflected(0xE0);
+
 	int crc = 0xFF;
 
 	@Override
 	public byte check(byte value) {
-		crc ^= reverse(value & 0xFF);
-		for (int i = 0; i < 8; i++) {
-			if ((crc & 0x80) != 0) {
-				crc = (crc << 1) ^ 0x07;
-			} else {
-				crc = crc << 1;
-			}
-		}
-		// crc &= 0xFF;
+		crc = TABLE[(crc ^ value) & 0xFF];
 		return value;
 	}
 
+	@Override
+	public void check(ByteBuffer buffer) {
+		crc = CRCTable.reflected(TABLE, crc, buffer);
+	}
+
 	@Override
 	public int value() {
-		return reverse(crc);
+		return crc;
 	}
 
 	@Override
 	public void reset() {
 		crc = 0xFF;
 	}
-
-	static int reverse(int x) {
-		x = ((x & 0xF0) >> 4) | ((x & 0x0F) << 4);
-		x = ((x & 0xCC) >> 2) | ((x & 0x33) << 2);
-		x = ((x & 0xAA) >> 1) | ((x & 0x55) << 1);
-		return x & 0xFF;
-	}
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.verifies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * CRC查表计算
+ * <p>
+ * 预先计算每个字节值经过8次移位后的余数，逐字节计算时以一次查表代替8次移位；
+ * 32位CRC采用8张表(slice-by-8)，每次读取8字节并行查表。
+ * 输入反转(Refin)的CRC采用右移(LSB优先)表，否则采用左移(MSB优先)表；
+ * 宽度小于8位的CRC按原实现将余数对齐在字节中。
+ * </p>
+ * <p>
+ * 批量计算处理ByteBuffer中position至limit的字节，完成后position推进至limit。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月25日
+ */
+final class CRCTable {
+
+	private CRCTable() {
+	}
+
+	/**
+	 * 右移(LSB优先)表，多项式为反转后的值，适用于所有宽度
+	 */
+	static int[] reflected(int poly) {
+		final int[] table = new int[256];
+		int crc;
+		for (int index = 0; index < 256; index++) {
+			crc = index;
+			for (int i = 0; i < 8; i++) {
+				if ((crc & 1) != 0) {
+					crc = (crc >>> 1) ^ poly;
+				} else {
+					crc >>>= 1;
+				}
+			}
+			table[index] = crc;
+		}
+		return table;
+	}
+
+	/**
+	 * 左移(MSB优先)表
+	 *
+	 * @param poly 多项式，宽度小于8位时左移对齐到字节高位
+	 * @param width 余数位数 8/16/32，宽度小于8位时为8
+	 */
+	static int[] normal(int poly, int width) {
+		final int[] table = new int[256];
+		final int top = 1 << (width - 1);
+		final int mask = width == 32 ? 0xFFFFFFFF : (1 << width) - 1;
+		int crc;
+		for (int index = 0; index < 256; index++) {
+			crc = index << (width - 8);
+			for (int i = 0; i < 8; i++) {
+				if ((crc & top) != 0) {
+					crc = (crc << 1) ^ poly;
+				} else {
+					crc <<= 1;
+				}
+			}
+			table[index] = crc & mask;
+		}
+		return table;
+	}
+
+	/**
+	 * 右移(LSB优先)slice-by-8表
+	 */
+	static int[][] reflected8(int poly) {
+		final int[][] tables = new int[8][];
+		tables[0] = reflected(poly);
+		for (int t = 1; t < 8; t++) {
+			tables[t] = new int[256];
+			for (int index = 0; index < 256; index++) {
+				final int crc = tables[t - 1][index];
+				tables[t][index] = (crc >>> 8) ^ tables[0][crc & 0xFF];
+			}
+		}
+		return tables;
+	}
+
+	/**
+	 * 左移(MSB优先)32位slice-by-8表
+	 */
+	static int[][] normal8(int poly) {
+		final int[][] tables = new int[8][];
+		tables[0] = normal(poly, 32);
+		for (int t = 1; t < 8; t++) {
+			tables[t] = new int[256];
+			for (int index = 0; index < 256; index++) {
+				final int crc = tables[t - 1][index];
+				tables[t][index] = (crc << 8) ^ tables[0][crc >>> 24];
+			}
+		}
+		return tables;
+	}
+
+	////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * 右移(LSB优先)逐字节查表
+	 */
+	static int reflected(int[] table, int crc, ByteBuffer buffer) {
+		int position = buffer.position();
+		final int limit = buffer.limit();
+		while (position < limit) {
+			crc = (crc >>> 8) ^ table[(crc ^ buffer.get(position++)) & 0xFF];
+		}
+		buffer.position(limit);
+		return crc;
+	}
+
+	/**
+	 * 左移(MSB优先)8位及以下宽度逐字节查表
+	 */
+	static int normal8(int[] table, int crc, ByteBuffer buffer) {
+		int position = buffer.position();
+		final int limit = buffer.limit();
+		while (position < limit) {
+			crc = table[(crc ^ buffer.get(position++)) & 0xFF];
+		}
+		buffer.position(limit);
+		return crc;
+	}
+
+	/**
+	 * 左移(MSB优先)16位逐字节查表
+	 */
+	static int normal16(int[] table, int crc, ByteBuffer buffer) {
+		int position = buffer.position();
+		final int limit = buffer.limit();
+		while (position < limit) {
+			crc = ((crc << 8) ^ table[((crc >>> 8) ^ buffer.get(position++)) & 0xFF]) & 0xFFFF;
+		}
+		buffer.position(limit);
+		return crc;
+	}
+
+	/**
+	 * 右移(LSB优先)32位slice-by-8
+	 */
+	static int reflected(int[][] tables, int crc, ByteBuffer buffer) {
+		final int[] t0 = tables[0], t1 = tables[1], t2 = tables[2], t3 = tables[3];
+		final int[] t4 = tables[4], t5 = tables[5], t6 = tables[6], t7 = tables[7];
+		final boolean big = buffer.order() == ByteOrder.BIG_ENDIAN;
+		int position = buffer.position();
+		final int limit = buffer.limit();
+		long value;
+		int one, two;
+		while (limit - position >= 8) {
+			value = buffer.getLong(position);
+			if (big) {
+				// 按小端组合字节
+				value = Long.reverseBytes(value);
+			}
+			one = crc ^ (int) value;
+			two = (int) (value >>> 32);
+			crc = t7[one & 0xFF] ^ t6[(one >>> 8) & 0xFF] ^ t5[(one >>> 16) & 0xFF] ^ t4[one >>> 24] //
+				^ t3[two & 0xFF] ^ t2[(two >>> 8) & 0xFF] ^ t1[(two >>> 16) & 0xFF] ^ t0[two >>> 24];
+			position += 8;
+		}
+		while (position < limit) {
+			crc = (crc >>> 8) ^ t0[(crc ^ buffer.get(position++)) & 0xFF];
+		}
+		buffer.position(limit);
+		return crc;
+	}
+
+	/**
+	 * 左移(MSB优先)32位slice-by-8
+	 */
+	static int normal(int[][] tables, int crc, ByteBuffer buffer) {
+		final int[] t0 = tables[0], t1 = tables[1], t2 = tables[2], t3 = tables[3];
+		final int[] t4 = tables[4], t5 = tables[5], t6 = tables[6], t7 = tables[7];
+		final boolean big = buffer.order() == ByteOrder.BIG_ENDIAN;
+		int position = buffer.position();
+		final int limit = buffer.limit();
+		long value;
+		int one, two;
+		while (limit - position >= 8) {
+			value = buffer.getLong(position);
+			if (!big) {
+				// 按大端组合字节
+				value = Long.reverseBytes(value);
+			}
+			one = crc ^ (int) (value >>> 32);
+			two = (int) value;
+			crc = t7[one >>> 24] ^ t6[(one >>> 16) & 0xFF] ^ t5[(one >>> 8) & 0xFF] ^ t4[one & 0xFF] //
+				^ t3[two >>> 24] ^ t2[(two >>> 16) & 0xFF] ^ t1[(two >>> 8) & 0xFF] ^ t0[two & 0xFF];
+			position += 8;
+		}
+		while (position < limit) {
+			crc = (crc << 8) ^ t0[((crc >>> 24) ^ buffer.get(position++)) & 0xFF];
+		}
+		buffer.position(limit);
+		return crc;
+	}
+}
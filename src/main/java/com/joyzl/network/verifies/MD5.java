@@ -4,6 +4,7 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -31,6 +32,16 @@ public final class MD5 extends Verifier {
 		return value;
 	}
 
+	@Override
+	public void check(byte[] data, int offset, int length) {
+		digest.update(data, offset, length);
+	}
+
+	@Override
+	public void check(ByteBuffer buffer) {
+		digest.update(buffer);
+	}
+
 	@Override
 	public int value() {
 		throw new UnsupportedOperationException();
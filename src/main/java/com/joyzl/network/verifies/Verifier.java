@@ -4,6 +4,8 @@
  */
 package com.joyzl.network.verifies;
 
+import java.nio.ByteBuffer;
+
 /**
  * 字节校验接口
  * 
@@ -19,6 +21,26 @@ public abstract class Verifier {
 	 */
 	public abstract byte check(byte value);
 
+	/**
+	 * 批量计算并校验字节数组中的指定字节
+	 */
+	public void check(byte[] data, int offset, int length) {
+		check(ByteBuffer.wrap(data, offset, length));
+	}
+
+	/**
+	 * 批量计算并校验ByteBuffer中position至limit的字节，完成后position推进至limit；
+	 * 默认逐字节计算，查表实现的校验重写此方法
+	 */
+	public void check(ByteBuffer buffer) {
+		int position = buffer.position();
+		final int limit = buffer.limit();
+		while (position < limit) {
+			check(buffer.get(position++));
+		}
+		buffer.position(limit);
+	}
+
 	/**
 	 * 校验结果值
 	 */
@@ -9,20 +9,26 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 
 import com.joyzl.network.http.AcceptEncoding;
+import com.joyzl.network.http.BufferRegion;
 import com.joyzl.network.http.Range.ByteRange;
 
 /**
  * 压缩并缓存的文件资源
+ * <p>
+ * 压缩在业务线程池中进行，压缩完成之前请求获得原文，不在请求线程中等待压缩。
+ * </p>
  * 
  * @author ZhangXi 2024年12月9日
  */
 public class FileCacheCompressResource extends FileCacheResource {
 
-	private ByteBuffer deflate, gzip;
+	private volatile ByteBuffer deflate, gzip;
+	private final AtomicBoolean compressing = new AtomicBoolean();
 
 	public FileCacheCompressResource(String path, File file, boolean weak) {
 		super(path, file, weak);
@@ -39,9 +45,10 @@ public class FileCacheCompressResource extends FileCacheResource {
 						output.flush();
 						output.finish();
 					}
-					deflate = ByteBuffer.allocateDirect(buffer.size());
-					deflate.put(buffer.buffer(), 0, buffer.size());
-					deflate.flip();
+					final ByteBuffer data = ByteBuffer.allocateDirect(buffer.size());
+					data.put(buffer.buffer(), 0, buffer.size());
+					data.flip();
+					deflate = data;
 				}
 			}
 		}
@@ -58,26 +65,51 @@ public class FileCacheCompressResource extends FileCacheResource {
 						output.flush();
 						output.finish();
 					}
-					gzip = ByteBuffer.allocateDirect(buffer.size());
-					gzip.put(buffer.buffer(), 0, buffer.size());
-					gzip.flip();
+					final ByteBuffer data = ByteBuffer.allocateDirect(buffer.size());
+					data.put(buffer.buffer(), 0, buffer.size());
+					data.flip();
+					gzip = data;
 				}
 			}
 		}
 	}
 
 	@Override
-	public String fitEncoding(AcceptEncoding acceptEncoding) {
-		if (acceptEncoding != null && getLength() > 1024) {
-			for (int index = 0; index < acceptEncoding.size(); index++) {
-				if (AcceptEncoding.GZIP.equals(acceptEncoding.getValue(index))) {
-					return AcceptEncoding.GZIP;
-				}
-				if (AcceptEncoding.DEFLATE.equals(acceptEncoding.getValue())) {
-					return AcceptEncoding.DEFLATE;
+	void load() throws IOException {
+		super.load();
+		gzip();
+		deflate();
+	}
+
+	/** 在业务线程池压缩，已在进行或达到并发上限时忽略 */
+	void compress() {
+		if (gzip == null || deflate == null) {
+			if (compressing.compareAndSet(false, true)) {
+				if (!FileCompressor.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							gzip();
+							deflate();
+						} catch (IOException e) {
+							// 压缩失败时继续提供原文，后续请求再次尝试
+						} finally {
+							compressing.set(false);
+						}
+					}
+				})) {
+					compressing.set(false);
 				}
 			}
 		}
+	}
+
+	@Override
+	public String fitEncoding(AcceptEncoding acceptEncoding) {
+		if (acceptEncoding != null && getLength() > 1024) {
+			compress();
+			return FileCompressor.select(acceptEncoding, false, false, gzip != null, deflate != null);
+		}
 		return AcceptEncoding.IDENTITY;
 	}
 
@@ -101,14 +133,14 @@ public class FileCacheCompressResource extends FileCacheResource {
 		if (encoding != null) {
 			if (AcceptEncoding.GZIP.equals(encoding)) {
 				gzip();
-				return new ByteBufferInputStream(gzip);
+				return new BufferRegion(gzip);
 			}
 			if (AcceptEncoding.DEFLATE.equals(encoding)) {
 				deflate();
-				return new ByteBufferInputStream(deflate);
+				return new BufferRegion(deflate);
 			}
 		}
-		return new ByteBufferInputStream(identity());
+		return new BufferRegion(identity());
 	}
 
 	@Override
@@ -116,13 +148,13 @@ public class FileCacheCompressResource extends FileCacheResource {
 		if (encoding != null) {
 			if (AcceptEncoding.GZIP.equals(encoding)) {
 				gzip();
-				return new ByteBufferPartInputStream(gzip, range.getStart(), range.getSize());
+				return new BufferRegion(gzip, range.getStart(), range.getSize());
 			}
 			if (AcceptEncoding.DEFLATE.equals(encoding)) {
 				deflate();
-				return new ByteBufferPartInputStream(deflate, range.getStart(), range.getSize());
+				return new BufferRegion(deflate, range.getStart(), range.getSize());
 			}
 		}
-		return new ByteBufferPartInputStream(identity(), range.getStart(), range.getSize());
+		return new BufferRegion(identity(), range.getStart(), range.getSize());
 	}
 }
\ No newline at end of file
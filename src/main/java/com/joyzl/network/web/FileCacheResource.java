@@ -4,6 +4,7 @@
  */
 package com.joyzl.network.web;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -12,6 +13,7 @@ import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
+import com.joyzl.network.http.BufferRegion;
 import com.joyzl.network.http.Range.ByteRange;
 
 /**
@@ -21,7 +23,8 @@ import com.joyzl.network.http.Range.ByteRange;
  */
 public class FileCacheResource extends FileResource {
 
-	private ByteBuffer identity;
+	/** 完全读取后发布，后台预加载时请求线程不会获得未填满的缓存 */
+	private volatile ByteBuffer identity;
 
 	public FileCacheResource(String path, File file, boolean weak) {
 		super(path, file, weak);
@@ -31,117 +34,37 @@ public class FileCacheResource extends FileResource {
 		if (identity == null) {
 			synchronized (this) {
 				if (identity == null) {
-					identity = ByteBuffer.allocateDirect((int) getLength());
+					final ByteBuffer data = ByteBuffer.allocateDirect((int) getLength());
 					try (FileInputStream input = new FileInputStream(getFile());
 						FileChannel channel = input.getChannel();) {
-						channel.read(identity);
-						identity.flip();
-					} catch (IOException e) {
-						identity = null;
-						throw e;
+						// 单次读取可能不足，循环直至填满
+						while (data.hasRemaining()) {
+							if (channel.read(data) < 0) {
+								throw new EOFException("文件长度不足:" + getFile());
+							}
+						}
 					}
+					data.flip();
+					identity = data;
 				}
 			}
 		}
 		return identity;
 	}
 
+	/** 预先加载内容到内存 */
+	void load() throws IOException {
+		identity();
+	}
+
 	@Override
 	public InputStream getData(String encoding) throws IOException {
-		return new ByteBufferInputStream(identity());
+		return new BufferRegion(identity());
 	}
 
 	@Override
 	public InputStream getData(String encoding, ByteRange range) throws IOException {
-		return new ByteBufferPartInputStream(identity(), range.getStart(), range.getSize());
-	}
-
-	/**
-	 * 包装 ByteBuffer 为 InputStream <br>
-	 * 可将同一个 ByteBuffer 同时包装给多个线程使用
-	 */
-	class ByteBufferInputStream extends InputStream {
-
-		private final ByteBuffer buffer;
-		private int index;
-
-		ByteBufferInputStream(ByteBuffer buffer) {
-			this.buffer = buffer;
-		}
-
-		@Override
-		public int read() {
-			if (index < buffer.limit()) {
-				return buffer.get(index++) & 0xFF;
-			}
-			return -1;
-		}
-
-		@Override
-		public int available() {
-			return buffer.limit() - index;
-		}
-
-		@Override
-		public long skip(long n) {
-			if (n <= 0) {
-				return 0;
-			}
-			if (n >= available()) {
-				n = available();
-				index = buffer.limit();
-				return n;
-			}
-			index += n;
-			return n;
-		}
-	}
-
-	/**
-	 * 包装 ByteBuffer 为 InputStream <br>
-	 * 可将同一个 ByteBuffer 同时包装给多个线程使用
-	 */
-	class ByteBufferPartInputStream extends InputStream {
-
-		private final ByteBuffer buffer;
-		private final int length;
-		private int index;
-
-		ByteBufferPartInputStream(ByteBuffer buffer, long offset, long length) {
-			if (offset + length > buffer.limit()) {
-				throw new IndexOutOfBoundsException();
-			}
-			this.buffer = buffer;
-			this.length = (int) (offset + length);
-			index = (int) offset;
-		}
-
-		@Override
-		public int read() {
-			if (index < length) {
-				return buffer.get(index++) & 0xFF;
-			}
-			return -1;
-		}
-
-		@Override
-		public int available() {
-			return buffer.limit() - index;
-		}
-
-		@Override
-		public long skip(long n) {
-			if (n <= 0) {
-				return 0;
-			}
-			if (n >= available()) {
-				n = available();
-				index = length;
-				return n;
-			}
-			index += n;
-			return n;
-		}
+		return new BufferRegion(identity(), range.getStart(), range.getSize());
 	}
 
 	/**
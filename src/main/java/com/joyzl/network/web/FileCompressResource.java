@@ -9,57 +9,141 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 
 import com.joyzl.network.http.AcceptEncoding;
+import com.joyzl.network.http.FileRegion;
 import com.joyzl.network.http.Range.ByteRange;
 
 /**
  * 压缩的文件资源
+ * <p>
+ * 优先使用预压缩的相邻文件(.br/.zst/.gz)；gzip和deflate按需在业务线程池生成到缓存目录，
+ * 生成完成之前请求获得原文，不在请求线程中等待压缩。
+ * </p>
+ * <p>
+ * 生成的压缩文件随资源存在，资源被缓存淘汰或失效且没有其它缓存项引用时删除；
+ * 已打开的文件内容不受删除影响，之后仍使用此资源的请求重新生成，释放之后生成的文件在进程退出时删除。
+ * </p>
  * 
  * @author ZhangXi 2024年12月9日
  */
 public class FileCompressResource extends FileResource {
 
 	private final File cache;
-	private File gzip, deflate;
-	private long gzipLength, deflateLength;
+	/** 预压缩的相邻文件 */
+	private final File br, zstd, gz;
+	/** 生成的压缩文件 */
+	private volatile File gzip, deflate;
+	private final AtomicBoolean compressing = new AtomicBoolean();
+	/** 引用此资源的缓存项数量 */
+	private final AtomicInteger references = new AtomicInteger();
+	private volatile boolean released;
 
 	public FileCompressResource(String path, File file, File cache, boolean weak) {
 		super(path, file, weak);
 		this.cache = cache;
+		br = FileCompressor.sidecar(file, FileCompressor.BR);
+		zstd = FileCompressor.sidecar(file, FileCompressor.ZSTD);
+		gz = FileCompressor.sidecar(file, FileCompressor.GZIP);
 	}
 
-	void deflate() throws IOException {
-		if (deflate == null) {
+	File deflate() throws IOException {
+		File file = deflate;
+		if (file == null) {
 			synchronized (this) {
-				if (deflate == null) {
-					deflate = File.createTempFile(getFile().getName(), ".dft", cache);
+				file = deflate;
+				if (file == null) {
+					file = File.createTempFile(getFile().getName(), ".dft", cache);
 					try (FileInputStream input = new FileInputStream(getFile());
-						DeflaterOutputStream output = new DeflaterOutputStream(new FileOutputStream(deflate))) {
+						DeflaterOutputStream output = new DeflaterOutputStream(new FileOutputStream(file))) {
 						input.transferTo(output);
 						output.flush();
 						output.finish();
 					}
-					deflateLength = deflate.length();
+					released(file);
+					deflate = file;
 				}
 			}
 		}
+		return file;
 	}
 
-	void gzip() throws IOException {
-		if (gzip == null) {
+	File gzip() throws IOException {
+		File file = gzip;
+		if (file == null) {
 			synchronized (this) {
-				if (gzip == null) {
-					gzip = File.createTempFile(getFile().getName(), ".gzp", cache);
+				file = gzip;
+				if (file == null) {
+					file = File.createTempFile(getFile().getName(), ".gzp", cache);
 					try (FileInputStream input = new FileInputStream(getFile());
-						GZIPOutputStream output = new GZIPOutputStream(new FileOutputStream(gzip))) {
+						GZIPOutputStream output = new GZIPOutputStream(new FileOutputStream(file))) {
 						input.transferTo(output);
 						output.flush();
 						output.finish();
 					}
-					gzipLength = gzip.length();
+					released(file);
+					gzip = file;
+				}
+			}
+		}
+		return file;
+	}
+
+	/** 资源已释放时生成的文件无法确定何时不再使用，在进程退出时删除 */
+	private void released(File file) {
+		if (released) {
+			file.deleteOnExit();
+		}
+	}
+
+	/** 缓存项引用此资源 */
+	void retain() {
+		references.incrementAndGet();
+		released = false;
+	}
+
+	/** 缓存项不再引用此资源，没有引用时删除生成的压缩文件 */
+	void release() {
+		if (references.decrementAndGet() <= 0) {
+			released = true;
+			delete();
+		}
+	}
+
+	/** 删除生成的压缩文件，之后的请求重新生成 */
+	synchronized void delete() {
+		if (gzip != null) {
+			gzip.delete();
+			gzip = null;
+		}
+		if (deflate != null) {
+			deflate.delete();
+			deflate = null;
+		}
+	}
+
+	/** 在业务线程池生成压缩文件，已在进行或达到并发上限时忽略 */
+	void compress() {
+		if (gzip == null || deflate == null) {
+			if (compressing.compareAndSet(false, true)) {
+				if (!FileCompressor.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							gzip();
+							deflate();
+						} catch (IOException e) {
+							// 压缩失败时继续提供原文，后续请求再次尝试
+						} finally {
+							compressing.set(false);
+						}
+					}
+				})) {
+					compressing.set(false);
 				}
 			}
 		}
@@ -67,61 +151,54 @@ public class FileCompressResource extends FileResource {
 
 	@Override
 	public String fitEncoding(AcceptEncoding acceptEncoding) {
-		if (acceptEncoding != null && getLength() > 1024) {
-			for (int index = 0; index < acceptEncoding.size(); index++) {
-				if (AcceptEncoding.GZIP.equals(acceptEncoding.getValue(index))) {
-					return AcceptEncoding.GZIP;
-				}
-				if (AcceptEncoding.DEFLATE.equals(acceptEncoding.getValue())) {
-					return AcceptEncoding.DEFLATE;
-				}
+		if (acceptEncoding != null) {
+			if (getLength() > 1024) {
+				compress();
+				return FileCompressor.select(acceptEncoding, br != null, zstd != null, gz != null || gzip != null, deflate != null);
 			}
+			return FileCompressor.select(acceptEncoding, br != null, zstd != null, gz != null, false);
 		}
 		return AcceptEncoding.IDENTITY;
 	}
 
-	@Override
-	public long getLength(String encoding) throws IOException {
+	/** 获取指定编码的内容文件，生成的压缩文件尚未就绪时直接压缩 */
+	File file(String encoding) throws IOException {
 		if (encoding != null) {
 			if (AcceptEncoding.GZIP.equals(encoding)) {
-				gzip();
-				return gzipLength;
+				if (gz != null) {
+					return gz;
+				}
+				return gzip();
 			}
 			if (AcceptEncoding.DEFLATE.equals(encoding)) {
-				deflate();
-				return deflateLength;
+				return deflate();
+			}
+			if (br != null && AcceptEncoding.BR.equals(encoding)) {
+				return br;
+			}
+			if (zstd != null && AcceptEncoding.ZSTD.equals(encoding)) {
+				return zstd;
 			}
 		}
-		return getLength();
+		return getFile();
 	}
 
 	@Override
-	public InputStream getData(String encoding) throws IOException {
-		if (encoding != null) {
-			if (AcceptEncoding.GZIP.equals(encoding)) {
-				gzip();
-				return new FileInputStream(gzip);
-			}
-			if (AcceptEncoding.DEFLATE.equals(encoding)) {
-				deflate();
-				return new FileInputStream(deflate);
-			}
+	public long getLength(String encoding) throws IOException {
+		final File file = file(encoding);
+		if (file == getFile()) {
+			return getLength();
 		}
-		return new FileInputStream(getFile());
+		return file.length();
+	}
+
+	@Override
+	public InputStream getData(String encoding) throws IOException {
+		return new FileRegion(file(encoding));
 	}
 
 	@Override
 	public InputStream getData(String encoding, ByteRange range) throws IOException {
-		if (encoding != null) {
-			if (AcceptEncoding.GZIP.equals(encoding)) {
-				gzip();
-				return new FilePartInputStream(gzip, range.getStart(), range.getSize());
-			}
-			if (AcceptEncoding.DEFLATE.equals(encoding)) {
-				deflate();
-				return new FilePartInputStream(deflate, range.getStart(), range.getSize());
-			}
-		}
-		return new FilePartInputStream(getFile(), range.getStart(), range.getSize());
+		return new FileRegion(file(encoding), range.getStart(), range.getSize());
 	}
 }
\ No newline at end of file
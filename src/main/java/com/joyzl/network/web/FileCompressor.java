@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.web;
+
+import java.io.File;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import com.joyzl.network.Executor;
+import com.joyzl.network.http.AcceptEncoding;
+
+/**
+ * 文件压缩辅助
+ * <p>
+ * 按需压缩在业务线程池中执行，同时进行的压缩任务不超过{@link #CONCURRENCY}，
+ * 达到上限时不排队等待，资源在后续请求中再次尝试；压缩完成之前请求获得原文(identity)。
+ * 执行器未初始化时在当前线程直接压缩。
+ * </p>
+ * <p>
+ * 预压缩的相邻文件(index.html.br / index.html.zst / index.html.gz)由构建工具生成，
+ * 修改时间不早于原文件时直接作为相应编码的内容。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月23日
+ */
+final class FileCompressor {
+
+	/** 预压缩文件扩展名 */
+	final static String BR = ".br", ZSTD = ".zst", GZIP = ".gz";
+	/** 同时进行的压缩任务数量上限 */
+	final static int CONCURRENCY = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+	private final static Semaphore PERMITS = new Semaphore(CONCURRENCY);
+
+	private FileCompressor() {
+		// 禁止实例化
+	}
+
+	/**
+	 * 在业务线程池执行压缩任务
+	 *
+	 * @return true 已执行或提交 / false 达到并发上限
+	 */
+	static boolean execute(Runnable task) {
+		if (Executor.isActive()) {
+			if (PERMITS.tryAcquire()) {
+				try {
+					Executor.execute(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								task.run();
+							} finally {
+								PERMITS.release();
+							}
+						}
+					});
+					return true;
+				} catch (RejectedExecutionException e) {
+					PERMITS.release();
+				}
+			}
+			return false;
+		}
+		task.run();
+		return true;
+	}
+
+	/**
+	 * 获取预压缩的相邻文件
+	 *
+	 * @return 文件 / null 不存在或早于原文件
+	 */
+	static File sidecar(File file, String extension) {
+		final File sidecar = new File(file.getPath() + extension);
+		if (sidecar.isFile() && sidecar.lastModified() >= file.lastModified()) {
+			return sidecar;
+		}
+		return null;
+	}
+
+	/** 检查是否有任意预压缩的相邻文件 */
+	static boolean sidecars(File file) {
+		return sidecar(file, BR) != null || sidecar(file, ZSTD) != null || sidecar(file, GZIP) != null;
+	}
+
+	/**
+	 * 获取预压缩文件对应的原文件
+	 *
+	 * @return 原文件 / null 不是预压缩文件扩展名
+	 */
+	static File original(File sidecar) {
+		final String path = sidecar.getPath();
+		if (path.endsWith(BR) || path.endsWith(GZIP)) {
+			return new File(path.substring(0, path.length() - 3));
+		}
+		if (path.endsWith(ZSTD)) {
+			return new File(path.substring(0, path.length() - 4));
+		}
+		return null;
+	}
+
+	/**
+	 * 按客户端偏好(品质值由高到低)选择已就绪的编码，忽略品质值为0的编码
+	 *
+	 * @return 编码 / IDENTITY
+	 */
+	static String select(AcceptEncoding accept, boolean br, boolean zstd, boolean gzip, boolean deflate) {
+		if (accept != null) {
+			String value;
+			for (int index = 0; index < accept.size(); index++) {
+				if (accept.getValues()[index].getQuality() > 0) {
+					value = accept.getValue(index);
+					if (br && AcceptEncoding.BR.equals(value)) {
+						return AcceptEncoding.BR;
+					}
+					if (zstd && AcceptEncoding.ZSTD.equals(value)) {
+						return AcceptEncoding.ZSTD;
+					}
+					if (gzip && AcceptEncoding.GZIP.equals(value)) {
+						return AcceptEncoding.GZIP;
+					}
+					if (deflate && AcceptEncoding.DEFLATE.equals(value)) {
+						return AcceptEncoding.DEFLATE;
+					}
+				}
+			}
+		}
+		return AcceptEncoding.IDENTITY;
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.web;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import com.joyzl.network.http.BufferRegion;
+import com.joyzl.network.http.Range.ByteRange;
+
+/**
+ * 内存映射的文件资源，适用于较大且很少修改的文件(视频/安装包等)
+ * <p>
+ * 首次请求时以只读方式映射整个文件，映射由所有连接共享，全部和部分内容均为映射的切片视图；
+ * 映射的页面属于操作系统页面缓存，不占用直接内存，TLS连接(无法使用sendfile)也仅需一次复制。
+ * 映射期间文件不应被截断，更新文件时应替换(重命名)而非原地改写。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月24日
+ */
+public class FileMappedResource extends FileResource {
+
+	private volatile MappedByteBuffer mapped;
+
+	public FileMappedResource(String path, File file, boolean weak) {
+		super(path, file, weak);
+		if (getLength() > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("文件超出映射长度" + getLength());
+		}
+	}
+
+	MappedByteBuffer mapped() throws IOException {
+		if (mapped == null) {
+			synchronized (this) {
+				if (mapped == null) {
+					// 通道关闭后映射仍然有效
+					try (FileChannel channel = FileChannel.open(getFile().toPath(), StandardOpenOption.READ)) {
+						mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, getLength());
+					}
+				}
+			}
+		}
+		return mapped;
+	}
+
+	@Override
+	public InputStream getData(String encoding) throws IOException {
+		return new BufferRegion(mapped());
+	}
+
+	@Override
+	public InputStream getData(String encoding, ByteRange range) throws IOException {
+		return new BufferRegion(mapped(), range.getStart(), range.getSize());
+	}
+}
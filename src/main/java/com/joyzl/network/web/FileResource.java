@@ -5,13 +5,13 @@
 package com.joyzl.network.web;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
 import com.joyzl.network.http.AcceptEncoding;
 import com.joyzl.network.http.Date;
 import com.joyzl.network.http.ETag;
+import com.joyzl.network.http.FileRegion;
 import com.joyzl.network.http.Range.ByteRange;
 
 /**
@@ -84,12 +84,12 @@ public class FileResource extends WEBResource {
 
 	@Override
 	public InputStream getData(String encoding) throws IOException {
-		return new FileInputStream(getFile());
+		return new FileRegion(getFile());
 	}
 
 	@Override
 	public InputStream getData(String encoding, ByteRange byterange) throws IOException {
-		return new FilePartInputStream(getFile(), byterange.getStart(), byterange.getSize());
+		return new FileRegion(getFile(), byterange.getStart(), byterange.getSize());
 	}
 
 	@Override
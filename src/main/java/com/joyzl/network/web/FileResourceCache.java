@@ -0,0 +1,273 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.web;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件资源缓存，按字节计量容量的LRU缓存
+ * <p>
+ * 缓存项权重为资源在内存中保持的内容字节数(FileCacheResource原文及压缩副本)加上固定的对象开销，
+ * 总权重超过容量时淘汰最久未访问的资源，被淘汰资源的内存内容随资源对象一并回收，
+ * 再次请求时重新构建；命中时检查文件修改时间和长度，文件已变更或删除的资源立即失效；
+ * 文件监视通过{@link #remove(File)}移除变更文件的资源。
+ * </p>
+ * <p>
+ * 资源可能以多个键缓存(目录路径别名)，没有缓存项引用时释放资源，
+ * 压缩资源({@link FileCompressResource})随之删除在缓存目录生成的压缩文件，释放在锁外进行。
+ * </p>
+ * <p>
+ * 访问顺序由同步的LinkedHashMap维护，锁内仅有散列查找和链表调整，检查文件状态在锁外进行。
+ * </p>
+ *
+ * @author ZhangXi 2025年6月22日
+ */
+final class FileResourceCache {
+
+	/** 每个缓存项的对象开销估计字节数(资源对象和标头字符串) */
+	final static int ENTRY = 512;
+
+	static class Item {
+		final WEBResource resource;
+		final long weight;
+
+		Item(WEBResource resource, long weight) {
+			this.resource = resource;
+			this.weight = weight;
+		}
+	}
+
+	private final LinkedHashMap<String, Item> items = new LinkedHashMap<>(256, 0.75f, true);
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+	/** 容量字节数 */
+	private long capacity;
+	/** 当前总权重 */
+	private long size;
+
+	FileResourceCache(long capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * 获取缓存的资源，文件已变更的资源失效
+	 *
+	 * @return 资源 / null 未缓存或已失效
+	 */
+	WEBResource get(String key) {
+		final Item item;
+		synchronized (this) {
+			item = items.get(key);
+		}
+		if (item == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+		if (modified(item.resource)) {
+			boolean removed = false;
+			synchronized (this) {
+				if (items.get(key) == item) {
+					items.remove(key);
+					size -= item.weight;
+					removed = true;
+				}
+			}
+			if (removed) {
+				release(item.resource);
+			}
+			invalidations.incrementAndGet();
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return item.resource;
+	}
+
+	/**
+	 * 添加资源，如果已有相同键的资源则保留已有资源；添加后超过容量时淘汰最久未访问的资源
+	 *
+	 * @return 缓存中的资源
+	 */
+	WEBResource put(String key, WEBResource resource, long weight) {
+		final List<WEBResource> evicted;
+		synchronized (this) {
+			final Item exist = items.get(key);
+			if (exist != null) {
+				return exist.resource;
+			}
+			items.put(key, new Item(resource, weight));
+			retain(resource);
+			size += weight;
+			evicted = evict();
+		}
+		release(evicted);
+		return resource;
+	}
+
+	/** 移除资源 */
+	void remove(String key) {
+		final Item item;
+		synchronized (this) {
+			item = items.remove(key);
+			if (item == null) {
+				return;
+			}
+			size -= item.weight;
+		}
+		release(item.resource);
+	}
+
+	/**
+	 * 移除指定文件或目录中所有文件的资源
+	 *
+	 * @return 移除资源的键
+	 */
+	List<String> remove(File file) {
+		final String directory = file.getPath() + File.separatorChar;
+		final List<String> keys = new ArrayList<>();
+		final List<WEBResource> removed = new ArrayList<>();
+		synchronized (this) {
+			final Iterator<Map.Entry<String, Item>> iterator = items.entrySet().iterator();
+			Map.Entry<String, Item> entry;
+			while (iterator.hasNext()) {
+				entry = iterator.next();
+				if (entry.getValue().resource instanceof FileResource resource) {
+					if (resource.getFile().equals(file) || resource.getFile().getPath().startsWith(directory)) {
+						iterator.remove();
+						size -= entry.getValue().weight;
+						keys.add(entry.getKey());
+						removed.add(resource);
+						invalidations.incrementAndGet();
+					}
+				}
+			}
+		}
+		release(removed);
+		return keys;
+	}
+
+	/** 清空缓存 */
+	void clear() {
+		final List<WEBResource> removed = new ArrayList<>();
+		synchronized (this) {
+			for (Item item : items.values()) {
+				removed.add(item.resource);
+			}
+			items.clear();
+			size = 0;
+		}
+		release(removed);
+	}
+
+	/**
+	 * 淘汰最久未访问的资源直至不超过容量，至少保留最近添加的资源，须在锁内调用
+	 *
+	 * @return 淘汰的资源，须在锁外释放 / null 未淘汰
+	 */
+	private List<WEBResource> evict() {
+		List<WEBResource> evicted = null;
+		Item item;
+		final Iterator<Item> iterator = items.values().iterator();
+		while (size > capacity && items.size() > 1) {
+			item = iterator.next();
+			iterator.remove();
+			size -= item.weight;
+			evictions.incrementAndGet();
+			if (evicted == null) {
+				evicted = new ArrayList<>();
+			}
+			evicted.add(item.resource);
+		}
+		return evicted;
+	}
+
+	/** 缓存项引用资源 */
+	private static void retain(WEBResource resource) {
+		if (resource instanceof FileCompressResource compress) {
+			compress.retain();
+		}
+	}
+
+	/** 缓存项不再引用资源 */
+	private static void release(WEBResource resource) {
+		if (resource instanceof FileCompressResource compress) {
+			compress.release();
+		}
+	}
+
+	private static void release(List<WEBResource> resources) {
+		if (resources != null) {
+			for (int index = 0; index < resources.size(); index++) {
+				release(resources.get(index));
+			}
+		}
+	}
+
+	/** 检查资源文件是否已修改或删除 */
+	static boolean modified(WEBResource resource) {
+		if (resource instanceof FileResource file) {
+			return file.getFile().lastModified() != file.getModified() || file.getFile().length() != file.getLength();
+		}
+		return false;
+	}
+
+	/** 估计资源在内存中保持的字节数 */
+	static long weight(WEBResource resource) {
+		if (resource instanceof FileCacheCompressResource file) {
+			// 原文及压缩副本(压缩副本合计按不超过原文估计)
+			return ENTRY + file.getLength() * 2;
+		}
+		if (resource instanceof FileCacheResource file) {
+			return ENTRY + file.getLength();
+		}
+		// FileMappedResource 映射页面属于操作系统页面缓存
+		return ENTRY;
+	}
+
+	void capacity(long value) {
+		final List<WEBResource> evicted;
+		synchronized (this) {
+			capacity = value;
+			evicted = evict();
+		}
+		release(evicted);
+	}
+
+	synchronized long capacity() {
+		return capacity;
+	}
+
+	synchronized long size() {
+		return size;
+	}
+
+	synchronized int count() {
+		return items.size();
+	}
+
+	long hits() {
+		return hits.get();
+	}
+
+	long misses() {
+		return misses.get();
+	}
+
+	long evictions() {
+		return evictions.get();
+	}
+
+	long invalidations() {
+		return invalidations.get();
+	}
+}
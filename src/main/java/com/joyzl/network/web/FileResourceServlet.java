@@ -6,10 +6,21 @@ package com.joyzl.network.web;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collection;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+import com.joyzl.network.Executor;
 import com.joyzl.network.Utility;
 import com.joyzl.network.http.HTTPStatus;
 
@@ -20,11 +31,14 @@ import com.joyzl.network.http.HTTPStatus;
  */
 public class FileResourceServlet extends WEBResourceServlet {
 
-	/** 文件大小阈值，超过此限制的文件无须压缩或缓存 */
+	/** 文件大小阈值，超过此限制的文件无须压缩或缓存，改为内存映射 */
 	public final static int MAX = 1024 * 1024 * 16;
 
+	/** 默认内存缓存容量字节数 */
+	public final static long CACHE_CAPACITY = 1024 * 1024 * 64;
+
 	/** 资源对象缓存 */
-	private final Map<String, WEBResource> resources = new ConcurrentHashMap<>();
+	private final FileResourceCache resources = new FileResourceCache(CACHE_CAPACITY);
 	/** 资源基础路径（不含通配符） */
 	private final String base;
 	/** 主目录 */
@@ -44,6 +58,8 @@ public class FileResourceServlet extends WEBResourceServlet {
 	private boolean browse = false;
 	/** 是否使用弱验证 */
 	private boolean weak = true;
+	/** 是否内存映射大文件 */
+	private boolean mapped = true;
 
 	public FileResourceServlet(File root) {
 		this(null, root, null);
@@ -83,14 +99,10 @@ public class FileResourceServlet extends WEBResourceServlet {
 						// 查找默认页面
 						final File page = findDefault(file);
 						if (page != null) {
-							synchronized (this) {
-								resource = resources.get(path);
-								if (resource == null) {
-									resource = makeResource(page);
-									resources.put(resource.getContentLocation(), resource);
-									resources.put(path, resource);
-								}
-							}
+							resource = makeResource(page);
+							resource = resources.put(resource.getContentLocation(), resource, FileResourceCache.weight(resource));
+							// 目录路径作为别名，两者独立淘汰因此均计入内容权重
+							resources.put(path, resource, FileResourceCache.weight(resource));
 						} else {
 							// 返回目录资源
 							// 可用于重定向或返回目录列表
@@ -103,13 +115,8 @@ public class FileResourceServlet extends WEBResourceServlet {
 					}
 				} else {
 					// FILE
-					synchronized (this) {
-						resource = resources.get(path);
-						if (resource == null) {
-							resource = makeResource(file);
-							resources.put(path, resource);
-						}
-					}
+					resource = makeResource(file);
+					resource = resources.put(path, resource, FileResourceCache.weight(resource));
 				}
 			} else {
 				// 尝试查找
@@ -138,6 +145,175 @@ public class FileResourceServlet extends WEBResourceServlet {
 		return null;
 	}
 
+	////////////////////////////////////////////////////////////////////////////////
+	// 文件监视和预热
+
+	/** 文件监视服务 */
+	private WatchService watcher;
+	private ScheduledFuture<?> watching;
+
+	/** 文件监视任务，在业务线程池定期处理文件变更事件 */
+	private final Runnable WATCH = new Runnable() {
+		@Override
+		public void run() {
+			try {
+				changes();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	};
+
+	/**
+	 * 开始监视主目录及其子目录，文件变更或删除时失效并重建相应资源(重新计算ETag)，无须重启即可更新前端资源；
+	 * 执行器未初始化时不启动定期任务，可由{@link #changes()}处理变更
+	 */
+	public synchronized void watch() throws IOException {
+		if (watcher == null) {
+			watcher = root.toPath().getFileSystem().newWatchService();
+			register(root.toPath());
+			if (Executor.isActive()) {
+				watching = Executor.scheduleWithFixedDelay(WATCH, 1, 1, TimeUnit.SECONDS);
+			}
+		}
+	}
+
+	/**
+	 * 停止监视主目录
+	 */
+	public synchronized void unwatch() throws IOException {
+		if (watching != null) {
+			watching.cancel(false);
+			watching = null;
+		}
+		if (watcher != null) {
+			watcher.close();
+			watcher = null;
+		}
+	}
+
+	/** 注册目录及其子目录 */
+	private void register(Path path) throws IOException {
+		Files.walkFileTree(path, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * 处理已发生的文件变更事件
+	 *
+	 * @return 失效的资源数量
+	 */
+	int changes() throws IOException {
+		final WatchService watcher = this.watcher;
+		if (watcher == null) {
+			return 0;
+		}
+		int count = 0;
+		WatchKey key;
+		Path path;
+		while ((key = watcher.poll()) != null) {
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+					// 事件丢失，全部失效
+					count += resources.count();
+					resources.clear();
+					continue;
+				}
+				path = ((Path) key.watchable()).resolve((Path) event.context());
+				if (Files.isDirectory(path)) {
+					if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+						register(path);
+					}
+					// 目录本身的修改不影响其中的文件资源
+					continue;
+				}
+				count += invalidate(path.toFile());
+				// 预压缩的相邻文件变更时原文件资源重建
+				final File original = FileCompressor.original(path.toFile());
+				if (original != null) {
+					count += invalidate(original);
+				}
+			}
+			key.reset();
+		}
+		return count;
+	}
+
+	/**
+	 * 失效文件(或已删除目录中所有文件)的资源，仍存在的文件重建资源并重新加载内存内容
+	 *
+	 * @return 失效的资源数量
+	 */
+	protected int invalidate(File file) {
+		final List<String> keys = resources.remove(file);
+		WEBResource resource;
+		for (int index = 0; index < keys.size(); index++) {
+			resource = find(keys.get(index));
+			if (resource instanceof FileCacheResource cached) {
+				load(cached);
+			}
+		}
+		return keys.size();
+	}
+
+	/**
+	 * 预热：遍历主目录将应缓存的文件构建为资源，在业务线程池并行加载和压缩；
+	 * 达到内存缓存容量时停止，避免启动后首批请求的冷缓存延迟
+	 *
+	 * @return 预热的文件数量
+	 */
+	public int prewarm() throws IOException {
+		final int[] count = new int[1];
+		Files.walkFileTree(root.toPath(), new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException {
+				final File file = path.toFile();
+				if (canCache(file)) {
+					final WEBResource resource = makeResource(file);
+					final long weight = FileResourceCache.weight(resource);
+					if (resources.size() + weight > resources.capacity()) {
+						return FileVisitResult.TERMINATE;
+					}
+					if (resources.put(resolvePath(file), resource, weight) == resource) {
+						if (resource instanceof FileCacheResource cached) {
+							load(cached);
+						}
+						count[0]++;
+					}
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return count[0];
+	}
+
+	/** 在业务线程池加载资源内容，执行器未初始化时直接加载 */
+	private void load(FileCacheResource resource) {
+		if (Executor.isActive()) {
+			Executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						resource.load();
+					} catch (IOException e) {
+						// 加载失败时在请求中重新加载
+					}
+				}
+			});
+		} else {
+			try {
+				resource.load();
+			} catch (IOException e) {
+				// 加载失败时在请求中重新加载
+			}
+		}
+	}
+
 	/**
 	 * 构建文件为资源对象，资源对象提供WEB所需的标头和内容
 	 */
@@ -146,6 +322,10 @@ public class FileResourceServlet extends WEBResourceServlet {
 		// 不缓存 要压缩
 		// 要缓存 不压缩
 		// 要缓存 要压缩
+		// 有预压缩的相邻文件时直接提供文件
+		if (FileCompressor.sidecars(file)) {
+			return new FileCompressResource(resolvePath(file), file, cache, isWeak());
+		}
 		if (canCache(file)) {
 			if (canCompress(file)) {
 				return new FileCacheCompressResource(resolvePath(file), file, isWeak());
@@ -153,6 +333,9 @@ public class FileResourceServlet extends WEBResourceServlet {
 				return new FileCacheResource(resolvePath(file), file, isWeak());
 			}
 		} else {
+			if (canMap(file)) {
+				return new FileMappedResource(resolvePath(file), file, isWeak());
+			}
 			if (canCompress(file)) {
 				return new FileCompressResource(resolvePath(file), file, cache, isWeak());
 			} else {
@@ -290,10 +473,10 @@ public class FileResourceServlet extends WEBResourceServlet {
 	}
 
 	/**
-	 * 检查文件是否应在内存缓存；
+	 * 检查文件是否应在内存缓存；单个文件不超过内存缓存容量的1/8，较大的文件以文件流方式提供
 	 */
 	protected boolean canCache(File file) {
-		if (file.length() < MAX) {
+		if (file.length() < MAX && file.length() <= resources.capacity() / 8) {
 			for (int index = 0; index < caches.length; index++) {
 				if (Utility.ends(file.getPath(), caches[index], true)) {
 					return true;
@@ -303,6 +486,13 @@ public class FileResourceServlet extends WEBResourceServlet {
 		return false;
 	}
 
+	/**
+	 * 检查文件是否应内存映射；超过{@link #MAX}的文件以只读映射共享提供，映射不超过2GB
+	 */
+	protected boolean canMap(File file) {
+		return mapped && file.length() >= MAX && file.length() <= Integer.MAX_VALUE;
+	}
+
 	/**
 	 * 获取用于缓存的文件；未指定缓存目录则创建临时文件；
 	 * 有指定缓存目录则在指定目录生成缓存文件，缓存文件是对源文件经过压缩后的文件，无须压缩的文件也无须缓存。
@@ -465,6 +655,76 @@ public class FileResourceServlet extends WEBResourceServlet {
 		browse = value;
 	}
 
+	/**
+	 * 获取内存缓存容量字节数
+	 */
+	public long getCacheCapacity() {
+		return resources.capacity();
+	}
+
+	/**
+	 * 设置内存缓存容量字节数，超过容量时淘汰最久未访问的资源
+	 */
+	public void setCacheCapacity(long value) {
+		resources.capacity(value);
+	}
+
+	/**
+	 * 获取内存缓存当前估计字节数
+	 */
+	public long getCacheSize() {
+		return resources.size();
+	}
+
+	/**
+	 * 获取资源缓存命中次数
+	 */
+	public long getCacheHits() {
+		return resources.hits();
+	}
+
+	/**
+	 * 获取资源缓存未命中次数(含失效)
+	 */
+	public long getCacheMisses() {
+		return resources.misses();
+	}
+
+	/**
+	 * 获取资源缓存因容量淘汰的次数
+	 */
+	public long getCacheEvictions() {
+		return resources.evictions();
+	}
+
+	/**
+	 * 获取资源缓存因文件变更失效的次数
+	 */
+	public long getCacheInvalidations() {
+		return resources.invalidations();
+	}
+
+	/**
+	 * 清空资源缓存
+	 */
+	public void clearCache() {
+		resources.clear();
+	}
+
+	/**
+	 * 获取是否内存映射大文件
+	 */
+	public boolean isMapped() {
+		return mapped;
+	}
+
+	/**
+	 * 设置是否内存映射大文件
+	 */
+	public void setMapped(boolean value) {
+		mapped = value;
+	}
+
 	/**
 	 * 获取是否使用弱验证器
 	 */
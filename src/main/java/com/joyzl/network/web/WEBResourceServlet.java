@@ -312,9 +312,14 @@ public abstract class WEBResourceServlet extends WEBServlet {
 		// Content-Encoding: br/gzip/deflate
 		response.addHeader(ContentEncoding.NAME, encoding);
 
-		if (length < HTTP1Coder.BLOCK_BYTES) {
+		if (length >= 0) {
+			// 资源长度确定时无须分块，文件区域按位置直接读入发送缓存
 			// Content-Length:9
 			response.addHeader(ContentLength.NAME, Long.toString(length));
+			if (length >= HTTP1Coder.BLOCK_BYTES) {
+				// Accept-Ranges: bytes
+				response.addHeader(HTTP1.Accept_Ranges, Range.UNIT);
+			}
 		} else {
 			// Transfer-Encoding: chunked
 			response.addHeader(TransferEncoding.NAME, TransferEncoding.CHUNKED);
@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class TestTimerWheel {
+
+	static class Counter extends TimerWheel.Timeout {
+
+		final AtomicInteger count;
+
+		Counter(AtomicInteger count) {
+			this.count = count;
+		}
+
+		@Override
+		protected void expired(long timestamp) {
+			count.incrementAndGet();
+		}
+	}
+
+	@Test
+	void testSchedule() {
+		final TimerWheel wheel = new TimerWheel(10, 8);
+		final AtomicInteger count = new AtomicInteger();
+		final Counter a = new Counter(count);
+		final Counter b = new Counter(count);
+		final Counter c = new Counter(count);
+
+		final long now = System.currentTimeMillis();
+		wheel.schedule(a, 50);
+		wheel.schedule(b, 500);
+		wheel.schedule(c, 50);
+		assertEquals(wheel.size(), 3);
+
+		// 取消
+		assertTrue(wheel.cancel(c));
+		assertFalse(wheel.cancel(c));
+		assertFalse(c.scheduled());
+		assertEquals(wheel.size(), 2);
+
+		// 未到期
+		assertEquals(wheel.advance(now + 20), 0);
+		// 到期
+		assertEquals(wheel.advance(now + 100), 1);
+		assertEquals(count.get(), 1);
+		assertFalse(a.scheduled());
+		// 超过一圈的任务保留
+		assertTrue(b.scheduled());
+		assertEquals(wheel.advance(now + 200), 0);
+		assertEquals(wheel.advance(now + 600), 1);
+		assertEquals(wheel.size(), 0);
+		assertEquals(count.get(), 2);
+	}
+
+	@Test
+	void testReschedule() {
+		final TimerWheel wheel = new TimerWheel(10, 16);
+		final AtomicInteger count = new AtomicInteger();
+		final Counter a = new Counter(count);
+
+		final long now = System.currentTimeMillis();
+		wheel.schedule(a, 50);
+		wheel.schedule(a, 1000);
+		assertEquals(wheel.size(), 1);
+		assertEquals(wheel.advance(now + 100), 0);
+		assertEquals(wheel.advance(now + 2000), 1);
+	}
+
+	@Test
+	void testFailed() {
+		final TimerWheel wheel = new TimerWheel(10, 16);
+		final AtomicInteger count = new AtomicInteger();
+		final AtomicInteger failed = new AtomicInteger();
+		final TimerWheel.Timeout error = new TimerWheel.Timeout() {
+			@Override
+			protected void expired(long timestamp) {
+				throw new StackOverflowError();
+			}
+
+			@Override
+			protected void failed(Throwable e) {
+				assertTrue(e instanceof StackOverflowError);
+				failed.incrementAndGet();
+			}
+		};
+
+		// 异常(包括Error)不影响其它任务
+		final long now = System.currentTimeMillis();
+		wheel.schedule(error, 50);
+		wheel.schedule(new Counter(count), 50);
+		assertEquals(wheel.advance(now + 100), 2);
+		assertEquals(failed.get(), 1);
+		assertEquals(count.get(), 1);
+	}
+
+	@Test
+	void testDispatch() throws Exception {
+		final TimerWheel wheel = new TimerWheel(10, 16);
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			wheel.dispatch(executor);
+			final CountDownLatch release = new CountDownLatch(1);
+			final CountDownLatch done = new CountDownLatch(1);
+			final TimerWheel.Timeout slow = new TimerWheel.Timeout() {
+				@Override
+				protected void expired(long timestamp) {
+					try {
+						release.await(2, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+					}
+				}
+			};
+			final TimerWheel.Timeout fast = new TimerWheel.Timeout() {
+				@Override
+				protected void expired(long timestamp) {
+					done.countDown();
+				}
+			};
+
+			// 阻塞的任务不推迟推进和其它任务
+			wheel.schedule(slow, 20);
+			wheel.schedule(fast, 500);
+			// 截止时间按加入时的时钟计算，推进时间以加入之后为准
+			final long time = System.currentTimeMillis();
+			assertEquals(wheel.advance(time + 30), 1);
+			assertEquals(wheel.advance(time + 600), 1);
+			assertTrue(System.currentTimeMillis() - time < 1000);
+			assertTrue(done.await(1, TimeUnit.SECONDS));
+			release.countDown();
+
+			// 执行器关闭后在推进线程中执行
+			executor.shutdown();
+			final AtomicInteger count = new AtomicInteger();
+			wheel.schedule(new Counter(count), 20);
+			assertEquals(wheel.advance(time + 1000), 1);
+			assertEquals(count.get(), 1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void testPerformance() {
+		final TimerWheel wheel = new TimerWheel(100, 512);
+		final AtomicInteger count = new AtomicInteger();
+		final Counter[] timeouts = new Counter[100000];
+		for (int index = 0; index < timeouts.length; index++) {
+			timeouts[index] = new Counter(count);
+		}
+
+		long time = System.currentTimeMillis();
+		for (int index = 0; index < timeouts.length; index++) {
+			wheel.schedule(timeouts[index], index % 60000);
+		}
+		for (int index = 0; index < timeouts.length; index += 2) {
+			wheel.cancel(timeouts[index]);
+		}
+		final long now = System.currentTimeMillis();
+		for (long t = now; t <= now + 61000; t += 100) {
+			wheel.advance(t);
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("时间轮:" + timeouts.length + " 耗时:" + time + "ms");
+		assertEquals(count.get(), timeouts.length / 2);
+		assertEquals(wheel.size(), 0);
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.chain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Closeable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class TestSendQueue {
+
+	@Test
+	void testOfferPoll() throws Exception {
+		final SendQueue queue = new SendQueue();
+		assertTrue(queue.isEmpty());
+		assertNull(queue.poll());
+
+		for (int index = 0; index < 100; index++) {
+			queue.offer(index);
+		}
+		assertFalse(queue.isEmpty());
+		for (int index = 0; index < 100; index++) {
+			assertEquals(queue.poll(), index);
+		}
+		assertTrue(queue.isEmpty());
+		assertNull(queue.poll());
+	}
+
+	@Test
+	void testClear() throws Exception {
+		final AtomicInteger closed = new AtomicInteger();
+		final SendQueue queue = new SendQueue();
+		queue.offer(1);
+		queue.offer((Closeable) () -> closed.incrementAndGet());
+		queue.offer((Closeable) () -> closed.incrementAndGet());
+		queue.clear();
+		assertTrue(queue.isEmpty());
+		assertEquals(closed.get(), 2);
+	}
+
+	@Test
+	void testProducers() throws Exception {
+		final int THREADS = 8;
+		final int MESSAGES = 100000;
+		final SendQueue queue = new SendQueue();
+		final CountDownLatch latch = new CountDownLatch(THREADS);
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			new Thread(() -> {
+				for (int index = 0; index < MESSAGES; index++) {
+					queue.offer(new int[] { thread, index });
+				}
+				latch.countDown();
+			}).start();
+		}
+
+		// 单线程取出，每个投递线程的消息须保持顺序
+		final int[] nexts = new int[THREADS];
+		int size = 0;
+		Object message;
+		while (size < THREADS * MESSAGES) {
+			message = queue.poll();
+			if (message == null) {
+				Thread.onSpinWait();
+			} else {
+				final int[] m = (int[]) message;
+				assertEquals(m[1], nexts[m[0]]);
+				nexts[m[0]]++;
+				size++;
+			}
+		}
+		latch.await();
+		assertTrue(queue.isEmpty());
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.chain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.Executor;
+import com.joyzl.network.buffer.DataBuffer;
+
+public class TestTCPClient {
+
+	static class Handler implements ChainHandler {
+
+		final AtomicInteger connected = new AtomicInteger();
+		final AtomicInteger beats = new AtomicInteger();
+		final AtomicInteger errors = new AtomicInteger();
+
+		@Override
+		public void connected(ChainChannel chain) throws Exception {
+			connected.incrementAndGet();
+		}
+
+		@Override
+		public Object decode(ChainChannel chain, DataBuffer reader) throws Exception {
+			return null;
+		}
+
+		@Override
+		public void received(ChainChannel chain, Object message) throws Exception {
+		}
+
+		@Override
+		public DataBuffer encode(ChainChannel chain, Object message) throws Exception {
+			return null;
+		}
+
+		@Override
+		public void sent(ChainChannel chain, Object message) throws Exception {
+		}
+
+		@Override
+		public void disconnected(ChainChannel chain) throws Exception {
+		}
+
+		@Override
+		public void beat(ChainChannel chain) throws Exception {
+			beats.incrementAndGet();
+		}
+
+		@Override
+		public void error(ChainChannel chain, Throwable e) {
+			errors.incrementAndGet();
+		}
+	}
+
+	@Test
+	void testBackoff() {
+		final TCPClient client = new TCPClient(new Handler(), "127.0.0.1", 19094);
+		try {
+			client.setReconnect(2);
+			client.setReconnectMax(60);
+			long delay;
+			for (int attempts = 0; attempts < 40; attempts++) {
+				// 间隔倍增直至最大值，随机取间隔的后一半
+				final long max = Math.min(2000L << Math.min(attempts, 16), 60000L);
+				for (int index = 0; index < 100; index++) {
+					delay = client.backoff(attempts);
+					assertTrue(delay >= max / 2 && delay <= max, attempts + ":" + delay);
+				}
+			}
+		} finally {
+			client.close();
+		}
+	}
+
+	@Test
+	void testReconnect() throws Exception {
+		Executor.initialize(2);
+		final Handler handler = new Handler();
+		final TCPClient client = new TCPClient(handler, "127.0.0.1", 19094);
+		try {
+			client.setReconnect(1);
+			client.setReconnectMax(2);
+			client.setHeartbeat(1);
+			// 无服务端，连接失败后退避重连
+			client.connect();
+			Thread.sleep(3500);
+			assertTrue(client.getAttempts() >= 2, "attempts:" + client.getAttempts());
+			assertEquals(handler.connected.get(), 0);
+
+			try (ServerSocket server = new ServerSocket(19094)) {
+				try (Socket socket = server.accept()) {
+					long time = System.currentTimeMillis();
+					while (!client.active() && System.currentTimeMillis() - time < 3000) {
+						Thread.sleep(10);
+					}
+					assertTrue(client.active());
+					assertEquals(client.getAttempts(), 0);
+					assertEquals(handler.connected.get(), 1);
+
+					// 空闲时按心跳间隔触发
+					Thread.sleep(2600);
+					assertTrue(handler.beats.get() >= 1 && handler.beats.get() <= 3, "beats:" + handler.beats.get());
+				}
+			}
+		} finally {
+			client.close();
+			Executor.shutdown();
+		}
+	}
+
+	@Test
+	void testCheck() throws Exception {
+		Executor.initialize(2);
+		final AtomicInteger checks = new AtomicInteger();
+		final TCPClient client = new TCPClient(new Handler(), "127.0.0.1", 19094) {
+			@Override
+			protected void check(long timestamp) {
+				checks.incrementAndGet();
+			}
+		};
+		try {
+			// 未连接且未到重连时间，检查仍每秒调用
+			client.setReconnect(60);
+			Thread.sleep(2600);
+			assertTrue(checks.get() >= 2 && checks.get() <= 3, "checks:" + checks.get());
+			client.close();
+			final int count = checks.get();
+			Thread.sleep(1200);
+			assertEquals(checks.get(), count);
+		} finally {
+			client.close();
+			Executor.shutdown();
+		}
+
+		// 未重写检查方法的客户端不加入检查任务
+		final TCPClient plain = new TCPClient(new Handler(), "127.0.0.1", 19094);
+		try {
+			assertFalse(plain.CHECK.scheduled());
+			assertTrue(plain.TASK.scheduled());
+			assertTrue(TCPClient.CHECKS.get(client.getClass()));
+			assertFalse(TCPClient.CHECKS.get(TCPClient.class));
+		} finally {
+			plain.close();
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.chain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.Executor;
+import com.joyzl.network.buffer.DataBuffer;
+
+public class TestTCPSend {
+
+	final static int PART = 32768;
+	final static int PARTS = 64;
+	final static int THREADS = 4;
+	final static int MESSAGES = 500;
+	final static int MESSAGE = 100;
+
+	/** 分段发送的当前消息 */
+	static class Parts {
+		int remain = PARTS;
+	}
+
+	/** 当前消息的后续部分在其它线程继续发送，与排队消息交替进行 */
+	static class Handler implements ChainHandler {
+
+		final AtomicInteger errors = new AtomicInteger();
+		final AtomicInteger sent = new AtomicInteger();
+		final CountDownLatch connected = new CountDownLatch(1);
+		volatile TCPSlave slave;
+
+		@Override
+		public void connected(ChainChannel chain) throws Exception {
+			slave = (TCPSlave) chain;
+			connected.countDown();
+		}
+
+		@Override
+		public Object decode(ChainChannel chain, DataBuffer reader) throws Exception {
+			return null;
+		}
+
+		@Override
+		public void received(ChainChannel chain, Object message) throws Exception {
+		}
+
+		@Override
+		public DataBuffer encode(ChainChannel chain, Object message) throws Exception {
+			final DataBuffer buffer = DataBuffer.instance();
+			if (message instanceof Parts parts) {
+				for (int index = 0; index < PART; index++) {
+					buffer.writeByte('P');
+				}
+				parts.remain--;
+			} else {
+				buffer.write((byte[]) message);
+			}
+			return buffer;
+		}
+
+		@Override
+		public void sent(ChainChannel chain, Object message) throws Exception {
+			sent.incrementAndGet();
+			if (message instanceof Parts parts && parts.remain > 0) {
+				Executor.execute(() -> {
+					slave.sendMessage(parts);
+					slave.send(parts);
+				});
+			}
+		}
+
+		@Override
+		public void disconnected(ChainChannel chain) throws Exception {
+		}
+
+		@Override
+		public void error(ChainChannel chain, Throwable e) {
+			errors.incrementAndGet();
+			e.printStackTrace();
+		}
+	}
+
+	@Test
+	void testCurrentAndQueued() throws Exception {
+		Executor.initialize(4);
+		final Handler handler = new Handler();
+		final TCPServer server = new TCPServer(handler, "127.0.0.1", 19096);
+		try {
+			server.receive();
+			try (Socket socket = new Socket("127.0.0.1", 19096)) {
+				handler.connected.await();
+				final TCPSlave slave = handler.slave;
+
+				// 无当前消息时成为当前消息
+				final Parts parts = new Parts();
+				slave.send(parts);
+				for (int t = 0; t < THREADS; t++) {
+					new Thread(() -> {
+						for (int index = 0; index < MESSAGES; index++) {
+							slave.send(new byte[MESSAGE]);
+						}
+					}).start();
+				}
+
+				final long total = (long) PART * PARTS + (long) THREADS * MESSAGES * MESSAGE;
+				final InputStream input = socket.getInputStream();
+				final byte[] bytes = new byte[65536];
+				long received = 0, p = 0;
+				socket.setSoTimeout(5000);
+				while (received < total) {
+					final int size = input.read(bytes);
+					if (size < 0) {
+						break;
+					}
+					for (int index = 0; index < size; index++) {
+						if (bytes[index] == 'P') {
+							p++;
+						}
+					}
+					received += size;
+				}
+				assertEquals(received, total);
+				assertEquals(p, (long) PART * PARTS);
+				assertEquals(parts.remain, 0);
+				// 写入完成之后通知处理对象
+				for (int index = 0; index < 100 && handler.sent.get() < PARTS + THREADS * MESSAGES; index++) {
+					Thread.sleep(20);
+				}
+				assertEquals(handler.sent.get(), PARTS + THREADS * MESSAGES);
+				assertEquals(handler.errors.get(), 0);
+			}
+		} finally {
+			server.close();
+			Executor.shutdown();
+		}
+	}
+}
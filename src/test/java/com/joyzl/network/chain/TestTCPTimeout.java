@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.chain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.Executor;
+import com.joyzl.network.buffer.DataBuffer;
+
+public class TestTCPTimeout {
+
+	/** 接收超时通过时间轮检查 */
+	static class Handler implements ChainHandler {
+
+		final AtomicInteger received = new AtomicInteger();
+		final AtomicInteger timeouts = new AtomicInteger();
+		final AtomicInteger disconnected = new AtomicInteger();
+
+		@Override
+		public long getTimeoutRead() {
+			return 300;
+		}
+
+		@Override
+		public void connected(ChainChannel chain) throws Exception {
+			chain.receive();
+		}
+
+		@Override
+		public Object decode(ChainChannel chain, DataBuffer reader) throws Exception {
+			final byte[] bytes = new byte[reader.readable()];
+			reader.readFully(bytes);
+			return bytes;
+		}
+
+		@Override
+		public void received(ChainChannel chain, Object message) throws Exception {
+			if (message == null) {
+				timeouts.incrementAndGet();
+			} else {
+				received.incrementAndGet();
+			}
+		}
+
+		@Override
+		public DataBuffer encode(ChainChannel chain, Object message) throws Exception {
+			return null;
+		}
+
+		@Override
+		public void sent(ChainChannel chain, Object message) throws Exception {
+		}
+
+		@Override
+		public void disconnected(ChainChannel chain) throws Exception {
+			disconnected.incrementAndGet();
+		}
+
+		@Override
+		public void error(ChainChannel chain, Throwable e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Test
+	void testReadTimeout() throws Exception {
+		Executor.initialize(4);
+		final Handler handler = new Handler();
+		final TCPServer server = new TCPServer(handler, "127.0.0.1", 19092);
+		try {
+			server.receive();
+			try (Socket socket = new Socket("127.0.0.1", 19092)) {
+				final OutputStream output = socket.getOutputStream();
+				// 持续发送不超时
+				for (int index = 0; index < 8; index++) {
+					output.write(index);
+					output.flush();
+					Thread.sleep(100);
+				}
+				assertEquals(handler.timeouts.get(), 0);
+				assertEquals(handler.disconnected.get(), 0);
+
+				// 停止发送后超时并关闭
+				Thread.sleep(700);
+				assertEquals(handler.timeouts.get(), 1);
+				assertEquals(handler.disconnected.get(), 1);
+				final InputStream input = socket.getInputStream();
+				assertEquals(input.read(), -1);
+			}
+			assertEquals(handler.received.get() > 0, true);
+		} finally {
+			server.close();
+			Executor.shutdown();
+		}
+	}
+}
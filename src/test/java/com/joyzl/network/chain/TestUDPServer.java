@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.chain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.Executor;
+import com.joyzl.network.buffer.DataBuffer;
+
+public class TestUDPServer {
+
+	/** 每个数据报携带序号，检查同一对端的消息按序处理 */
+	static class Handler implements ChainHandler {
+
+		final Map<Object, Integer> sequences = new ConcurrentHashMap<>();
+		final AtomicInteger received = new AtomicInteger();
+		final AtomicInteger disorders = new AtomicInteger();
+		final AtomicInteger disconnected = new AtomicInteger();
+		long idle = 300000L;
+
+		@Override
+		public long getTimeoutIdle() {
+			return idle;
+		}
+
+		@Override
+		public int getReceivers() {
+			return 4;
+		}
+
+		@Override
+		public void connected(ChainChannel chain) throws Exception {
+		}
+
+		@Override
+		public Object decode(ChainChannel chain, DataBuffer reader) throws Exception {
+			return reader.readInt();
+		}
+
+		@Override
+		public void received(ChainChannel chain, Object message) throws Exception {
+			final Integer last = sequences.put(chain, (Integer) message);
+			if (last != null && last >= (Integer) message) {
+				disorders.incrementAndGet();
+			}
+			received.incrementAndGet();
+		}
+
+		@Override
+		public DataBuffer encode(ChainChannel chain, Object message) throws Exception {
+			return null;
+		}
+
+		@Override
+		public void sent(ChainChannel chain, Object message) throws Exception {
+		}
+
+		@Override
+		public void disconnected(ChainChannel chain) throws Exception {
+			disconnected.incrementAndGet();
+		}
+
+		@Override
+		public void error(ChainChannel chain, Throwable e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Test
+	void testReceive() throws Exception {
+		Executor.initialize(4);
+		final Handler handler = new Handler();
+		final UDPServer server = new UDPServer(handler, "127.0.0.1", 19090);
+		try {
+			server.receive();
+			final int peers = 8, count = 2000;
+			final DatagramChannel[] clients = new DatagramChannel[peers];
+			for (int index = 0; index < peers; index++) {
+				clients[index] = DatagramChannel.open();
+				clients[index].connect(new InetSocketAddress("127.0.0.1", 19090));
+			}
+
+			long time = System.currentTimeMillis();
+			final ByteBuffer buffer = ByteBuffer.allocate(4);
+			for (int sequence = 0; sequence < count; sequence++) {
+				for (int index = 0; index < peers; index++) {
+					buffer.clear();
+					buffer.putInt(sequence).flip();
+					clients[index].write(buffer);
+				}
+				if (sequence % 10 == 0) {
+					// 避免超过接收缓冲区
+					Thread.sleep(1);
+				}
+			}
+			// 等待直至不再有新的消息
+			int last = -1;
+			while (handler.received.get() < peers * count && handler.received.get() != last) {
+				last = handler.received.get();
+				Thread.sleep(100);
+			}
+			time = System.currentTimeMillis() - time;
+			System.out.println("UDP接收:" + handler.received.get() + " 耗时:" + time + "ms 通道:" + UDPServerReceiver.size());
+
+			assertEquals(server.slaves().size(), peers);
+			// 系统可能丢弃数据报，但同一对端不应乱序
+			assertTrue(handler.received.get() > 0);
+			assertEquals(handler.disorders.get(), 0);
+			for (DatagramChannel client : clients) {
+				client.close();
+			}
+		} finally {
+			server.close();
+			Executor.shutdown();
+		}
+	}
+
+	@Test
+	void testIdle() throws Exception {
+		Executor.initialize(4);
+		final Handler handler = new Handler();
+		handler.idle = 300;
+		final UDPServer server = new UDPServer(handler, "127.0.0.1", 19091);
+		try {
+			server.receive();
+			final ByteBuffer buffer = ByteBuffer.allocate(4);
+			final DatagramChannel a = DatagramChannel.open();
+			final DatagramChannel b = DatagramChannel.open();
+			a.connect(new InetSocketAddress("127.0.0.1", 19091));
+			b.connect(new InetSocketAddress("127.0.0.1", 19091));
+			a.write(buffer.clear().putInt(1).flip());
+			b.write(buffer.clear().putInt(1).flip());
+			Thread.sleep(100);
+			assertEquals(server.getSlaveCount(), 2);
+
+			// 对端 a 持续活动，对端 b 空闲
+			for (int sequence = 2; sequence < 10; sequence++) {
+				Thread.sleep(100);
+				a.write(buffer.clear().putInt(sequence).flip());
+			}
+			assertEquals(server.getSlaveCount(), 1);
+			assertEquals(server.getEvictions(), 1L);
+			assertEquals(handler.disconnected.get(), 1);
+
+			// 空闲移除后再次收到数据报重新建立
+			b.write(buffer.clear().putInt(2).flip());
+			Thread.sleep(100);
+			assertEquals(server.getSlaveCount(), 2);
+
+			Thread.sleep(800);
+			assertEquals(server.getSlaveCount(), 0);
+			assertEquals(handler.disconnected.get(), 3);
+			a.close();
+			b.close();
+		} finally {
+			server.close();
+			Executor.shutdown();
+		}
+	}
+}
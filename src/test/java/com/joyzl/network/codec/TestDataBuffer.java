@@ -865,4 +865,120 @@ class TestDataBuffer {
 		assertEquals(buffer.readable(), 0);
 
 	}
-}
\ No newline at end of file
+
+	@Test
+	void testScatterGather() {
+		ByteBuffer[] bs;
+
+		// 分散读取仅写入部分单元，未写入的单元应被释放
+		bs = buffer.writes(DataBufferUnit.BYTES * 4);
+		assertEquals(bs.length, 4);
+		int value = 0;
+		for (int index = 0; index < DataBufferUnit.BYTES + 100; index++) {
+			if (bs[0].hasRemaining()) {
+				bs[0].put((byte) value++);
+			} else {
+				bs[1].put((byte) value++);
+			}
+		}
+		buffer.written(DataBufferUnit.BYTES + 100);
+		assertEquals(buffer.readable(), DataBufferUnit.BYTES + 100);
+		assertEquals(buffer.units(), 2);
+
+		// 继续写入
+		for (int index = 0; index < DataBufferUnit.BYTES * 2; index++) {
+			buffer.writeByte(value++);
+		}
+		assertEquals(buffer.readable(), DataBufferUnit.BYTES * 3 + 100);
+
+		// 限制聚集写入的单元数量
+		bs = buffer.reads(2);
+		assertEquals(bs.length, 2);
+		int size = 0;
+		value = 0;
+		for (int u = 0; u < bs.length; u++) {
+			while (bs[u].hasRemaining()) {
+				assertEquals(bs[u].get(), (byte) value++);
+				size++;
+			}
+		}
+		buffer.read((long) size);
+		assertEquals(buffer.readable(), DataBufferUnit.BYTES * 3 + 100 - size);
+
+		bs = buffer.reads(Integer.MAX_VALUE);
+		size = 0;
+		for (int u = 0; u < bs.length; u++) {
+			while (bs[u].hasRemaining()) {
+				assertEquals(bs[u].get(), (byte) value++);
+				size++;
+			}
+		}
+		buffer.read((long) size);
+		assertEquals(buffer.readable(), 0);
+	}
+
+	@Test
+	void testShare() throws IOException {
+		final DataBuffer source = DataBuffer.instance();
+		for (int index = 0; index < DataBufferUnit.BYTES * 2 + 100; index++) {
+			source.writeByte(index);
+		}
+		source.readByte();
+
+		// 多个缓存共享同一数据源，读取位置相互独立
+		final DataBuffer a = DataBuffer.instance();
+		final DataBuffer b = DataBuffer.instance();
+		a.writeInt(0x12345678);
+		a.share(source);
+		b.share(source);
+		assertEquals(a.readable(), source.readable() + 4);
+		assertEquals(b.readable(), source.readable());
+
+		assertEquals(a.readInt(), 0x12345678);
+		for (int index = 1; index < DataBufferUnit.BYTES * 2 + 100; index++) {
+			assertEquals(a.readByte(), (byte) index);
+		}
+		assertEquals(a.readable(), 0);
+		ByteBuffer[] buffers = b.reads();
+		int size = 0;
+		for (ByteBuffer buffer : buffers) {
+			while (buffer.hasRemaining()) {
+				assertEquals(buffer.get(), (byte) ++size);
+			}
+		}
+		b.read(size);
+		assertEquals(b.readable(), 0);
+		assertEquals(source.readable(), DataBufferUnit.BYTES * 2 + 99);
+
+		// 共享单元只读，继续写入扩展新单元
+		a.share(source);
+		a.writeByte(1);
+		assertEquals(a.readable(), source.readable() + 1);
+		try {
+			a.set(0, (byte) 0);
+			fail();
+		} catch (Exception e) {
+		}
+
+		a.release();
+		b.release();
+		source.release();
+	}
+
+	@Test
+	void testInstanceSize() throws IOException {
+		final DataBuffer large = DataBuffer.instance(DataBufferUnit.BYTES_MEDIUM + 1);
+		assertEquals(large.capacity(), DataBufferUnit.BYTES_LARGE);
+		for (int index = 0; index < DataBufferUnit.BYTES_LARGE + 1; index++) {
+			large.writeByte(index);
+		}
+		assertEquals(large.units(), 2);
+		assertEquals(large.capacity(), DataBufferUnit.BYTES_LARGE * 2);
+		large.release();
+
+		// 回收后获取的实例恢复为小单元
+		final DataBuffer small = DataBuffer.instance();
+		assertEquals(small.capacity(), DataBufferUnit.BYTES);
+		small.release();
+	}
+}
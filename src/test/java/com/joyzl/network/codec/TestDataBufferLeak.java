@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.buffer.DataBuffer;
+import com.joyzl.network.buffer.DataBufferLeak;
+
+class TestDataBufferLeak {
+
+	@Test
+	void testLeak() throws Exception {
+		final AtomicReference<Throwable> site = new AtomicReference<>();
+		DataBufferLeak.setReporter(site::set);
+		DataBufferLeak.setSample(1);
+		try {
+			final long tracked = DataBufferLeak.tracked();
+			final long leaked = DataBufferLeak.leaked();
+
+			// 正常释放
+			DataBuffer buffer = DataBuffer.instance();
+			final int live = DataBuffer.liveCount();
+			assertEquals(DataBufferLeak.tracked(), tracked + 1);
+			buffer.writeInt(1);
+			buffer.release();
+			assertEquals(DataBufferLeak.tracked(), tracked);
+			assertEquals(DataBuffer.liveCount(), live - 1);
+
+			// 未释放
+			buffer = leak();
+			buffer = null;
+			for (int index = 0; index < 100 && DataBufferLeak.leaked() == leaked; index++) {
+				System.gc();
+				Thread.sleep(10);
+			}
+			assertEquals(DataBufferLeak.leaked(), leaked + 1);
+			assertEquals(DataBufferLeak.tracked(), tracked);
+			assertNotNull(site.get());
+			assertTrue(site.get().getStackTrace().length > 0);
+		} finally {
+			DataBufferLeak.setSample(0);
+			DataBufferLeak.setReporter(Throwable::printStackTrace);
+		}
+	}
+
+	private static DataBuffer leak() throws IOException {
+		final DataBuffer buffer = DataBuffer.instance();
+		buffer.writeInt(1);
+		return buffer;
+	}
+}
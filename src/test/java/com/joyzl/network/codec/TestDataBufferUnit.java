@@ -281,4 +281,56 @@ class TestDataBufferUnit {
 		assertEquals(b.remaining(), 0);
 		assertEquals(unit.sent(), 0);
 	}
-}
\ No newline at end of file
+
+	@Test
+	void testPools() {
+		// 容量级别
+		assertEquals(DataBufferUnit.pool(0).bytes(), DataBufferUnit.BYTES);
+		assertEquals(DataBufferUnit.pool(DataBufferUnit.BYTES).bytes(), DataBufferUnit.BYTES);
+		assertEquals(DataBufferUnit.pool(DataBufferUnit.BYTES + 1).bytes(), DataBufferUnit.BYTES_MEDIUM);
+		assertEquals(DataBufferUnit.pool(DataBufferUnit.BYTES_MEDIUM + 1).bytes(), DataBufferUnit.BYTES_LARGE);
+		assertEquals(DataBufferUnit.pool(Integer.MAX_VALUE).bytes(), DataBufferUnit.BYTES_LARGE);
+
+		// 大单元读写位置超过16位
+		final DataBufferUnit large = DataBufferUnit.pool(DataBufferUnit.BYTES_LARGE).get();
+		assertEquals(large.capacity(), DataBufferUnit.BYTES_LARGE);
+		ByteBuffer b = large.receive();
+		assertEquals(b.remaining(), DataBufferUnit.BYTES_LARGE);
+		while (b.hasRemaining()) {
+			b.put((byte) 1);
+		}
+		assertEquals(large.received(), DataBufferUnit.BYTES_LARGE);
+		assertEquals(large.isFull(), true);
+		large.readSkip(100);
+		large.mark();
+		large.readSkip(100);
+		large.reset();
+		assertEquals(large.readable(), DataBufferUnit.BYTES_LARGE - 100);
+
+		// 扩展单元容量级别相同
+		final DataBufferUnit next = large.extend();
+		assertEquals(next.capacity(), DataBufferUnit.BYTES_LARGE);
+		large.release();
+
+		// 水位
+		final DataBufferUnit.Pool pool = DataBufferUnit.pool(DataBufferUnit.BYTES_MEDIUM);
+		final int low = pool.low();
+		final int high = pool.high();
+		try {
+			pool.watermark(0, 2);
+			final DataBufferUnit[] units = new DataBufferUnit[100];
+			for (int index = 0; index < units.length; index++) {
+				units[index] = pool.get();
+			}
+			for (int index = 0; index < units.length; index++) {
+				units[index].release();
+			}
+			assertEquals(pool.free() <= 2, true);
+			DataBufferUnit.POOL_DAEMON.run();
+			DataBufferUnit.POOL_DAEMON.run();
+			assertEquals(pool.free(), 0);
+		} finally {
+			pool.watermark(low, high);
+		}
+	}
+}
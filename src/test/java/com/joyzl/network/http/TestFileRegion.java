@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.buffer.DataBuffer;
+import com.joyzl.network.http.MultipartRange.MultipartRanges;
+
+public class TestFileRegion {
+
+	static File file;
+	static byte[] data;
+
+	@BeforeAll
+	static void create() throws IOException {
+		data = new byte[4 * 1024 * 1024 + 123];
+		new Random(1).nextBytes(data);
+		file = File.createTempFile("region", ".bin");
+		try (FileOutputStream output = new FileOutputStream(file)) {
+			output.write(data);
+		}
+	}
+
+	@AfterAll
+	static void delete() {
+		file.delete();
+	}
+
+	/** 按发送块编码全部内容并校验 */
+	static int encode(Response response, byte[] expected, int offset) throws IOException {
+		int index = offset;
+		boolean end;
+		do {
+			final DataBuffer buffer = DataBuffer.instance();
+			end = HTTP1Coder.writeContentIdentity(buffer, response);
+			assertTrue(buffer.readable() > 0);
+			while (buffer.readable() > 0) {
+				assertEquals(buffer.readByte(), expected[index++]);
+			}
+			buffer.release();
+		} while (!end);
+		return index - offset;
+	}
+
+	@Test
+	void testWhole() throws Exception {
+		final Response response = new Response();
+		response.setContent(new FileRegion(file));
+		assertEquals(encode(response, data, 0), data.length);
+		response.clearContent();
+	}
+
+	@Test
+	void testRange() throws Exception {
+		final Response response = new Response();
+		response.setContent(new FileRegion(file, 1000, 200000));
+		assertEquals(encode(response, data, 1000), 200000);
+		response.clearContent();
+
+		// 块边界对齐时不产生零数据编码
+		response.setContent(new FileRegion(file, 7, HTTP1Coder.BLOCK_BYTES * 2));
+		assertEquals(encode(response, data, 7), HTTP1Coder.BLOCK_BYTES * 2);
+		response.clearContent();
+
+		// 流方式读取兼容
+		try (FileRegion region = new FileRegion(file, data.length - 10, 10)) {
+			assertEquals(region.available(), 10);
+			assertEquals(region.read(), data[data.length - 10] & 0xFF);
+			final byte[] bytes = new byte[20];
+			assertEquals(region.read(bytes, 0, 20), 9);
+			assertEquals(region.read(), -1);
+		}
+	}
+
+	@Test
+	void testMultipart() throws Exception {
+		final MultipartRanges parts = new MultipartRanges();
+		MultipartRange part = new MultipartRange(data.length, 0, 99);
+		part.setContentType(MIMEType.APPLICATION_OCTET_STREAM);
+		part.setContent(new FileRegion(file, 0, 100));
+		parts.add(part);
+		part = new MultipartRange(data.length, 5000, 5099);
+		part.setContentType(MIMEType.APPLICATION_OCTET_STREAM);
+		part.setContent(new FileRegion(file, 5000, 100));
+		parts.add(part);
+
+		final Response response = new Response();
+		response.setContent(parts);
+		final DataBuffer buffer = DataBuffer.instance();
+		assertTrue(HTTP1Coder.writeContentMultipart(buffer, response));
+		assertTrue(buffer.readable() > 200);
+		buffer.release();
+		response.clearContent();
+		assertNull(part.getContent());
+	}
+
+	@Test
+	void testPerformance() throws Exception {
+		final int count = 2;
+		final Response response = new Response();
+		long time = System.currentTimeMillis();
+		for (int i = 0; i < count; i++) {
+			response.setContent(new FileInputStream(file));
+			send(response);
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("InputStream:" + time + "ms");
+
+		time = System.currentTimeMillis();
+		for (int i = 0; i < count; i++) {
+			response.setContent(new FileRegion(file));
+			send(response);
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("FileRegion:" + time + "ms");
+	}
+
+	static void send(Response response) throws Exception {
+		DataBuffer buffer;
+		boolean end;
+		do {
+			buffer = DataBuffer.instance();
+			end = HTTP1Coder.writeContentIdentity(buffer, response);
+			buffer.release();
+		} while (!end);
+		response.clearContent();
+	}
+
+	@Test
+	void testBufferRegion() throws Exception {
+		final ByteBuffer shared = ByteBuffer.allocateDirect(data.length);
+		shared.put(data).flip();
+
+		final Response response = new Response();
+		response.setContent(new BufferRegion(shared));
+		assertEquals(encode(response, data, 0), data.length);
+		response.clearContent();
+
+		// 切片视图不改变共享缓存
+		response.setContent(new BufferRegion(shared, 99, HTTP1Coder.BLOCK_BYTES * 3));
+		assertEquals(encode(response, data, 99), HTTP1Coder.BLOCK_BYTES * 3);
+		response.clearContent();
+		assertEquals(shared.position(), 0);
+		assertEquals(shared.limit(), data.length);
+	}
+}
@@ -7,6 +7,10 @@ package com.joyzl.network.http;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 import com.joyzl.network.http.HPACK.Item;
@@ -85,5 +89,101 @@ public class TestHPACK {
 
 		assertEquals(hpack.findName("Accept_Charset"), 62);
 		assertEquals(hpack.findValue(62, null), 62);
+
+		// 相差32的非字母字符不能匹配
+		hpack.add("x-token", "t");
+		assertEquals(hpack.findName("X-TOKEN"), 62);
+		assertEquals(hpack.findName("x\rtoken"), 0);
+		assertEquals(hpack.findValue(62, "t"), 62);
+	}
+
+	@Test
+	void testStaticIndex() {
+		final HPACK hpack = new HPACK();
+		assertEquals(hpack.findName(HTTP1.Content_Type), 31);
+		assertEquals(hpack.findName("X-Unknown"), 0);
+		// 值仅匹配同名条目
+		assertEquals(hpack.findValue(16, "GET"), 0);
+		assertEquals(hpack.findValue(2, "/"), 0);
+		// 静态名称的值可匹配动态条目
+		hpack.add(HTTP1.Content_Type, "text/html");
+		assertEquals(hpack.findValue(31, "text/html"), 62);
+	}
+
+	@Test
+	void testDynamicIndex() {
+		// 与线性查找的结果比对，覆盖逐出、扩展和大小更新
+		final HPACK hpack = new HPACK();
+		final List<String[]> list = new ArrayList<>();
+		final Random random = new Random(1);
+		int max = 4096, size = 0;
+		String name, value;
+		for (int n = 0; n < 20000; n++) {
+			if (n % 5000 == 4999) {
+				max = max == 4096 ? 65536 : 1024;
+				hpack.update(max);
+				while (size > max) {
+					final String[] item = list.remove(list.size() - 1);
+					size -= 32 + item[0].length() + item[1].length();
+				}
+			}
+			name = "name-" + random.nextInt(40);
+			value = "value-" + random.nextInt(20);
+			hpack.add(name, value);
+			list.add(0, new String[] { name, value });
+			size += 32 + name.length() + value.length();
+			while (size > max) {
+				final String[] item = list.remove(list.size() - 1);
+				size -= 32 + item[0].length() + item[1].length();
+			}
+
+			name = "NAME-" + random.nextInt(40);
+			value = "value-" + random.nextInt(20);
+			int expectName = 0, expectValue = 0;
+			for (int index = 0; index < list.size(); index++) {
+				if (list.get(index)[0].equalsIgnoreCase(name)) {
+					if (expectName == 0) {
+						expectName = index + 1 + HPACK.STATIC_TABLE_SIZE;
+					}
+					if (list.get(index)[1].equals(value)) {
+						expectValue = index + 1 + HPACK.STATIC_TABLE_SIZE;
+						break;
+					}
+				}
+			}
+			assertEquals(hpack.findName(name), expectName);
+			if (expectName > 0) {
+				assertEquals(hpack.findValue(expectName, value), expectValue);
+			}
+		}
+	}
+
+	@Test
+	void testPerformance() {
+		final HPACK hpack = new HPACK();
+		hpack.update(65536);
+		final String[] names = new String[256];
+		final String[] values = new String[256];
+		for (int index = 0; index < names.length; index++) {
+			names[index] = "x-custom-header-" + index;
+			values[index] = "value-" + index;
+			hpack.add(names[index], values[index]);
+		}
+
+		final int count = 1000000;
+		int n = 0;
+		long time = System.currentTimeMillis();
+		for (int i = 0; i < count; i++) {
+			n += hpack.findValue(hpack.findName(names[i & 255]), values[i & 255]);
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("动态表查找耗时:" + time + "ms " + n);
+
+		time = System.currentTimeMillis();
+		for (int i = 0; i < count; i++) {
+			n += hpack.findValue(hpack.findName(HTTP1.Content_Type), "text/html");
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("静态表查找耗时:" + time + "ms " + n);
 	}
 }
\ No newline at end of file
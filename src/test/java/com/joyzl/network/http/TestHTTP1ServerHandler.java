@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.Executor;
+
+class TestHTTP1ServerHandler {
+
+	static class Handler extends HTTP1ServerHandler {
+
+		final List<Request> requests = new ArrayList<>();
+		final List<Response> responses = new ArrayList<>();
+		final CountDownLatch sent = new CountDownLatch(2);
+
+		@Override
+		protected void received(HTTPSlave slave, Request request, Response response) {
+			requests.add(request);
+			responses.add(response);
+			response.addHeader(ContentLength.NAME, "0");
+			response.addHeader("X-Index", Integer.toString(requests.size()));
+			response.setStatus(HTTPStatus.OK);
+			slave.send(response);
+		}
+
+		@Override
+		public void sent(HTTPSlave slave, Message message) throws Exception {
+			super.sent(slave, message);
+			if (message != null) {
+				sent.countDown();
+			}
+		}
+
+		@Override
+		public void error(HTTPSlave slave, Throwable e) {
+			e.printStackTrace();
+		}
+	}
+
+	/** 读取响应直至空行 */
+	static String response(InputStream input) throws Exception {
+		final StringBuilder text = new StringBuilder();
+		int c;
+		while (text.indexOf("\r\n\r\n") < 0 && (c = input.read()) >= 0) {
+			text.append((char) c);
+		}
+		return text.toString();
+	}
+
+	@Test
+	void testHeadersRetained() throws Exception {
+		Executor.initialize(2);
+		final Handler handler = new Handler();
+		final HTTPServer server = new HTTPServer(handler, "127.0.0.1", 19095);
+		server.receive();
+		try (Socket socket = new Socket("127.0.0.1", 19095)) {
+			// 长连接的两个请求
+			final OutputStream output = socket.getOutputStream();
+			final InputStream input = socket.getInputStream();
+			output.write("GET /a HTTP/1.1\r\nHost: a.joyzl.com\r\nX-Test: 1\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+			output.flush();
+			assertTrue(response(input).indexOf("X-Index: 1") > 0);
+			output.write("GET /b HTTP/1.1\r\nHost: b.joyzl.com\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+			output.flush();
+			assertTrue(response(input).indexOf("X-Index: 2") > 0);
+			assertTrue(handler.sent.await(3, TimeUnit.SECONDS));
+
+			// 处理和发送完成后消息仍可访问标头
+			assertEquals(handler.requests.size(), 2);
+			assertEquals(handler.requests.get(0).getHeader(Host.NAME), "a.joyzl.com");
+			assertEquals(handler.requests.get(0).getHeader("X-Test"), "1");
+			assertTrue(handler.requests.get(0).hasHeader(Host.NAME));
+			assertEquals(handler.requests.get(1).getHeader(Host.NAME), "b.joyzl.com");
+			assertTrue(!handler.requests.get(1).hasHeader("X-Test"));
+			assertEquals(handler.responses.get(0).getHeader("X-Index"), "1");
+			assertEquals(handler.responses.get(1).getHeaders().get("X-Index"), "2");
+			assertTrue(handler.requests.get(0).getHeaders() != handler.requests.get(1).getHeaders());
+			assertTrue(handler.responses.get(0).getHeaders() != handler.requests.get(1).getHeaders());
+		} finally {
+			server.close();
+			Executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.buffer.DataBuffer;
+
+public class TestHTTP2Flow {
+
+	@Test
+	void testSend() {
+		final HTTP2Flow flow = new HTTP2Flow();
+		assertEquals(flow.sendable(1, 16384), 16384);
+
+		// 流窗口耗尽
+		flow.sent(1, 16384);
+		flow.sent(1, 16384);
+		flow.sent(1, 16384);
+		assertEquals(flow.sendable(1, 16384), 16383);
+		flow.sent(1, 16383);
+		assertEquals(flow.sendable(1, 16384), 0);
+		// 连接窗口同样耗尽
+		assertEquals(flow.sendable(3, 16384), 0);
+
+		final Response response = new Response();
+		response.id(1);
+		assertTrue(flow.block(response));
+		assertNull(flow.resume());
+
+		// 连接窗口恢复但流窗口仍耗尽
+		assertTrue(flow.update(0, 100000));
+		assertNull(flow.resume());
+		assertEquals(flow.sendable(3, 16384), 16384);
+
+		// 流窗口恢复
+		assertTrue(flow.update(1, 1000));
+		assertEquals(flow.resume(), response);
+		assertNull(flow.resume());
+		assertEquals(flow.sendable(1, 16384), 1000);
+
+		// 窗口溢出
+		assertFalse(flow.update(0, Integer.MAX_VALUE));
+		assertFalse(flow.update(1, Integer.MAX_VALUE));
+		// 已关闭的流忽略
+		flow.close(1);
+		assertTrue(flow.update(1, Integer.MAX_VALUE));
+	}
+
+	@Test
+	void testInitial() {
+		final HTTP2Flow flow = new HTTP2Flow();
+		flow.sent(1, 65535);
+		assertEquals(flow.sendable(1, 16384), 0);
+		assertTrue(flow.update(0, 65535));
+
+		// 初始窗口变更调整已有流窗口
+		assertTrue(flow.initial(65535 + 100));
+		assertEquals(flow.sendable(1, 16384), 100);
+		assertTrue(flow.initial(1000));
+		assertEquals(flow.sendable(1, 16384), 0);
+		assertEquals(flow.sendable(3, 16384), 1000);
+
+		flow.open(3);
+		assertTrue(flow.update(3, 100));
+		assertFalse(flow.initial(Integer.MAX_VALUE));
+	}
+
+	@Test
+	void testShrink() throws Exception {
+		final HTTP2Flow flow = new HTTP2Flow();
+		final Response response = new Response();
+		response.id(1);
+		response.setContent("TEXT");
+		// 调度时窗口可发送
+		assertFalse(flow.block(response));
+
+		// 编码之前SETTINGS将初始窗口缩小为零
+		assertTrue(flow.initial(0));
+		assertEquals(flow.sendable(1, 16384), 0);
+		final DataBuffer buffer = DataBuffer.instance();
+		HTTP2Coder.writeData(buffer, response.id());
+		assertEquals(buffer.readable(), 9);
+		assertEquals(buffer.get(3), HTTP2Coder.DATA);
+		assertEquals(buffer.get(4), (byte) 0);
+		buffer.release();
+
+		// 空数据帧发送之后重新阻塞，窗口恢复后取回
+		assertTrue(flow.block(response));
+		assertNull(flow.resume());
+		assertTrue(flow.initial(65535));
+		assertEquals(flow.resume(), response);
+		response.clearContent();
+	}
+
+	@Test
+	void testReceive() {
+		final HTTP2Flow flow = new HTTP2Flow();
+		flow.open(1);
+		assertTrue(flow.receive(1, 16384));
+		assertEquals(flow.receiveUpdate(), 0);
+		assertEquals(flow.receiveUpdate(1), 0);
+		assertTrue(flow.receive(1, 16384));
+		assertEquals(flow.receiveUpdate(), 32768);
+		assertEquals(flow.receiveUpdate(1), 32768);
+		assertEquals(flow.receiveUpdate(), 0);
+
+		// 超过接收窗口
+		assertTrue(flow.receive(1, 65535));
+		assertFalse(flow.receive(1, 1));
+	}
+
+	@Test
+	void testWriteData() throws Exception {
+		final Response response = new Response();
+		response.id(1);
+		final DataBuffer content = DataBuffer.instance();
+		for (int index = 0; index < 1000; index++) {
+			content.writeByte(index);
+		}
+		response.setContent(content);
+
+		// 按窗口限制分帧
+		final DataBuffer buffer = DataBuffer.instance();
+		assertFalse(HTTP2Coder.writeData(response, buffer, 600));
+		assertEquals(buffer.readable(), 9 + 600);
+		buffer.clear();
+
+		// 填充不超过限制长度
+		assertTrue(HTTP2Coder.writeData(response, buffer, 405));
+		assertEquals(buffer.readable(), 9 + 405);
+		buffer.clear();
+
+		response.setContent("TEXT");
+		assertFalse(HTTP2Coder.writeData(response, buffer, 2));
+		assertEquals(buffer.readable(), 9 + 2);
+		buffer.clear();
+		assertTrue(HTTP2Coder.writeData(response, buffer, 2));
+		assertEquals(buffer.readable(), 9 + 2);
+		buffer.release();
+		response.clearContent();
+	}
+}
@@ -217,6 +217,111 @@ class TestHTTPCoder {
 		assertEquals(request.getHeader(Connection.NAME), Connection.KEEP_ALIVE);
 	}
 
+	@Test
+	void testIncremental() throws Exception {
+		// 测试样本，逐字节到达
+		final DataBuffer source = DataBuffer.instance();
+		source.writeASCIIs("GET /a%20b/c.html?x=1 HTTP/1.1\r\n");
+		source.writeASCIIs("Host: www.joyzl.com\r\n");
+		source.writeASCIIs("Content-Type: text/html\r\n");
+		source.writeASCIIs("X-Custom:  value\n");
+		source.writeASCIIs("\r\n");
+
+		final Request request = new Request();
+		int calls = 0;
+		while (!HTTP1Coder.readCommand(buffer, request)) {
+			assertEquals(buffer.readable(), 0);
+			buffer.writeByte(source.readByte());
+			calls++;
+		}
+		assertTrue(calls > 1);
+		assertTrue(HTTP1.GET == request.getMethod());
+		assertTrue(HTTP1.V11 == request.getVersion());
+		assertEquals(request.getURL(), "/a b/c.html?x=1");
+		assertEquals(request.getPath(), "/a b/c.html");
+		assertEquals(request.getQuery(), "?x=1");
+
+		while (!HTTP1Coder.readHeaders(buffer, request)) {
+			assertEquals(buffer.readable(), 0);
+			buffer.writeByte(source.readByte());
+		}
+		assertEquals(source.readable(), 0);
+		assertEquals(request.getHeader(Host.NAME), "www.joyzl.com");
+		assertEquals(request.getHeader(ContentType.NAME), "text/html");
+		assertEquals(request.getHeader("X-Custom"), "value");
+		for (String name : request.getHeaders().keySet()) {
+			if (name.equals(HTTP1.Content_Type)) {
+				assertTrue(HTTP1.Content_Type == name);
+			}
+		}
+
+		// 响应首行分两次到达
+		final Response response = new Response();
+		buffer.writeASCIIs("HTTP/1.1 40");
+		assertTrue(!HTTP1Coder.readCommand(buffer, response));
+		buffer.writeASCIIs("4 Not Found\r\n");
+		assertTrue(HTTP1Coder.readCommand(buffer, response));
+		assertTrue(HTTP1.V11 == response.getVersion());
+		assertEquals(response.getStatus(), 404);
+		assertEquals(response.getText(), "Not Found");
+		source.release();
+	}
+
+	@Test
+	void testToken() throws Exception {
+		// 连接持有的暂存在请求之间重用
+		final HTTP1Token token = new HTTP1Token();
+
+		// 中断的请求
+		Request request = new Request();
+		request.token(token);
+		buffer.writeASCIIs("POST /x HT");
+		assertTrue(!HTTP1Coder.readCommand(buffer, request));
+		assertTrue(token.size() > 0);
+
+		for (int index = 0; index < 3; index++) {
+			request = new Request();
+			request.token(token);
+			assertEquals(token.size(), 0);
+			buffer.writeASCIIs("GET /" + index + " HTTP/1.1\r\nHost: www.joyzl.com\r\n\r\n");
+			assertTrue(HTTP1Coder.readCommand(buffer, request));
+			assertTrue(HTTP1Coder.readHeaders(buffer, request));
+			assertTrue(HTTP1.GET == request.getMethod());
+			assertEquals(request.getURL(), "/" + index);
+			assertEquals(request.getHeader(Host.NAME), "www.joyzl.com");
+			assertEquals(token.size(), 0);
+			assertNull(token.name);
+		}
+	}
+
+	@Test
+	void testNearMiss() throws Exception {
+		// 与常量仅部分字符相同的名称不能匹配为常量
+		buffer.writeASCIIs("GUT / HTTP/1.1\r\n");
+		buffer.writeASCIIs("Dost: evil.com\r\n");
+		buffer.writeASCIIs("Xontent-Length: 10\r\n");
+		buffer.writeASCIIs("\r\n");
+
+		final Request request = new Request();
+		assertTrue(HTTP1Coder.readCommand(buffer, request));
+		assertEquals(request.getMethod(), "GUT");
+		assertTrue(HTTP1.PUT != request.getMethod());
+		assertTrue(HTTP1Coder.readHeaders(buffer, request));
+		assertNull(request.getHeader(Host.NAME));
+		assertNull(request.getHeader(ContentLength.NAME));
+		assertEquals(request.getHeader("Dost"), "evil.com");
+		assertEquals(request.getHeader("Xontent-Length"), "10");
+
+		// 仅字母忽略大小写
+		assertTrue(HTTP1.HEADERS.take("content-length") == HTTP1.Content_Length);
+		assertTrue(HTTP1.HEADERS.take("CONTENT-LENGTH") == HTTP1.Content_Length);
+		assertNull(HTTP1.HEADERS.take("Content\rLength"));
+		assertNull(HTTP1.HEADERS.take("Xontent-Length"));
+		assertNull(HTTP1.HEADERS.take("Dost"));
+		assertNull(HTTP1.METHODS.take("GUT"));
+		assertTrue(HTTP1.METHODS.take("get") == HTTP1.GET);
+	}
+
 	@Test
 	void testQuery() {
 		final Request request = new Request();
@@ -4,8 +4,11 @@
  */
 package com.joyzl.network.http;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.format.DateTimeFormatter;
@@ -16,6 +19,8 @@ import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
+import com.joyzl.network.buffer.DataBuffer;
+
 /**
  * HTTP Header 相关测试
  * 
@@ -343,6 +348,155 @@ class TestHTTPHeaders {
 		System.out.println(c2);
 	}
 
+	@Test
+	void testIds() {
+		// 所有常用标头均可定位且编号唯一
+		int size = 0;
+		for (String name : HTTP1.HEADERS) {
+			assertEquals(HTTPHeaders.id(name), HTTPHeaders.id(name.toLowerCase()));
+			assertEquals(HTTPHeaders.id(name), HTTPHeaders.id(name.toUpperCase()));
+			assertTrue(HTTPHeaders.id(name) >= 0);
+			size++;
+		}
+		assertEquals(size, HTTP1.HEADERS.size());
+		assertEquals(HTTPHeaders.id("X-Not-Standard"), -1);
+
+		// 仅字母忽略大小写，相差32的其它字符不相同
+		assertTrue(HTTPHeaders.id("content-LENGTH") >= 0);
+		assertEquals(HTTPHeaders.id("content\rlength"), -1);
+		assertEquals(HTTPHeaders.id("Content\rLength"), -1);
+		assertEquals(HTTPHeaders.id("\u0003ontent-Length"), -1);
+		assertFalse(HTTPHeaders.equal("a-b", "a\rb"));
+		assertFalse(HTTPHeaders.equal("@", "`"));
+		assertFalse(HTTPHeaders.equal("x1", "x\u0011"));
+		assertTrue(HTTPHeaders.equal("Content-Length", "cONTENT-lENGTH"));
+		assertEquals(HTTPHeaders.hash("Content-Length"), HTTPHeaders.hash("content-length"));
+	}
+
+	@Test
+	void testHTTPHeaders() {
+		final HTTPHeaders headers = new HTTPHeaders();
+		assertTrue(headers.isEmpty());
+
+		headers.put(HTTP1.Content_Type, "text/html");
+		headers.put("content-length", "10");
+		headers.put("X-Custom", "A");
+		assertEquals(headers.size(), 3);
+		assertEquals(headers.get("Content-Type"), "text/html");
+		assertEquals(headers.get("CONTENT-TYPE"), "text/html");
+		assertEquals(headers.get(HTTP1.Content_Length), "10");
+		assertEquals(headers.get("x-custom"), "A");
+		assertTrue(headers.containsKey(HTTP1.Content_Length));
+		assertFalse(headers.containsKey(HTTP1.Host));
+
+		assertEquals(headers.put(HTTP1.Content_Type, "text/plain"), "text/html");
+		assertEquals(headers.get(HTTP1.Content_Type), "text/plain");
+		assertEquals(headers.size(), 3);
+
+		assertEquals(headers.remove(HTTP1.Content_Type), "text/plain");
+		assertNull(headers.get(HTTP1.Content_Type));
+		assertEquals(headers.get(HTTP1.Content_Length), "10");
+		assertEquals(headers.size(), 2);
+
+		int size = 0;
+		for (Map.Entry<String, String> entry : headers.entrySet()) {
+			assertEquals(headers.get(entry.getKey()), entry.getValue());
+			size++;
+		}
+		assertEquals(size, 2);
+
+		headers.clear();
+		assertTrue(headers.isEmpty());
+		assertNull(headers.get(HTTP1.Content_Length));
+		assertNull(headers.get("X-Custom"));
+	}
+
+	@Test
+	void testMultiple() {
+		final HTTPHeaders headers = new HTTPHeaders();
+		headers.add(HTTP1.Set_Cookie, "a=1");
+		headers.add(HTTP1.Accept, "text/html");
+		headers.add(HTTP1.Set_Cookie, "b=2");
+		headers.add(HTTP1.Accept, "text/plain");
+		headers.add(HTTP1.Cookie, "x=1");
+		headers.add(HTTP1.Cookie, "y=2");
+		headers.add(HTTP1.Set_Cookie, "c=3");
+
+		assertEquals(headers.get(HTTP1.Set_Cookie), "a=1");
+		assertArrayEquals(headers.gets(HTTP1.Set_Cookie), new String[] { "a=1", "b=2", "c=3" });
+		assertEquals(headers.get(HTTP1.Accept), "text/html, text/plain");
+		assertEquals(headers.get(HTTP1.Cookie), "x=1; y=2");
+		assertEquals(headers.size(), 5);
+
+		// 删除首项后其余位置修正
+		headers.remove(HTTP1.Set_Cookie);
+		assertEquals(headers.size(), 2);
+		assertEquals(headers.get(HTTP1.Accept), "text/html, text/plain");
+		assertEquals(headers.get(HTTP1.Cookie), "x=1; y=2");
+		assertEquals(headers.gets(HTTP1.Set_Cookie).length, 0);
+
+		headers.add(HTTP1.Set_Cookie, "a=1");
+		headers.add(HTTP1.Set_Cookie, "b=2");
+		headers.put(HTTP1.Set_Cookie, "z=0");
+		assertArrayEquals(headers.gets(HTTP1.Set_Cookie), new String[] { "z=0" });
+		assertEquals(headers.size(), 3);
+	}
+
+	@Test
+	void testWrite() throws Exception {
+		final Response response = new Response();
+		response.setStatus(HTTPStatus.OK);
+		response.appendHeader(HTTP1.Set_Cookie, "a=1");
+		response.appendHeader(HTTP1.Set_Cookie, "b=2");
+		response.addHeader(HTTP1.Content_Length, "0");
+		response.addHeader("X-Custom", "A");
+
+		final DataBuffer buffer = DataBuffer.instance();
+		HTTP1Coder.writeCommand(buffer, response);
+		HTTP1Coder.writeHeaders(buffer, response);
+
+		final Response decoded = new Response();
+		assertTrue(HTTP1Coder.readCommand(buffer, decoded));
+		assertTrue(HTTP1Coder.readHeaders(buffer, decoded));
+		assertArrayEquals(decoded.getHeaders().gets(HTTP1.Set_Cookie), new String[] { "a=1", "b=2" });
+		assertEquals(decoded.getHeader(HTTP1.Content_Length), "0");
+		assertEquals(decoded.getHeader("x-custom"), "A");
+		buffer.release();
+	}
+
+	@Test
+	void testHTTPHeadersPerformance() {
+		final int SIZE = 1000000;
+		final HTTPHeaders headers = new HTTPHeaders();
+		final Map<String, String> map = new HashMap<>();
+
+		long time = System.currentTimeMillis();
+		for (int index = 0; index < SIZE; index++) {
+			headers.put(HTTP1.Host, "www.joyzl.com");
+			headers.put(HTTP1.Accept, "text/html");
+			headers.put(HTTP1.Connection, "keep-alive");
+			headers.put(HTTP1.User_Agent, "test");
+			headers.get(HTTP1.Host);
+			headers.get(HTTP1.Content_Length);
+			headers.clear();
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("HTTPHeaders:" + time);
+
+		time = System.currentTimeMillis();
+		for (int index = 0; index < SIZE; index++) {
+			map.put(HTTP1.Host, "www.joyzl.com");
+			map.put(HTTP1.Accept, "text/html");
+			map.put(HTTP1.Connection, "keep-alive");
+			map.put(HTTP1.User_Agent, "test");
+			map.get(HTTP1.Host);
+			map.get(HTTP1.Content_Length);
+			map.clear();
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("HashMap:" + time);
+	}
+
 	final static String[] HEADERS = new String[] { //
 			HTTP1.Accept, //
 			HTTP1.Accept_Additions, //
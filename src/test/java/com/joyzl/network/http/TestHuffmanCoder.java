@@ -5,8 +5,10 @@
 package com.joyzl.network.http;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -33,7 +35,8 @@ public class TestHuffmanCoder {
 		final DataBuffer buffer = DataBuffer.instance();
 
 		final StringBuilder builder1 = new StringBuilder();
-		for (int c = 0; c <= 256; c++) {
+		// EOS(256)不能出现在编码中
+		for (int c = 0; c < 256; c++) {
 			builder1.append((char) c);
 		}
 
@@ -73,4 +76,104 @@ public class TestHuffmanCoder {
 		time = System.currentTimeMillis() - time;
 		System.out.println("霍夫曼解码耗时:" + time + "ms");
 	}
-}
\ No newline at end of file
+
+	@Test
+	void testRandom() throws IOException {
+		final DataBuffer buffer = DataBuffer.instance();
+		final StringBuilder builder1 = new StringBuilder();
+		final StringBuilder builder2 = new StringBuilder();
+		final Random random = new Random(2025);
+		int length;
+		for (int i = 0; i < 10000; i++) {
+			builder1.setLength(0);
+			length = random.nextInt(100);
+			while (length-- > 0) {
+				builder1.append((char) random.nextInt(256));
+			}
+			length = HuffmanCoder.byteSize(builder1);
+			HuffmanCoder.encode(buffer, builder1);
+			assertEquals(buffer.readable(), length);
+
+			builder2.setLength(0);
+			HuffmanCoder.decode(buffer, builder2, length);
+			assertEquals(builder2.toString(), builder1.toString());
+			assertEquals(buffer.readable(), 0);
+		}
+	}
+
+	@Test
+	void testInvalid() throws IOException {
+		final DataBuffer buffer = DataBuffer.instance();
+		final StringBuilder builder = new StringBuilder();
+
+		// EOS
+		buffer.writeByte(0xFF);
+		buffer.writeByte(0xFF);
+		buffer.writeByte(0xFF);
+		buffer.writeByte(0xFF);
+		assertThrows(IOException.class, () -> HuffmanCoder.decode(buffer, builder, 4));
+		buffer.clear();
+
+		// 填充达到8位
+		// '0'(00000) + 11111111111
+		buffer.writeByte(0b00000111);
+		buffer.writeByte(0xFF);
+		assertThrows(IOException.class, () -> HuffmanCoder.decode(buffer, builder, 2));
+		buffer.clear();
+
+		// 填充不是EOS高位
+		// 'a'(00011) + 010
+		buffer.writeByte(0b00011010);
+		assertThrows(IOException.class, () -> HuffmanCoder.decode(buffer, builder, 1));
+		buffer.clear();
+
+		// 有效填充
+		// 'a'(00011) + 111
+		builder.setLength(0);
+		buffer.writeByte(0b00011111);
+		HuffmanCoder.decode(buffer, builder, 1);
+		assertEquals(builder.toString(), "a");
+	}
+
+	@Test
+	void testHeaders() throws IOException {
+		final DataBuffer buffer = DataBuffer.instance();
+		final StringBuilder builder = new StringBuilder();
+
+		final int count = 100000;
+		final String[] texts = new String[] { //
+				"Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/125.0.0.0 Safari/537.36", //
+				"text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8", //
+				"gzip, deflate, br, zstd", //
+				"zh-CN,zh;q=0.9,en;q=0.8", //
+				"Mon, 21 Oct 2013 20:13:21 GMT", //
+				"private, max-age=0, must-revalidate", //
+				"sessionid=38afes7a8; Path=/; HttpOnly; Secure" };
+		int chars = 0;
+		for (String text : texts) {
+			chars += text.length();
+		}
+		System.out.println("霍夫曼编编码字符:" + count * chars);
+
+		long time = System.currentTimeMillis();
+		for (int i = 0; i < count; i++) {
+			for (String text : texts) {
+				HuffmanCoder.encode(buffer, text);
+			}
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("霍夫曼编编码耗时:" + time + "ms");
+		System.out.println("霍夫曼编编码长度:" + buffer.readable());
+
+		time = System.currentTimeMillis();
+		for (int i = 0; i < count; i++) {
+			for (String text : texts) {
+				builder.setLength(0);
+				HuffmanCoder.decode(buffer, builder, HuffmanCoder.byteSize(text));
+			}
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("霍夫曼解码耗时:" + time + "ms");
+		assertEquals(builder.toString(), texts[texts.length - 1]);
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TestPriorityStream {
+
+	static Response response(int id, int size) {
+		final Response response = new Response();
+		response.id(id);
+		response.addHeader(HTTP1.Content_Length, Integer.toString(size));
+		return response;
+	}
+
+	@Test
+	void testParse() {
+		assertEquals(PriorityStream.parse(null), -1);
+		assertEquals(PriorityStream.parse("u=0"), 0);
+		assertEquals(PriorityStream.parse("u=5, i"), 5 << 1 | 1);
+		assertEquals(PriorityStream.parse("i=?0, u=2"), 2 << 1);
+		assertEquals(PriorityStream.parse("i=?1"), 3 << 1 | 1);
+		assertEquals(PriorityStream.parse("u=9"), -1);
+		assertEquals(PriorityStream.parse("x=1, u=1"), 1 << 1);
+
+		assertEquals(PriorityStream.urgency(1), 7);
+		assertEquals(PriorityStream.urgency(16), 3);
+		assertEquals(PriorityStream.urgency(256), 0);
+	}
+
+	@Test
+	void testOrder() throws Exception {
+		final PriorityStream stream = new PriorityStream();
+		assertNull(stream.stream());
+
+		final Response large1 = response(1, 10 << 20);
+		final Response large2 = response(3, 10 << 20);
+		final Response small = response(5, 1000);
+		final Response urgent = response(7, 1000);
+		urgent.setUrgency(0);
+		final Settings settings = new Settings();
+
+		stream.add(large1);
+		stream.add(large2);
+		// 大响应增量交错
+		assertEquals(stream.stream(), large1);
+		assertEquals(stream.stream(), large2);
+		assertEquals(stream.stream(), large1);
+
+		// 小响应超越大响应
+		stream.add(small);
+		assertEquals(stream.stream(), small);
+		stream.add(urgent);
+		assertEquals(stream.stream(), urgent);
+		// 非流消息最先
+		stream.add(settings);
+		assertEquals(stream.stream(), settings);
+		stream.remove();
+		assertEquals(stream.stream(), urgent);
+		stream.remove();
+		assertEquals(stream.stream(), small);
+		stream.remove();
+		assertEquals(stream.size(), 2);
+
+		// 优先级更新
+		stream.priority(3, 1, false);
+		assertEquals(stream.stream(), large2);
+		assertEquals(stream.stream(), large2);
+		stream.remove();
+		assertEquals(stream.stream(), large1);
+		stream.remove();
+		assertTrue(stream.isEmpty());
+		assertNull(stream.stream());
+	}
+
+	@Test
+	void testPending() throws Exception {
+		final PriorityStream stream = new PriorityStream();
+		// 优先级更新先于响应到达
+		stream.priority(5, 6, true);
+		stream.priority(3, 1, false);
+		stream.priority(3, 0, false);
+		final Response small = response(1, 1000);
+		final Response late = response(3, 10 << 20);
+		final Response low = response(5, 1000);
+		stream.add(small);
+		stream.add(late);
+		stream.add(low);
+		assertEquals(late.getUrgency(), 0);
+		assertEquals(low.getUrgency(), 6);
+		assertTrue(low.isIncremental());
+		assertEquals(stream.stream(), late);
+		stream.remove();
+		assertEquals(stream.stream(), small);
+		stream.remove();
+		assertEquals(stream.stream(), low);
+		stream.remove();
+
+		// 暂存数量有限，最早的更新被覆盖
+		for (int id = 101; id < 101 + PriorityStream.PENDING * 2 + 2; id += 2) {
+			stream.priority(id, 0, false);
+		}
+		final Response early = response(101, 1000);
+		final Response recent = response(101 + PriorityStream.PENDING * 2, 1000);
+		stream.add(early);
+		stream.add(recent);
+		assertEquals(early.getUrgency(), -1);
+		assertEquals(recent.getUrgency(), 0);
+		// 已应用的更新不再保留
+		stream.clear();
+		stream.add(recent);
+		assertEquals(recent.getUrgency(), 0);
+		final Response again = response(101 + PriorityStream.PENDING * 2, 1000);
+		stream.add(again);
+		assertEquals(again.getUrgency(), -1);
+	}
+
+	@Test
+	void testCapacity() throws Exception {
+		final PriorityStream stream = new PriorityStream(2);
+		// 客户端请求的响应和非流消息不受限制
+		for (int id = 1; id < 10; id += 2) {
+			stream.add(response(id, 1000));
+		}
+		stream.add(new Settings());
+		// 服务端发起的流
+		final Response a = response(2, 1000);
+		stream.add(a);
+		stream.add(response(4, 1000));
+		assertThrows(IllegalStateException.class, () -> stream.add(response(6, 1000)));
+		stream.remove(a);
+		stream.add(response(6, 1000));
+		stream.capacity(1);
+		assertEquals(stream.capacity(), 1);
+		assertThrows(IllegalStateException.class, () -> stream.add(response(8, 1000)));
+		stream.clear();
+		stream.add(response(8, 1000));
+	}
+
+	/**
+	 * 交错发送模拟：多个大文件下载进行中，陆续到达小响应(HTML/CSS/JSON)，
+	 * 统计小响应首帧之前和完成之前连接已发送的字节(以字节计量的首字节时间和完成时间)
+	 */
+	@Test
+	void testInterleaving() throws Exception {
+		final int frame = 16384;
+		long[] result = interleaving(new Stream<>(100), frame);
+		System.out.println("轮换调度首字节:" + result[0] + "KB 完成:" + result[1] + "KB");
+		result = interleaving(new PriorityStream(100), frame);
+		System.out.println("优先调度首字节:" + result[0] + "KB 完成:" + result[1] + "KB");
+		assertTrue(result[0] == 0);
+
+		final PriorityStream stream = new PriorityStream(100);
+		for (int id = 1; id < 200; id += 2) {
+			stream.add(response(id, (id % 3 == 0) ? 10 << 20 : 1000));
+		}
+		final int count = 1000000;
+		long time = System.currentTimeMillis();
+		for (int i = 0; i < count; i++) {
+			stream.stream();
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("优先调度选择耗时:" + time + "ms");
+	}
+
+	/** @return 小响应首帧之前和完成之前平均发送的KB */
+	static long[] interleaving(HTTP2Scheduler<Message> stream, int frame) {
+		final int[] remain = new int[128];
+		final long[] arrive = new long[128];
+		long sent = 0, first = 0, done = 0;
+		int smalls = 0;
+
+		// 六个大文件下载
+		for (int id = 1; id <= 11; id += 2) {
+			remain[id] = 8 << 20;
+			stream.add(response(id, remain[id]));
+		}
+		Message m;
+		int next = 13, frames = 0;
+		while (!stream.isEmpty()) {
+			// 每发送64帧到达一个小响应
+			if (frames > 0 && frames % 64 == 0 && next < 128) {
+				remain[next] = 48000;
+				arrive[next] = sent;
+				stream.add(response(next, remain[next]));
+				next += 2;
+			}
+			m = stream.stream();
+			final int id = m.id();
+			if (id > 11 && remain[id] == 48000) {
+				first += sent - arrive[id];
+				smalls++;
+			}
+			final int size = Math.min(frame, remain[id]);
+			remain[id] -= size;
+			sent += size;
+			frames++;
+			if (remain[id] == 0) {
+				if (id > 11) {
+					done += sent - arrive[id];
+				}
+				stream.remove();
+			}
+		}
+		return new long[] { first / smalls / 1024, done / smalls / 1024 };
+	}
+}
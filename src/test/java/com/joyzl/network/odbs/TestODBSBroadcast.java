@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.odbs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.buffer.DataBuffer;
+
+class TestODBSBroadcast {
+
+	static class Message extends ODBSMessage {
+	}
+
+	@Test
+	void testReference() throws IOException {
+		final AtomicInteger completed = new AtomicInteger();
+		final ODBSBroadcast broadcast = new ODBSBroadcast(new Message()) {
+			@Override
+			protected void completed() {
+				completed.incrementAndGet();
+			}
+		};
+		final DataBuffer body = DataBuffer.instance();
+		body.writeInt(1);
+		broadcast.prepare(body, 3);
+		assertEquals(broadcast.getTargets(), 3);
+		assertFalse(broadcast.isCompleted());
+		assertThrows(IllegalStateException.class, () -> broadcast.prepare(DataBuffer.instance(), 1));
+
+		broadcast.deliver(null);
+		broadcast.fail(null);
+		assertFalse(broadcast.isCompleted());
+		assertEquals(completed.get(), 0);
+
+		broadcast.deliver(null);
+		assertTrue(broadcast.isCompleted());
+		assertEquals(broadcast.getDelivered(), 2);
+		assertEquals(broadcast.getFailed(), 1);
+		assertEquals(completed.get(), 1);
+		// 编码数据已释放
+		assertThrows(IllegalStateException.class, () -> body.release());
+	}
+
+	@Test
+	void testEmpty() {
+		final ODBSBroadcast broadcast = new ODBSBroadcast(new Message());
+		broadcast.prepare(DataBuffer.instance(), 0);
+		assertTrue(broadcast.isCompleted());
+	}
+
+	@Test
+	void testStreamClear() throws IOException {
+		final ODBSBroadcast broadcast = new ODBSBroadcast(new Message());
+		broadcast.prepare(DataBuffer.instance(), 2);
+		final ODBSStream<ODBSMessage> a = new ODBSStream<>();
+		final ODBSStream<ODBSMessage> b = new ODBSStream<>();
+		a.add(new Message(), 2);
+		a.add(broadcast, 4);
+		b.add(broadcast, 2);
+
+		// 链路断开时清除的广播消息视为丢弃
+		a.clear(message -> {
+			if (message instanceof ODBSBroadcast m) {
+				m.fail(null);
+			}
+		});
+		b.clear(message -> {
+			if (message instanceof ODBSBroadcast m) {
+				m.fail(null);
+			}
+		});
+		assertEquals(broadcast.getFailed(), 2);
+		assertTrue(broadcast.isCompleted());
+		assertTrue(a.isEmpty());
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.odbs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.Executor;
+import com.joyzl.odbs.ODBS;
+
+class TestODBSClient {
+
+	static class Message extends ODBSMessage {
+	}
+
+	static class Handler extends ODBSClientHandler<ODBSMessage> {
+
+		final AtomicInteger executed = new AtomicInteger();
+
+		Handler() {
+			super(new ODBS());
+		}
+
+		@Override
+		public long getTimeoutRequest() {
+			return 300;
+		}
+
+		@Override
+		public int getMaxRequests() {
+			return 2;
+		}
+
+		@Override
+		protected void execute(ODBSClient client, ODBSMessage message, int state) throws Exception {
+			executed.incrementAndGet();
+		}
+
+		@Override
+		public void beat(ODBSClient client) throws Exception {
+		}
+
+		@Override
+		public void error(ODBSClient chain, Throwable e) {
+		}
+	}
+
+	static Throwable cause(CompletableFuture<?> future) throws Exception {
+		try {
+			future.get(2, TimeUnit.SECONDS);
+			fail();
+			return null;
+		} catch (ExecutionException e) {
+			return e.getCause();
+		}
+	}
+
+	@Test
+	void testLatency() {
+		final ODBSLatency latency = new ODBSLatency();
+		assertEquals(latency.getPercentile(0.99), 0L);
+		for (int index = 1; index <= 100; index++) {
+			latency.record(index * 1000000L);
+		}
+		assertEquals(latency.getCount(), 100L);
+		assertEquals(latency.getMax(), 100000L);
+		assertEquals(latency.getMean(), 50500L);
+		// 区间上限误差不超过一倍
+		final long p50 = latency.getPercentile(0.5);
+		assertTrue(p50 >= 50000 && p50 <= 100000);
+		assertEquals(latency.getPercentile(1), 100000L);
+		assertEquals(ODBSLatency.bucket(0), 0);
+		assertEquals(ODBSLatency.bucket(1), 1);
+		assertEquals(ODBSLatency.bucket(1023), 10);
+		assertEquals(ODBSLatency.bucket(Long.MAX_VALUE), ODBSLatency.BUCKETS - 1);
+	}
+
+	@Test
+	void testDisconnected() throws Exception {
+		final Handler handler = new Handler();
+		final ODBSClient client = new ODBSClient(handler, "127.0.0.1", 19093);
+		final CompletableFuture<Message> future = client.request(new Message());
+		assertTrue(cause(future) instanceof IOException);
+		assertEquals(client.getInflight(), 0);
+	}
+
+	@Test
+	void testAbort() throws Exception {
+		Executor.initialize(2);
+		final Handler handler = new Handler();
+		try (ServerSocket server = new ServerSocket(19093)) {
+			final ODBSClient client = new ODBSClient(handler, "127.0.0.1", 19093);
+			client.connect();
+			try (Socket socket = server.accept()) {
+				while (!client.active()) {
+					Thread.sleep(10);
+				}
+				client.send(new Message());
+				final CompletableFuture<Message> f1 = client.request(new Message(), 5000);
+				final CompletableFuture<Message> f2 = client.request(new Message(), 5000);
+				final CompletableFuture<Message> f3 = client.request(new Message(), 5000);
+				assertEquals(client.getInflight(), 2);
+				assertEquals(client.getWaiting(), 1);
+
+				// 链路断开时排队的请求不再发送，全部失败
+				handler.fail(client, ODBSClientHandler.NETWORK);
+				assertTrue(cause(f1) instanceof IOException);
+				assertTrue(cause(f2) instanceof IOException);
+				assertTrue(cause(f3) instanceof IOException);
+				assertEquals(client.getInflight(), 0);
+				assertEquals(client.getWaiting(), 0);
+				assertTrue(client.receives().isEmpty());
+				assertEquals(handler.executed.get(), 1);
+
+				// 重新连接之前的请求立即失败
+				final Message m4 = new Message();
+				assertTrue(cause(client.request(m4, 5000)) instanceof IOException);
+				assertTrue(client.receives().isEmpty());
+				assertEquals(client.getInflight(), 0);
+			} finally {
+				client.close();
+			}
+		} finally {
+			Executor.shutdown();
+		}
+	}
+
+	@Test
+	void testRequest() throws Exception {
+		Executor.initialize(2);
+		final Handler handler = new Handler();
+		try (ServerSocket server = new ServerSocket(19093)) {
+			final ODBSClient client = new ODBSClient(handler, "127.0.0.1", 19093);
+			client.connect();
+			// 对端接收但从不响应
+			try (Socket socket = server.accept()) {
+				while (!client.active()) {
+					Thread.sleep(10);
+				}
+				final Message m1 = new Message(), m2 = new Message(), m3 = new Message();
+				final CompletableFuture<Message> f1 = client.request(m1);
+				final CompletableFuture<Message> f2 = client.request(m2);
+				final CompletableFuture<Message> f3 = client.request(m3);
+				// 后续阶段记录执行线程，检查之前不能访问请求的CompletableFuture
+				final CompletableFuture<String> t1 = f1.handle((m, e) -> Thread.currentThread().getName());
+				final CompletableFuture<String> t2 = f2.handle((m, e) -> Thread.currentThread().getName());
+				assertEquals(client.getInflight(), 2);
+				assertEquals(client.getWaiting(), 1);
+
+				// 模拟读取线程收到响应，排队的请求随即发送
+				final AtomicBoolean completed = new AtomicBoolean();
+				final Thread reader = new Thread(() -> completed.set(client.complete(m1)), "read");
+				reader.start();
+				reader.join();
+				assertTrue(completed.get());
+				// 后续阶段在业务线程池中执行
+				assertTrue(t1.get().startsWith("work-"), t1.get());
+				assertSame(f1.get(), m1);
+				assertEquals(client.getInflight(), 2);
+				assertEquals(client.getWaiting(), 0);
+				// 非请求消息由处理对象执行
+				assertFalse(client.complete(new Message()));
+
+				// 未响应的请求超时并移除标识
+				assertTrue(t2.get().startsWith("work-"), t2.get());
+				assertTrue(cause(f2) instanceof TimeoutException);
+				assertTrue(cause(f3) instanceof TimeoutException);
+				assertEquals(client.getInflight(), 0);
+				assertFalse(client.receives().contains(m2.tag()));
+				assertFalse(client.receives().contains(m3.tag()));
+
+				final ODBSLatency latency = client.getLatency(Message.class);
+				assertEquals(latency.getCount(), 1L);
+				assertEquals(latency.getTimeouts(), 2L);
+				assertEquals(handler.executed.get(), 0);
+			} finally {
+				client.close();
+			}
+		} finally {
+			Executor.shutdown();
+		}
+	}
+}
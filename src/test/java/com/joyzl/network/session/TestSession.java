@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.Executor;
+
+class TestSession {
+
+	@Test
+	void testExpire() throws Exception {
+		Executor.initialize(2);
+		try {
+			final Session<String> countdown = new SessionCountdown<>(300);
+			final Session<String> refreshable = new SessionRefreshable<>(300);
+			for (int index = 0; index < 100; index++) {
+				countdown.set(index, "VALUE");
+				refreshable.set(index, "VALUE");
+			}
+			assertEquals(countdown.size(), 100);
+
+			// 持续获取的值刷新过期时间
+			for (int index = 0; index < 25; index++) {
+				Thread.sleep(100);
+				assertEquals(refreshable.get(0), "VALUE");
+			}
+			// 过期的值由到期的时间桶移除，无须全量扫描
+			assertEquals(countdown.size(), 0);
+			assertEquals(refreshable.size(), 1);
+			assertEquals(countdown.getExpirations(), 100L);
+			assertEquals(refreshable.getExpirations(), 99L);
+			assertTrue(countdown.getSweepTime() > 0);
+
+			Thread.sleep(2500);
+			assertEquals(refreshable.size(), 0);
+
+			// 移除和替换的值在时间桶到期时丢弃
+			countdown.set("KEY", "VALUE");
+			countdown.set("KEY", "VALUE");
+			assertEquals(countdown.remove("KEY"), "VALUE");
+			assertEquals(countdown.size(), 0);
+			Thread.sleep(2500);
+			assertEquals(countdown.getExpirations(), 100L);
+		} finally {
+			Executor.shutdown();
+		}
+	}
+
+	@Test
+	void testRemove() throws Exception {
+		Executor.initialize(2);
+		try {
+			final Session<String> session = new SessionCountdown<>(1500);
+			session.set("KEY", "VALUE");
+			session.set("CLEAR", "VALUE");
+			assertEquals(session.remove("KEY"), "VALUE");
+			session.clear();
+			assertEquals(session.size(), 0);
+			assertTrue(session.buckets() > 0);
+			// 时间桶到期之前无值，清理任务仍应保持直至时间桶清空
+			Thread.sleep(3500);
+			assertEquals(session.buckets(), 0);
+			assertEquals(session.getExpirations(), 0L);
+		} finally {
+			Executor.shutdown();
+		}
+	}
+
+	@Test
+	void testPerformance() {
+		final Session<String> session = new SessionCountdown<>(1000);
+		final int count = 200000;
+		long time = System.currentTimeMillis();
+		for (int index = 0; index < count; index++) {
+			session.set(index, "VALUE");
+		}
+		for (int index = 0; index < count; index++) {
+			session.get(index);
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("会话:" + count + " 设置获取耗时:" + time + "ms");
+
+		// 到期之前清理不检查任何值
+		final long now = System.currentTimeMillis();
+		session.sweep(now - 2000);
+		assertEquals(session.size(), count);
+		time = System.currentTimeMillis();
+		session.sweep(now + 3000);
+		time = System.currentTimeMillis() - time;
+		System.out.println("会话:" + count + " 清理耗时:" + time + "ms " + session.getSweepTime() / 1000 + "us");
+		assertEquals(session.size(), 0);
+		assertEquals(session.getExpirations(), (long) count);
+	}
+}
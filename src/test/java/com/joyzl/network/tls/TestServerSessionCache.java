@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.tls;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TestServerSessionCache {
+
+	static byte[] id(int value) {
+		final byte[] id = new byte[32];
+		id[0] = (byte) (value >>> 24);
+		id[1] = (byte) (value >>> 16);
+		id[2] = (byte) (value >>> 8);
+		id[3] = (byte) value;
+		return id;
+	}
+
+	@Test
+	void testCache() throws Exception {
+		ServerSessionCache.clear();
+		final long hits = ServerSessionCache.getHits();
+		final long misses = ServerSessionCache.getMisses();
+
+		final byte[] master = new byte[48];
+		TLS.RANDOM.nextBytes(master);
+		final short suite = CipherSuiteType.TLS_RSA_WITH_AES_128_CBC_SHA256.code();
+		ServerSessionCache.put(id(1), master, suite, true);
+
+		final ServerSessionCache.Entry entry = ServerSessionCache.get(id(1));
+		assertNotNull(entry);
+		assertArrayEquals(entry.master, master);
+		assertEquals(entry.suite, suite);
+		assertTrue(entry.extendedMasterSecret);
+		assertNull(ServerSessionCache.get(id(2)));
+
+		assertEquals(ServerSessionCache.getHits() - hits, 1L);
+		assertEquals(ServerSessionCache.getMisses() - misses, 1L);
+		assertTrue(ServerSessionCache.getHitRate() > 0);
+
+		ServerSessionCache.remove(id(1));
+		assertNull(ServerSessionCache.get(id(1)));
+		ServerSessionCache.clear();
+	}
+
+	@Test
+	void testEviction() throws Exception {
+		final int capacity = ServerSessionCache.getCapacity();
+		ServerSessionCache.clear();
+		try {
+			ServerSessionCache.setCapacity(4);
+			final byte[] master = new byte[48];
+			for (int index = 0; index < 4; index++) {
+				ServerSessionCache.put(id(index), master, (short) 0x003C, false);
+			}
+			// 访问后 0 最近使用，淘汰 1
+			assertNotNull(ServerSessionCache.get(id(0)));
+			final long evictions = ServerSessionCache.getEvictions();
+			ServerSessionCache.put(id(4), master, (short) 0x003C, false);
+			assertEquals(ServerSessionCache.size(), 4);
+			assertEquals(ServerSessionCache.getEvictions() - evictions, 1L);
+			assertNotNull(ServerSessionCache.get(id(0)));
+			assertNull(ServerSessionCache.get(id(1)));
+			assertNotNull(ServerSessionCache.get(id(4)));
+
+			// 缩小容量立即淘汰
+			ServerSessionCache.setCapacity(2);
+			assertEquals(ServerSessionCache.size(), 2);
+			assertNotNull(ServerSessionCache.get(id(4)));
+			assertNull(ServerSessionCache.get(id(2)));
+		} finally {
+			ServerSessionCache.setCapacity(capacity);
+			ServerSessionCache.clear();
+		}
+	}
+
+	@Test
+	void testExpire() throws Exception {
+		final int lifetime = ServerSessionCache.getLifetime();
+		ServerSessionCache.clear();
+		try {
+			ServerSessionCache.setLifetime(1);
+			ServerSessionCache.put(id(1), new byte[48], (short) 0x003C, false);
+			ServerSessionCache.put(id(2), new byte[48], (short) 0x003C, false);
+			assertNotNull(ServerSessionCache.get(id(1)));
+			Thread.sleep(1100);
+			assertNull(ServerSessionCache.get(id(1)));
+			ServerSessionCache.expire();
+			assertEquals(ServerSessionCache.size(), 0);
+		} finally {
+			ServerSessionCache.setLifetime(lifetime);
+			ServerSessionCache.clear();
+		}
+	}
+
+	@Test
+	void testClientLimit() {
+		final String sni = "limit.joyzl.com";
+		for (int index = 0; index < ClientSessionTickets.getLimit() * 2; index++) {
+			ClientSessionTickets.put(sni, new NewSessionTicket2());
+		}
+		assertEquals(ClientSessionTickets.size(sni), ClientSessionTickets.getLimit());
+		assertFalse(ClientSessionTickets.size("none.joyzl.com") > 0);
+	}
+
+	@Test
+	void testPerformance() {
+		ServerSessionCache.clear();
+		final byte[] master = new byte[48];
+		final int size = 100000;
+		long time = System.currentTimeMillis();
+		for (int index = 0; index < size; index++) {
+			ServerSessionCache.put(id(index), master, (short) 0x003C, false);
+		}
+		for (int index = 0; index < size; index++) {
+			ServerSessionCache.get(id(index));
+		}
+		time = System.currentTimeMillis() - time;
+		System.out.println("会话缓存:" + size + " 耗时:" + time + "ms 命中率:" + ServerSessionCache.getHitRate() + " 淘汰:" + ServerSessionCache.getEvictions());
+		assertEquals(ServerSessionCache.size(), ServerSessionCache.getCapacity());
+		ServerSessionCache.clear();
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.tls;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.tls.PreSharedKey.PskIdentity;
+
+public class TestServerSessionTickets {
+
+	static NewSessionTicket2 make() throws Exception {
+		final NewSessionTicket2 ticket = ServerSessionTickets.make((byte) 1);
+		ticket.setResumption(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		ticket.setSuite(CipherSuite.TLS_AES_128_GCM_SHA256);
+		ticket.setGroup(NamedGroup.X25519);
+		ServerSessionTickets.seal(ticket);
+		return ticket;
+	}
+
+	@Test
+	void testSeal() throws Exception {
+		final NewSessionTicket2 ticket = make();
+		final NewSessionTicket2 value = ServerSessionTickets.get(new PskIdentity(ticket.getAgeAdd(), ticket.getTicket()));
+		assertNotNull(value);
+		assertEquals(value.getSuite(), ticket.getSuite());
+		assertEquals(value.getGroup(), ticket.getGroup());
+		assertEquals(value.getAgeAdd(), ticket.getAgeAdd());
+		assertEquals(value.getLifetime(), ticket.getLifetime());
+		assertEquals(value.timestamp(), ticket.timestamp());
+		assertArrayEquals(value.getNonce(), ticket.getNonce());
+		assertArrayEquals(value.getResumption(), ticket.getResumption());
+		assertTrue(value.valid());
+
+		// 篡改
+		final byte[] tampered = ticket.getTicket().clone();
+		tampered[tampered.length - 1] ^= 1;
+		assertNull(ServerSessionTickets.get(new PskIdentity(0, tampered)));
+		assertNull(ServerSessionTickets.get(new PskIdentity(0, new byte[16])));
+	}
+
+	@Test
+	void testSecret() throws Exception {
+		ServerSessionTickets.setSecret("shared secret of cluster".getBytes());
+		final NewSessionTicket2 ticket = make();
+		// 相同主密钥的进程可解密
+		ServerSessionTickets.setSecret("shared secret of cluster".getBytes());
+		assertNotNull(ServerSessionTickets.get(new PskIdentity(0, ticket.getTicket())));
+		// 更换主密钥后失效
+		ServerSessionTickets.setSecret("another secret of cluster".getBytes());
+		assertNull(ServerSessionTickets.get(new PskIdentity(0, ticket.getTicket())));
+	}
+
+	@Test
+	void testEarly() throws Exception {
+		final NewSessionTicket2 ticket = make();
+		final PskIdentity identity = new PskIdentity(ticket.obfuscatedAgeAdd(), ticket.getTicket());
+		assertTrue(ServerSessionTickets.early(identity, ticket));
+		// 重放
+		assertFalse(ServerSessionTickets.early(identity, ticket));
+
+		// 票据年龄超出窗口
+		final NewSessionTicket2 other = make();
+		final PskIdentity stale = new PskIdentity(other.getAgeAdd() + ServerSessionTickets.getWindow() * 2, other.getTicket());
+		assertFalse(ServerSessionTickets.early(stale, other));
+	}
+}
@@ -6,6 +6,12 @@ package com.joyzl.network.verifies;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -421,4 +427,124 @@ class TestVerifies {
 		}
 		assertEquals(buffer.getVerifier().value(), 0x80);
 	}
-}
\ No newline at end of file
+
+	@SuppressWarnings("unchecked")
+	final static Supplier<Verifier>[] VERIFIERS = new Supplier[] { //
+			CRC4_ITU::new, CRC5_EPC::new, CRC5_ITU::new, CRC5_USB::new, CRC6_ITU::new, CRC7_MMC::new, //
+			CRC8::new, CRC8_ITU::new, CRC8_MAXIM::new, CRC8_ROHC::new, //
+			CRC16_CCITT::new, CRC16_CCITT_FALSE::new, CRC16_DNP::new, CRC16_IBM::new, CRC16_LSB::new, //
+			CRC16_MAXIM::new, CRC16_MODBUS::new, CRC16_USB::new, CRC16_X25::new, CRC16_XMODEM::new, //
+			CRC32::new, CRC32_MPEG_2::new, MD5::new, SHA1::new, BCC::new, LRC::new, CS::new };
+
+	/** 摘要算法无整数结果 */
+	static String result(Verifier verifier) {
+		if (verifier instanceof MD5) {
+			return Arrays.toString(((MD5) verifier).getBytes());
+		}
+		if (verifier instanceof SHA1) {
+			return Arrays.toString(((SHA1) verifier).getBytes());
+		}
+		return Integer.toHexString(verifier.value());
+	}
+
+	@Test
+	void testBulk() throws Exception {
+		final Random random = new Random(2025);
+		final byte[] data = new byte[1024];
+		random.nextBytes(data);
+
+		Verifier a, b;
+		String value;
+		int offset, length;
+		for (Supplier<Verifier> supplier : VERIFIERS) {
+			for (int index = 0; index < 100; index++) {
+				offset = random.nextInt(32);
+				length = random.nextInt(data.length - offset);
+
+				// 逐字节
+				a = supplier.get();
+				for (int i = offset; i < offset + length; i++) {
+					a.check(data[i]);
+				}
+				value = result(a);
+
+				// 字节数组
+				b = supplier.get();
+				b.check(data, offset, length);
+				assertEquals(result(b), value, a.getClass().getSimpleName());
+
+				// 堆和直接缓存，大端和小端字节序
+				for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(data.length), ByteBuffer.allocateDirect(data.length) }) {
+					for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+						buffer.clear();
+						buffer.put(data).order(order);
+						buffer.limit(offset + length).position(offset);
+						b = supplier.get();
+						b.check(buffer);
+						assertEquals(buffer.position(), offset + length);
+						assertEquals(result(b), value, a.getClass().getSimpleName());
+					}
+				}
+			}
+		}
+
+		// 跨越多个缓存单元
+		final DataBuffer buffer = DataBuffer.instance();
+		try {
+			buffer.write(data);
+			buffer.write(data);
+			buffer.readByte();
+			for (Supplier<Verifier> supplier : VERIFIERS) {
+				a = supplier.get();
+				for (int index = 0; index < buffer.readable(); index++) {
+					a.check(buffer.get(index));
+				}
+				value = result(a);
+				b = supplier.get();
+				buffer.verify(b);
+				assertEquals(result(b), value, a.getClass().getSimpleName());
+			}
+			assertEquals(buffer.readable(), data.length * 2 - 1);
+		} finally {
+			buffer.release();
+		}
+	}
+
+	@Test
+	void testPerformance() {
+		final byte[] data = new byte[1024 * 64];
+		new Random().nextBytes(data);
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+		buffer.put(data).flip();
+
+		Verifier verifier;
+		long time;
+		// 首轮预热
+		for (int round = 0; round < 2; round++) {
+			for (Supplier<Verifier> supplier : VERIFIERS) {
+				verifier = supplier.get();
+				time = System.currentTimeMillis();
+				for (int index = 0; index < 100; index++) {
+					for (int i = 0; i < data.length; i++) {
+						verifier.check(data[i]);
+					}
+				}
+				time = System.currentTimeMillis() - time;
+				if (round > 0) {
+					System.out.print(verifier.getClass().getSimpleName() + " BYTE:" + time + "ms");
+				}
+
+				verifier = supplier.get();
+				time = System.currentTimeMillis();
+				for (int index = 0; index < 100; index++) {
+					buffer.rewind();
+					verifier.check(buffer);
+				}
+				time = System.currentTimeMillis() - time;
+				if (round > 0) {
+					System.out.println(" BULK:" + time + "ms");
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.http.AcceptEncoding;
+
+public class TestFileCompressor {
+
+	static File create(File root, String name, String text) throws Exception {
+		final File file = new File(root, name);
+		try (FileOutputStream output = new FileOutputStream(file)) {
+			output.write(text.getBytes());
+		}
+		file.deleteOnExit();
+		return file;
+	}
+
+	@Test
+	void testSelect() {
+		assertEquals(FileCompressor.select(null, true, true, true, true), AcceptEncoding.IDENTITY);
+		assertEquals(FileCompressor.select(AcceptEncoding.parse("gzip, deflate, br, zstd"), true, true, true, true), AcceptEncoding.GZIP);
+		assertEquals(FileCompressor.select(AcceptEncoding.parse("gzip;q=0.5, br"), true, true, true, true), AcceptEncoding.BR);
+		assertEquals(FileCompressor.select(AcceptEncoding.parse("gzip;q=0.5, br"), false, true, true, true), AcceptEncoding.GZIP);
+		assertEquals(FileCompressor.select(AcceptEncoding.parse("gzip;q=0, deflate"), false, false, true, false), AcceptEncoding.IDENTITY);
+		assertEquals(FileCompressor.select(AcceptEncoding.parse("zstd"), false, true, false, false), AcceptEncoding.ZSTD);
+	}
+
+	@Test
+	void testSidecar() throws Exception {
+		final File root = Files.createTempDirectory("sidecar").toFile();
+		root.deleteOnExit();
+		final File file = create(root, "app.js", "x".repeat(4096));
+		final File br = create(root, "app.js.br", "BROTLI");
+		assertTrue(br.setLastModified(file.lastModified() + 1000));
+		assertEquals(FileCompressor.original(br), file);
+		assertNull(FileCompressor.original(file));
+
+		final File cache = Files.createTempDirectory("compressed").toFile();
+		cache.deleteOnExit();
+		final FileResourceServlet servlet = new FileResourceServlet(null, root, cache);
+		final WEBResource resource = servlet.find("/app.js");
+		assertTrue(resource instanceof FileCompressResource);
+		assertEquals(resource.fitEncoding(AcceptEncoding.parse("br")), AcceptEncoding.BR);
+		assertEquals(resource.getLength(AcceptEncoding.BR), 6);
+		try (InputStream input = resource.getData(AcceptEncoding.BR)) {
+			assertEquals(new String(input.readAllBytes()), "BROTLI");
+		}
+
+		// 执行器未初始化时直接生成
+		assertEquals(resource.fitEncoding(AcceptEncoding.parse("gzip")), AcceptEncoding.GZIP);
+		assertTrue(resource.getLength(AcceptEncoding.GZIP) < 4096);
+		// gzip 和 deflate
+		assertEquals(cache.list().length, 2);
+		// 清空缓存时删除生成的压缩文件
+		servlet.clearCache();
+		assertEquals(cache.list().length, 0);
+
+		// 早于原文件的相邻文件忽略
+		assertTrue(br.setLastModified(file.lastModified() - 10000));
+		assertNull(FileCompressor.sidecar(file, FileCompressor.BR));
+	}
+
+	@Test
+	void testCacheCompress() throws Exception {
+		final File root = Files.createTempDirectory("compress").toFile();
+		root.deleteOnExit();
+		create(root, "main.css", "body{margin:0}".repeat(200));
+
+		final FileResourceServlet servlet = new FileResourceServlet(root);
+		final WEBResource resource = servlet.find("/main.css");
+		assertTrue(resource instanceof FileCacheCompressResource);
+		assertEquals(resource.fitEncoding(AcceptEncoding.parse("br, deflate")), AcceptEncoding.DEFLATE);
+		assertEquals(resource.fitEncoding(AcceptEncoding.parse("identity")), AcceptEncoding.IDENTITY);
+		assertTrue(resource.getLength(AcceptEncoding.DEFLATE) < 2800);
+	}
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright © 2017-2025 重庆骄智科技有限公司.
+ * 本软件根据 Apache License 2.0 开源，详见 LICENSE 文件。
+ */
+package com.joyzl.network.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+import com.joyzl.network.http.Range;
+
+public class TestFileResourceCache {
+
+	static File create(File root, String name, int size) throws IOException {
+		final File file = new File(root, name);
+		try (FileOutputStream output = new FileOutputStream(file)) {
+			output.write(new byte[size]);
+		}
+		file.deleteOnExit();
+		return file;
+	}
+
+	@Test
+	void testEvict() throws Exception {
+		final File root = Files.createTempDirectory("cache").toFile();
+		root.deleteOnExit();
+		for (int index = 0; index < 10; index++) {
+			create(root, index + ".png", 100);
+		}
+
+		final FileResourceServlet servlet = new FileResourceServlet(root);
+		servlet.setCacheCapacity((100 + FileResourceCache.ENTRY) * 4);
+		for (int index = 0; index < 10; index++) {
+			assertTrue(servlet.find("/" + index + ".png") instanceof FileCacheResource);
+		}
+		assertEquals(servlet.getCacheMisses(), 10);
+		assertEquals(servlet.getCacheEvictions(), 6);
+		assertTrue(servlet.getCacheSize() <= servlet.getCacheCapacity());
+
+		// 最近访问的保留
+		final WEBResource resource = servlet.find("/9.png");
+		assertSame(resource, servlet.find("/9.png"));
+		assertEquals(servlet.getCacheHits(), 2);
+		servlet.find("/6.png");
+		servlet.find("/0.png");
+		assertSame(resource, servlet.find("/9.png"));
+
+		// 超过容量1/8的文件不缓存内容
+		create(root, "large.png", 5000);
+		assertTrue(servlet.find("/large.png").getClass() == FileResource.class);
+
+		servlet.clearCache();
+		assertEquals(servlet.getCacheSize(), 0);
+	}
+
+	@Test
+	void testRelease() throws Exception {
+		final File root = Files.createTempDirectory("cache").toFile();
+		root.deleteOnExit();
+		final File cache = Files.createTempDirectory("compress").toFile();
+		cache.deleteOnExit();
+		final File file = create(root, "app.js", 4096);
+		final FileResourceCache resources = new FileResourceCache(FileResourceCache.ENTRY * 2);
+
+		// 同一资源以两个键缓存，均移除后删除生成的压缩文件
+		final FileCompressResource resource = new FileCompressResource("/app.js", file, cache, true);
+		resources.put("/app.js", resource, FileResourceCache.ENTRY);
+		resources.put("/", resource, FileResourceCache.ENTRY);
+		final File gzip = resource.gzip();
+		final File deflate = resource.deflate();
+		resources.remove("/");
+		assertTrue(gzip.exists());
+		assertTrue(deflate.exists());
+		assertEquals(resources.remove(file).size(), 1);
+		assertFalse(gzip.exists());
+		assertFalse(deflate.exists());
+
+		// 淘汰的资源删除生成的压缩文件，仍在使用时重新生成
+		final FileCompressResource other = new FileCompressResource("/app.js", file, cache, true);
+		resources.put("/app.js", other, FileResourceCache.ENTRY);
+		final File evicted = other.gzip();
+		resources.put("/a.png", new FileResource("/a.png", file, true), FileResourceCache.ENTRY);
+		resources.put("/b.png", new FileResource("/b.png", file, true), FileResourceCache.ENTRY);
+		assertEquals(resources.count(), 2);
+		assertFalse(evicted.exists());
+		final File again = other.gzip();
+		assertTrue(again.exists());
+		assertTrue(again.delete());
+
+		// 清空缓存
+		final FileCompressResource last = new FileCompressResource("/app.js", file, cache, true);
+		resources.put("/app.js", last, FileResourceCache.ENTRY);
+		last.deflate();
+		resources.clear();
+		assertEquals(cache.list().length, 0);
+	}
+
+	@Test
+	void testInvalidate() throws Exception {
+		final File root = Files.createTempDirectory("cache").toFile();
+		root.deleteOnExit();
+		final File file = create(root, "index.html", 100);
+
+		final FileResourceServlet servlet = new FileResourceServlet(root);
+		final WEBResource resource = servlet.find("/index.html");
+		assertNotNull(resource);
+		assertSame(resource, servlet.find("/"));
+		assertSame(resource, servlet.find("/index.html"));
+
+		// 文件修改
+		assertTrue(file.setLastModified(file.lastModified() - 10000));
+		final WEBResource modified = servlet.find("/index.html");
+		assertNotNull(modified);
+		assertTrue(resource != modified);
+		assertEquals(servlet.getCacheInvalidations(), 1);
+		assertTrue(servlet.find("/") != resource);
+
+		// 文件删除
+		assertTrue(file.delete());
+		assertNull(servlet.find("/index.html"));
+	}
+
+	@Test
+	void testWatch() throws Exception {
+		final File root = Files.createTempDirectory("cache").toFile();
+		root.deleteOnExit();
+		final File file = create(root, "main.css", 100);
+
+		final FileResourceServlet servlet = new FileResourceServlet(root);
+		servlet.watch();
+		try {
+			final WEBResource resource = servlet.find("/main.css");
+			final String etag = resource.getETag();
+
+			// 文件更新后资源重建
+			create(root, "main.css", 200);
+			assertTrue(file.setLastModified(file.lastModified() + 10000));
+			int count = 0;
+			for (int index = 0; index < 50 && count == 0; index++) {
+				Thread.sleep(100);
+				count = servlet.changes();
+			}
+			assertTrue(count > 0);
+			final WEBResource modified = servlet.find("/main.css");
+			assertTrue(modified != resource);
+			assertTrue(!etag.equals(modified.getETag()));
+			assertEquals(modified.getLength(null), 200);
+		} finally {
+			servlet.unwatch();
+		}
+	}
+
+	@Test
+	void testPrewarm() throws Exception {
+		final File root = Files.createTempDirectory("cache").toFile();
+		root.deleteOnExit();
+		for (int index = 0; index < 10; index++) {
+			create(root, index + ".js", 2000);
+		}
+		create(root, "data.bin", 2000);
+
+		final FileResourceServlet servlet = new FileResourceServlet(root);
+		assertEquals(servlet.prewarm(), 10);
+		final WEBResource resource = servlet.find("/5.js");
+		assertTrue(resource instanceof FileCacheCompressResource);
+		assertEquals(servlet.getCacheHits(), 1);
+
+		// 预热不超过容量
+		final FileResourceServlet limited = new FileResourceServlet(root);
+		limited.setCacheCapacity((2000 * 2 + FileResourceCache.ENTRY) * 8);
+		assertEquals(limited.prewarm(), 8);
+	}
+
+	@Test
+	void testConcurrentLoad() throws Exception {
+		final File root = Files.createTempDirectory("cache").toFile();
+		root.deleteOnExit();
+		final File file = new File(root, "data.bin");
+		final byte[] bytes = new byte[1024 * 1024 + 7];
+		for (int index = 0; index < bytes.length; index++) {
+			bytes[index] = (byte) (index * 31 + 1);
+		}
+		try (FileOutputStream output = new FileOutputStream(file)) {
+			output.write(bytes);
+		}
+		file.deleteOnExit();
+
+		// 多个线程同时加载，任何线程获得的缓存均已完全填充
+		final FileCacheResource resource = new FileCacheResource("/data.bin", file, false);
+		final ByteBuffer[] buffers = new ByteBuffer[8];
+		final Thread[] threads = new Thread[buffers.length];
+		for (int index = 0; index < threads.length; index++) {
+			final int i = index;
+			threads[index] = new Thread(() -> {
+				try {
+					buffers[i] = resource.identity();
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			});
+			threads[index].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		for (ByteBuffer buffer : buffers) {
+			assertSame(buffer, buffers[0]);
+			assertEquals(buffer.position(), 0);
+			assertEquals(buffer.limit(), bytes.length);
+		}
+		for (int index = 0; index < bytes.length; index++) {
+			assertEquals(buffers[0].get(index), bytes[index]);
+		}
+	}
+
+	@Test
+	void testMapped() throws Exception {
+		final File root = Files.createTempDirectory("mapped").toFile();
+		root.deleteOnExit();
+		final File file = new File(root, "video.mp4");
+		file.deleteOnExit();
+		final byte[] data = new byte[FileResourceServlet.MAX + 1000];
+		for (int index = 0; index < data.length; index++) {
+			data[index] = (byte) (index * 31);
+		}
+		Files.write(file.toPath(), data);
+
+		final FileResourceServlet servlet = new FileResourceServlet(root);
+		final WEBResource resource = servlet.find("/video.mp4");
+		assertTrue(resource instanceof FileMappedResource);
+		assertSame(resource, servlet.find("/video.mp4"));
+
+		// 部分内容为共享映射的切片
+		final Range.ByteRange range = new Range.ByteRange(FileResourceServlet.MAX - 10, FileResourceServlet.MAX + 9);
+		try (InputStream input = resource.getData(null, range)) {
+			final byte[] part = input.readAllBytes();
+			assertEquals(part.length, 20);
+			for (int index = 0; index < part.length; index++) {
+				assertEquals(part[index], data[FileResourceServlet.MAX - 10 + index]);
+			}
+		}
+		try (InputStream input = resource.getData(null)) {
+			assertEquals(input.available(), data.length);
+		}
+
+		servlet.setMapped(false);
+		servlet.clearCache();
+		assertTrue(servlet.find("/video.mp4").getClass() == FileResource.class);
+	}
+}